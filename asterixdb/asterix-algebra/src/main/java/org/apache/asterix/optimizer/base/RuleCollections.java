@@ -59,6 +59,7 @@ import org.apache.asterix.optimizer.rules.MetaFunctionToMetaVariableRule;
 import org.apache.asterix.optimizer.rules.NestGroupByRule;
 import org.apache.asterix.optimizer.rules.PushAggFuncIntoStandaloneAggregateRule;
 import org.apache.asterix.optimizer.rules.PushAggregateIntoNestedSubplanRule;
+import org.apache.asterix.optimizer.rules.PushFieldAccessAndFilterToExternalScanRule;
 import org.apache.asterix.optimizer.rules.PushFieldAccessRule;
 import org.apache.asterix.optimizer.rules.PushGroupByThroughProduct;
 import org.apache.asterix.optimizer.rules.PushLimitIntoOrderByRule;
@@ -123,6 +124,7 @@ import org.apache.hyracks.algebricks.rewriter.rules.RemoveRedundantVariablesRule
 import org.apache.hyracks.algebricks.rewriter.rules.RemoveUnnecessarySortMergeExchange;
 import org.apache.hyracks.algebricks.rewriter.rules.RemoveUnusedAssignAndAggregateRule;
 import org.apache.hyracks.algebricks.rewriter.rules.SetAlgebricksPhysicalOperatorsRule;
+import org.apache.hyracks.algebricks.rewriter.rules.SetExchangeFrameCompressionRule;
 import org.apache.hyracks.algebricks.rewriter.rules.SetExecutionModeRule;
 import org.apache.hyracks.algebricks.rewriter.rules.SimpleUnnestToProductRule;
 import org.apache.hyracks.algebricks.rewriter.rules.SwitchInnerJoinBranchRule;
@@ -310,6 +312,8 @@ public final class RuleCollections {
         // some rules can push a FieldAccessByName to a place where the name it tries to access is in the closed part.
         // For example, a possible scenario is that a field-access-by-name can be pushed down through UnionAllOperator.
         planCleanupRules.add(new ByNameToByIndexFieldAccessRule());
+        // Needs to see the field accesses and selections in their final places.
+        planCleanupRules.add(new PushFieldAccessAndFilterToExternalScanRule());
         return planCleanupRules;
     }
 
@@ -368,6 +372,7 @@ public final class RuleCollections {
         prepareForJobGenRewrites.add(new ReinferAllTypesRule());
         prepareForJobGenRewrites.add(new PushGroupByIntoSortRule());
         prepareForJobGenRewrites.add(new SetExecutionModeRule());
+        prepareForJobGenRewrites.add(new SetExchangeFrameCompressionRule());
         prepareForJobGenRewrites.add(new SweepIllegalNonfunctionalFunctions());
         return prepareForJobGenRewrites;
     }
@@ -0,0 +1,436 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.ParquetUtils;
+import org.apache.asterix.metadata.declared.DatasetDataSource;
+import org.apache.asterix.metadata.entities.Dataset;
+import org.apache.asterix.metadata.entities.ExternalDatasetDetails;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AFloat;
+import org.apache.asterix.om.base.AInt16;
+import org.apache.asterix.om.base.AInt32;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AInt8;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.ConstantExpressionUtil;
+import org.apache.asterix.om.utils.NonTaggedFormatUtil;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.AlgebricksBuiltinFunctions;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractOperatorWithNestedPlans;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Tells the scans of external datasets in the Parquet format which top-level fields the query reads and which
+ * numeric comparisons on top-level fields its selections start with, so that the readers can skip the other
+ * columns and the row groups whose statistics rule out every record. The plan itself is left untouched: the
+ * selections are still evaluated, so a reader is free to ignore the pushed filter.
+ * This rule needs to see whole plans and therefore only acts on their roots after every other rule of its
+ * collection has been applied.
+ */
+public class PushFieldAccessAndFilterToExternalScanRule implements IAlgebraicRewriteRule {
+
+    private static final Map<FunctionIdentifier, String> COMPARISONS = new HashMap<>();
+    private static final Map<FunctionIdentifier, FunctionIdentifier> FLIPPED_COMPARISONS = new HashMap<>();
+
+    static {
+        COMPARISONS.put(AlgebricksBuiltinFunctions.EQ, "=");
+        COMPARISONS.put(AlgebricksBuiltinFunctions.LT, "<");
+        COMPARISONS.put(AlgebricksBuiltinFunctions.LE, "<=");
+        COMPARISONS.put(AlgebricksBuiltinFunctions.GT, ">");
+        COMPARISONS.put(AlgebricksBuiltinFunctions.GE, ">=");
+        FLIPPED_COMPARISONS.put(AlgebricksBuiltinFunctions.EQ, AlgebricksBuiltinFunctions.EQ);
+        FLIPPED_COMPARISONS.put(AlgebricksBuiltinFunctions.LT, AlgebricksBuiltinFunctions.GT);
+        FLIPPED_COMPARISONS.put(AlgebricksBuiltinFunctions.LE, AlgebricksBuiltinFunctions.GE);
+        FLIPPED_COMPARISONS.put(AlgebricksBuiltinFunctions.GT, AlgebricksBuiltinFunctions.LT);
+        FLIPPED_COMPARISONS.put(AlgebricksBuiltinFunctions.GE, AlgebricksBuiltinFunctions.LE);
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        ILogicalOperator op = opRef.getValue();
+        // roots are visited after the operators below them, so the analysis of the whole plan is the one that sticks
+        if (!isRoot(op)) {
+            return false;
+        }
+        List<ILogicalOperator> ops = new ArrayList<>();
+        collectOperators(op, ops, Collections.newSetFromMap(new IdentityHashMap<>()));
+        Map<DatasetDataSource, DataSourceScanOperator> scans = new IdentityHashMap<>();
+        Set<DatasetDataSource> sharedDataSources = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ILogicalOperator candidate : ops) {
+            DatasetDataSource dataSource = getParquetDataSource(candidate);
+            if (dataSource != null && scans.put(dataSource, (DataSourceScanOperator) candidate) != null) {
+                sharedDataSources.add(dataSource);
+            }
+        }
+        for (Map.Entry<DatasetDataSource, DataSourceScanOperator> entry : scans.entrySet()) {
+            DatasetDataSource dataSource = entry.getKey();
+            // the properties belong to the data source, so a data source that is scanned twice gets neither of them
+            boolean shared = sharedDataSources.contains(dataSource);
+            setProperty(dataSource, ExternalDataConstants.KEY_REQUESTED_FIELDS,
+                    shared ? null : getRequestedFields(dataSource, entry.getValue(), ops));
+            setProperty(dataSource, ExternalDataConstants.KEY_PUSHED_FILTER,
+                    shared ? null : getPushedFilter(dataSource, entry.getValue(), ops));
+        }
+        return false;
+    }
+
+    private static boolean isRoot(ILogicalOperator op) {
+        switch (op.getOperatorTag()) {
+            case DISTRIBUTE_RESULT:
+            case SINK:
+            case DELEGATE_OPERATOR:
+            case WRITE:
+            case WRITE_RESULT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void collectOperators(ILogicalOperator op, List<ILogicalOperator> ops,
+            Set<ILogicalOperator> visited) {
+        if (!visited.add(op)) {
+            return;
+        }
+        ops.add(op);
+        for (Mutable<ILogicalOperator> input : op.getInputs()) {
+            collectOperators(input.getValue(), ops, visited);
+        }
+        if (op instanceof AbstractOperatorWithNestedPlans) {
+            for (ILogicalPlan plan : ((AbstractOperatorWithNestedPlans) op).getNestedPlans()) {
+                for (Mutable<ILogicalOperator> root : plan.getRoots()) {
+                    collectOperators(root.getValue(), ops, visited);
+                }
+            }
+        }
+    }
+
+    private static DatasetDataSource getParquetDataSource(ILogicalOperator op) {
+        if (op.getOperatorTag() != LogicalOperatorTag.DATASOURCESCAN) {
+            return null;
+        }
+        Object dataSource = ((DataSourceScanOperator) op).getDataSource();
+        if (!(dataSource instanceof DatasetDataSource)) {
+            return null;
+        }
+        Dataset dataset = ((DatasetDataSource) dataSource).getDataset();
+        if (dataset.getDatasetType() != DatasetType.EXTERNAL) {
+            return null;
+        }
+        String format = ((ExternalDatasetDetails) dataset.getDatasetDetails()).getProperties()
+                .get(ExternalDataConstants.KEY_FORMAT);
+        return ExternalDataConstants.FORMAT_PARQUET.equals(format) ? (DatasetDataSource) dataSource : null;
+    }
+
+    private static void setProperty(DatasetDataSource dataSource, String key, String value) {
+        if (value == null) {
+            dataSource.getProperties().remove(key);
+        } else {
+            dataSource.getProperties().put(key, value);
+        }
+    }
+
+    /**
+     * @return the top-level fields that are read from the records of a scan, or null if whole records are needed
+     */
+    private static String getRequestedFields(DatasetDataSource dataSource, DataSourceScanOperator scan,
+            List<ILogicalOperator> ops) throws AlgebricksException {
+        ARecordType recordType = getRecordType(dataSource);
+        if (recordType == null) {
+            return null;
+        }
+        LogicalVariable recordVar = getRecordVariable(scan);
+        Set<String> fields = new LinkedHashSet<>();
+        // records can only be built when their closed required fields are there
+        String[] fieldNames = recordType.getFieldNames();
+        IAType[] fieldTypes = recordType.getFieldTypes();
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (!NonTaggedFormatUtil.isOptional(fieldTypes[i])) {
+                fields.add(fieldNames[i]);
+            }
+        }
+        List<LogicalVariable> usedVars = new ArrayList<>();
+        for (ILogicalOperator op : ops) {
+            usedVars.clear();
+            if (op instanceof AbstractOperatorWithNestedPlans) {
+                // the operators of the nested plans are looked at on their own
+                ((AbstractOperatorWithNestedPlans) op).getUsedVariablesExceptNestedPlans(usedVars);
+            } else {
+                VariableUtilities.getUsedVariables(op, usedVars);
+            }
+            if (!usedVars.contains(recordVar)) {
+                continue;
+            }
+            if (op.getOperatorTag() == LogicalOperatorTag.PROJECT) {
+                continue;
+            }
+            FieldCollector collector = new FieldCollector(recordVar, recordType);
+            op.acceptExpressionTransform(exprRef -> {
+                collector.collect(exprRef.getValue());
+                return false;
+            });
+            if (!collector.complete || collector.fields.isEmpty()) {
+                // the whole record is used, or the record is used in a way that is not visible to the expressions
+                return null;
+            }
+            fields.addAll(collector.fields);
+        }
+        for (String field : fields) {
+            if (field.contains(ParquetUtils.FIELD_SEPARATOR)) {
+                return null;
+            }
+        }
+        return String.join(ParquetUtils.FIELD_SEPARATOR, fields);
+    }
+
+    /**
+     * @return the numeric comparisons of top-level fields with constants that the selections right above a scan
+     *         start with, or null if there are none
+     */
+    private static String getPushedFilter(DatasetDataSource dataSource, DataSourceScanOperator scan,
+            List<ILogicalOperator> ops) throws AlgebricksException {
+        ARecordType recordType = getRecordType(dataSource);
+        if (recordType == null) {
+            return null;
+        }
+        LogicalVariable recordVar = getRecordVariable(scan);
+        List<String> conjuncts = new ArrayList<>();
+        for (ILogicalOperator op : ops) {
+            if (op.getOperatorTag() != LogicalOperatorTag.SELECT) {
+                continue;
+            }
+            Map<LogicalVariable, String> fieldVars = getFieldVariables(op, scan, recordVar, recordType);
+            if (fieldVars == null) {
+                continue;
+            }
+            ILogicalExpression condition = ((SelectOperator) op).getCondition().getValue();
+            List<Mutable<ILogicalExpression>> conditionConjuncts = new ArrayList<>();
+            if (!condition.splitIntoConjuncts(conditionConjuncts)) {
+                conditionConjuncts.add(((SelectOperator) op).getCondition());
+            }
+            for (Mutable<ILogicalExpression> conjunct : conditionConjuncts) {
+                String pushedConjunct = toConjunct(conjunct.getValue(), fieldVars, recordVar, recordType);
+                if (pushedConjunct != null) {
+                    conjuncts.add(pushedConjunct);
+                }
+            }
+        }
+        return conjuncts.isEmpty() ? null : String.join(ParquetUtils.CONJUNCT_SEPARATOR, conjuncts);
+    }
+
+    /**
+     * @return the variables that hold top-level fields of the records of a scan at a selection if only assignments
+     *         and selections sit between the two, null otherwise
+     */
+    private static Map<LogicalVariable, String> getFieldVariables(ILogicalOperator select,
+            DataSourceScanOperator scan, LogicalVariable recordVar, ARecordType recordType) {
+        Map<LogicalVariable, String> fieldVars = new HashMap<>();
+        ILogicalOperator op = select.getInputs().get(0).getValue();
+        while (op != scan) {
+            if (op.getOperatorTag() == LogicalOperatorTag.ASSIGN) {
+                AssignOperator assign = (AssignOperator) op;
+                for (int i = 0; i < assign.getVariables().size(); i++) {
+                    String field = getFieldName(assign.getExpressions().get(i).getValue(), recordVar, recordType);
+                    if (field != null) {
+                        fieldVars.put(assign.getVariables().get(i), field);
+                    }
+                }
+            } else if (op.getOperatorTag() != LogicalOperatorTag.SELECT) {
+                return null;
+            }
+            if (op.getInputs().size() != 1) {
+                return null;
+            }
+            op = op.getInputs().get(0).getValue();
+        }
+        return fieldVars;
+    }
+
+    private static String toConjunct(ILogicalExpression expr, Map<LogicalVariable, String> fieldVars,
+            LogicalVariable recordVar, ARecordType recordType) {
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return null;
+        }
+        AbstractFunctionCallExpression comparison = (AbstractFunctionCallExpression) expr;
+        FunctionIdentifier fid = comparison.getFunctionIdentifier();
+        if (!COMPARISONS.containsKey(fid)) {
+            return null;
+        }
+        ILogicalExpression left = comparison.getArguments().get(0).getValue();
+        ILogicalExpression right = comparison.getArguments().get(1).getValue();
+        if (left.getExpressionTag() == LogicalExpressionTag.CONSTANT) {
+            ILogicalExpression constant = left;
+            left = right;
+            right = constant;
+            fid = FLIPPED_COMPARISONS.get(fid);
+        }
+        String field;
+        if (left.getExpressionTag() == LogicalExpressionTag.VARIABLE) {
+            field = fieldVars.get(((VariableReferenceExpression) left).getVariableReference());
+        } else {
+            field = getFieldName(left, recordVar, recordType);
+        }
+        String value = getNumericValue(right);
+        if (field == null || value == null || field.contains(ParquetUtils.OPERAND_SEPARATOR)
+                || field.contains(ParquetUtils.CONJUNCT_SEPARATOR) || field.contains(ParquetUtils.FIELD_SEPARATOR)
+                || field.contains(".")) {
+            return null;
+        }
+        return ParquetUtils.toConjunct(field, COMPARISONS.get(fid), value);
+    }
+
+    private static String getNumericValue(ILogicalExpression expr) {
+        IAObject object = ConstantExpressionUtil.getConstantIaObject(expr, null);
+        if (object == null) {
+            return null;
+        }
+        switch (object.getType().getTypeTag()) {
+            case TINYINT:
+                return String.valueOf(((AInt8) object).getByteValue());
+            case SMALLINT:
+                return String.valueOf(((AInt16) object).getShortValue());
+            case INTEGER:
+                return String.valueOf(((AInt32) object).getIntegerValue());
+            case BIGINT:
+                return String.valueOf(((AInt64) object).getLongValue());
+            case FLOAT:
+                return toString(((AFloat) object).getFloatValue());
+            case DOUBLE:
+                return toString(((ADouble) object).getDoubleValue());
+            default:
+                return null;
+        }
+    }
+
+    private static String toString(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : String.valueOf(value);
+    }
+
+    /**
+     * @return the name of the top-level field an expression accesses on the records of a scan, or null if it isn't
+     *         such an access
+     */
+    private static String getFieldName(ILogicalExpression expr, LogicalVariable recordVar, ARecordType recordType) {
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return null;
+        }
+        AbstractFunctionCallExpression fce = (AbstractFunctionCallExpression) expr;
+        ILogicalExpression record = fce.getArguments().get(0).getValue();
+        if (record.getExpressionTag() != LogicalExpressionTag.VARIABLE
+                || !((VariableReferenceExpression) record).getVariableReference().equals(recordVar)) {
+            return null;
+        }
+        if (fce.getFunctionIdentifier().equals(BuiltinFunctions.FIELD_ACCESS_BY_NAME)) {
+            return ConstantExpressionUtil.getStringArgument(fce, 1);
+        }
+        if (fce.getFunctionIdentifier().equals(BuiltinFunctions.FIELD_ACCESS_BY_INDEX)) {
+            Integer index = ConstantExpressionUtil.getIntArgument(fce, 1);
+            String[] fieldNames = recordType.getFieldNames();
+            return index == null || index < 0 || index >= fieldNames.length ? null : fieldNames[index];
+        }
+        return null;
+    }
+
+    private static ARecordType getRecordType(DatasetDataSource dataSource) {
+        IAType[] schemaTypes = dataSource.getSchemaTypes();
+        IAType itemType = schemaTypes[schemaTypes.length - 1];
+        return itemType instanceof ARecordType ? (ARecordType) itemType : null;
+    }
+
+    private static LogicalVariable getRecordVariable(DataSourceScanOperator scan) {
+        List<LogicalVariable> vars = scan.getVariables();
+        return vars.get(vars.size() - 1);
+    }
+
+    /**
+     * Collects the top-level fields of a record that the expressions of an operator access, and whether those
+     * accesses are the only uses of the record.
+     */
+    private static class FieldCollector {
+        private final LogicalVariable recordVar;
+        private final ARecordType recordType;
+        private final Set<String> fields = new HashSet<>();
+        private boolean complete = true;
+
+        FieldCollector(LogicalVariable recordVar, ARecordType recordType) {
+            this.recordVar = recordVar;
+            this.recordType = recordType;
+        }
+
+        void collect(ILogicalExpression expr) {
+            switch (expr.getExpressionTag()) {
+                case VARIABLE:
+                    if (((VariableReferenceExpression) expr).getVariableReference().equals(recordVar)) {
+                        complete = false;
+                    }
+                    return;
+                case FUNCTION_CALL:
+                    String field = getFieldName(expr, recordVar, recordType);
+                    if (field != null) {
+                        fields.add(field);
+                        return;
+                    }
+                    for (Mutable<ILogicalExpression> arg : ((AbstractFunctionCallExpression) expr).getArguments()) {
+                        collect(arg.getValue());
+                    }
+                    return;
+                default:
+                    return;
+            }
+        }
+    }
+}
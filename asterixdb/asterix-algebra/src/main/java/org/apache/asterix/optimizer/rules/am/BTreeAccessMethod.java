@@ -24,8 +24,10 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.asterix.common.annotations.SkipSecondaryIndexSearchExpressionAnnotation;
@@ -34,12 +36,15 @@ import org.apache.asterix.common.config.DatasetConfig.IndexType;
 import org.apache.asterix.common.exceptions.CompilationException;
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.lang.common.util.FunctionUtil;
+import org.apache.asterix.metadata.declared.MetadataProvider;
 import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
+import org.apache.asterix.metadata.utils.DatasetUtil;
 import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.ConstantExpressionUtil;
 import org.apache.asterix.om.utils.NonTaggedFormatUtil;
 import org.apache.asterix.optimizer.rules.util.EquivalenceClassUtils;
 import org.apache.commons.lang3.mutable.Mutable;
@@ -50,6 +55,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
@@ -70,6 +76,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperat
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.LeftOuterUnnestMapOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestMapOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorManipulationUtil;
 
 /**
@@ -96,6 +103,10 @@ public class BTreeAccessMethod implements IAccessMethod {
 
     public static final BTreeAccessMethod INSTANCE = new BTreeAccessMethod();
 
+    // Query parameter that allows answering selections from a secondary index alone when the query only needs
+    // the secondary keys and the primary keys.
+    public static final String INDEX_ONLY_PLAN_PROP_NAME = "index_only";
+
     @Override
     public List<FunctionIdentifier> getOptimizableFunctions() {
         return FUNC_IDENTIFIERS;
@@ -131,13 +142,15 @@ public class BTreeAccessMethod implements IAccessMethod {
         SelectOperator select = (SelectOperator) selectRef.getValue();
         Mutable<ILogicalExpression> conditionRef = select.getCondition();
 
+        Map<Mutable<ILogicalExpression>, Integer> indexOnlyKeyExprs =
+                getIndexOnlyPlanKeyExprs(select, subTree, chosenIndex, afterSelectRefs, context);
         ILogicalOperator primaryIndexUnnestOp = createSecondaryToPrimaryPlan(conditionRef, subTree, null, chosenIndex,
                 analysisCtx,
                 AccessMethodUtils.retainInputs(subTree.getDataSourceVariables(), subTree.getDataSourceRef().getValue(),
                         afterSelectRefs),
                 false, subTree.getDataSourceRef().getValue().getInputs().get(0).getValue()
                         .getExecutionMode() == ExecutionMode.UNPARTITIONED,
-                context);
+                indexOnlyKeyExprs, context);
 
         if (primaryIndexUnnestOp == null) {
             return false;
@@ -230,6 +243,21 @@ public class BTreeAccessMethod implements IAccessMethod {
             OptimizableOperatorSubTree indexSubTree, OptimizableOperatorSubTree probeSubTree, Index chosenIndex,
             AccessMethodAnalysisContext analysisCtx, boolean retainInput, boolean retainNull, boolean requiresBroadcast,
             IOptimizationContext context) throws AlgebricksException {
+        return createSecondaryToPrimaryPlan(conditionRef, indexSubTree, probeSubTree, chosenIndex, analysisCtx,
+                retainInput, retainNull, requiresBroadcast, null, context);
+    }
+
+    /**
+     * @param indexOnlyKeyExprs
+     *            if not null, the plan answers the query from the secondary index alone, and these field-access
+     *            expressions (mapped to the position of the index key they read) are rewritten to read the keys
+     *            from the index; see {@link #getIndexOnlyPlanKeyExprs}
+     */
+    private ILogicalOperator createSecondaryToPrimaryPlan(Mutable<ILogicalExpression> conditionRef,
+            OptimizableOperatorSubTree indexSubTree, OptimizableOperatorSubTree probeSubTree, Index chosenIndex,
+            AccessMethodAnalysisContext analysisCtx, boolean retainInput, boolean retainNull, boolean requiresBroadcast,
+            Map<Mutable<ILogicalExpression>, Integer> indexOnlyKeyExprs, IOptimizationContext context)
+            throws AlgebricksException {
         Dataset dataset = indexSubTree.getDataset();
         ARecordType recordType = indexSubTree.getRecordType();
         ARecordType metaRecordType = indexSubTree.getMetaRecordType();
@@ -468,6 +496,7 @@ public class BTreeAccessMethod implements IAccessMethod {
         jobGenParams.setIsEqCondition(isEqCondition);
         jobGenParams.setLowKeyVarList(keyVarList, 0, numLowKeys);
         jobGenParams.setHighKeyVarList(keyVarList, numLowKeys, numHighKeys);
+        jobGenParams.setIsIndexOnlyPlan(indexOnlyKeyExprs != null);
 
         ILogicalOperator inputOp = null;
         if (!assignKeyVarList.isEmpty()) {
@@ -508,6 +537,8 @@ public class BTreeAccessMethod implements IAccessMethod {
                     dataset, recordType, secondaryIndexUnnestOp, context, retainInput, retainNull);
             indexSubTree.getDataSourceRef().setValue(externalDataAccessOp);
             return externalDataAccessOp;
+        } else if (indexOnlyKeyExprs != null) {
+            return createIndexOnlyPlan(dataSourceOp, dataset, secondaryIndexUnnestOp, indexOnlyKeyExprs, context);
         } else if (!isPrimaryIndex) {
             primaryIndexUnnestOp = AccessMethodUtils.createPrimaryIndexUnnestMap(dataSourceOp, dataset, recordType,
                     metaRecordType, secondaryIndexUnnestOp, context, true, retainInput, retainNull, false);
@@ -593,6 +624,137 @@ public class BTreeAccessMethod implements IAccessMethod {
         return primaryIndexUnnestOp;
     }
 
+    /**
+     * Checks whether a selection on the given secondary index can be answered from the index alone, i.e., whether
+     * the operators above the data-source scan use the record only to read secondary-index key fields.
+     * Only applies when enabled through {@link #INDEX_ONLY_PLAN_PROP_NAME}.
+     *
+     * @return the field-access expressions that read index keys, mapped to the position of the key they read,
+     *         or null if the plan needs the primary-index lookup
+     */
+    private static Map<Mutable<ILogicalExpression>, Integer> getIndexOnlyPlanKeyExprs(SelectOperator select,
+            OptimizableOperatorSubTree subTree, Index chosenIndex, List<Mutable<ILogicalOperator>> afterSelectRefs,
+            IOptimizationContext context) throws AlgebricksException {
+        MetadataProvider metadataProvider = (MetadataProvider) context.getMetadataProvider();
+        if (!Boolean.parseBoolean(metadataProvider.getConfig().get(INDEX_ONLY_PLAN_PROP_NAME))) {
+            return null;
+        }
+        Dataset dataset = subTree.getDataset();
+        // Enforced and overriding key types may store a cast value, and filters need fields the index lacks.
+        if (dataset.getDatasetType() != DatasetType.INTERNAL || chosenIndex.isPrimaryIndex()
+                || chosenIndex.getIndexType() != IndexType.BTREE || chosenIndex.isEnforced()
+                || chosenIndex.isOverridingKeyFieldTypes() || chosenIndex.hasMetaFields()
+                || DatasetUtil.getFilterField(dataset) != null) {
+            return null;
+        }
+        List<List<String>> keyFieldNames = chosenIndex.getKeyFieldNames();
+        for (List<String> keyFieldName : keyFieldNames) {
+            if (keyFieldName.size() != 1) {
+                return null;
+            }
+        }
+        int numPrimaryKeys = dataset.getPrimaryKeys().size();
+        List<LogicalVariable> dataSourceVars = subTree.getDataSourceVariables();
+        // The record (and meta record) variables must not be needed once the scan is gone.
+        List<LogicalVariable> recordVars = dataSourceVars.subList(numPrimaryKeys, dataSourceVars.size());
+        LogicalVariable recordVar = dataSourceVars.get(numPrimaryKeys);
+
+        Map<Mutable<ILogicalExpression>, Integer> keyExprs = new IdentityHashMap<>();
+        List<LogicalVariable> usedVars = new ArrayList<>();
+        ILogicalOperator dataSourceOp = subTree.getDataSourceRef().getValue();
+        ILogicalOperator op = select.getInputs().get(0).getValue();
+        while (op != dataSourceOp) {
+            if (op.getOperatorTag() != LogicalOperatorTag.ASSIGN) {
+                return null;
+            }
+            for (Mutable<ILogicalExpression> exprRef : ((AssignOperator) op).getExpressions()) {
+                int keyPos = getIndexKeyPosition(exprRef.getValue(), recordVar, subTree.getRecordType(),
+                        keyFieldNames);
+                if (keyPos >= 0) {
+                    keyExprs.put(exprRef, keyPos);
+                } else {
+                    exprRef.getValue().getUsedVariables(usedVars);
+                }
+            }
+            op = op.getInputs().get(0).getValue();
+        }
+        select.getCondition().getValue().getUsedVariables(usedVars);
+        for (Mutable<ILogicalOperator> afterSelectRef : afterSelectRefs) {
+            VariableUtilities.getUsedVariables(afterSelectRef.getValue(), usedVars);
+        }
+        for (LogicalVariable recordVarToCheck : recordVars) {
+            if (usedVars.contains(recordVarToCheck)) {
+                return null;
+            }
+        }
+        return keyExprs;
+    }
+
+    /**
+     * @return the position of the index key the expression reads from the record, or -1 if it is not a plain
+     *         field access of an index key
+     */
+    private static int getIndexKeyPosition(ILogicalExpression expr, LogicalVariable recordVar,
+            ARecordType recordType, List<List<String>> keyFieldNames) {
+        if (expr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+            return -1;
+        }
+        AbstractFunctionCallExpression funcExpr = (AbstractFunctionCallExpression) expr;
+        ILogicalExpression recordExpr = funcExpr.getArguments().get(0).getValue();
+        if (recordExpr.getExpressionTag() != LogicalExpressionTag.VARIABLE
+                || !((VariableReferenceExpression) recordExpr).getVariableReference().equals(recordVar)) {
+            return -1;
+        }
+        String fieldName = null;
+        FunctionIdentifier fid = funcExpr.getFunctionIdentifier();
+        if (fid.equals(BuiltinFunctions.FIELD_ACCESS_BY_NAME)) {
+            fieldName = ConstantExpressionUtil.getStringArgument(funcExpr, 1);
+        } else if (fid.equals(BuiltinFunctions.FIELD_ACCESS_BY_INDEX)) {
+            Integer fieldIndex = ConstantExpressionUtil.getIntArgument(funcExpr, 1);
+            if (fieldIndex != null && fieldIndex >= 0 && fieldIndex < recordType.getFieldNames().length) {
+                fieldName = recordType.getFieldNames()[fieldIndex];
+            }
+        }
+        if (fieldName == null) {
+            return -1;
+        }
+        for (int i = 0; i < keyFieldNames.size(); i++) {
+            if (fieldName.equals(keyFieldNames.get(i).get(0))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the primary-index lookup with an assign that gives the secondary-index search's primary keys the
+     * variables of the original data-source scan, and makes the given field accesses read the index keys.
+     * The secondary-index search takes instant locks on the primary keys it returns from in-memory components,
+     * so its results are committed without consulting the primary index.
+     */
+    private static ILogicalOperator createIndexOnlyPlan(AbstractDataSourceOperator dataSourceOp, Dataset dataset,
+            ILogicalOperator secondaryIndexUnnestOp, Map<Mutable<ILogicalExpression>, Integer> keyExprs,
+            IOptimizationContext context) throws AlgebricksException {
+        List<LogicalVariable> secondaryIndexVars = ((AbstractUnnestMapOperator) secondaryIndexUnnestOp).getVariables();
+        int numPrimaryKeys = dataset.getPrimaryKeys().size();
+        int numSecondaryKeys = secondaryIndexVars.size() - numPrimaryKeys;
+        List<LogicalVariable> assignVars = new ArrayList<>();
+        List<Mutable<ILogicalExpression>> assignExprs = new ArrayList<>();
+        for (int i = 0; i < numPrimaryKeys; i++) {
+            assignVars.add(dataSourceOp.getVariables().get(i));
+            assignExprs.add(new MutableObject<>(
+                    new VariableReferenceExpression(secondaryIndexVars.get(numSecondaryKeys + i))));
+        }
+        for (Map.Entry<Mutable<ILogicalExpression>, Integer> keyExpr : keyExprs.entrySet()) {
+            keyExpr.getKey().setValue(new VariableReferenceExpression(secondaryIndexVars.get(keyExpr.getValue())));
+        }
+        AssignOperator primaryKeyAssign = new AssignOperator(assignVars, assignExprs);
+        primaryKeyAssign.getInputs().add(new MutableObject<>(secondaryIndexUnnestOp));
+        primaryKeyAssign.setExecutionMode(ExecutionMode.PARTITIONED);
+        context.computeAndSetTypeEnvironmentForOperator(primaryKeyAssign);
+        return primaryKeyAssign;
+    }
+
     private int createKeyVarsAndExprs(int numKeys, LimitType[] keyLimits, ILogicalExpression[] searchKeyExprs,
             ArrayList<LogicalVariable> assignKeyVarList, ArrayList<Mutable<ILogicalExpression>> assignKeyExprList,
             ArrayList<LogicalVariable> keyVarList, IOptimizationContext context, ILogicalExpression[] constExpressions,
@@ -40,6 +40,7 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
     protected boolean lowKeyInclusive;
     protected boolean highKeyInclusive;
     protected boolean isEqCondition;
+    protected boolean isIndexOnlyPlan;
 
     public BTreeJobGenParams() {
         super();
@@ -78,6 +79,13 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
         this.isEqCondition = isEqConsition;
     }
 
+    /**
+     * Marks a secondary-index search whose output answers the query without a primary-index lookup.
+     */
+    public void setIsIndexOnlyPlan(boolean isIndexOnlyPlan) {
+        this.isIndexOnlyPlan = isIndexOnlyPlan;
+    }
+
     public void writeToFuncArgs(List<Mutable<ILogicalExpression>> funcArgs) {
         super.writeToFuncArgs(funcArgs);
         writeVarList(lowKeyVarList, funcArgs);
@@ -85,6 +93,10 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
         writeBoolean(lowKeyInclusive, funcArgs);
         writeBoolean(highKeyInclusive, funcArgs);
         writeBoolean(isEqCondition, funcArgs);
+        // Only written when set, so that the arguments of other searches stay as they were.
+        if (isIndexOnlyPlan) {
+            writeBoolean(isIndexOnlyPlan, funcArgs);
+        }
     }
 
     public void readFromFuncArgs(List<Mutable<ILogicalExpression>> funcArgs) {
@@ -96,6 +108,7 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
         nextIndex = readVarList(funcArgs, nextIndex, highKeyVarList);
         nextIndex = readKeyInclusives(funcArgs, nextIndex);
         readIsEqCondition(funcArgs, nextIndex);
+        readIsIndexOnlyPlan(funcArgs, nextIndex + 1);
     }
 
     private int readKeyInclusives(List<Mutable<ILogicalExpression>> funcArgs, int index) {
@@ -110,6 +123,11 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
         isEqCondition = ((ConstantExpression) funcArgs.get(index).getValue()).getValue().isTrue();
     }
 
+    private void readIsIndexOnlyPlan(List<Mutable<ILogicalExpression>> funcArgs, int index) {
+        isIndexOnlyPlan = funcArgs.size() > index
+                && ((ConstantExpression) funcArgs.get(index).getValue()).getValue().isTrue();
+    }
+
     private void writeBoolean(boolean val, List<Mutable<ILogicalExpression>> funcArgs) {
         ILogicalExpression keyExpr = val ? ConstantExpression.TRUE : ConstantExpression.FALSE;
         funcArgs.add(new MutableObject<ILogicalExpression>(keyExpr));
@@ -127,6 +145,10 @@ public class BTreeJobGenParams extends AccessMethodJobGenParams {
         return isEqCondition;
     }
 
+    public boolean isIndexOnlyPlan() {
+        return isIndexOnlyPlan;
+    }
+
     public boolean isLowKeyInclusive() {
         return lowKeyInclusive;
     }
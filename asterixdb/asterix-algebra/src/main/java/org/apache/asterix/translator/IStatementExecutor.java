@@ -83,6 +83,9 @@ public interface IStatementExecutor {
             this.count = count;
         }
 
+        /**
+         * @return the size of the printed results in chars, not in the bytes of their UTF-8 encoding
+         */
         public long getSize() {
             return size;
         }
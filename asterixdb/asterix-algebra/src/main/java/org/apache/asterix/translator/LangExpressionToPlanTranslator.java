@@ -77,6 +77,8 @@ import org.apache.asterix.metadata.MetadataManager;
 import org.apache.asterix.metadata.declared.DataSource;
 import org.apache.asterix.metadata.declared.DataSourceId;
 import org.apache.asterix.metadata.declared.DatasetDataSource;
+import org.apache.asterix.metadata.declared.FileSplitDataSink;
+import org.apache.asterix.metadata.declared.FileSplitSinkId;
 import org.apache.asterix.metadata.declared.LoadableDataSource;
 import org.apache.asterix.metadata.declared.MetadataProvider;
 import org.apache.asterix.metadata.declared.ResultSetDataSink;
@@ -149,6 +151,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.SinkOperator
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.SubplanOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnionAllOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.WriteOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.LogicalOperatorDeepCopyWithNewVariablesVisitor;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
 import org.apache.hyracks.algebricks.core.algebra.plan.ALogicalPlanImpl;
@@ -156,6 +159,7 @@ import org.apache.hyracks.algebricks.core.algebra.properties.INodeDomain;
 import org.apache.hyracks.algebricks.core.algebra.properties.LocalOrderProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorPropertiesUtil;
+import org.apache.hyracks.algebricks.data.IAWriterFactory;
 import org.apache.hyracks.api.io.FileSplit;
 import org.apache.hyracks.api.io.ManagedFileSplit;
 
@@ -320,9 +324,16 @@ class LangExpressionToPlanTranslator
 
             List<Mutable<ILogicalExpression>> writeExprList = new ArrayList<>(1);
             writeExprList.add(new MutableObject<>(new VariableReferenceExpression(resVar)));
-            ResultSetSinkId rssId = new ResultSetSinkId(metadataProvider.getResultSetId());
-            ResultSetDataSink sink = new ResultSetDataSink(rssId, null);
-            DistributeResultOperator newTop = new DistributeResultOperator(writeExprList, sink);
+            AbstractLogicalOperator newTop;
+            IAWriterFactory writerFactory = metadataProvider.getWriterFactory();
+            if (writerFactory != null && writerFactory.requiresFileSink()) {
+                FileSplitDataSink sink = new FileSplitDataSink(new FileSplitSinkId(outputFileSplit), null);
+                newTop = new WriteOperator(writeExprList, sink);
+            } else {
+                ResultSetSinkId rssId = new ResultSetSinkId(metadataProvider.getResultSetId());
+                ResultSetDataSink sink = new ResultSetDataSink(rssId, null);
+                newTop = new DistributeResultOperator(writeExprList, sink);
+            }
             newTop.getInputs().add(new MutableObject<>(topOp));
             topOp = newTop;
 
@@ -19,6 +19,13 @@
 
 package org.apache.asterix.translator;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -29,6 +36,8 @@ public class SessionOutput {
 
     // Output path for primary execution.
     private final PrintWriter out;
+    // Byte stream underlying out, if any.
+    private final OutputStream os;
 
     private final SessionOutput.ResultDecorator preResultDecorator;
     private final SessionOutput.ResultDecorator postResultDecorator;
@@ -41,8 +50,26 @@ public class SessionOutput {
 
     public SessionOutput(SessionConfig config, PrintWriter out, ResultDecorator preResultDecorator,
             ResultDecorator postResultDecorator, ResultAppender handleAppender, ResultAppender statusAppender) {
+        this(config, out, null, preResultDecorator, postResultDecorator, handleAppender, statusAppender);
+    }
+
+    /**
+     * Creates a session output that writes both characters and already-encoded bytes to the given stream.
+     * Flushing {@link #out()} only hands the buffered characters to the stream, it does not flush the stream itself,
+     * so that the owner of the stream decides when data is sent.
+     */
+    public SessionOutput(SessionConfig config, OutputStream os, ResultDecorator preResultDecorator,
+            ResultDecorator postResultDecorator, ResultAppender handleAppender, ResultAppender statusAppender) {
+        this(config,
+                new PrintWriter(new BufferedWriter(new OutputStreamWriter(new NonFlushingOutputStream(os), UTF_8))), os,
+                preResultDecorator, postResultDecorator, handleAppender, statusAppender);
+    }
+
+    private SessionOutput(SessionConfig config, PrintWriter out, OutputStream os, ResultDecorator preResultDecorator,
+            ResultDecorator postResultDecorator, ResultAppender handleAppender, ResultAppender statusAppender) {
         this.config = config;
         this.out = out;
+        this.os = os;
         this.preResultDecorator = preResultDecorator;
         this.postResultDecorator = postResultDecorator;
         this.handleAppender = handleAppender;
@@ -56,6 +83,14 @@ public class SessionOutput {
         return this.out;
     }
 
+    /**
+     * Retrieve the byte stream underlying {@link #out()} to write UTF-8 encoded output to directly, or null if
+     * output is only available as characters. {@link #out()} must be flushed before writing to this stream.
+     */
+    public OutputStream outputStream() {
+        return this.os;
+    }
+
     public AlgebricksAppendable resultPrefix(AlgebricksAppendable app) throws AlgebricksException {
         return this.preResultDecorator != null ? this.preResultDecorator.append(app) : app;
     }
@@ -76,6 +111,23 @@ public class SessionOutput {
         return config;
     }
 
+    private static class NonFlushingOutputStream extends FilterOutputStream {
+
+        NonFlushingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // the owner of the underlying stream flushes it
+        }
+    }
+
     @FunctionalInterface
     public interface ResultDecorator {
         AlgebricksAppendable append(AlgebricksAppendable app) throws AlgebricksException;
@@ -31,7 +31,6 @@ import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.exceptions.RuntimeDataException;
 import org.apache.hyracks.api.client.IHyracksClientConnection;
 import org.apache.hyracks.api.dataset.IHyracksDataset;
-import org.apache.hyracks.client.dataset.HyracksDataset;
 import org.apache.hyracks.http.server.AbstractServlet;
 
 public class AbstractQueryApiServlet extends AbstractServlet {
@@ -104,8 +103,7 @@ public class AbstractQueryApiServlet extends AbstractServlet {
             if (hds == null) {
                 hds = (IHyracksDataset) ctx.get(HYRACKS_DATASET_ATTR);
                 if (hds == null) {
-                    hds = new HyracksDataset(getHyracksClientConnection(),
-                            appCtx.getCompilerProperties().getFrameSize(), ResultReader.NUM_READERS);
+                    hds = ResultReader.createDataset(getHyracksClientConnection(), appCtx);
                     ctx.put(HYRACKS_DATASET_ATTR, hds);
                 }
             }
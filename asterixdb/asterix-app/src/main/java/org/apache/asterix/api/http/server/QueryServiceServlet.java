@@ -18,9 +18,12 @@
  */
 package org.apache.asterix.api.http.server;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
@@ -243,7 +246,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
     }
 
     private static SessionOutput createSessionOutput(RequestParameters param, String handleUrl,
-            PrintWriter resultWriter) {
+            OutputStream resultStream) {
         SessionOutput.ResultDecorator resultPrefix = ResultUtil.createPreResultDecorator();
         SessionOutput.ResultDecorator resultPostfix = ResultUtil.createPostResultDecorator();
         SessionOutput.ResultAppender appendHandle = ResultUtil.createResultHandleAppender(handleUrl);
@@ -257,7 +260,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
                 format != SessionConfig.OutputFormat.CLEAN_JSON && format != SessionConfig.OutputFormat.LOSSLESS_JSON);
         sessionConfig.set(SessionConfig.FORMAT_CSV_HEADER, format == SessionConfig.OutputFormat.CSV
                 && "present".equals(getParameterValue(param.format, Attribute.HEADER.str())));
-        return new SessionOutput(sessionConfig, resultWriter, resultPrefix, resultPostfix, appendHandle, appendStatus);
+        return new SessionOutput(sessionConfig, resultStream, resultPrefix, resultPostfix, appendHandle, appendStatus);
     }
 
     private static void printClientContextID(PrintWriter pw, RequestParameters params) {
@@ -390,17 +393,21 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
     private void handleRequest(RequestParameters param, IServletResponse response) throws IOException {
         LOGGER.info(param.toString());
         long elapsedStart = System.nanoTime();
-        final StringWriter stringWriter = new StringWriter();
-        final PrintWriter resultWriter = new PrintWriter(stringWriter);
+        // The response is streamed unless it is logged. The status is set to OK up front and replaced if the request
+        // fails. If that happens after the first chunk of the response was sent, the response closes the connection.
+        final boolean logResult = GlobalConfig.ASTERIX_LOGGER.isLoggable(Level.FINE);
+        final ByteArrayOutputStream resultBuffer = logResult ? new ByteArrayOutputStream() : null;
 
         ResultDelivery delivery = parseResultDelivery(param.mode);
 
         String handleUrl = getHandleUrl(param.host, param.path, delivery);
-        SessionOutput sessionOutput = createSessionOutput(param, handleUrl, resultWriter);
+        SessionOutput sessionOutput =
+                createSessionOutput(param, handleUrl, logResult ? resultBuffer : response.outputStream());
         SessionConfig sessionConfig = sessionOutput.config();
+        final PrintWriter resultWriter = sessionOutput.out();
         HttpUtil.setContentType(response, HttpUtil.ContentType.APPLICATION_JSON, HttpUtil.Encoding.UTF8);
 
-        HttpResponseStatus status = HttpResponseStatus.OK;
+        response.setStatus(HttpResponseStatus.OK);
         Stats stats = new Stats();
         long[] execStartEnd = new long[] { -1, -1 };
 
@@ -421,7 +428,7 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
             }
             errorCount = 0;
         } catch (Exception | TokenMgrError | org.apache.asterix.aqlplus.parser.TokenMgrError e) {
-            status = handleExecuteStatementException(e);
+            response.setStatus(handleExecuteStatementException(e));
             ResultUtil.printError(resultWriter, e);
             ResultUtil.printStatus(sessionOutput, ResultStatus.FATAL);
         } finally {
@@ -435,15 +442,13 @@ public class QueryServiceServlet extends AbstractQueryApiServlet {
                 stats.getCount(), stats.getSize(), errorCount);
         resultWriter.print("}\n");
         resultWriter.flush();
-        String result = stringWriter.toString();
-
-        GlobalConfig.ASTERIX_LOGGER.log(Level.FINE, result);
-
-        response.setStatus(status);
-        response.writer().print(result);
-        if (response.writer().checkError()) {
+        if (resultWriter.checkError()) {
             LOGGER.warning("Error flushing output writer");
         }
+        if (logResult) {
+            GlobalConfig.ASTERIX_LOGGER.log(Level.FINE, new String(resultBuffer.toByteArray(), UTF_8));
+            resultBuffer.writeTo(response.outputStream());
+        }
     }
 
     protected void executeStatement(String statementsText, SessionOutput sessionOutput, ResultDelivery delivery,
@@ -298,7 +298,21 @@ public class ExternalLibraryUtils {
         // get the class loader
         ClassLoader classLoader = getLibraryClassLoader(dataverse, libraryName);
         // register it with the external library manager
-        externalLibraryManager.registerLibraryClassLoader(dataverse, libraryName, classLoader);
+        externalLibraryManager.registerLibraryClassLoader(dataverse, libraryName, classLoader,
+                isLibraryIsolated(dataverse, libraryName));
+    }
+
+    /**
+     * @return true if the library descriptor asks for the functions of the library to run in separate processes
+     */
+    private static boolean isLibraryIsolated(String dataverse, String libraryName) throws Exception {
+        File libDir = new File(getLibraryInstallDir(), dataverse + File.separator + libraryName);
+        String[] libraryDescriptors = libDir.list((dir, name) -> name.endsWith(".xml"));
+        if (libraryDescriptors == null || libraryDescriptors.length != 1) {
+            return false;
+        }
+        ExternalLibrary library = getLibrary(new File(libDir, libraryDescriptors[0]));
+        return Boolean.TRUE.equals(library.isIsolated());
     }
 
     /**
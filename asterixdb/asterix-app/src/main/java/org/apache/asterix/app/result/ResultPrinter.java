@@ -21,6 +21,7 @@ package org.apache.asterix.app.result;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
 
@@ -46,6 +47,9 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 
 public class ResultPrinter {
 
+    private static final byte[] CSV_RECORD_SEPARATOR = "\r\n".getBytes(UTF_8);
+    private static final byte[] ARRAY_ELEMENT_SEPARATOR = ", ".getBytes(UTF_8);
+
     private final FrameManager resultDisplayFrameMgr;
 
     private final SessionOutput output;
@@ -196,6 +200,17 @@ public class ResultPrinter {
 
     public void print(ResultReader resultReader) throws HyracksDataException {
         printPrefix();
+        // Records that are printed as they were serialized are copied to the output as bytes.
+        if (output.outputStream() != null && !indentJSON && !quoteRecord) {
+            output.out().flush();
+            try {
+                printBytes(resultReader, output.outputStream());
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            printPostfix();
+            return;
+        }
 
         final IFrameTupleAccessor fta = resultReader.getFrameTupleAccessor();
         final IFrame frame = new VSizeFrame(resultDisplayFrameMgr);
@@ -224,4 +239,54 @@ public class ResultPrinter {
 
         printPostfix();
     }
+
+    private void printBytes(ResultReader resultReader, OutputStream os) throws IOException {
+        final IFrameTupleAccessor fta = resultReader.getFrameTupleAccessor();
+        final IFrame frame = new VSizeFrame(resultDisplayFrameMgr);
+        final boolean csv = conf.fmt() == SessionConfig.OutputFormat.CSV;
+        long count = 0;
+        long size = 0;
+        while (resultReader.read(frame) > 0) {
+            final ByteBuffer frameBuffer = frame.getBuffer();
+            final byte[] frameBytes = frameBuffer.array();
+            fta.reset(frameBuffer);
+            final int last = fta.getTupleCount();
+            for (int tIndex = 0; tIndex < last; tIndex++) {
+                final int start = fta.getTupleStartOffset(tIndex);
+                int length = fta.getTupleEndOffset(tIndex) - start;
+                if (csv && ((length > 0) && (frameBytes[start + length - 1] == '\n'))) {
+                    length--;
+                }
+                if (wrapArray && notFirst) {
+                    os.write(ARRAY_ELEMENT_SEPARATOR);
+                }
+                notFirst = true;
+                os.write(frameBytes, start, length);
+                size += charCount(frameBytes, start, length);
+                if (csv) {
+                    os.write(CSV_RECORD_SEPARATOR);
+                    size += CSV_RECORD_SEPARATOR.length;
+                }
+                count++;
+            }
+            frameBuffer.clear();
+        }
+        stats.setCount(stats.getCount() + count);
+        stats.setSize(stats.getSize() + size);
+    }
+
+    /**
+     * @return the number of chars the given UTF-8 bytes decode to, as the result size is measured in chars
+     */
+    private static int charCount(byte[] bytes, int start, int length) {
+        int count = 0;
+        for (int i = start, end = start + length; i < end; i++) {
+            int b = bytes[i] & 0xff;
+            if ((b & 0xc0) != 0x80) {
+                // the lead byte of a 4-byte sequence starts a supplementary character, i.e., a surrogate pair
+                count += b >= 0xf0 ? 2 : 1;
+            }
+        }
+        return count;
+    }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.asterix.app.result;
 
+import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.common.config.ExternalProperties;
+import org.apache.hyracks.api.client.IHyracksClientConnection;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.dataset.DatasetJobRecord.Status;
@@ -26,6 +29,8 @@ import org.apache.hyracks.api.dataset.IHyracksDatasetReader;
 import org.apache.hyracks.api.dataset.ResultSetId;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.client.dataset.HyracksDataset;
+import org.apache.hyracks.client.dataset.HyracksDatasetReader;
 import org.apache.hyracks.dataflow.common.comm.io.ResultFrameTupleAccessor;
 
 public class ResultReader {
@@ -41,6 +46,17 @@ public class ResultReader {
         frameTupleAccessor = new ResultFrameTupleAccessor();
     }
 
+    /**
+     * Creates the dataset client that the API servlets read results through. If
+     * {@link ExternalProperties#isResultArrivalOrder()} is set, its readers return the frames of results that have
+     * no order as the result partitions produce them.
+     */
+    public static IHyracksDataset createDataset(IHyracksClientConnection hcc, IApplicationContext appCtx)
+            throws Exception { // NOSONAR
+        return new HyracksDataset(hcc, appCtx.getCompilerProperties().getFrameSize(), NUM_READERS,
+                HyracksDatasetReader.DEFAULT_PREFETCH_FRAMES, appCtx.getExternalProperties().isResultArrivalOrder());
+    }
+
     public Status getStatus() {
         return reader.getResultStatus();
     }
@@ -34,6 +34,7 @@ import org.apache.hyracks.control.common.utils.HyracksThreadFactory;
 public class DefaultStatementExecutorFactory implements IStatementExecutorFactory {
 
     protected final ExecutorService executorService;
+    private QueryPlanCache planCache;
 
     /*
      * @deprecated use other constructor
@@ -51,6 +52,13 @@ public class DefaultStatementExecutorFactory implements IStatementExecutorFactor
     public IStatementExecutor create(ICcApplicationContext appCtx, List<Statement> statements, SessionOutput output,
             ILangCompilationProvider compilationProvider, IStorageComponentProvider storageComponentProvider) {
         return new QueryTranslator(appCtx, statements, output, compilationProvider, storageComponentProvider,
-                executorService);
+                executorService, getPlanCache(appCtx));
+    }
+
+    protected synchronized QueryPlanCache getPlanCache(ICcApplicationContext appCtx) {
+        if (planCache == null) {
+            planCache = new QueryPlanCache(appCtx.getCompilerProperties().getPlanCacheSize());
+        }
+        return planCache;
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.translator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.asterix.common.exceptions.AsterixException;
+import org.apache.asterix.common.transactions.JobId;
+import org.apache.asterix.metadata.MetadataManager;
+import org.apache.asterix.metadata.lock.IMetadataLock;
+import org.apache.asterix.metadata.lock.LockList;
+import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
+import org.apache.asterix.transaction.management.service.transaction.JobIdFactory;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.util.JavaSerializationUtils;
+
+/**
+ * A bounded LRU cache of compiled query job specifications, keyed by a normalized form of the query and of
+ * everything else its compilation depends on.
+ * An entry remembers the metadata locks its compilation took and the metadata version
+ * ({@link org.apache.asterix.metadata.api.IMetadataManager#getMetadataVersion()}) read before compiling. A lookup
+ * re-acquires those locks and only returns the plan if no metadata change committed since, so DDL invalidates
+ * every plan compiled before it.
+ * An entry keeps the job specification in serialized form. Every lookup returns a copy of it in which the
+ * transaction id the plan was compiled with is replaced by a new one, so executions of the same plan, including
+ * concurrent ones, run as separate transactions.
+ */
+public class QueryPlanCache {
+    private static final Logger LOGGER = Logger.getLogger(QueryPlanCache.class.getName());
+
+    private final int capacity;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public QueryPlanCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > QueryPlanCache.this.capacity;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Looks up the plan for a query and, if one is found and still valid, acquires the metadata locks its
+     * compilation took.
+     *
+     * @param key
+     *            the normalized query
+     * @param locks
+     *            the lock list of the executing statement
+     * @return a copy of the cached job specification with a new transaction id, or null if the query needs to be
+     *         compiled
+     * @throws AsterixException
+     *             if a lock could not be acquired
+     */
+    public JobSpecification acquire(String key, LockList locks) throws AsterixException {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        for (Pair<IMetadataLock.Mode, IMetadataLock> lock : entry.locks) {
+            locks.add(lock.getLeft(), lock.getRight());
+        }
+        // checked under the locks, so no DDL on the locked entities can commit after this point
+        JobSpecification jobSpec = null;
+        if (entry.metadataVersion == MetadataManager.INSTANCE.getMetadataVersion()) {
+            try {
+                jobSpec = entry.copyJobSpecification(JobIdFactory.generateJobId());
+            } catch (IOException | ClassNotFoundException e) {
+                LOGGER.log(Level.WARNING, "Failed to copy a cached query plan", e);
+            }
+        }
+        if (jobSpec == null) {
+            locks.reset();
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return jobSpec;
+    }
+
+    /**
+     * Caches a freshly compiled plan. Must be called before the plan's job is started.
+     *
+     * @param key
+     *            the normalized query
+     * @param jobSpec
+     *            the compiled job specification
+     * @param locks
+     *            the lock list holding the locks the compilation took
+     * @param metadataVersion
+     *            the metadata version read before compilation started
+     */
+    public void put(String key, JobSpecification jobSpec, LockList locks, long metadataVersion) {
+        if (!(jobSpec.getJobletEventListenerFactory() instanceof JobEventListenerFactory)) {
+            return;
+        }
+        JobId txnId = ((JobEventListenerFactory) jobSpec.getJobletEventListenerFactory()).getJobId();
+        Entry entry;
+        try {
+            entry = new Entry(JavaSerializationUtils.serialize(jobSpec), txnId, new ArrayList<>(locks.getLocks()),
+                    metadataVersion);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Query plan will not be cached", e);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.get(key);
+            if (previous == null || previous.metadataVersion < metadataVersion) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class Entry {
+        private final byte[] jobSpec;
+        private final JobId txnId;
+        private final List<Pair<IMetadataLock.Mode, IMetadataLock>> locks;
+        private final long metadataVersion;
+
+        private Entry(byte[] jobSpec, JobId txnId, List<Pair<IMetadataLock.Mode, IMetadataLock>> locks,
+                long metadataVersion) {
+            this.jobSpec = jobSpec;
+            this.txnId = txnId;
+            this.locks = locks;
+            this.metadataVersion = metadataVersion;
+        }
+
+        private JobSpecification copyJobSpecification(JobId newTxnId) throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new TxnIdReplacingInputStream(new ByteArrayInputStream(jobSpec), txnId,
+                    newTxnId)) {
+                return (JobSpecification) in.readObject();
+            }
+        }
+    }
+
+    /**
+     * Deserializes objects, replacing every transaction id equal to {@code oldTxnId} with {@code newTxnId}.
+     */
+    private static class TxnIdReplacingInputStream extends ObjectInputStream {
+        private final JobId oldTxnId;
+        private final JobId newTxnId;
+
+        private TxnIdReplacingInputStream(InputStream in, JobId oldTxnId, JobId newTxnId) throws IOException {
+            super(in);
+            this.oldTxnId = oldTxnId;
+            this.newTxnId = newTxnId;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return oldTxnId.equals(obj) ? newTxnId : obj;
+        }
+    }
+}
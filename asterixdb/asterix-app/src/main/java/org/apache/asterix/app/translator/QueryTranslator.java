@@ -24,6 +24,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -37,6 +39,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,6 +84,7 @@ import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.asterix.file.StorageComponentProvider;
 import org.apache.asterix.formats.nontagged.TypeTraitProvider;
+import org.apache.asterix.lang.common.base.IAstPrintVisitorFactory;
 import org.apache.asterix.lang.common.base.IReturningStatement;
 import org.apache.asterix.lang.common.base.IRewriterFactory;
 import org.apache.asterix.lang.common.base.IStatementRewriter;
@@ -120,6 +125,7 @@ import org.apache.asterix.lang.common.statement.TypeDecl;
 import org.apache.asterix.lang.common.statement.TypeDropStatement;
 import org.apache.asterix.lang.common.statement.WriteStatement;
 import org.apache.asterix.lang.common.struct.Identifier;
+import org.apache.asterix.lang.common.visitor.QueryPrintVisitor;
 import org.apache.asterix.metadata.IDatasetDetails;
 import org.apache.asterix.metadata.MetadataException;
 import org.apache.asterix.metadata.MetadataManager;
@@ -218,10 +224,18 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
     protected final IStorageComponentProvider componentProvider;
     protected final ExecutorService executorService;
     protected final EnumSet<JobFlag> jobFlags = EnumSet.noneOf(JobFlag.class);
+    protected final QueryPlanCache planCache;
+    protected final IAstPrintVisitorFactory astPrintVisitorFactory;
 
     public QueryTranslator(ICcApplicationContext appCtx, List<Statement> statements, SessionOutput output,
             ILangCompilationProvider compliationProvider, IStorageComponentProvider componentProvider,
             ExecutorService executorService) {
+        this(appCtx, statements, output, compliationProvider, componentProvider, executorService, null);
+    }
+
+    public QueryTranslator(ICcApplicationContext appCtx, List<Statement> statements, SessionOutput output,
+            ILangCompilationProvider compliationProvider, IStorageComponentProvider componentProvider,
+            ExecutorService executorService, QueryPlanCache planCache) {
         this.appCtx = appCtx;
         this.statements = statements;
         this.sessionOutput = output;
@@ -232,6 +246,8 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         rewriterFactory = compliationProvider.getRewriterFactory();
         activeDataverse = MetadataBuiltinEntities.DEFAULT_DATAVERSE;
         this.executorService = executorService;
+        this.planCache = planCache;
+        astPrintVisitorFactory = compliationProvider.getAstPrintVisitorFactory();
         if (appCtx.getServiceContext().getAppConfig().getBoolean(CCConfig.Option.ENFORCE_FRAME_WRITER_PROTOCOL)) {
             this.jobFlags.add(JobFlag.ENFORCE_CONTRACT);
         }
@@ -2282,6 +2298,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
     protected void handleQuery(MetadataProvider metadataProvider, Query query, IHyracksClientConnection hcc,
             IHyracksDataset hdc, ResultDelivery resultDelivery, ResultMetadata outMetadata, Stats stats,
             String clientContextId, IStatementExecutorContext ctx) throws Exception {
+        final String planCacheKey = getPlanCacheKey(metadataProvider, query);
         final IMetadataLocker locker = new IMetadataLocker() {
             @Override
             public void lock() {
@@ -2295,6 +2312,13 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
         };
         final IStatementCompiler compiler = () -> {
+            if (planCacheKey != null) {
+                JobSpecification cachedJobSpec = planCache.acquire(planCacheKey, metadataProvider.getLocks());
+                if (cachedJobSpec != null) {
+                    return cachedJobSpec;
+                }
+            }
+            long metadataVersion = MetadataManager.INSTANCE.getMetadataVersion();
             MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
             boolean bActiveTxn = true;
             metadataProvider.setMetadataTxnContext(mdTxnCtx);
@@ -2302,6 +2326,10 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 final JobSpecification jobSpec = rewriteCompileQuery(hcc, metadataProvider, query, null);
                 MetadataManager.INSTANCE.commitTransaction(mdTxnCtx);
                 bActiveTxn = false;
+                if (planCacheKey != null && (metadataProvider.getExternalDataLocks() == null
+                        || metadataProvider.getExternalDataLocks().isEmpty())) {
+                    planCache.put(planCacheKey, jobSpec, metadataProvider.getLocks(), metadataVersion);
+                }
                 return query.isExplain() || !sessionConfig.isExecuteQuery() ? null : jobSpec;
             } catch (Exception e) {
                 LOGGER.log(Level.INFO, e.getMessage(), e);
@@ -2311,10 +2339,59 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 throw e;
             }
         };
+        IAWriterFactory writerFactory = metadataProvider.getWriterFactory();
+        if (writerFactory != null && writerFactory.requiresFileSink()) {
+            // the results go to the output file, so there are none to deliver
+            createAndRunJob(hcc, jobFlags, null, compiler, locker, ResultDelivery.IMMEDIATE, id -> {
+            }, clientContextId, ctx);
+            return;
+        }
         deliverResult(hcc, hdc, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats, clientContextId,
                 ctx);
     }
 
+    /**
+     * Builds the key of a query in the plan cache: the query and the functions it may call, printed from their
+     * ASTs, along with everything else that shapes the compiled job.
+     *
+     * @return the key, or null if the query's plan must not be cached
+     */
+    protected String getPlanCacheKey(MetadataProvider metadataProvider, Query query) {
+        if (planCache == null || !planCache.isEnabled() || query.isExplain() || !sessionConfig.isExecuteQuery()
+                || metadataProvider.getOutputFile() != null
+                || metadataProvider.getPropertyValue("output-record-type") != null
+                || sessionConfig.is(SessionConfig.OOB_EXPR_TREE)
+                || sessionConfig.is(SessionConfig.OOB_REWRITTEN_EXPR_TREE)
+                || sessionConfig.is(SessionConfig.OOB_LOGICAL_PLAN)
+                || sessionConfig.is(SessionConfig.OOB_OPTIMIZED_LOGICAL_PLAN)
+                || sessionConfig.is(SessionConfig.OOB_HYRACKS_JOB)) {
+            return null;
+        }
+        StringWriter key = new StringWriter();
+        PrintWriter out = new PrintWriter(key);
+        out.println(activeDataverse.getDataverseName());
+        out.println(metadataProvider.getResultSetId().getId() + " " + metadataProvider.getResultAsyncMode());
+        out.println(sessionConfig.fmt() + " " + sessionConfig.isOptimize() + " " + sessionConfig.isGenerateJobSpec()
+                + " " + sessionConfig.is(SessionConfig.FORMAT_CSV_HEADER) + " "
+                + sessionConfig.is(SessionConfig.FORMAT_WRAPPER_ARRAY) + " "
+                + sessionConfig.is(SessionConfig.FORMAT_INDENT_JSON) + " "
+                + sessionConfig.is(SessionConfig.FORMAT_QUOTE_RECORD));
+        out.println(new TreeMap<>(metadataProvider.getConfig()));
+        out.println(new TreeSet<>(ClusterStateManager.INSTANCE.getParticipantNodes(true)));
+        try {
+            QueryPrintVisitor visitor = astPrintVisitorFactory.createLangVisitor(out);
+            for (FunctionDecl functionDecl : declaredFunctions) {
+                functionDecl.accept(visitor, 0);
+            }
+            query.accept(visitor, 0);
+        } catch (CompilationException e) {
+            LOGGER.log(Level.FINE, "Query plan will not be cached", e);
+            return null;
+        }
+        out.flush();
+        return key.toString();
+    }
+
     private void deliverResult(IHyracksClientConnection hcc, IHyracksDataset hdc, IStatementCompiler compiler,
             MetadataProvider metadataProvider, IMetadataLocker locker, ResultDelivery resultDelivery,
             ResultMetadata outMetadata, Stats stats, String clientContextId, IStatementExecutorContext ctx)
@@ -24,6 +24,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
 import org.apache.asterix.common.exceptions.AsterixException;
@@ -61,6 +63,7 @@ import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
  * A utility class for the rebalance operation.
  */
 public class RebalanceUtil {
+    private static final Logger LOGGER = Logger.getLogger(RebalanceUtil.class.getName());
 
     private RebalanceUtil() {
 
@@ -276,6 +279,7 @@ public class RebalanceUtil {
     // Creates and loads all secondary indexes for the rebalance target dataset.
     private static void createAndLoadSecondaryIndexesForTarget(Dataset source, Dataset target,
             MetadataProvider metadataProvider, IHyracksClientConnection hcc) throws Exception {
+        List<Index> secondaryIndexes = new ArrayList<>();
         for (Index index : metadataProvider.getDatasetIndexes(source.getDataverseName(), source.getDatasetName())) {
             if (!index.isSecondaryIndex()) {
                 continue;
@@ -284,11 +288,30 @@ public class RebalanceUtil {
             JobSpecification indexCreationJobSpec = IndexUtil.buildSecondaryIndexCreationJobSpec(target, index,
                     metadataProvider);
             JobUtils.runJob(hcc, indexCreationJobSpec, true);
-
+            secondaryIndexes.add(index);
+        }
+        if (secondaryIndexes.isEmpty()) {
+            return;
+        }
+        if (secondaryIndexes.size() == 1) {
             // Loads the secondary index.
-            JobSpecification indexLoadingJobSpec = IndexUtil.buildSecondaryIndexLoadingJobSpec(target, index,
-                    metadataProvider);
+            JobSpecification indexLoadingJobSpec = IndexUtil.buildSecondaryIndexLoadingJobSpec(target,
+                    secondaryIndexes.get(0), metadataProvider);
             JobUtils.runJob(hcc, indexLoadingJobSpec, true);
+            return;
+        }
+        // Loads all secondary indexes from a single scan of the primary index.
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Loading " + secondaryIndexes.size() + " secondary indexes of " + target.getDatasetName()
+                    + " from a single scan");
+        }
+        long startTime = System.currentTimeMillis();
+        JobSpecification indexesLoadingJobSpec =
+                IndexUtil.buildSecondaryIndexesLoadingJobSpec(target, secondaryIndexes, metadataProvider);
+        JobUtils.runJob(hcc, indexesLoadingJobSpec, true);
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Loaded " + secondaryIndexes.size() + " secondary indexes of " + target.getDatasetName()
+                    + " in " + (System.currentTimeMillis() - startTime) + "ms");
         }
     }
 }
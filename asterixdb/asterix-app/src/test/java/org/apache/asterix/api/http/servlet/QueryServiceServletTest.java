@@ -19,7 +19,27 @@
 
 package org.apache.asterix.api.http.servlet;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
 import org.apache.asterix.api.http.server.QueryServiceServlet;
+import org.apache.asterix.api.http.server.ResultUtil;
+import org.apache.asterix.app.result.ResultReader;
+import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.common.config.CompilerProperties;
+import org.apache.asterix.translator.IStatementExecutor.Stats;
+import org.apache.asterix.translator.SessionConfig;
+import org.apache.asterix.translator.SessionOutput;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.dataset.DatasetJobRecord.Status;
+import org.apache.hyracks.api.dataset.IHyracksDatasetReader;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -43,4 +63,56 @@ public class QueryServiceServletTest {
         Assert.assertEquals("120.000000000s", QueryServiceServlet.TimeUnit.formatNanos(120000000000l));
         Assert.assertEquals("-12ns", QueryServiceServlet.TimeUnit.formatNanos(-12l));
     }
+
+    @Test
+    public void testNonAsciiResults() throws Exception {
+        final String[] records = { "{ \"name\": \"Zo\u00eb\" }", "{ \"name\": \"\u6771\u4eac\" }",
+                "{ \"name\": \"\ud83d\ude00\" }" };
+        final int frameSize = 32768;
+        IApplicationContext appCtx = mock(IApplicationContext.class);
+        CompilerProperties compilerProperties = mock(CompilerProperties.class);
+        when(appCtx.getCompilerProperties()).thenReturn(compilerProperties);
+        when(compilerProperties.getFrameSize()).thenReturn(frameSize);
+        // a single result frame that holds the UTF-8 encoded records
+        IHyracksDatasetReader datasetReader = new IHyracksDatasetReader() {
+            private boolean read;
+
+            @Override
+            public Status getResultStatus() {
+                return null;
+            }
+
+            @Override
+            public int read(IFrame frame) throws HyracksDataException {
+                if (read) {
+                    return 0;
+                }
+                read = true;
+                FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+                for (String record : records) {
+                    byte[] bytes = record.getBytes(UTF_8);
+                    Assert.assertTrue(appender.append(bytes, 0, bytes.length));
+                }
+                return frame.getFrameSize();
+            }
+        };
+
+        SessionConfig sessionConfig = new SessionConfig(SessionConfig.OutputFormat.CLEAN_JSON);
+        sessionConfig.set(SessionConfig.FORMAT_WRAPPER_ARRAY, true);
+        ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
+        SessionOutput sessionOutput = new SessionOutput(sessionConfig, resultStream, null, null, null, null);
+        Stats stats = new Stats();
+        ResultUtil.printResults(appCtx, new ResultReader((jobId, rsId) -> datasetReader, new JobId(0),
+                new ResultSetId(0)), sessionOutput, stats, null);
+
+        Assert.assertEquals("[ " + String.join(", ", records) + " ]" + System.lineSeparator(),
+                new String(resultStream.toByteArray(), UTF_8));
+        Assert.assertEquals(records.length, stats.getCount());
+        // the result size is measured in chars, like it was when the records were printed as Strings
+        long size = 0;
+        for (String record : records) {
+            size += record.length();
+        }
+        Assert.assertEquals(size, stats.getSize());
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.app.translator;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.asterix.common.transactions.JobId;
+import org.apache.asterix.metadata.MetadataManager;
+import org.apache.asterix.metadata.api.IMetadataManager;
+import org.apache.asterix.metadata.lock.IMetadataLock;
+import org.apache.asterix.metadata.lock.LockList;
+import org.apache.asterix.metadata.lock.MetadataLock;
+import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.dataflow.std.base.AbstractSingleActivityOperatorDescriptor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryPlanCacheTest {
+
+    private static final JobId COMPILED_TXN_ID = new JobId(-1);
+
+    private IMetadataManager metadataManager;
+    private IMetadataManager mockMetadataManager;
+
+    @Before
+    public void setUp() {
+        metadataManager = MetadataManager.INSTANCE;
+        mockMetadataManager = mock(IMetadataManager.class);
+        MetadataManager.INSTANCE = mockMetadataManager;
+    }
+
+    @After
+    public void tearDown() {
+        MetadataManager.INSTANCE = metadataManager;
+    }
+
+    @Test
+    public void testReuseAcquiresCompilationLocks() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(4);
+        JobSpecification jobSpec = createJobSpec();
+        MetadataLock datasetLock = new MetadataLock();
+        LockList compileLocks = new LockList();
+        compileLocks.add(IMetadataLock.Mode.READ, datasetLock);
+        cache.put("q", jobSpec, compileLocks, 0);
+        compileLocks.unlock();
+
+        LockList locks = new LockList();
+        JobSpecification cachedJobSpec = cache.acquire("q", locks);
+        Assert.assertNotNull(cachedJobSpec);
+        Assert.assertNotSame(jobSpec, cachedJobSpec);
+        Assert.assertEquals(1, cachedJobSpec.getOperatorMap().size());
+        Assert.assertEquals(1, locks.getLocks().size());
+        Assert.assertSame(datasetLock, locks.getLocks().get(0).getRight());
+        Assert.assertEquals(IMetadataLock.Mode.READ, locks.getLocks().get(0).getLeft());
+        Assert.assertEquals(1, cache.getHits());
+        locks.unlock();
+    }
+
+    @Test
+    public void testBackToBackExecutionsGetNewTransactionIds() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(4);
+        cache.put("q", createJobSpec(), new LockList(), 0);
+        JobId first = getTxnId(cache.acquire("q", new LockList()));
+        JobId second = getTxnId(cache.acquire("q", new LockList()));
+        Assert.assertNotEquals(COMPILED_TXN_ID, first);
+        Assert.assertNotEquals(COMPILED_TXN_ID, second);
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testConcurrentExecutionsGetNewTransactionIds() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(4);
+        cache.put("q", createJobSpec(), new LockList(), 0);
+        int executions = 8;
+        CyclicBarrier barrier = new CyclicBarrier(executions);
+        ExecutorService executor = Executors.newFixedThreadPool(executions);
+        try {
+            List<Future<JobId>> txnIds = new ArrayList<>();
+            for (int i = 0; i < executions; ++i) {
+                txnIds.add(executor.submit((Callable<JobId>) () -> {
+                    barrier.await();
+                    return getTxnId(cache.acquire("q", new LockList()));
+                }));
+            }
+            Set<JobId> distinctTxnIds = new HashSet<>();
+            for (Future<JobId> txnId : txnIds) {
+                distinctTxnIds.add(txnId.get());
+            }
+            Assert.assertEquals(executions, distinctTxnIds.size());
+            Assert.assertFalse(distinctTxnIds.contains(COMPILED_TXN_ID));
+            Assert.assertEquals(executions, cache.getHits());
+            Assert.assertEquals(0, cache.getMisses());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPlanWithoutTransactionIsNotCached() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(4);
+        cache.put("q", new JobSpecification(), new LockList(), 0);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.acquire("q", new LockList()));
+    }
+
+    @Test
+    public void testMetadataChangeInvalidates() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(4);
+        MetadataLock datasetLock = new MetadataLock();
+        LockList compileLocks = new LockList();
+        compileLocks.add(IMetadataLock.Mode.READ, datasetLock);
+        cache.put("q", createJobSpec(), compileLocks, 0);
+        compileLocks.unlock();
+
+        when(mockMetadataManager.getMetadataVersion()).thenReturn(1L);
+        LockList locks = new LockList();
+        Assert.assertNull(cache.acquire("q", locks));
+        // the stale entry's locks were released and the statement can still take locks
+        Assert.assertTrue(locks.getLocks().isEmpty());
+        locks.add(IMetadataLock.Mode.WRITE, datasetLock);
+        locks.unlock();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        QueryPlanCache cache = new QueryPlanCache(2);
+        cache.put("q1", createJobSpec(), new LockList(), 0);
+        cache.put("q2", createJobSpec(), new LockList(), 0);
+        Assert.assertNotNull(cache.acquire("q1", new LockList()));
+        cache.put("q3", createJobSpec(), new LockList(), 0);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.acquire("q1", new LockList()));
+        Assert.assertNull(cache.acquire("q2", new LockList()));
+        Assert.assertNotNull(cache.acquire("q3", new LockList()));
+    }
+
+    @Test
+    public void testDisabled() {
+        Assert.assertFalse(new QueryPlanCache(0).isEnabled());
+        Assert.assertTrue(new QueryPlanCache(1).isEnabled());
+    }
+
+    private static JobSpecification createJobSpec() {
+        JobSpecification jobSpec = new JobSpecification();
+        new TransactionalOperatorDescriptor(jobSpec, COMPILED_TXN_ID);
+        jobSpec.setJobletEventListenerFactory(new JobEventListenerFactory(COMPILED_TXN_ID, false));
+        return jobSpec;
+    }
+
+    /**
+     * @return the transaction id of {@code jobSpec}, after checking that its operator runs in the same transaction
+     */
+    private static JobId getTxnId(JobSpecification jobSpec) {
+        JobId txnId = ((JobEventListenerFactory) jobSpec.getJobletEventListenerFactory()).getJobId();
+        TransactionalOperatorDescriptor op =
+                (TransactionalOperatorDescriptor) jobSpec.getOperatorMap().values().iterator().next();
+        Assert.assertEquals(txnId, op.txnId);
+        return txnId;
+    }
+
+    /**
+     * Stands for the operators whose callbacks are bound to the transaction id a plan is compiled with.
+     */
+    private static class TransactionalOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+        private static final long serialVersionUID = 1L;
+
+        private final JobId txnId;
+
+        TransactionalOperatorDescriptor(IOperatorDescriptorRegistry spec, JobId txnId) {
+            super(spec, 0, 0);
+            this.txnId = txnId;
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, int partition, int nPartitions) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
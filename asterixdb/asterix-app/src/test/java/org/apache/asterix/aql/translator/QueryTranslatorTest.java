@@ -30,6 +30,7 @@ import java.util.List;
 
 import org.apache.asterix.app.translator.DefaultStatementExecutorFactory;
 import org.apache.asterix.common.config.ClusterProperties;
+import org.apache.asterix.common.config.CompilerProperties;
 import org.apache.asterix.common.config.ExternalProperties;
 import org.apache.asterix.compiler.provider.AqlCompilationProvider;
 import org.apache.asterix.event.schema.cluster.Cluster;
@@ -67,6 +68,8 @@ public class QueryTranslatorTest {
         IApplicationConfig mockApplicationConfig = mock(IApplicationConfig.class);
         when(mockServiceContext.getAppConfig()).thenReturn(mockApplicationConfig);
         when(mockApplicationConfig.getBoolean(CCConfig.Option.ENFORCE_FRAME_WRITER_PROTOCOL)).thenReturn(true);
+        CompilerProperties mockCompilerProperties = mock(CompilerProperties.class);
+        when(mockAsterixAppContextInfo.getCompilerProperties()).thenReturn(mockCompilerProperties);
 
         // Mocks AsterixClusterProperties.
         Cluster mockCluster = mock(Cluster.class);
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.test.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.asterix.common.config.DatasetConfig.DatasetType;
+import org.apache.asterix.common.config.DatasetConfig.TransactionState;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.lang.common.util.FunctionUtil;
+import org.apache.asterix.metadata.declared.DataSource;
+import org.apache.asterix.metadata.declared.DataSourceId;
+import org.apache.asterix.metadata.declared.DatasetDataSource;
+import org.apache.asterix.metadata.entities.Dataset;
+import org.apache.asterix.metadata.entities.ExternalDatasetDetails;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.constants.AsterixConstantValue;
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.optimizer.rules.PushFieldAccessAndFilterToExternalScanRule;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ScalarFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DistributeResultOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.EmptyTupleSourceOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.InnerJoinOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the requested fields and the pushed filter that {@link PushFieldAccessAndFilterToExternalScanRule} gives
+ * to the data sources of the plans of Parquet datasets of type { id: bigint, name: string, age: bigint? }.
+ */
+public class PushFieldAccessAndFilterToExternalScanRuleTest {
+
+    private static final ARecordType USER_TYPE = new ARecordType("UserType", new String[] { "id", "name", "age" },
+            new IAType[] { BuiltinType.AINT64, BuiltinType.ASTRING,
+                    AUnionType.createUnknownableType(BuiltinType.AINT64) },
+            true);
+
+    private int varCounter;
+
+    @Test
+    public void testRequestedFieldsAndFilter() throws AlgebricksException {
+        // select $age from Users where $age > 30 and 40 > $age and $name = "Ann"
+        DatasetDataSource users = createDataSource(ExternalDataConstants.FORMAT_PARQUET);
+        LogicalVariable user = newVar();
+        ILogicalOperator scan = scan(users, user);
+        LogicalVariable age = newVar();
+        LogicalVariable name = newVar();
+        AssignOperator assign = new AssignOperator(new ArrayList<>(Collections.singletonList(age)),
+                new ArrayList<>(Collections.singletonList(fieldAccess(user, "age"))));
+        assign.getVariables().add(name);
+        assign.getExpressions().add(fieldAccess(user, "name"));
+        assign.getInputs().add(new MutableObject<>(scan));
+        SelectOperator select = new SelectOperator(call(BuiltinFunctions.AND, call(BuiltinFunctions.GT, var(age),
+                bigint(30)), call(BuiltinFunctions.LT, bigint(40), var(age)),
+                call(BuiltinFunctions.EQ, var(name), string("Ann"))), false, null);
+        select.getInputs().add(new MutableObject<>(assign));
+        apply(distribute(select, var(age)));
+
+        Assert.assertEquals("id,name,age", users.getProperties().get(ExternalDataConstants.KEY_REQUESTED_FIELDS));
+        Assert.assertEquals("age > 30;age < 40", users.getProperties().get(ExternalDataConstants.KEY_PUSHED_FILTER));
+    }
+
+    @Test
+    public void testWholeRecords() throws AlgebricksException {
+        // select $user from Users where $user.id = 2
+        DatasetDataSource users = createDataSource(ExternalDataConstants.FORMAT_PARQUET);
+        LogicalVariable user = newVar();
+        SelectOperator select = new SelectOperator(
+                call(BuiltinFunctions.EQ, fieldAccess(user, "id"), bigint(2)), false, null);
+        select.getInputs().add(new MutableObject<>(scan(users, user)));
+        apply(distribute(select, var(user)));
+
+        Assert.assertFalse(users.getProperties().containsKey(ExternalDataConstants.KEY_REQUESTED_FIELDS));
+        Assert.assertEquals("id = 2", users.getProperties().get(ExternalDataConstants.KEY_PUSHED_FILTER));
+    }
+
+    @Test
+    public void testSharedDataSource() throws AlgebricksException {
+        // two scans of the same data source, e.g. after a copy of a part of the plan, each with its own filter
+        DatasetDataSource users = createDataSource(ExternalDataConstants.FORMAT_PARQUET);
+        users.getProperties().put(ExternalDataConstants.KEY_PUSHED_FILTER, "id = 1");
+        LogicalVariable left = newVar();
+        LogicalVariable right = newVar();
+        SelectOperator leftSelect = new SelectOperator(
+                call(BuiltinFunctions.EQ, fieldAccess(left, "id"), bigint(1)), false, null);
+        leftSelect.getInputs().add(new MutableObject<>(scan(users, left)));
+        SelectOperator rightSelect = new SelectOperator(
+                call(BuiltinFunctions.EQ, fieldAccess(right, "id"), bigint(2)), false, null);
+        rightSelect.getInputs().add(new MutableObject<>(scan(users, right)));
+        InnerJoinOperator join = new InnerJoinOperator(new MutableObject<>(ConstantExpression.TRUE),
+                new MutableObject<>(leftSelect), new MutableObject<>(rightSelect));
+        apply(distribute(join, fieldAccess(left, "name"), fieldAccess(right, "name")));
+
+        // neither scan may get the fields or the filter of the other one, so both get none
+        Assert.assertFalse(users.getProperties().containsKey(ExternalDataConstants.KEY_REQUESTED_FIELDS));
+        Assert.assertFalse(users.getProperties().containsKey(ExternalDataConstants.KEY_PUSHED_FILTER));
+    }
+
+    @Test
+    public void testOtherFormats() throws AlgebricksException {
+        DatasetDataSource users = createDataSource(ExternalDataConstants.FORMAT_DELIMITED_TEXT);
+        LogicalVariable user = newVar();
+        SelectOperator select = new SelectOperator(
+                call(BuiltinFunctions.EQ, fieldAccess(user, "id"), bigint(2)), false, null);
+        select.getInputs().add(new MutableObject<>(scan(users, user)));
+        apply(distribute(select, fieldAccess(user, "name")));
+
+        Assert.assertTrue(users.getProperties().isEmpty());
+    }
+
+    private static DatasetDataSource createDataSource(String format) throws AlgebricksException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(ExternalDataConstants.KEY_PATH, "asterix_nc1://target/data/parquet/users");
+        properties.put(ExternalDataConstants.KEY_FORMAT, format);
+        ExternalDatasetDetails details = new ExternalDatasetDetails(ExternalDataConstants.ALIAS_LOCALFS_ADAPTER,
+                properties, new Date(), TransactionState.COMMIT);
+        Dataset dataset = new Dataset("test", "Users", "test", USER_TYPE.getTypeName(), "DEFAULT_NG_ALL_NODES",
+                null, null, details, Collections.emptyMap(), DatasetType.EXTERNAL, 100, 0);
+        return new DatasetDataSource(new DataSourceId("test", "Users"), dataset, USER_TYPE, null,
+                DataSource.Type.EXTERNAL_DATASET, details, null);
+    }
+
+    private static void apply(ILogicalOperator root) throws AlgebricksException {
+        new PushFieldAccessAndFilterToExternalScanRule().rewritePost(new MutableObject<>(root), null);
+    }
+
+    private static ILogicalOperator scan(DatasetDataSource dataSource, LogicalVariable recordVar) {
+        DataSourceScanOperator scan =
+                new DataSourceScanOperator(new ArrayList<>(Collections.singletonList(recordVar)), dataSource);
+        scan.getInputs().add(new MutableObject<>(new EmptyTupleSourceOperator()));
+        return scan;
+    }
+
+    @SafeVarargs
+    private static ILogicalOperator distribute(ILogicalOperator input, Mutable<ILogicalExpression>... results) {
+        DistributeResultOperator distribute = new DistributeResultOperator(new ArrayList<>(Arrays.asList(results)),
+                null);
+        distribute.getInputs().add(new MutableObject<>(input));
+        return distribute;
+    }
+
+    private LogicalVariable newVar() {
+        return new LogicalVariable(varCounter++);
+    }
+
+    private static Mutable<ILogicalExpression> fieldAccess(LogicalVariable recordVar, String field) {
+        return call(BuiltinFunctions.FIELD_ACCESS_BY_NAME, var(recordVar), string(field));
+    }
+
+    @SafeVarargs
+    private static Mutable<ILogicalExpression> call(FunctionIdentifier fid, Mutable<ILogicalExpression>... args) {
+        return new MutableObject<>(new ScalarFunctionCallExpression(FunctionUtil.getFunctionInfo(fid), args));
+    }
+
+    private static Mutable<ILogicalExpression> var(LogicalVariable var) {
+        return new MutableObject<>(new VariableReferenceExpression(var));
+    }
+
+    private static Mutable<ILogicalExpression> bigint(long value) {
+        return new MutableObject<>(new ConstantExpression(new AsterixConstantValue(new AInt64(value))));
+    }
+
+    private static Mutable<ILogicalExpression> string(String value) {
+        return new MutableObject<>(new ConstantExpression(new AsterixConstantValue(new AString(value))));
+    }
+}
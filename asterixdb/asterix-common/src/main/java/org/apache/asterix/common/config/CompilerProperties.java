@@ -46,6 +46,11 @@ public class CompilerProperties extends AbstractProperties {
                 "other integer values dictate the number of query execution parallel partitions. The system will " +
                 "fall back to use the number of all available CPU cores in the cluster as the degree of parallelism " +
                 "if the number set by a user is too large or too small"),
+        COMPILER_PLANCACHE_SIZE(INTEGER, 0, "The number of compiled query plans kept for reuse by repeated " +
+                "executions of the same query. Any metadata change invalidates every cached plan. Zero disables " +
+                "the plan cache"),
+        COMPILER_EXCHANGE_COMPRESSIONWIDTH(INTEGER, 0, "The estimated tuple width (in bytes) from which data " +
+                "exchanges between partitions compress their frames. Zero disables frame compression"),
         COMPILER_PREGELIX_HOME(STRING, "~/pregelix", "Pregelix installation root directory");
 
         private final IOptionType type;
@@ -117,6 +122,14 @@ public class CompilerProperties extends AbstractProperties {
         return accessor.getInt(Option.COMPILER_PARALLELISM);
     }
 
+    public int getPlanCacheSize() {
+        return accessor.getInt(Option.COMPILER_PLANCACHE_SIZE);
+    }
+
+    public int getExchangeCompressionWidth() {
+        return accessor.getInt(Option.COMPILER_EXCHANGE_COMPRESSIONWIDTH);
+    }
+
     public String getPregelixHome() {
         return accessor.getString(Option.COMPILER_PREGELIX_HOME);
     }
@@ -30,12 +30,23 @@ public class ExternalProperties extends AbstractProperties {
         WEB_PORT(INTEGER, 19001, "The listen port of the legacy query interface"),
         WEB_QUERYINTERFACE_PORT(INTEGER, 19006, "The listen port of the query web interface"),
         API_PORT(INTEGER, 19002, "The listen port of the API server"),
+        RESULT_ARRIVAL_ORDER(BOOLEAN, false, "Whether the API server returns the frames of query results that have " +
+                "no order as the result partitions produce them, rather than one partition after another. The " +
+                "order of such results then varies from run to run"),
         ACTIVE_PORT(INTEGER, 19003, "The listen port of the active server"),
         LOG_LEVEL(LEVEL, java.util.logging.Level.WARNING, "The logging level for master and slave processes"),
         MAX_WAIT_ACTIVE_CLUSTER(INTEGER, 60, "The max pending time (in seconds) for cluster startup. After the " +
                 "threshold, if the cluster still is not up and running, it is considered unavailable"),
         CC_JAVA_OPTS(STRING, "-Xmx1024m", "The JVM options passed to the cluster controller process by managix"),
-        NC_JAVA_OPTS(STRING, "-Xmx1024m", "The JVM options passed to the node controller process(es) by managix");
+        NC_JAVA_OPTS(STRING, "-Xmx1024m", "The JVM options passed to the node controller process(es) by managix"),
+        EXTERNAL_FUNCTION_JAVA_OPTS(STRING, "-Xmx256m -XX:+UseSerialGC", "The JVM options passed to the processes " +
+                "that run the functions of isolated libraries"),
+        EXTERNAL_FUNCTION_MAX_PROCESSES(INTEGER, 8, "The maximum number of processes that run the functions of " +
+                "isolated libraries on a node"),
+        EXTERNAL_FUNCTION_STARTUP_TIMEOUT(INTEGER, 60, "The max time (in seconds) a process of an isolated library " +
+                "has to load its function before it is killed; 0 to wait without limit"),
+        EXTERNAL_FUNCTION_CALL_TIMEOUT(INTEGER, 300, "The max time (in seconds) a process of an isolated library " +
+                "has to answer a batch of calls before it is killed and the query fails; 0 to wait without limit");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -54,6 +65,7 @@ public class ExternalProperties extends AbstractProperties {
                 case WEB_QUERYINTERFACE_PORT:
                 case API_PORT:
                 case ACTIVE_PORT:
+                case RESULT_ARRIVAL_ORDER:
                     return Section.CC;
                 case LOG_LEVEL:
                 case MAX_WAIT_ACTIVE_CLUSTER:
@@ -61,6 +73,11 @@ public class ExternalProperties extends AbstractProperties {
                 case CC_JAVA_OPTS:
                 case NC_JAVA_OPTS:
                     return Section.VIRTUAL;
+                case EXTERNAL_FUNCTION_JAVA_OPTS:
+                case EXTERNAL_FUNCTION_MAX_PROCESSES:
+                case EXTERNAL_FUNCTION_STARTUP_TIMEOUT:
+                case EXTERNAL_FUNCTION_CALL_TIMEOUT:
+                    return Section.NC;
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -102,6 +119,10 @@ public class ExternalProperties extends AbstractProperties {
         return accessor.getInt(Option.ACTIVE_PORT);
     }
 
+    public boolean isResultArrivalOrder() {
+        return accessor.getBoolean(Option.RESULT_ARRIVAL_ORDER);
+    }
+
     public java.util.logging.Level getLogLevel() {
         return accessor.getLoggingLevel(Option.LOG_LEVEL);
     }
@@ -117,4 +138,20 @@ public class ExternalProperties extends AbstractProperties {
     public String getCCJavaParams() {
         return accessor.getString(Option.CC_JAVA_OPTS);
     }
+
+    public String getExternalFunctionJavaParams() {
+        return accessor.getString(Option.EXTERNAL_FUNCTION_JAVA_OPTS);
+    }
+
+    public int getExternalFunctionMaxProcesses() {
+        return accessor.getInt(Option.EXTERNAL_FUNCTION_MAX_PROCESSES);
+    }
+
+    public int getExternalFunctionStartupTimeout() {
+        return accessor.getInt(Option.EXTERNAL_FUNCTION_STARTUP_TIMEOUT);
+    }
+
+    public int getExternalFunctionCallTimeout() {
+        return accessor.getInt(Option.EXTERNAL_FUNCTION_CALL_TIMEOUT);
+    }
 }
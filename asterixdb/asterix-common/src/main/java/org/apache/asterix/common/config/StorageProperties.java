@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.common.config;
 
+import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.DOUBLE;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
@@ -48,6 +49,7 @@ public class StorageProperties extends AbstractProperties {
                 (int) (accessor.getLong(STORAGE_MEMORYCOMPONENT_GLOBALBUDGET) /
                         (16 * accessor.getInt(STORAGE_MEMORYCOMPONENT_PAGESIZE)))),
         STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS(INTEGER, 2),
+        STORAGE_MEMORYCOMPONENT_SKIPLIST(BOOLEAN, false),
         STORAGE_METADATA_MEMORYCOMPONENT_NUMPAGES(INTEGER, (Function<IApplicationConfig, Integer>) accessor ->
                 // By default, uses the min of 1/64 of the STORAGE_MEMORYCOMPONENT_GLOBALBUDGET and 256 pages
                 // for the write buffer budget for a metadata dataset, including data and indexes.
@@ -95,6 +97,9 @@ public class StorageProperties extends AbstractProperties {
                             "the pages are 75% full and the remaining 25% is un-utilized";
                 case STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS:
                     return "The number of memory components to be used per lsm index";
+                case STORAGE_MEMORYCOMPONENT_SKIPLIST:
+                    return "Whether the memory components of new B-tree indexes keep their entries in a latch-free " +
+                            "skip list instead of a B-tree";
                 case STORAGE_METADATA_MEMORYCOMPONENT_NUMPAGES:
                     return "The number of pages to allocate for a metadata memory component";
                 case STORAGE_LSM_BLOOMFILTER_FALSEPOSITIVERATE:
@@ -162,6 +167,10 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getInt(Option.STORAGE_MEMORYCOMPONENT_NUMCOMPONENTS);
     }
 
+    public boolean isMemoryComponentSkipList() {
+        return accessor.getBoolean(Option.STORAGE_MEMORYCOMPONENT_SKIPLIST);
+    }
+
     public long getMemoryComponentGlobalBudget() {
         return accessor.getLong(Option.STORAGE_MEMORYCOMPONENT_GLOBALBUDGET);
     }
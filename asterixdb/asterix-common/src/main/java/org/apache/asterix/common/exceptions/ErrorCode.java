@@ -195,6 +195,11 @@ public class ErrorCode {
     public static final int FEED_UNKNOWN_ADAPTER_NAME = 3085;
     public static final int PROVIDER_STREAM_RECORD_READER_WRONG_CONFIGURATION = 3086;
     public static final int FEED_CONNECT_FEED_APPLIED_INVALID_FUNCTION = 3087;
+    public static final int PARSER_JSON_DATA_PARSER_MALFORMED_INPUT = 3088;
+    public static final int PARSER_ADM_BINARY_DATA_PARSER_MALFORMED_INPUT = 3089;
+    public static final int PARSER_ADM_BINARY_DATA_PARSER_TYPE_MISMATCH = 3090;
+    public static final int LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED = 3091;
+    public static final int LIBRARY_EXTERNAL_FUNCTION_VALUE_TOO_LARGE = 3092;
 
     // Lifecycle management errors
     public static final int DUPLICATE_PARTITION_ID = 4000;
@@ -37,6 +37,18 @@ public interface ILibraryManager {
     public void registerLibraryClassLoader(String dataverseName, String libraryName, ClassLoader classLoader)
             throws HyracksDataException;
 
+    /**
+     * Registers the library class loader with the external library manager.
+     *
+     * @param dataverseName
+     * @param libraryName
+     * @param classLoader
+     * @param isolated
+     *            whether the functions of the library run in separate processes instead of inside this node
+     */
+    public void registerLibraryClassLoader(String dataverseName, String libraryName, ClassLoader classLoader,
+            boolean isolated) throws HyracksDataException;
+
     /**
      * @return all registered libraries.
      */
@@ -58,4 +70,11 @@ public interface ILibraryManager {
      * @return the library class loader associated with the dataverse and library.
      */
     public ClassLoader getLibraryClassLoader(String dataverseName, String libraryName);
+
+    /**
+     * @param dataverseName
+     * @param libraryName
+     * @return true if the functions of the library run in separate processes.
+     */
+    public boolean isLibraryIsolated(String dataverseName, String libraryName);
 }
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.api;
+
+import org.apache.asterix.external.library.java.JTypeTag;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Gives an {@link IExternalBatchScalarFunction} access to the arguments of a whole batch of invocations and
+ * collects their results. Argument and result objects are pooled and are only valid until the batch completes.
+ */
+public interface IBatchFunctionHelper {
+
+    public int getBatchSize();
+
+    public IJObject[] getArguments(int tupleIndex);
+
+    public IJObject getArgument(int tupleIndex, int index);
+
+    public IJObject getResultObject();
+
+    public void setResult(int tupleIndex, IJObject result) throws HyracksDataException;
+
+    public IJObject getObject(JTypeTag jtypeTag) throws HyracksDataException;
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.api;
+
+/**
+ * A scalar function that can be invoked on a frame's worth of argument sets at a time. The runtime may evaluate
+ * a batch ahead of the tuples that actually consume the results (e.g. tuples filtered out by a surrounding
+ * conditional), so implementations must be free of side effects and return the same result for the same
+ * arguments. If a batch fails, the runtime falls back to the per-tuple
+ * {@link IExternalScalarFunction#evaluate(IFunctionHelper)} so errors are reported against the offending tuple.
+ */
+public interface IExternalBatchScalarFunction extends IExternalScalarFunction {
+
+    /**
+     * Evaluates the function for every argument set in the batch. Results are handed back through
+     * {@link IBatchFunctionHelper#setResult(int, IJObject)}; a tuple without a result evaluates to MISSING.
+     */
+    public void evaluateBatch(IBatchFunctionHelper functionHelper) throws Exception;
+
+}
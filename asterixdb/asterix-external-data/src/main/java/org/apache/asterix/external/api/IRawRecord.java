@@ -49,4 +49,12 @@ public interface IRawRecord<T> {
      * @param t
      */
     public void set(T t);
+
+    /**
+     * @return a copy of this record that stays valid after the record reader reuses this object, or null if the
+     *         record can't be copied. Copies are what allow a record to be handed over to another thread for parsing.
+     */
+    public default IRawRecord<T> copy() {
+        return null;
+    }
 }
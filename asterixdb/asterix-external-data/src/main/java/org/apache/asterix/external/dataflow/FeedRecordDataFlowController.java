@@ -77,14 +77,18 @@ public class FeedRecordDataFlowController<T> extends AbstractFeedDataFlowControl
             throw e;
         } catch (Exception e) {
             failed = true;
-            tupleForwarder.flush();
+            try {
+                flushOnFailure();
+            } catch (Throwable th) {
+                e.addSuppressed(th);
+            }
             LOGGER.warn("Failure while operating a feed source", e);
             throw HyracksDataException.create(e);
         }
         finish();
     }
 
-    private void finish() throws HyracksDataException {
+    protected void finish() throws HyracksDataException {
         HyracksDataException hde = null;
         try {
             tupleForwarder.close();
@@ -104,7 +108,21 @@ public class FeedRecordDataFlowController<T> extends AbstractFeedDataFlowControl
         }
     }
 
-    private void parseAndForward(IRawRecord<? extends T> record) throws IOException {
+    /**
+     * Pushes the tuples forwarded before the intake failed.
+     */
+    protected void flushOnFailure() throws HyracksDataException {
+        tupleForwarder.flush();
+    }
+
+    /**
+     * Closes the forwarder of a failed intake. Called by the thread that stops the feed.
+     */
+    protected void closeOnStop() throws HyracksDataException {
+        tupleForwarder.close();
+    }
+
+    protected void parseAndForward(IRawRecord<? extends T> record) throws IOException {
         try {
             dataParser.parse(record, tb.getDataOutput());
         } catch (Exception e) {
@@ -147,7 +165,7 @@ public class FeedRecordDataFlowController<T> extends AbstractFeedDataFlowControl
             if (failed) {
                 // failed, close here
                 try {
-                    tupleForwarder.close();
+                    closeOnStop();
                 } catch (Throwable th) {
                     hde = HyracksDataException.suppress(hde, th);
                 }
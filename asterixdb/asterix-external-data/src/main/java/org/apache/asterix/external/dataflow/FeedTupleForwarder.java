@@ -19,8 +19,20 @@
 package org.apache.asterix.external.dataflow;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
 import org.apache.asterix.external.api.ITupleForwarder;
+import org.apache.asterix.external.feed.dataflow.LatencyHistogram;
 import org.apache.asterix.external.util.DataflowUtils;
 import org.apache.asterix.external.util.FeedLogManager;
 import org.apache.hyracks.api.comm.IFrame;
@@ -32,17 +44,85 @@ import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 
+/**
+ * Forwards the tuples of a feed in frames. Without a target latency, a frame is pushed once it is full. With a
+ * target latency, a frame is pushed once it holds as many tuples as are expected to arrive within the latency budget
+ * left after the push itself, or at the latest when its oldest tuple has waited for that budget. The budget and the
+ * batch size adapt to the measured arrival rate and to the time the downstream operators take to accept a frame,
+ * which grows when the store side pushes back. The deadlines of the forwarders of a node are kept by a single shared
+ * scheduler thread, which hands the push of a frame whose deadline has passed to the executor of its task.
+ */
 public class FeedTupleForwarder implements ITupleForwarder {
 
+    /** target time (in ms) between the arrival of a tuple and the push of its frame **/
+    public static final String TARGET_LATENCY = "target-latency";
+    private static final Logger LOGGER = Logger.getLogger(FeedTupleForwarder.class.getName());
+    private static final double ESTIMATE_WEIGHT = 0.2;
+    private static final ScheduledThreadPoolExecutor DEADLINE_SCHEDULER = createDeadlineScheduler();
+
     private final FeedLogManager feedLogManager;
+    private final long targetLatencyNanos;
+    private final LongSupplier clock;
+    private final Object lock = new Object();
+    private final LatencyHistogram batchingLatencies = new LatencyHistogram("batching");
+    private final LatencyHistogram pushLatencies = new LatencyHistogram("push");
     private FrameTupleAppender appender;
     private IFrame frame;
     private IFrameWriter writer;
     private boolean paused = false;
     private boolean initialized;
+    private boolean closed;
+    private Executor pushExecutor;
+    // the deadline check of the frame, if one is scheduled
+    private ScheduledFuture<?> deadlineCheck;
+    private volatile Throwable flushFailure;
+    // arrival time of the oldest tuple in the frame
+    private long oldestTupleTime;
+    private long lastArrivalTime;
+    // moving averages of the time between two arrivals and of the time the writer takes to accept a frame
+    private long interArrivalNanos;
+    private long pushNanos;
 
     public FeedTupleForwarder(FeedLogManager feedLogManager) {
+        this(feedLogManager, 0L);
+    }
+
+    public FeedTupleForwarder(FeedLogManager feedLogManager, long targetLatency) {
+        this(feedLogManager, targetLatency, System::nanoTime, null);
+    }
+
+    /**
+     * @param clock
+     *            the source of the times (in ns) that the latencies are measured with
+     * @param pushExecutor
+     *            the executor of the pushes of frames whose deadline has passed, the executor of the task if null
+     */
+    FeedTupleForwarder(FeedLogManager feedLogManager, long targetLatency, LongSupplier clock, Executor pushExecutor) {
         this.feedLogManager = feedLogManager;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatency);
+        this.clock = clock;
+        this.pushExecutor = pushExecutor;
+    }
+
+    private static ScheduledThreadPoolExecutor createDeadlineScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "FeedTupleForwarder-Deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the checks of frames that are pushed before their deadline are cancelled, don't keep them around
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    // Factory method
+    public static FeedTupleForwarder create(Map<String, String> configuration, FeedLogManager feedLogManager) {
+        long targetLatency = 0L;
+        String propValue = configuration.get(TARGET_LATENCY);
+        if (propValue != null) {
+            targetLatency = Long.parseLong(propValue);
+        }
+        return new FeedTupleForwarder(feedLogManager, targetLatency);
     }
 
     public FeedLogManager getFeedLogManager() {
@@ -55,6 +135,9 @@ public class FeedTupleForwarder implements ITupleForwarder {
             this.frame = new VSizeFrame(ctx);
             this.writer = writer;
             this.appender = new FrameTupleAppender(frame);
+            if (pushExecutor == null) {
+                pushExecutor = ctx.getExecutorService();
+            }
             initialized = true;
         }
     }
@@ -72,7 +155,107 @@ public class FeedTupleForwarder implements ITupleForwarder {
                 }
             }
         }
-        DataflowUtils.addTupleToFrame(appender, tb, writer);
+        if (targetLatencyNanos <= 0L) {
+            DataflowUtils.addTupleToFrame(appender, tb, writer);
+            return;
+        }
+        if (flushFailure != null) {
+            throw HyracksDataException.create(flushFailure);
+        }
+        synchronized (lock) {
+            long now = clock.getAsLong();
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                pushFrame(now);
+                if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                    throw new RuntimeDataException(ErrorCode.UTIL_DATAFLOW_UTILS_TUPLE_TOO_LARGE);
+                }
+            }
+            if (lastArrivalTime > 0L) {
+                interArrivalNanos = estimate(interArrivalNanos, now - lastArrivalTime);
+            }
+            lastArrivalTime = now;
+            if (appender.getTupleCount() == 1) {
+                oldestTupleTime = now;
+            }
+            if (appender.getTupleCount() >= getBatchSize()) {
+                pushFrame(now);
+            } else if (deadlineCheck == null) {
+                scheduleDeadlineCheck(now);
+            }
+        }
+    }
+
+    // The time (in ns) the oldest tuple of a frame may wait for its frame to be pushed
+    private long getDeadlineBudget() {
+        return targetLatencyNanos - pushNanos;
+    }
+
+    private void scheduleDeadlineCheck(long now) {
+        long delay = Math.max(0L, oldestTupleTime + getDeadlineBudget() - now);
+        deadlineCheck = DEADLINE_SCHEDULER.schedule(this::submitDeadlineCheck, delay, TimeUnit.NANOSECONDS);
+    }
+
+    // Runs on the scheduler thread, which is shared, so the check and the push it may lead to run on the task executor
+    private void submitDeadlineCheck() {
+        try {
+            pushExecutor.execute(this::checkDeadline);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.WARNING, "Failure while scheduling the push of a feed frame", e);
+            flushFailure = e;
+        }
+    }
+
+    /**
+     * Pushes the frame once its oldest tuple has used up the latency budget, e.g. when the source goes quiet, or
+     * schedules another check for when it will have.
+     */
+    void checkDeadline() {
+        synchronized (lock) {
+            deadlineCheck = null;
+            if (closed || flushFailure != null || appender.getTupleCount() == 0) {
+                return;
+            }
+            long now = clock.getAsLong();
+            if (now - oldestTupleTime < getDeadlineBudget()) {
+                scheduleDeadlineCheck(now);
+                return;
+            }
+            try {
+                pushFrame(now);
+            } catch (Throwable th) {
+                LOGGER.log(Level.WARNING, "Failure while pushing a feed frame", th);
+                flushFailure = th;
+            }
+        }
+    }
+
+    // The number of tuples expected to arrive within the latency budget left after pushing the frame
+    private int getBatchSize() {
+        long budget = targetLatencyNanos - pushNanos;
+        if (budget <= 0L || interArrivalNanos <= 0L) {
+            return 1;
+        }
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, budget / interArrivalNanos));
+    }
+
+    private void pushFrame(long now) throws HyracksDataException {
+        if (deadlineCheck != null) {
+            deadlineCheck.cancel(false);
+            deadlineCheck = null;
+        }
+        if (appender.getTupleCount() == 0) {
+            return;
+        }
+        batchingLatencies.record(now - oldestTupleTime);
+        long start = clock.getAsLong();
+        appender.write(writer, true);
+        long elapsed = clock.getAsLong() - start;
+        pushLatencies.record(elapsed);
+        pushNanos = estimate(pushNanos, elapsed);
+    }
+
+    private static long estimate(long current, long sample) {
+        return current <= 0L ? sample : (long) (ESTIMATE_WEIGHT * sample + (1 - ESTIMATE_WEIGHT) * current);
     }
 
     public void pause() {
@@ -84,17 +267,35 @@ public class FeedTupleForwarder implements ITupleForwarder {
         notifyAll();
     }
 
+    public LatencyHistogram getBatchingLatencies() {
+        return batchingLatencies;
+    }
+
+    public LatencyHistogram getPushLatencies() {
+        return pushLatencies;
+    }
+
     @Override
     public void close() throws HyracksDataException {
         Throwable throwable = null;
         try {
-            if (appender.getTupleCount() > 0) {
-                FrameUtils.flushFrame(frame.getBuffer(), writer);
+            synchronized (lock) {
+                closed = true;
+                if (deadlineCheck != null) {
+                    deadlineCheck.cancel(false);
+                    deadlineCheck = null;
+                }
+                if (appender.getTupleCount() > 0) {
+                    FrameUtils.flushFrame(frame.getBuffer(), writer);
+                }
             }
         } catch (Throwable th) {
             throwable = th;
             throw th;
         } finally {
+            if (LOGGER.isLoggable(Level.INFO) && pushLatencies.getCount() > 0) {
+                LOGGER.info("Frame latencies of feed intake: " + batchingLatencies + "; " + pushLatencies);
+            }
             try {
                 feedLogManager.close();
             } catch (IOException e) {
@@ -114,6 +315,11 @@ public class FeedTupleForwarder implements ITupleForwarder {
     }
 
     public void flush() throws HyracksDataException {
-        appender.flush(writer);
+        synchronized (lock) {
+            if (targetLatencyNanos > 0L) {
+                pushFrame(clock.getAsLong());
+            }
+            appender.flush(writer);
+        }
     }
 }
@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.dataflow;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordDataParser;
+import org.apache.asterix.external.api.IRecordReader;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.log4j.Logger;
+
+/**
+ * A feed controller that keeps the intake thread for reading only: raw records are copied into batches which are
+ * parsed by a pool of parser threads, each with its own parser. Parsed batches are forwarded in the order they were
+ * read if ordered is set, and as soon as they are parsed otherwise.
+ * Records that can't be copied are parsed on the intake thread once all records read before them have been forwarded.
+ * The forwarder is only accessed under the forward lock, and the parser threads are stopped and joined before it is
+ * flushed after a failure or closed.
+ */
+public class ParallelFeedRecordDataFlowController<T> extends FeedRecordDataFlowController<T> {
+    private static final Logger LOGGER = Logger.getLogger(ParallelFeedRecordDataFlowController.class.getName());
+    private static final int BATCH_SIZE = 256;
+    private final List<IRecordDataParser<T>> parsers;
+    private final boolean ordered;
+    private final Object forwardLock = new Object();
+    // guarded by forwardLock
+    private final Map<Long, Batch<T>> parsedBatches = new HashMap<>();
+    private final Object workerLock = new Object();
+    // guarded by workerLock
+    private final List<Future<?>> workers = new ArrayList<>();
+    // guarded by workerLock
+    private int numOfRunningWorkers;
+    // guarded by workerLock
+    private boolean stopping;
+    private final Object idleSignal = new Object();
+    private BlockingQueue<Batch<T>> freeBatches;
+    private BlockingQueue<Batch<T>> parseQueue;
+    private Batch<T> current;
+    private long nextSequence;
+    // guarded by forwardLock
+    private long nextSequenceToForward;
+    // guarded by idleSignal
+    private int inFlight;
+    private volatile Throwable failure;
+
+    public ParallelFeedRecordDataFlowController(IHyracksTaskContext ctx, FeedTupleForwarder tupleForwarder,
+            FeedLogManager feedLogManager, int numOfOutputFields, List<IRecordDataParser<T>> parsers,
+            IRecordReader<T> recordReader, boolean ordered) throws HyracksDataException {
+        super(ctx, tupleForwarder, feedLogManager, numOfOutputFields, parsers.get(0), recordReader);
+        this.parsers = parsers;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void start(IFrameWriter writer) throws HyracksDataException, InterruptedException {
+        startWorkers();
+        try {
+            super.start(writer);
+        } finally {
+            stopWorkers();
+        }
+    }
+
+    @Override
+    protected void parseAndForward(IRawRecord<? extends T> record) throws IOException {
+        checkFailure();
+        IRawRecord<? extends T> copy = record.copy();
+        if (copy == null) {
+            // the record is only valid until the next read, parse it here after the records read before it
+            flush();
+            synchronized (forwardLock) {
+                super.parseAndForward(record);
+            }
+            return;
+        }
+        if (current == null) {
+            current = takeFreeBatch();
+        }
+        current.records.add(copy);
+        if (current.records.size() >= BATCH_SIZE) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Hands the current batch over to the parsers and waits until all dispatched batches have been forwarded.
+     * Must only be called from the intake thread.
+     */
+    @Override
+    public void flush() throws HyracksDataException {
+        dispatch();
+        try {
+            synchronized (idleSignal) {
+                while (inFlight > 0 && failure == null) {
+                    idleSignal.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        }
+        checkFailure();
+        synchronized (forwardLock) {
+            super.flush();
+        }
+    }
+
+    @Override
+    protected void flushOnFailure() throws HyracksDataException {
+        stopWorkers();
+        synchronized (forwardLock) {
+            super.flushOnFailure();
+        }
+    }
+
+    @Override
+    protected void closeOnStop() throws HyracksDataException {
+        stopWorkers();
+        synchronized (forwardLock) {
+            super.closeOnStop();
+        }
+    }
+
+    @Override
+    protected void finish() throws HyracksDataException {
+        HyracksDataException hde = null;
+        if (!failed) {
+            try {
+                flush();
+            } catch (Throwable th) {
+                hde = HyracksDataException.suppress(hde, th);
+            }
+        }
+        stopWorkers();
+        try {
+            synchronized (forwardLock) {
+                super.finish();
+            }
+        } catch (Throwable th) {
+            hde = HyracksDataException.suppress(hde, th);
+        }
+        if (hde != null) {
+            throw hde;
+        }
+    }
+
+    private void startWorkers() {
+        int numOfBatches = 2 * parsers.size() + 1;
+        freeBatches = new ArrayBlockingQueue<>(numOfBatches);
+        parseQueue = new ArrayBlockingQueue<>(numOfBatches);
+        for (int i = 0; i < numOfBatches; i++) {
+            freeBatches.add(new Batch<>());
+        }
+        current = null;
+        nextSequence = 0;
+        nextSequenceToForward = 0;
+        parsedBatches.clear();
+        inFlight = 0;
+        failure = null;
+        synchronized (workerLock) {
+            stopping = false;
+            for (IRecordDataParser<T> parser : parsers) {
+                workers.add(ctx.getExecutorService().submit(() -> runParser(parser)));
+            }
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Parsing feed records on " + parsers.size() + " threads"
+                    + (ordered ? " with ordered reassembly" : ""));
+        }
+    }
+
+    /**
+     * Stops the parser threads and waits for them to exit, so that none of them forwards tuples afterwards.
+     * May be called from any thread.
+     */
+    private void stopWorkers() {
+        boolean interrupted = false;
+        synchronized (workerLock) {
+            stopping = true;
+            for (Future<?> worker : workers) {
+                worker.cancel(true);
+            }
+            workers.clear();
+            while (numOfRunningWorkers > 0) {
+                try {
+                    workerLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Batch<T> takeFreeBatch() throws HyracksDataException {
+        try {
+            Batch<T> batch = freeBatches.poll(INTERVAL, TimeUnit.MILLISECONDS);
+            while (batch == null) {
+                checkFailure();
+                batch = freeBatches.poll(INTERVAL, TimeUnit.MILLISECONDS);
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void dispatch() {
+        if (current == null) {
+            return;
+        }
+        current.sequence = nextSequence++;
+        synchronized (idleSignal) {
+            inFlight++;
+        }
+        // never blocks, the queue can hold all the batches
+        parseQueue.add(current);
+        current = null;
+    }
+
+    private void runParser(IRecordDataParser<T> parser) {
+        synchronized (workerLock) {
+            if (stopping) {
+                return;
+            }
+            numOfRunningWorkers++;
+        }
+        try {
+            while (true) {
+                Batch<T> batch = parseQueue.take();
+                parse(parser, batch);
+                forward(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable th) {
+            LOGGER.warn("Failure while parsing feed records", th);
+            synchronized (idleSignal) {
+                failure = th;
+                idleSignal.notifyAll();
+            }
+        } finally {
+            synchronized (workerLock) {
+                numOfRunningWorkers--;
+                workerLock.notifyAll();
+            }
+        }
+    }
+
+    private void parse(IRecordDataParser<T> parser, Batch<T> batch) throws IOException {
+        batch.numOfTuples = 0;
+        for (IRawRecord<? extends T> record : batch.records) {
+            if (batch.numOfTuples == batch.tuples.size()) {
+                batch.tuples.add(new ArrayTupleBuilder(numOfFields));
+            }
+            ArrayTupleBuilder tuple = batch.tuples.get(batch.numOfTuples);
+            tuple.reset();
+            try {
+                parser.parse(record, tuple.getDataOutput());
+            } catch (Exception e) {
+                LOGGER.warn(ExternalDataConstants.ERROR_PARSE_RECORD, e);
+                feedLogManager.logRecord(record.toString(), ExternalDataConstants.ERROR_PARSE_RECORD);
+                continue;
+            }
+            tuple.addFieldEndOffset();
+            batch.numOfTuples++;
+        }
+    }
+
+    private void forward(Batch<T> batch) throws HyracksDataException {
+        int numOfForwarded = 0;
+        synchronized (forwardLock) {
+            if (!ordered) {
+                forwardTuples(batch);
+                numOfForwarded++;
+            } else {
+                parsedBatches.put(batch.sequence, batch);
+                Batch<T> next = parsedBatches.remove(nextSequenceToForward);
+                while (next != null) {
+                    forwardTuples(next);
+                    numOfForwarded++;
+                    nextSequenceToForward++;
+                    next = parsedBatches.remove(nextSequenceToForward);
+                }
+            }
+        }
+        if (numOfForwarded > 0) {
+            synchronized (idleSignal) {
+                inFlight -= numOfForwarded;
+                if (inFlight == 0) {
+                    idleSignal.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void forwardTuples(Batch<T> batch) throws HyracksDataException {
+        for (int i = 0; i < batch.numOfTuples; i++) {
+            tupleForwarder.addTuple(batch.tuples.get(i));
+        }
+        batch.records.clear();
+        freeBatches.add(batch);
+    }
+
+    private void checkFailure() throws HyracksDataException {
+        Throwable th = failure;
+        if (th != null) {
+            throw HyracksDataException.create(th);
+        }
+    }
+
+    private static class Batch<T> {
+        private final List<IRawRecord<? extends T>> records = new ArrayList<>(BATCH_SIZE);
+        private final List<ArrayTupleBuilder> tuples = new ArrayList<>(BATCH_SIZE);
+        private int numOfTuples;
+        private long sequence;
+    }
+}
@@ -21,6 +21,8 @@ package org.apache.asterix.external.feed.dataflow;
 import java.nio.ByteBuffer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -55,6 +57,7 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
     private static final ByteBuffer POISON_PILL = ByteBuffer.allocate(0);
     private static final ByteBuffer SPILLED = ByteBuffer.allocate(0);
     private static final ByteBuffer FAIL = ByteBuffer.allocate(0);
+    private static final double COMMIT_ESTIMATE_WEIGHT = 0.2;
 
     private final FeedExceptionHandler exceptionHandler;
     private final FrameSpiller spiller;
@@ -65,6 +68,14 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
     private final Thread consumerThread;
     private final BlockingQueue<ByteBuffer> inbox;
     private final ConcurrentFramePool framePool;
+    // frames held in memory between nextFrame() and the end of their processing by the downstream writer
+    private final AtomicInteger framesInFlight = new AtomicInteger();
+    private final ActiveRuntimeId runtimeId;
+    private final long targetLatencyNanos;
+    private final LatencyHistogram commitLatencies = new LatencyHistogram("commit");
+    private final LatencyHistogram backpressureLatencies = new LatencyHistogram("backpressure");
+    // moving average of the time the downstream writer takes to process a frame, updated by the consumer thread
+    private volatile long commitNanos = 0L;
     private Mode mode = Mode.PROCESS;
     private int total = 0;
     private int numDiscarded = 0;
@@ -90,6 +101,8 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
         this.consumerThread = new Thread(consumer, "FeedRuntimeInputHandler-FrameTransporter");
         this.initialFrameSize = ctx.getInitialFrameSize();
         this.frameAction = new FrameAction();
+        this.runtimeId = runtimeId;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(fpa.getTargetLatency());
     }
 
     @Override
@@ -137,6 +150,9 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
         } finally {
             writer.close();
         }
+        if (LOGGER.isLoggable(Level.INFO) && commitLatencies.getCount() > 0) {
+            LOGGER.info("Frame latencies of " + runtimeId + ": " + commitLatencies + "; " + backpressureLatencies);
+        }
     }
 
     @Override
@@ -211,7 +227,7 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
                 }
                 numProcessedInMemory++;
                 next.put(frame);
-                inbox.put(next);
+                enqueue(next);
                 mode = Mode.PROCESS;
                 return;
             }
@@ -277,7 +293,7 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
         frameAction.setFrame(frame);
         framePool.subscribe(frameAction);
         ByteBuffer temp = frameAction.retrieve();
-        inbox.put(temp);
+        enqueue(temp);
         numProcessedInMemory++;
         if (DEBUG) {
             LOGGER.info("stall(frame) has been completed. Notifying the consumer that a frame is ready");
@@ -298,13 +314,14 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
     }
 
     private void process(ByteBuffer frame) throws HyracksDataException, InterruptedException {
+        awaitCredit();
         // Get a page from frame pool
         ByteBuffer next = (frame.capacity() <= framePool.getMaxFrameSize()) ? getFreeBuffer(frame.capacity()) : null;
         if (next != null) {
             // Got a page from memory pool
             numProcessedInMemory++;
             next.put(frame);
-            inbox.put(next);
+            enqueue(next);
         } else {
             if (DEBUG) {
                 LOGGER.info("Couldn't allocate memory --> exitProcessState(frame)");
@@ -325,7 +342,7 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
                 spiller.close();
                 numProcessedInMemory++;
                 next.put(frame);
-                inbox.put(next);
+                enqueue(next);
                 mode = Mode.PROCESS;
             } else {
                 // spill. This will always succeed since spilled = 0 (TODO must verify that budget can't be 0)
@@ -349,6 +366,52 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
         }
     }
 
+    private void enqueue(ByteBuffer next) throws InterruptedException {
+        framesInFlight.incrementAndGet();
+        inbox.put(next);
+    }
+
+    /**
+     * With a target latency, the number of frames held in memory is bounded by the number of frames the downstream
+     * writer can process within that latency. Instead of spilling when the bound is reached, the caller is blocked,
+     * which pushes back on the upstream operators through the flow control of the connector.
+     */
+    private int getCredits() {
+        long estimate = commitNanos;
+        // until a frame has been processed, admit one frame at a time
+        return estimate <= 0L ? 1 : (int) Math.max(1L, Math.min(Integer.MAX_VALUE, targetLatencyNanos / estimate));
+    }
+
+    private void awaitCredit() throws InterruptedException {
+        if (targetLatencyNanos <= 0L || framesInFlight.get() < getCredits()) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (framesInFlight) {
+            while (framesInFlight.get() >= getCredits() && consumerThread.isAlive() && consumer.cause() == null) {
+                framesInFlight.wait();
+            }
+        }
+        backpressureLatencies.record(System.nanoTime() - start);
+    }
+
+    private void releaseCredit() {
+        framesInFlight.decrementAndGet();
+        if (targetLatencyNanos > 0L) {
+            synchronized (framesInFlight) {
+                framesInFlight.notifyAll();
+            }
+        }
+    }
+
+    public LatencyHistogram getCommitLatencies() {
+        return commitLatencies;
+    }
+
+    public LatencyHistogram getBackpressureLatencies() {
+        return backpressureLatencies;
+    }
+
     public int getNumDiscarded() {
         return numDiscarded;
     }
@@ -376,7 +439,9 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
         private Throwable consume(ByteBuffer frame) {
             while (frame != null) {
                 try {
+                    long start = System.nanoTime();
                     writer.nextFrame(frame);
+                    updateCommitEstimate(System.nanoTime() - start);
                     consumed++;
                     frame = null;
                 } catch (HyracksDataException e) {
@@ -394,6 +459,13 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
             return null;
         }
 
+        private void updateCommitEstimate(long elapsed) {
+            commitLatencies.record(elapsed);
+            long estimate = commitNanos;
+            commitNanos = estimate <= 0L ? elapsed
+                    : (long) (COMMIT_ESTIMATE_WEIGHT * elapsed + (1 - COMMIT_ESTIMATE_WEIGHT) * estimate);
+        }
+
         private boolean clearLocalFrames() throws HyracksDataException {
             ByteBuffer frame = spiller.next();
             while (frame != null) {
@@ -432,11 +504,17 @@ public class FeedRuntimeInputHandler extends AbstractUnaryInputUnaryOutputOperat
                             running = consume(frame) == null;
                         } finally {
                             framePool.release(frame);
+                            releaseCredit();
                         }
                     }
                 }
             } catch (Throwable th) {
                 this.cause = th;
+            } finally {
+                // wake up a producer waiting for credits that will never be released
+                synchronized (framesInFlight) {
+                    framesInFlight.notifyAll();
+                }
             }
         }
 
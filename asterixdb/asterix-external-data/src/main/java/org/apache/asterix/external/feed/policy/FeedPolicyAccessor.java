@@ -49,6 +49,9 @@ public class FeedPolicyAccessor implements Serializable {
     /** maximum fraction of ingested data that can be discarded **/
     public static final String MAX_FRACTION_DISCARD = "max.fraction.discard";
 
+    /** target time (in ms) for a frame to wait and be processed, bounding the frames buffered by an operator **/
+    public static final String TARGET_LATENCY = "target.latency";
+
     /** elasticity **/
     public static final String ELASTIC = "elastic";
 
@@ -92,6 +95,10 @@ public class FeedPolicyAccessor implements Serializable {
         return getFloatPropertyValue(MAX_FRACTION_DISCARD, 0);
     }
 
+    public long getTargetLatency() {
+        return getLongPropertyValue(TARGET_LATENCY, 0);
+    }
+
     private boolean getBooleanPropertyValue(String key, boolean defValue) {
         String v = feedPolicy.get(key);
         return v == null ? defValue : Boolean.valueOf(v);
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record;
+
+/**
+ * A record of the binary ADM format, along with the id of the type it was serialized with if the input said so.
+ */
+public class ADMBinaryRecord extends ByteArrayRecord {
+
+    private boolean hasTypeId = false;
+    private long typeId;
+
+    public boolean hasTypeId() {
+        return hasTypeId;
+    }
+
+    public long getTypeId() {
+        return typeId;
+    }
+
+    public void setTypeId(long typeId) {
+        this.typeId = typeId;
+        hasTypeId = true;
+    }
+
+    public void clearTypeId() {
+        hasTypeId = false;
+    }
+
+    @Override
+    public ADMBinaryRecord copy() {
+        ADMBinaryRecord copy = new ADMBinaryRecord();
+        copy.set(getBytes());
+        copy.hasTypeId = hasTypeId;
+        copy.typeId = typeId;
+        return copy;
+    }
+}
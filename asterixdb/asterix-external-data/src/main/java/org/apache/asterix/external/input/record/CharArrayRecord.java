@@ -123,6 +123,13 @@ public class CharArrayRecord implements IRawRecord<char[]> {
         this.size = value.length;
     }
 
+    @Override
+    public CharArrayRecord copy() {
+        CharArrayRecord copy = new CharArrayRecord(size);
+        copy.setValue(value, 0, size);
+        return copy;
+    }
+
     public void set(StringBuilder builder) throws IOException {
         ensureCapacity(builder.length());
         builder.getChars(0, builder.length(), value, 0);
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordReader;
+import org.apache.asterix.external.dataflow.AbstractFeedDataFlowController;
+import org.apache.asterix.external.input.record.GenericRecord;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.asterix.external.util.ParquetUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.schema.MessageType;
+
+/**
+ * Reads the records of local Parquet files taken from a queue shared by the partitions of a node. Only the requested
+ * columns are decoded, and row groups whose statistics show that none of their records pass the pushed filter are
+ * skipped.
+ */
+public class ParquetRecordReader implements IRecordReader<Group> {
+
+    private final Queue<File> files;
+    private final Set<String> requestedFields;
+    private final String pushedFilter;
+    private final Configuration conf;
+    private final GenericRecord<Group> record = new GenericRecord<>();
+    private ParquetReader<Group> reader;
+    private Group next;
+    private volatile boolean stopped;
+
+    public ParquetRecordReader(Queue<File> files, Set<String> requestedFields, String pushedFilter) {
+        this.files = files;
+        this.requestedFields = requestedFields;
+        this.pushedFilter = pushedFilter;
+        this.conf = new Configuration();
+    }
+
+    @Override
+    public boolean hasNext() throws Exception {
+        while (next == null && !stopped) {
+            if (reader == null) {
+                File file = files.poll();
+                if (file == null) {
+                    return false;
+                }
+                reader = open(new Path(file.toURI()));
+            }
+            next = reader.read();
+            if (next == null) {
+                reader.close();
+                reader = null;
+            }
+        }
+        return next != null;
+    }
+
+    private ParquetReader<Group> open(Path path) throws IOException {
+        MessageType fileSchema =
+                ParquetFileReader.readFooter(conf, path, ParquetMetadataConverter.NO_FILTER).getFileMetaData()
+                        .getSchema();
+        return ParquetReader.builder(new ProjectingReadSupport(requestedFields), path).withConf(conf)
+                .withFilter(ParquetUtils.getFilter(pushedFilter, fileSchema)).build();
+    }
+
+    @Override
+    public IRawRecord<Group> next() throws IOException {
+        record.set(next);
+        next = null;
+        return record;
+    }
+
+    @Override
+    public boolean stop() {
+        stopped = true;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    @Override
+    public void setController(AbstractFeedDataFlowController controller) {
+        // do nothing
+    }
+
+    @Override
+    public void setFeedLogManager(FeedLogManager feedLogManager) {
+        // do nothing
+    }
+
+    @Override
+    public boolean handleException(Throwable th) {
+        return false;
+    }
+
+    /**
+     * Reads the requested top-level fields of each file into groups.
+     */
+    private static class ProjectingReadSupport extends GroupReadSupport {
+        private final Set<String> requestedFields;
+
+        private ProjectingReadSupport(Set<String> requestedFields) {
+            this.requestedFields = requestedFields;
+        }
+
+        @Override
+        public ReadContext init(Configuration configuration, Map<String, String> keyValueMetaData,
+                MessageType fileSchema) {
+            return new ReadContext(ParquetUtils.project(fileSchema, requestedFields));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.parquet;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.asterix.common.dataflow.ICcApplicationContext;
+import org.apache.asterix.external.api.IRecordReader;
+import org.apache.asterix.external.api.IRecordReaderFactory;
+import org.apache.asterix.external.input.stream.factory.LocalFSInputStreamFactory;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.ParquetUtils;
+import org.apache.asterix.runtime.utils.RuntimeUtils;
+import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.api.application.IServiceContext;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.parquet.example.data.Group;
+
+/**
+ * Creates readers of the Parquet files of the localfs adapter. The files of a node are read by one partition per
+ * core of the node.
+ */
+public class ParquetRecordReaderFactory implements IRecordReaderFactory<Group> {
+
+    private static final long serialVersionUID = 1L;
+    private static final List<String> recordReaderNames =
+            Collections.unmodifiableList(Collections.singletonList(ExternalDataConstants.ALIAS_LOCALFS_ADAPTER));
+    // resolves the paths and the nodes of the files
+    private LocalFSInputStreamFactory fileFactory;
+    private Set<String> requestedFields;
+    private String pushedFilter;
+    private transient AlgebricksAbsolutePartitionConstraint constraints;
+    // the files of the node, shared by its partitions
+    private transient Queue<File> files;
+
+    @Override
+    public void configure(IServiceContext serviceCtx, Map<String, String> configuration)
+            throws AlgebricksException, HyracksDataException {
+        fileFactory = new LocalFSInputStreamFactory();
+        fileFactory.configure(serviceCtx, configuration);
+        Set<String> nodes = new TreeSet<>(Arrays.asList(fileFactory.getPartitionConstraint().getLocations()));
+        constraints = new AlgebricksAbsolutePartitionConstraint(
+                RuntimeUtils.getLocationsPerCore((ICcApplicationContext) serviceCtx.getApplicationContext(), nodes));
+        requestedFields = ParquetUtils.getRequestedFields(configuration);
+        pushedFilter = configuration.get(ExternalDataConstants.KEY_PUSHED_FILTER);
+    }
+
+    @Override
+    public AlgebricksAbsolutePartitionConstraint getPartitionConstraint() {
+        return constraints;
+    }
+
+    @Override
+    public synchronized IRecordReader<Group> createRecordReader(IHyracksTaskContext ctx, int partition)
+            throws HyracksDataException {
+        if (files == null) {
+            files = new ConcurrentLinkedQueue<>(
+                    fileFactory.getFiles(ctx.getJobletContext().getServiceContext().getNodeId()));
+        }
+        return new ParquetRecordReader(files, requestedFields, pushedFilter);
+    }
+
+    @Override
+    public Class<?> getRecordClass() {
+        return Group.class;
+    }
+
+    @Override
+    public List<String> getRecordReaderNames() {
+        return recordReaderNames;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.stream;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.dataflow.AbstractFeedDataFlowController;
+import org.apache.asterix.external.input.record.ADMBinaryRecord;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.asterix.om.utils.ADMBinaryFormatUtil;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Reads the entries of a stream in the binary ADM format (see {@link ADMBinaryFormatUtil}) and returns its records
+ * along with the type id of the last header of the current source. Line feeds between entries are skipped: they are
+ * never the first byte of an entry, and they are added to the end of local files by {@link AsterixInputStream}s.
+ */
+public class ADMBinaryRecordReader extends AbstractStreamRecordReader<byte[]> {
+
+    private static final List<String> recordReaderFormats =
+            Collections.singletonList(ExternalDataConstants.FORMAT_ADM_BINARY);
+    private static final String REQUIRED_CONFIGS = "";
+
+    private final byte[] intBuffer = new byte[4];
+    private AsterixInputStream stream;
+    private ADMBinaryRecord record;
+    private byte[] inputBuffer;
+    private int bufferLength = 0;
+    private int bufferPosn = 0;
+    private boolean done = false;
+
+    @Override
+    public void configure(AsterixInputStream stream, Map<String, String> config) throws HyracksDataException {
+        this.stream = stream;
+        record = new ADMBinaryRecord();
+        inputBuffer = new byte[ExternalDataConstants.DEFAULT_BUFFER_SIZE];
+        stream.setNotificationHandler(this);
+    }
+
+    @Override
+    public void notifyNewSource() {
+        // a source without a header must not be trusted because of the header of the previous one
+        record.clearTypeId();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (done) {
+            return false;
+        }
+        while (true) {
+            if (!skipLineFeeds()) {
+                close();
+                return false; // EOF
+            }
+            int length = readInt();
+            if (length == ADMBinaryFormatUtil.MAGIC) {
+                long typeId = ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+                record.setTypeId(typeId);
+                continue;
+            }
+            if (length <= 0 || length > ExternalDataConstants.MAX_RECORD_SIZE) {
+                throw malformed();
+            }
+            record.reset();
+            while (length > 0) {
+                if (bufferPosn >= bufferLength && !fill()) {
+                    throw malformed();
+                }
+                int appendLength = Math.min(length, bufferLength - bufferPosn);
+                record.append(inputBuffer, bufferPosn, appendLength);
+                bufferPosn += appendLength;
+                length -= appendLength;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return false if the stream ended
+     */
+    private boolean skipLineFeeds() throws IOException {
+        while (true) {
+            if (bufferPosn >= bufferLength && !fill()) {
+                return false;
+            }
+            if (inputBuffer[bufferPosn] != ExternalDataConstants.BYTE_LF) {
+                return true;
+            }
+            bufferPosn++;
+        }
+    }
+
+    private int readInt() throws IOException {
+        for (int i = 0; i < intBuffer.length; i++) {
+            if (bufferPosn >= bufferLength && !fill()) {
+                throw malformed();
+            }
+            intBuffer[i] = inputBuffer[bufferPosn++];
+        }
+        return ((intBuffer[0] & 0xff) << 24) | ((intBuffer[1] & 0xff) << 16) | ((intBuffer[2] & 0xff) << 8)
+                | (intBuffer[3] & 0xff);
+    }
+
+    private boolean fill() throws IOException {
+        int len = 0;
+        while (len == 0) {
+            len = stream.read(inputBuffer, 0, inputBuffer.length);
+        }
+        bufferPosn = 0;
+        bufferLength = Math.max(len, 0);
+        return len > 0;
+    }
+
+    private RuntimeDataException malformed() {
+        bufferPosn = bufferLength = 0;
+        return new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM);
+    }
+
+    @Override
+    public IRawRecord<byte[]> next() throws IOException {
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!done) {
+            stream.close();
+        }
+        done = true;
+    }
+
+    @Override
+    public boolean stop() {
+        try {
+            return stream.stop();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public void setFeedLogManager(FeedLogManager feedLogManager) throws HyracksDataException {
+        stream.setFeedLogManager(feedLogManager);
+    }
+
+    @Override
+    public void setController(AbstractFeedDataFlowController controller) {
+        stream.setController(controller);
+    }
+
+    @Override
+    public boolean handleException(Throwable th) {
+        return stream.handleException(th);
+    }
+
+    @Override
+    public List<String> getRecordReaderFormats() {
+        return recordReaderFormats;
+    }
+
+    @Override
+    public String getRequiredConfigs() {
+        return REQUIRED_CONFIGS;
+    }
+
+    @Override
+    public Class<?> getRecordClass() {
+        return byte[].class;
+    }
+}
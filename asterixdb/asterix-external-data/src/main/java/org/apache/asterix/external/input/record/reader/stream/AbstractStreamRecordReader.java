@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.stream;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.api.IRecordReader;
+import org.apache.asterix.external.api.IStreamNotificationHandler;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Base class of the record readers that cut records out of an {@link AsterixInputStream}. Readers are registered
+ * in META-INF/services/org.apache.asterix.external.input.record.reader.stream.StreamRecordReader and are selected
+ * by format and required configurations.
+ *
+ * @param <T>
+ *            the type of the records produced by the reader
+ */
+public abstract class AbstractStreamRecordReader<T> implements IRecordReader<T>, IStreamNotificationHandler {
+
+    @Override
+    public void notifyNewSource() {
+        throw new UnsupportedOperationException();
+    }
+
+    public abstract List<String> getRecordReaderFormats();
+
+    public abstract String getRequiredConfigs();
+
+    public abstract void configure(AsterixInputStream inputStream, Map<String, String> config)
+            throws HyracksDataException;
+
+    /**
+     * @return the class of the records produced by the reader
+     */
+    public abstract Class<?> getRecordClass();
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.stream;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.dataflow.AbstractFeedDataFlowController;
+import org.apache.asterix.external.input.record.ByteArrayRecord;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Reads a stream of UTF-8 encoded JSON objects and returns each top level object as the raw bytes read from the
+ * stream. Unlike {@link SemiStructuredRecordReader}, the input is never decoded into characters: records are found
+ * by matching braces on the bytes, which is safe for UTF-8 since all the bytes of multi-byte sequences are >= 0x80.
+ */
+public class JSONRecordReader extends AbstractStreamRecordReader<byte[]> {
+
+    private static final byte OPEN = '{';
+    private static final byte CLOSE = '}';
+    private static final byte QUOTE = '"';
+    private static final byte ESCAPE = '\\';
+    private static final List<String> recordReaderFormats =
+            Collections.singletonList(ExternalDataConstants.FORMAT_JSON_UTF8);
+    private static final String REQUIRED_CONFIGS = "";
+
+    private AsterixInputStream stream;
+    private ByteArrayRecord record;
+    private byte[] inputBuffer;
+    private int bufferLength = 0;
+    private int bufferPosn = 0;
+    private boolean done = false;
+
+    @Override
+    public void configure(AsterixInputStream stream, Map<String, String> config) throws HyracksDataException {
+        this.stream = stream;
+        record = new ByteArrayRecord();
+        inputBuffer = new byte[ExternalDataConstants.DEFAULT_BUFFER_SIZE];
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        if (done) {
+            return false;
+        }
+        record.reset();
+        boolean hasStarted = false;
+        boolean hasFinished = false;
+        boolean prevByteEscape = false;
+        boolean inString = false;
+        int depth = 0;
+        do {
+            int startPosn = bufferPosn;
+            if (bufferPosn >= bufferLength) {
+                startPosn = bufferPosn = 0;
+                bufferLength = fill();
+                if (bufferLength < 0) {
+                    if (hasStarted) {
+                        throw new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM);
+                    }
+                    close();
+                    return false; // EOF
+                }
+            }
+            if (!hasStarted) {
+                for (; bufferPosn < bufferLength; ++bufferPosn) {
+                    byte b = inputBuffer[bufferPosn];
+                    if (b == OPEN) {
+                        startPosn = bufferPosn;
+                        hasStarted = true;
+                        depth = 1;
+                        ++bufferPosn;
+                        break;
+                    } else if (b != ExternalDataConstants.SPACE && b != ExternalDataConstants.TAB
+                            && b != ExternalDataConstants.BYTE_LF && b != ExternalDataConstants.BYTE_CR) {
+                        bufferPosn = bufferLength = 0;
+                        throw new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM);
+                    }
+                }
+            }
+            if (hasStarted) {
+                for (; bufferPosn < bufferLength; ++bufferPosn) {
+                    byte b = inputBuffer[bufferPosn];
+                    if (inString) {
+                        if (prevByteEscape) {
+                            prevByteEscape = false;
+                        } else if (b == ESCAPE) {
+                            prevByteEscape = true;
+                        } else if (b == QUOTE) {
+                            inString = false;
+                        }
+                    } else if (b == QUOTE) {
+                        inString = true;
+                    } else if (b == OPEN) {
+                        depth++;
+                    } else if (b == CLOSE && --depth == 0) {
+                        hasFinished = true;
+                        ++bufferPosn;
+                        break;
+                    }
+                }
+            }
+            int appendLength = bufferPosn - startPosn;
+            if (hasStarted && appendLength > 0) {
+                try {
+                    record.append(inputBuffer, startPosn, appendLength);
+                } catch (IOException e) {
+                    bufferPosn = bufferLength = 0;
+                    throw new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM);
+                }
+            }
+        } while (!hasFinished);
+        return true;
+    }
+
+    private int fill() throws IOException {
+        int len = 0;
+        while (len == 0) {
+            len = stream.read(inputBuffer, 0, inputBuffer.length);
+        }
+        return len;
+    }
+
+    @Override
+    public IRawRecord<byte[]> next() throws IOException {
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!done) {
+            stream.close();
+        }
+        done = true;
+    }
+
+    @Override
+    public boolean stop() {
+        try {
+            return stream.stop();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public void setFeedLogManager(FeedLogManager feedLogManager) throws HyracksDataException {
+        stream.setFeedLogManager(feedLogManager);
+    }
+
+    @Override
+    public void setController(AbstractFeedDataFlowController controller) {
+        stream.setController(controller);
+    }
+
+    @Override
+    public boolean handleException(Throwable th) {
+        return stream.handleException(th);
+    }
+
+    @Override
+    public List<String> getRecordReaderFormats() {
+        return recordReaderFormats;
+    }
+
+    @Override
+    public String getRequiredConfigs() {
+        return REQUIRED_CONFIGS;
+    }
+
+    @Override
+    public Class<?> getRecordClass() {
+        return byte[].class;
+    }
+}
@@ -19,13 +19,9 @@
 package org.apache.asterix.external.input.record.reader.stream;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import org.apache.asterix.external.api.AsterixInputStream;
 import org.apache.asterix.external.api.IRawRecord;
-import org.apache.asterix.external.api.IRecordReader;
-import org.apache.asterix.external.api.IStreamNotificationHandler;
 import org.apache.asterix.external.dataflow.AbstractFeedDataFlowController;
 import org.apache.asterix.external.input.record.CharArrayRecord;
 import org.apache.asterix.external.input.stream.AsterixInputStreamReader;
@@ -33,7 +29,7 @@ import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.asterix.external.util.FeedLogManager;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 
-public abstract class StreamRecordReader implements IRecordReader<char[]>, IStreamNotificationHandler {
+public abstract class StreamRecordReader extends AbstractStreamRecordReader<char[]> {
     protected AsterixInputStreamReader reader;
     protected CharArrayRecord record;
     protected char[] inputBuffer;
@@ -92,14 +88,7 @@ public abstract class StreamRecordReader implements IRecordReader<char[]>, IStre
     }
 
     @Override
-    public void notifyNewSource() {
-        throw new UnsupportedOperationException();
+    public Class<?> getRecordClass() {
+        return char[].class;
     }
-
-    public abstract List<String> getRecordReaderFormats();
-
-    public abstract String getRequiredConfigs();
-
-    public abstract void configure(AsterixInputStream inputStream, Map<String, String> config)
-            throws HyracksDataException;
 }
@@ -42,12 +42,13 @@ import org.apache.hyracks.api.application.IServiceContext;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 
-public class StreamRecordReaderFactory implements IRecordReaderFactory<char[]> {
+public class StreamRecordReaderFactory implements IRecordReaderFactory<Object> {
 
     private static final long serialVersionUID = 1L;
     protected IInputStreamFactory streamFactory;
     protected Map<String, String> configuration;
     protected Class recordReaderClazz;
+    protected Class<?> recordClazz = char[].class;
     private static final List<String> recordReaderNames = Collections.unmodifiableList(
             Arrays.asList(ExternalDataConstants.ALIAS_LOCALFS_ADAPTER, ExternalDataConstants.ALIAS_SOCKET_ADAPTER,
                     ExternalDataConstants.SOCKET, ExternalDataConstants.STREAM_SOCKET_CLIENT));
@@ -59,7 +60,7 @@ public class StreamRecordReaderFactory implements IRecordReaderFactory<char[]> {
 
     @Override
     public Class<?> getRecordClass() {
-        return char[].class;
+        return recordClazz;
     }
 
     @Override
@@ -88,16 +89,20 @@ public class StreamRecordReaderFactory implements IRecordReaderFactory<char[]> {
         configureInputStreamFactory(configuration);
         streamFactory.configure(serviceCtx, configuration);
         recordReaderClazz = StreamRecordReaderProvider.getRecordReaderClazz(configuration);
+        recordClazz = createStreamRecordReader().getRecordClass();
     }
 
     @Override
-    public IRecordReader<? extends char[]> createRecordReader(IHyracksTaskContext ctx, int partition)
+    public IRecordReader<?> createRecordReader(IHyracksTaskContext ctx, int partition)
             throws HyracksDataException {
+        AbstractStreamRecordReader<?> streamRecordReader = createStreamRecordReader();
+        streamRecordReader.configure(streamFactory.createInputStream(ctx, partition), configuration);
+        return streamRecordReader;
+    }
+
+    private AbstractStreamRecordReader<?> createStreamRecordReader() throws HyracksDataException {
         try {
-            StreamRecordReader streamRecordReader = (StreamRecordReader) recordReaderClazz.getConstructor()
-                    .newInstance();
-            streamRecordReader.configure(streamFactory.createInputStream(ctx, partition), configuration);
-            return streamRecordReader;
+            return (AbstractStreamRecordReader<?>) recordReaderClazz.getConstructor().newInstance();
         } catch (InstantiationException | IllegalAccessException | InvocationTargetException
                 | NoSuchMethodException e) {
             throw new HyracksDataException(e);
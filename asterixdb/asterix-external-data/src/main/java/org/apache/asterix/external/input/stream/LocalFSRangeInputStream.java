@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.stream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads byte ranges of local files taken from a queue shared by all the partitions of a node, so that a large file
+ * is read by as many partitions as there are ranges. A record starts at the beginning of a line and, unless the
+ * record start is {@link #LINE_START}, with the record start byte. Every record is read by the partition that reads
+ * the range its first byte is in: a range starts at the first record start at or after its beginning and extends to
+ * the first record start at or after its end, so no record is lost or read twice, whatever order ranges are read in.
+ */
+public class LocalFSRangeInputStream extends AsterixInputStream {
+
+    /**
+     * Record start for files with one record per line.
+     */
+    public static final int LINE_START = -1;
+
+    private static final Logger LOGGER = Logger.getLogger(LocalFSRangeInputStream.class.getName());
+    private final Queue<FileRange> ranges;
+    private final int recordStart;
+    private final ByteBuffer scanBuffer = ByteBuffer.allocate(ExternalDataConstants.DEFAULT_BUFFER_SIZE);
+    private FileRange range;
+    private FileChannel channel;
+    private long position;
+    private long limit;
+    private byte lastByte = ExternalDataConstants.BYTE_LF;
+    private volatile boolean stopped;
+
+    public LocalFSRangeInputStream(Queue<FileRange> ranges, int recordStart) {
+        this.ranges = ranges;
+        this.recordStart = recordStart;
+    }
+
+    @Override
+    public int read() throws IOException {
+        throw new HyracksDataException(
+                "read() is not supported with this stream. use read(byte[] b, int off, int len)");
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            if (channel == null && !advance()) {
+                return -1;
+            }
+            if (position < limit) {
+                int result = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, limit - position)), position);
+                if (result > 0) {
+                    position += result;
+                    lastByte = b[off + result - 1];
+                    return result;
+                }
+                // the file was truncated while being read
+                limit = position;
+            }
+            closeRange();
+            // ranges are not necessarily adjacent, so end the last record of every range with a new line
+            if (lastByte != ExternalDataConstants.BYTE_LF) {
+                lastByte = ExternalDataConstants.BYTE_LF;
+                b[off] = ExternalDataConstants.BYTE_LF;
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * Opens the next non-empty range, if any.
+     */
+    private boolean advance() throws IOException {
+        while (!stopped) {
+            range = ranges.poll();
+            if (range == null) {
+                return false;
+            }
+            channel = FileChannel.open(range.getFile().toPath(), StandardOpenOption.READ);
+            long size = channel.size();
+            position = findRecordStart(range.getStart(), size);
+            limit = findRecordStart(range.getEnd(), size);
+            if (position < limit) {
+                return true;
+            }
+            closeRange();
+        }
+        return false;
+    }
+
+    /**
+     * @return the offset of the first record start at or after the given offset, or the size of the file if there
+     *         is none
+     */
+    private long findRecordStart(long offset, long size) throws IOException {
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset >= size) {
+            return size;
+        }
+        // a record starts right after a new line, which may be the byte before the offset
+        long scanPosition = offset - 1;
+        boolean afterNewLine = false;
+        while (scanPosition < size) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, scanPosition);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = scanBuffer.array();
+            for (int i = 0; i < read; i++) {
+                if (afterNewLine && (recordStart == LINE_START || bytes[i] == recordStart)) {
+                    return scanPosition + i;
+                }
+                afterNewLine = bytes[i] == ExternalDataConstants.BYTE_LF;
+            }
+            scanPosition += read;
+        }
+        return size;
+    }
+
+    private void closeRange() throws IOException {
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+                range = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeRange();
+    }
+
+    @Override
+    public boolean stop() throws Exception {
+        stopped = true;
+        closeRange();
+        return true;
+    }
+
+    /**
+     * Skips the rest of the current range on corrupted input. The skipped bytes are recorded in the feed log, so the
+     * failure is only recovered from when there is a feed log to record them in; otherwise the load fails.
+     */
+    @Override
+    public boolean handleException(Throwable th) {
+        if (range == null || logManager == null) {
+            return false;
+        }
+        if (th instanceof HyracksDataException
+                && ((HyracksDataException) th).getErrorCode() == ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM) {
+            String skipped = range.getFile().getAbsolutePath() + "[" + position + ", " + limit + ")";
+            try {
+                logManager.logRecord(skipped, "Corrupted input, skipped the rest of the range");
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write to feed log file", e);
+                return false;
+            }
+            LOGGER.warn("Corrupted input in " + range + ", skipped " + skipped);
+            limit = position;
+            return true;
+        }
+        LOGGER.warn("Failed to recover from failure", th);
+        return false;
+    }
+
+    /**
+     * A byte range of a local file.
+     */
+    public static class FileRange {
+        private final File file;
+        private final long start;
+        private final long end;
+
+        public FileRange(File file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return file.getAbsolutePath() + "[" + start + ", " + end + ")";
+        }
+    }
+}
@@ -18,27 +18,38 @@
  */
 package org.apache.asterix.external.input.stream.factory;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
 import org.apache.asterix.common.exceptions.AsterixException;
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.ExceptionUtils;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
 import org.apache.asterix.external.api.AsterixInputStream;
 import org.apache.asterix.external.api.IInputStreamFactory;
 import org.apache.asterix.external.api.INodeResolver;
 import org.apache.asterix.external.api.INodeResolverFactory;
 import org.apache.asterix.external.input.stream.LocalFSInputStream;
+import org.apache.asterix.external.input.stream.LocalFSRangeInputStream;
+import org.apache.asterix.external.input.stream.LocalFSRangeInputStream.FileRange;
 import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.asterix.external.util.ExternalDataUtils;
 import org.apache.asterix.external.util.FileSystemWatcher;
+import org.apache.asterix.external.util.LocalFileSystemUtils;
 import org.apache.asterix.external.util.NodeResolverFactory;
 import org.apache.asterix.runtime.utils.RuntimeUtils;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
@@ -58,13 +69,24 @@ public class LocalFSInputStreamFactory implements IInputStreamFactory {
     protected UnmanagedFileSplit[] inputFileSplits;
     protected boolean isFeed;
     protected String expression;
+    // size of the byte ranges files are split into, 0 if files are not split
+    protected long splitSize;
+    protected int splitRecordStart;
     // transient fields (They don't need to be serialized and transferred)
     private transient AlgebricksAbsolutePartitionConstraint constraints;
     private transient FileSystemWatcher watcher;
+    private transient Queue<FileRange> ranges;
 
     @Override
     public synchronized AsterixInputStream createInputStream(IHyracksTaskContext ctx, int partition)
             throws HyracksDataException {
+        if (splitSize > 0) {
+            // the ranges are shared by all the partitions of the node
+            if (ranges == null) {
+                ranges = createRanges(ctx.getJobletContext().getServiceContext().getNodeId());
+            }
+            return new LocalFSRangeInputStream(ranges, splitRecordStart);
+        }
         if (watcher == null) {
             String nodeName = ctx.getJobletContext().getServiceContext().getNodeId();
             ArrayList<Path> inputResources = new ArrayList<>();
@@ -78,6 +100,39 @@ public class LocalFSInputStreamFactory implements IInputStreamFactory {
         return new LocalFSInputStream(watcher);
     }
 
+    private Queue<FileRange> createRanges(String nodeName) throws HyracksDataException {
+        Queue<FileRange> fileRanges = new ConcurrentLinkedQueue<>();
+        for (File file : getFiles(nodeName)) {
+            long length = file.length();
+            for (long start = 0; start < length; start += splitSize) {
+                fileRanges.add(new FileRange(file, start, Math.min(start + splitSize, length)));
+            }
+        }
+        return fileRanges;
+    }
+
+    /**
+     * @return the files of the configured paths that are on the given node and match the expression, if any
+     */
+    public List<File> getFiles(String nodeName) throws HyracksDataException {
+        List<File> files = new ArrayList<>();
+        try {
+            for (UnmanagedFileSplit split : inputFileSplits) {
+                if (split.getNodeName().equals(nodeName)) {
+                    int count = files.size();
+                    LocalFileSystemUtils.traverse(files, split.getFile(), expression, null);
+                    if (files.size() == count) {
+                        throw new RuntimeDataException(ErrorCode.UTIL_FILE_SYSTEM_WATCHER_NO_FILES_FOUND,
+                                split.getFile().toString());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        return files;
+    }
+
     @Override
     public DataSourceType getDataSourceType() {
         return DataSourceType.STREAM;
@@ -91,13 +146,76 @@ public class LocalFSInputStreamFactory implements IInputStreamFactory {
     @Override
     public void configure(IServiceContext serviceCtx, Map<String, String> configuration) throws AsterixException {
         this.configuration = configuration;
+        ICcApplicationContext appCtx = (ICcApplicationContext) serviceCtx.getApplicationContext();
         String[] splits = configuration.get(ExternalDataConstants.KEY_PATH).split(",");
         if (inputFileSplits == null) {
-            configureFileSplits((ICcApplicationContext) serviceCtx.getApplicationContext(), splits);
+            configureFileSplits(appCtx, splits);
         }
-        configurePartitionConstraint();
         this.isFeed = ExternalDataUtils.isFeed(configuration) && ExternalDataUtils.keepDataSourceOpen(configuration);
         this.expression = configuration.get(ExternalDataConstants.KEY_EXPRESSION);
+        configureSplitSize(configuration);
+        configurePartitionConstraint(appCtx);
+    }
+
+    private void configureSplitSize(Map<String, String> configuration) throws AsterixException {
+        splitSize = 0;
+        String splitSizeValue = configuration.get(ExternalDataConstants.KEY_SPLIT_SIZE);
+        if (splitSizeValue == null) {
+            return;
+        }
+        long size;
+        try {
+            size = Long.parseLong(splitSizeValue.trim());
+        } catch (NumberFormatException e) {
+            size = -1;
+        }
+        if (size <= 0) {
+            throw new AsterixException(ExceptionUtils.incorrectParameterMessage(ExternalDataConstants.KEY_SPLIT_SIZE,
+                    "a positive number of bytes", splitSizeValue));
+        }
+        // feeds keep reading files as they are created and headers are at the beginning of files only
+        Integer recordStart = isFeed || ExternalDataUtils.hasHeader(configuration) ? null
+                : getSplitRecordStart(configuration);
+        if (recordStart == null) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "Ignoring " + ExternalDataConstants.KEY_SPLIT_SIZE
+                        + ": records of this data source can't be found from an arbitrary offset");
+            }
+            return;
+        }
+        splitSize = size;
+        splitRecordStart = recordStart;
+    }
+
+    /**
+     * @return the byte records start with at the beginning of a line, {@link LocalFSRangeInputStream#LINE_START} if
+     *         every line is a record, or null if record boundaries can't be found from an arbitrary offset
+     */
+    private static Integer getSplitRecordStart(Map<String, String> configuration) {
+        String format = configuration.get(ExternalDataConstants.KEY_FORMAT);
+        if (format == null) {
+            return null;
+        }
+        switch (format) {
+            case ExternalDataConstants.FORMAT_DELIMITED_TEXT:
+            case ExternalDataConstants.FORMAT_CSV:
+                // quoted fields may span lines
+                return configuration.containsKey(ExternalDataConstants.KEY_QUOTE) ? null
+                        : LocalFSRangeInputStream.LINE_START;
+            case ExternalDataConstants.FORMAT_ADM:
+            case ExternalDataConstants.FORMAT_JSON:
+            case ExternalDataConstants.FORMAT_SEMISTRUCTURED:
+                String recordStart = configuration.get(ExternalDataConstants.KEY_RECORD_START);
+                if (recordStart == null) {
+                    return (int) ExternalDataConstants.DEFAULT_RECORD_START;
+                }
+                return recordStart.length() == 1 && recordStart.charAt(0) < 0x80 ? (int) recordStart.charAt(0)
+                        : null;
+            case ExternalDataConstants.FORMAT_JSON_UTF8:
+                return (int) ExternalDataConstants.DEFAULT_RECORD_START;
+            default:
+                return null;
+        }
     }
 
     @Override
@@ -127,12 +245,17 @@ public class LocalFSInputStreamFactory implements IInputStreamFactory {
 
     }
 
-    private void configurePartitionConstraint() throws AsterixException {
-        Set<String> locs = new TreeSet<>();
+    private void configurePartitionConstraint(ICcApplicationContext appCtx) throws AsterixException {
+        Set<String> nodes = new TreeSet<>();
         for (int i = 0; i < inputFileSplits.length; i++) {
-            locs.add(inputFileSplits[i].getNodeName());
+            nodes.add(inputFileSplits[i].getNodeName());
+        }
+        if (splitSize == 0) {
+            constraints = new AlgebricksAbsolutePartitionConstraint(nodes.toArray(new String[nodes.size()]));
+            return;
         }
-        constraints = new AlgebricksAbsolutePartitionConstraint(locs.toArray(new String[locs.size()]));
+        // split files are read by one partition per core of the nodes that hold them
+        constraints = new AlgebricksAbsolutePartitionConstraint(RuntimeUtils.getLocationsPerCore(appCtx, nodes));
     }
 
     protected INodeResolver getNodeResolver() {
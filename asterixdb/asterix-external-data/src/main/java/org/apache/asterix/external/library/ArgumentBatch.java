@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library;
+
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * The serialized arguments of a range of consecutive tuples of a frame, evaluated ahead of the calls for these
+ * tuples so that a function can be invoked once for the whole range. The batch is only valid for the frame it was
+ * evaluated from, so it is cleared whenever a new frame is announced.
+ */
+class ArgumentBatch {
+
+    // bounds the number of argument sets that are materialized at a time for a very large frame
+    static final int MAX_SIZE = 1024;
+
+    private final IScalarEvaluator[] argumentEvaluators;
+    private final IPointable argument = new VoidPointable();
+    private final ArrayBackedValueStorage arguments = new ArrayBackedValueStorage();
+    private final int[] argumentStarts;
+    private final FrameTupleReference tuple = new FrameTupleReference();
+    private int start;
+    private int size;
+
+    ArgumentBatch(IScalarEvaluator[] argumentEvaluators) {
+        this.argumentEvaluators = argumentEvaluators;
+        this.argumentStarts = new int[argumentEvaluators.length * MAX_SIZE + 1];
+    }
+
+    /**
+     * Evaluates the arguments of up to {@link #MAX_SIZE} tuples, starting at the given one. The range of the batch is set
+     * even if the evaluation of an argument fails.
+     */
+    void evaluate(IFrameTupleAccessor accessor, int start) throws HyracksDataException {
+        this.start = start;
+        this.size = Math.min(accessor.getTupleCount() - start, MAX_SIZE);
+        arguments.reset();
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            tuple.reset(accessor, start + i);
+            for (IScalarEvaluator argumentEvaluator : argumentEvaluators) {
+                argumentStarts[n++] = arguments.getLength();
+                argumentEvaluator.evaluate(tuple, argument);
+                arguments.append(argument);
+            }
+        }
+        argumentStarts[n] = arguments.getLength();
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the position of the tuple in the range of the batch, or -1 if it is outside of it
+     */
+    int positionOf(IFrameTupleReference tuple) {
+        int position = tuple.getTupleIndex() - start;
+        return position >= 0 && position < size ? position : -1;
+    }
+
+    void getArgument(int position, int index, IPointable value) {
+        int n = position * argumentEvaluators.length + index;
+        value.set(arguments.getByteArray(), argumentStarts[n], argumentStarts[n + 1] - argumentStarts[n]);
+    }
+}
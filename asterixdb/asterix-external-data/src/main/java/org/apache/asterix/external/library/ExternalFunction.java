@@ -31,6 +31,7 @@ import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
 import org.apache.asterix.om.functions.IExternalFunctionInfo;
 import org.apache.asterix.om.types.ATypeTag;
 import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.types.IAType;
 import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
@@ -39,6 +40,7 @@ import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.api.IValueReference;
 import org.apache.hyracks.data.std.primitive.VoidPointable;
 import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
 import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
@@ -93,21 +95,36 @@ public abstract class ExternalFunction implements IExternalFunction {
 
     public void setArguments(IFrameTupleReference tuple) throws AlgebricksException, IOException {
         for (int i = 0; i < evaluatorFactories.length; i++) {
-            argumentEvaluators[i].evaluate(tuple, inputVal);
+            functionHelper.setArgument(i, evaluateArgument(i, tuple));
+        }
+    }
+
+    /**
+     * Evaluates an argument into {@link #inputVal} and returns it, type-cast if necessary, in the form that this
+     * function wants to receive.
+     */
+    protected IValueReference evaluateArgument(int index, IFrameTupleReference tuple)
+            throws AlgebricksException, IOException {
+        argumentEvaluators[index].evaluate(tuple, inputVal);
+        return castArgument(finfo.getParamList().get(index), inputVal, castBuffer);
+    }
 
-            // Type-cast the source array based on the input type that this function wants to receive.
-            ATypeTag targetTypeTag = finfo.getParamList().get(i).getTypeTag();
-            ATypeTag sourceTypeTag = EnumDeserializer.ATYPETAGDESERIALIZER
-                    .deserialize(inputVal.getByteArray()[inputVal.getStartOffset()]);
-            if (sourceTypeTag != targetTypeTag) {
-                castBuffer.reset();
-                ATypeHierarchy.convertNumericTypeByteArray(inputVal.getByteArray(), inputVal.getStartOffset(),
-                        inputVal.getLength(), targetTypeTag, castBuffer.getDataOutput(), true);
-                functionHelper.setArgument(i, castBuffer);
-            } else {
-                functionHelper.setArgument(i, inputVal);
-            }
+    /**
+     * @return the argument, or its value cast into the given buffer if its type differs from the parameter type
+     */
+    public static IValueReference castArgument(IAType paramType, IValueReference argument,
+            ArrayBackedValueStorage castBuffer) throws AlgebricksException, IOException {
+        // Type-cast the source array based on the input type that this function wants to receive.
+        ATypeTag targetTypeTag = paramType.getTypeTag();
+        ATypeTag sourceTypeTag = EnumDeserializer.ATYPETAGDESERIALIZER
+                .deserialize(argument.getByteArray()[argument.getStartOffset()]);
+        if (sourceTypeTag != targetTypeTag) {
+            castBuffer.reset();
+            ATypeHierarchy.convertNumericTypeByteArray(argument.getByteArray(), argument.getStartOffset(),
+                    argument.getLength(), targetTypeTag, castBuffer.getDataOutput(), true);
+            return castBuffer;
         }
+        return argument;
     }
 
     @Override
@@ -18,19 +18,25 @@
  */
 package org.apache.asterix.external.library;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.apache.asterix.common.api.IApplicationContext;
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.IExternalBatchScalarFunction;
 import org.apache.asterix.external.api.IExternalFunction;
 import org.apache.asterix.external.api.IExternalScalarFunction;
 import org.apache.asterix.external.api.IFunctionHelper;
 import org.apache.asterix.om.functions.IExternalFunctionInfo;
 import org.apache.asterix.om.types.ATypeTag;
-import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IFrameAwareScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
 
 public class ExternalFunctionProvider {
@@ -40,6 +46,12 @@ public class ExternalFunctionProvider {
             throws HyracksDataException {
         switch (finfo.getKind()) {
             case SCALAR:
+                String dataverseName = finfo.getFunctionIdentifier().getNamespace();
+                String libraryName = finfo.getFunctionIdentifier().getName().split("#")[0];
+                if (appCtx.getLibraryManager().isLibraryIsolated(dataverseName, libraryName)) {
+                    return new IsolatedExternalScalarFunction(finfo, args, context, appCtx, dataverseName,
+                            libraryName);
+                }
                 return new ExternalScalarFunction(finfo, args, context, appCtx);
             case AGGREGATE:
             case UNNEST:
@@ -50,11 +62,34 @@ public class ExternalFunctionProvider {
     }
 }
 
-class ExternalScalarFunction extends ExternalFunction implements IExternalScalarFunction, IScalarEvaluator {
+/**
+ * Evaluates a Java function. A function that can evaluate batches is invoked once for many tuples of the frames
+ * that the operator announces, and once per tuple otherwise.
+ */
+class ExternalScalarFunction extends ExternalFunction implements IExternalScalarFunction, IFrameAwareScalarEvaluator {
+
+    private static final Logger LOGGER = Logger.getLogger(ExternalScalarFunction.class.getName());
+
+    private final IExternalBatchScalarFunction batchFunction;
+    private final JavaBatchFunctionHelper batchFunctionHelper;
+    private final ArgumentBatch argumentBatch;
+    private final IPointable batchArgument = new VoidPointable();
+    // the announced frame, whose tuples are evaluated in batches
+    private IFrameTupleAccessor frame;
+    private boolean batchFailed;
 
     public ExternalScalarFunction(IExternalFunctionInfo finfo, IScalarEvaluatorFactory args[],
             IHyracksTaskContext context, IApplicationContext appCtx) throws HyracksDataException {
         super(finfo, args, context, appCtx);
+        if (externalFunction instanceof IExternalBatchScalarFunction) {
+            batchFunction = (IExternalBatchScalarFunction) externalFunction;
+            batchFunctionHelper = new JavaBatchFunctionHelper(finfo);
+            argumentBatch = new ArgumentBatch(argumentEvaluators);
+        } else {
+            batchFunction = null;
+            batchFunctionHelper = null;
+            argumentBatch = null;
+        }
         try {
             initialize(functionHelper);
         } catch (Exception e) {
@@ -62,8 +97,20 @@ class ExternalScalarFunction extends ExternalFunction implements IExternalScalar
         }
     }
 
+    @Override
+    public void startFrame(IFrameTupleAccessor accessor) {
+        if (batchFunction != null) {
+            frame = accessor;
+            argumentBatch.clear();
+            batchFailed = false;
+        }
+    }
+
     @Override
     public void evaluate(IFrameTupleReference tuple, IPointable result) throws HyracksDataException {
+        if (frame != null && tuple.getFrameTupleAccessor() == frame && evaluateFromBatch(tuple, result)) {
+            return;
+        }
         try {
             setArguments(tuple);
             evaluate(functionHelper);
@@ -74,6 +121,49 @@ class ExternalScalarFunction extends ExternalFunction implements IExternalScalar
         }
     }
 
+    /**
+     * Serves the result of a tuple of the announced frame from the current batch, evaluating a new batch that
+     * starts at the tuple if the current one does not cover it. The operator asks for every tuple of the frame, so
+     * the function is not invoked for tuples whose results are not used.
+     *
+     * @return false if the tuple has to be evaluated on its own because its batch failed
+     */
+    private boolean evaluateFromBatch(IFrameTupleReference tuple, IPointable result) throws HyracksDataException {
+        int position = argumentBatch.positionOf(tuple);
+        if (position < 0) {
+            evaluateBatch(frame, tuple.getTupleIndex());
+            position = 0;
+        }
+        if (batchFailed) {
+            return false;
+        }
+        batchFunctionHelper.getResult(position, result);
+        return true;
+    }
+
+    private void evaluateBatch(IFrameTupleAccessor accessor, int start) {
+        batchFailed = false;
+        try {
+            argumentBatch.evaluate(accessor, start);
+            int size = argumentBatch.getSize();
+            batchFunctionHelper.startBatch(size);
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < argumentEvaluators.length; j++) {
+                    argumentBatch.getArgument(i, j, batchArgument);
+                    batchFunctionHelper.setArgument(i, j,
+                            castArgument(finfo.getParamList().get(j), batchArgument, castBuffer));
+                }
+            }
+            batchFunction.evaluateBatch(batchFunctionHelper);
+        } catch (Exception e) {
+            // evaluate the tuples of the batch one at a time so an error is raised only for the failing tuple
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Batch evaluation of " + finfo.getFunctionIdentifier() + " failed", e);
+            }
+            batchFailed = true;
+        }
+    }
+
     @Override
     public void evaluate(IFunctionHelper argumentProvider) throws HyracksDataException {
         try {
@@ -20,28 +20,41 @@ package org.apache.asterix.external.library;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.exceptions.RuntimeDataException;
 import org.apache.asterix.common.library.ILibraryManager;
+import org.apache.asterix.external.library.process.ExternalFunctionProcessPool;
 import org.apache.hyracks.algebricks.common.utils.Pair;
 
 public class ExternalLibraryManager implements ILibraryManager {
 
     private final Map<String, ClassLoader> libraryClassLoaders = new HashMap<>();
+    private final Set<String> isolatedLibraries = new HashSet<>();
 
     @Override
     public void registerLibraryClassLoader(String dataverseName, String libraryName, ClassLoader classLoader)
             throws RuntimeDataException {
+        registerLibraryClassLoader(dataverseName, libraryName, classLoader, false);
+    }
+
+    @Override
+    public void registerLibraryClassLoader(String dataverseName, String libraryName, ClassLoader classLoader,
+            boolean isolated) throws RuntimeDataException {
         String key = getKey(dataverseName, libraryName);
         synchronized (libraryClassLoaders) {
             if (libraryClassLoaders.get(key) != null) {
                 throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_LIBRARY_CLASS_REGISTERED);
             }
             libraryClassLoaders.put(key, classLoader);
+            if (isolated) {
+                isolatedLibraries.add(key);
+            }
         }
     }
 
@@ -63,7 +76,9 @@ public class ExternalLibraryManager implements ILibraryManager {
             if (libraryClassLoaders.get(key) != null) {
                 libraryClassLoaders.remove(key);
             }
+            isolatedLibraries.remove(key);
         }
+        ExternalFunctionProcessPool.shutdown(dataverseName, libraryName);
     }
 
     @Override
@@ -72,6 +87,14 @@ public class ExternalLibraryManager implements ILibraryManager {
         return libraryClassLoaders.get(key);
     }
 
+    @Override
+    public boolean isLibraryIsolated(String dataverseName, String libraryName) {
+        String key = getKey(dataverseName, libraryName);
+        synchronized (libraryClassLoaders) {
+            return isolatedLibraries.contains(key);
+        }
+    }
+
     private static String getKey(String dataverseName, String libraryName) {
         return dataverseName + "." + libraryName;
     }
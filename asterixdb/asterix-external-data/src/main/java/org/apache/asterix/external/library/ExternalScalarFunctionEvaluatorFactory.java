@@ -42,7 +42,7 @@ public class ExternalScalarFunctionEvaluatorFactory implements IScalarEvaluatorF
 
     @Override
     public IScalarEvaluator createScalarEvaluator(IHyracksTaskContext ctx) throws HyracksDataException {
-        return (ExternalScalarFunction) ExternalFunctionProvider.getExternalFunctionEvaluator(finfo, args, ctx,
+        return (IScalarEvaluator) ExternalFunctionProvider.getExternalFunctionEvaluator(finfo, args, ctx,
                 appCtx == null
                         ? (IApplicationContext) ctx.getJobletContext().getServiceContext().getApplicationContext()
                         : appCtx);
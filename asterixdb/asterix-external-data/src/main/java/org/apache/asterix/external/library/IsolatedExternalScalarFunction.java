@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.common.config.ExternalProperties;
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.IExternalFunction;
+import org.apache.asterix.external.api.IFunctionHelper;
+import org.apache.asterix.external.library.process.ExternalFunctionProcess;
+import org.apache.asterix.external.library.process.ExternalFunctionProcessPool;
+import org.apache.asterix.external.library.process.SharedMemoryChannel;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.runtime.base.IFrameAwareScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Evaluates a function of an isolated library in an {@link ExternalFunctionProcess}. The arguments of the tuples of
+ * the frames that the operator announces are shipped to the process in batches, and the results of a batch are
+ * served to the calls for its tuples. Other calls are shipped one at a time.
+ */
+class IsolatedExternalScalarFunction implements IExternalFunction, IFrameAwareScalarEvaluator {
+
+    private final IExternalFunctionInfo finfo;
+    private final IScalarEvaluator[] argumentEvaluators;
+    private final IIOManager ioManager;
+    private final ExternalFunctionProcessPool pool;
+    private final ArgumentBatch argumentBatch;
+    private final IPointable[] tupleArguments;
+    private final IPointable argument = new VoidPointable();
+    private final ArrayBackedValueStorage castBuffer = new ArrayBackedValueStorage();
+    private final ArrayBackedValueStorage results = new ArrayBackedValueStorage();
+    private final int[] resultStarts = new int[ArgumentBatch.MAX_SIZE + 1];
+    private final String[] errors = new String[ArgumentBatch.MAX_SIZE];
+    // the announced frame, whose tuples are evaluated in batches
+    private IFrameTupleAccessor frame;
+    private boolean batchFailed;
+
+    IsolatedExternalScalarFunction(IExternalFunctionInfo finfo, IScalarEvaluatorFactory[] args,
+            IHyracksTaskContext context, IApplicationContext appCtx, String dataverseName, String libraryName)
+            throws HyracksDataException {
+        this.finfo = finfo;
+        argumentEvaluators = new IScalarEvaluator[args.length];
+        tupleArguments = new IPointable[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argumentEvaluators[i] = args[i].createScalarEvaluator(context);
+            tupleArguments[i] = new VoidPointable();
+        }
+        argumentBatch = new ArgumentBatch(argumentEvaluators);
+        ioManager = context.getIoManager();
+        ExternalProperties properties = appCtx.getExternalProperties();
+        pool = ExternalFunctionProcessPool.getPool(finfo, dataverseName, libraryName,
+                appCtx.getLibraryManager().getLibraryClassLoader(dataverseName, libraryName),
+                properties.getExternalFunctionJavaParams(), properties.getExternalFunctionMaxProcesses(),
+                TimeUnit.SECONDS.toMillis(properties.getExternalFunctionStartupTimeout()),
+                TimeUnit.SECONDS.toMillis(properties.getExternalFunctionCallTimeout()));
+    }
+
+    @Override
+    public void startFrame(IFrameTupleAccessor accessor) {
+        frame = accessor;
+        argumentBatch.clear();
+        batchFailed = false;
+    }
+
+    @Override
+    public void evaluate(IFrameTupleReference tuple, IPointable result) throws HyracksDataException {
+        if (frame != null && tuple.getFrameTupleAccessor() == frame) {
+            int position = argumentBatch.positionOf(tuple);
+            if (position < 0) {
+                evaluateBatch(tuple.getTupleIndex());
+                position = 0;
+            }
+            if (!batchFailed) {
+                getResult(position, result);
+                return;
+            }
+        }
+        // a call on its own, a batch of one that takes the place of the current batch
+        if (!batchFailed) {
+            argumentBatch.clear();
+        }
+        for (int i = 0; i < argumentEvaluators.length; i++) {
+            argumentEvaluators[i].evaluate(tuple, tupleArguments[i]);
+        }
+        call(1, (position, index, value) -> value.set(tupleArguments[index]));
+        getResult(0, result);
+    }
+
+    private void evaluateBatch(int start) throws HyracksDataException {
+        batchFailed = false;
+        try {
+            argumentBatch.evaluate(frame, start);
+        } catch (HyracksDataException e) {
+            // evaluate the tuples of the batch one at a time so an error is raised only for the failing tuple
+            batchFailed = true;
+            return;
+        }
+        call(argumentBatch.getSize(), argumentBatch::getArgument);
+    }
+
+    /**
+     * Evaluates the calls of a batch in the process, in as many requests as it takes to fit their arguments and
+     * results into the exchange buffer.
+     */
+    private void call(int numCalls, IArgumentSource arguments) throws HyracksDataException {
+        results.reset();
+        int done = 0;
+        while (done < numCalls) {
+            ExternalFunctionProcess process = pool.getProcess(ioManager);
+            try {
+                done += call(process, done, numCalls, arguments);
+            } finally {
+                pool.releaseProcess(process);
+            }
+        }
+    }
+
+    /**
+     * Evaluates as many of the remaining calls of a batch as fit into one request.
+     *
+     * @return the number of calls that were answered
+     */
+    private int call(ExternalFunctionProcess process, int done, int numCalls, IArgumentSource arguments)
+            throws HyracksDataException {
+        int slot = process.acquireSlot();
+        try {
+            ByteBuffer request = process.getRequest(slot);
+            request.putInt(0);
+            int requested = 0;
+            while (done + requested < numCalls && putArguments(request, done + requested, arguments)) {
+                requested++;
+            }
+            if (requested == 0) {
+                throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_VALUE_TOO_LARGE,
+                        finfo.getFunctionIdentifier().getName(), request.capacity());
+            }
+            request.putInt(0, requested);
+            ByteBuffer response = process.call(slot);
+            int answered = response.getInt();
+            if (answered <= 0 || answered > requested) {
+                throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED,
+                        finfo.getFunctionIdentifier().getName(), "unexpected response");
+            }
+            for (int i = 0; i < answered; i++) {
+                getResult(response, done + i);
+            }
+            return answered;
+        } finally {
+            process.releaseSlot(slot);
+        }
+    }
+
+    private boolean putArguments(ByteBuffer request, int position, IArgumentSource arguments)
+            throws HyracksDataException {
+        int mark = request.position();
+        try {
+            for (int i = 0; i < argumentEvaluators.length; i++) {
+                arguments.getArgument(position, i, argument);
+                IValueReference value = ExternalFunction.castArgument(finfo.getParamList().get(i), argument,
+                        castBuffer);
+                if (!SharedMemoryChannel.putValue(request, value)) {
+                    request.position(mark);
+                    return false;
+                }
+            }
+            return true;
+        } catch (AlgebricksException | IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void getResult(ByteBuffer response, int position) {
+        resultStarts[position] = results.getLength();
+        errors[position] = null;
+        int length = SharedMemoryChannel.getValue(response, results);
+        if (length == SharedMemoryChannel.MISSING) {
+            results.setSize(resultStarts[position] + 1);
+            results.getByteArray()[resultStarts[position]] = ATypeTag.SERIALIZED_MISSING_TYPE_TAG;
+        } else if (length == SharedMemoryChannel.ERROR) {
+            SharedMemoryChannel.getValue(response, results);
+            errors[position] = new String(results.getByteArray(), resultStarts[position],
+                    results.getLength() - resultStarts[position], StandardCharsets.UTF_8);
+        }
+        resultStarts[position + 1] = results.getLength();
+    }
+
+    private void getResult(int position, IPointable result) throws HyracksDataException {
+        if (errors[position] != null) {
+            throw new HyracksDataException(errors[position]);
+        }
+        result.set(results.getByteArray(), resultStarts[position],
+                resultStarts[position + 1] - resultStarts[position]);
+    }
+
+    @Override
+    public void initialize(IFunctionHelper functionHelper) {
+        // the function is initialized by its process
+    }
+
+    @Override
+    public void deinitialize() {
+        // the processes are shared by the evaluators of the function on this node
+    }
+
+    @FunctionalInterface
+    private interface IArgumentSource {
+        void getArgument(int position, int index, IPointable value);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.asterix.common.exceptions.AsterixException;
+import org.apache.asterix.external.api.IBatchFunctionHelper;
+import org.apache.asterix.external.api.IJObject;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+
+/**
+ * Function helper for {@link org.apache.asterix.external.api.IExternalBatchScalarFunction}s. The argument arrays
+ * and the pooled objects they hold are reused from one batch to the next; the results of a batch are serialized
+ * back to back into a single buffer.
+ */
+public class JavaBatchFunctionHelper extends JavaFunctionHelper implements IBatchFunctionHelper {
+
+    private static final byte[] MISSING = { ATypeTag.SERIALIZED_MISSING_TYPE_TAG };
+
+    private final int numArguments;
+    private final ArrayBackedValueStorage results;
+    // kept out of the object pool so that it cannot alias an argument of the batch
+    private final IJObject resultHolder;
+    private IJObject[][] batchArguments = new IJObject[0][];
+    private int[] resultStarts = new int[0];
+    private int[] resultLengths = new int[0];
+    private int batchSize;
+
+    public JavaBatchFunctionHelper(IExternalFunctionInfo finfo) throws HyracksDataException {
+        this(finfo, new ArrayBackedValueStorage());
+    }
+
+    private JavaBatchFunctionHelper(IExternalFunctionInfo finfo, ArrayBackedValueStorage results)
+            throws HyracksDataException {
+        super(finfo, results);
+        this.results = results;
+        this.numArguments = finfo.getParamList().size();
+        this.resultHolder = JTypeObjectFactory.INSTANCE.create(finfo.getReturnType());
+    }
+
+    /**
+     * Releases the objects of the previous batch and prepares for a batch of the given size.
+     */
+    public void startBatch(int size) {
+        reset();
+        results.reset();
+        if (batchArguments.length < size) {
+            int capacity = Math.max(size, batchArguments.length * 2);
+            IJObject[][] newArguments = Arrays.copyOf(batchArguments, capacity);
+            for (int i = batchArguments.length; i < capacity; i++) {
+                newArguments[i] = new IJObject[numArguments];
+            }
+            batchArguments = newArguments;
+            resultStarts = new int[capacity];
+            resultLengths = new int[capacity];
+        }
+        Arrays.fill(resultLengths, 0, size, -1);
+        batchSize = size;
+    }
+
+    public void setArgument(int tupleIndex, int index, IValueReference valueReference)
+            throws IOException, AsterixException {
+        batchArguments[tupleIndex][index] = toJObject(index, valueReference);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public IJObject[] getArguments(int tupleIndex) {
+        return batchArguments[tupleIndex];
+    }
+
+    @Override
+    public IJObject getArgument(int tupleIndex, int index) {
+        return batchArguments[tupleIndex][index];
+    }
+
+    @Override
+    public IJObject getResultObject() {
+        return resultHolder;
+    }
+
+    @Override
+    public void setResult(int tupleIndex, IJObject result) throws HyracksDataException {
+        int start = results.getLength();
+        setResult(result);
+        if (isValidResult() && results.getByteArray()[start] != ATypeTag.SERIALIZED_MISSING_TYPE_TAG) {
+            resultStarts[tupleIndex] = start;
+            resultLengths[tupleIndex] = results.getLength() - start;
+        } else {
+            resultLengths[tupleIndex] = -1;
+        }
+    }
+
+    /**
+     * Points the given pointable at the result of a tuple of the current batch, or at MISSING if the function
+     * did not produce one.
+     */
+    public void getResult(int tupleIndex, IPointable result) {
+        if (resultLengths[tupleIndex] < 0) {
+            result.set(MISSING, 0, MISSING.length);
+        } else {
+            result.set(results.getByteArray(), resultStarts[tupleIndex], resultLengths[tupleIndex]);
+        }
+    }
+}
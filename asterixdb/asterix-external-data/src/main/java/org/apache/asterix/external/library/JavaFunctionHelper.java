@@ -103,6 +103,10 @@ public class JavaFunctionHelper implements IFunctionHelper {
     }
 
     public void setArgument(int index, IValueReference valueReference) throws IOException, AsterixException {
+        arguments[index] = toJObject(index, valueReference);
+    }
+
+    protected IJObject toJObject(int index, IValueReference valueReference) throws IOException, AsterixException {
         IVisitablePointable pointable = null;
         IJObject jObject = null;
         IAType type = finfo.getParamList().get(index);
@@ -127,7 +131,7 @@ public class JavaFunctionHelper implements IFunctionHelper {
                 jObject = pointableVisitor.visit((AFlatValuePointable) pointable, getTypeInfo(index, type));
                 break;
         }
-        arguments[index] = jObject;
+        return jObject;
     }
 
     private TypeInfo getTypeInfo(int index, IAType type) {
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A child JVM that runs an external function, see {@link ExternalFunctionWorker}. Batches of calls are exchanged
+ * through the slots of a {@link SharedMemoryChannel}; the number of slots bounds the batches in flight, and a
+ * caller waits for a free slot before it writes a request. The process is handed the index of a slot over its
+ * standard input once the request is written, and hands it back over its standard output once the response is.
+ * The exchange buffer is mapped from a file that the process owns and deletes when it is closed. A process that
+ * does not load its function or answer a call in time is killed.
+ */
+public class ExternalFunctionProcess implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ExternalFunctionProcess.class.getName());
+    static final int READY = 0;
+    static final int FAILED = -1;
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long EXIT_TIMEOUT_MS = 1000;
+    private static final ScheduledThreadPoolExecutor STARTUP_TIMER = createStartupTimer();
+
+    private final String name;
+    private final File channelFile;
+    private final SharedMemoryChannel channel;
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+    private final BlockingQueue<Integer> freeSlots;
+    private final long callTimeoutMs;
+    // guarded by this
+    private final boolean[] answered;
+    private final boolean[] abandoned;
+    private volatile boolean alive = true;
+
+    /**
+     * Starts a process and waits until it has loaded the function.
+     *
+     * @param javaOptions
+     *            the JVM options of the process, e.g. its maximum heap size or its class path
+     * @param channelFile
+     *            the file to map the exchange buffer from; it is deleted when the process is closed or fails to start
+     * @param startupTimeoutMs
+     *            the time the process has to load the function, or 0 to wait without limit
+     * @param callTimeoutMs
+     *            the time the process has to answer a call, or 0 to wait without limit
+     */
+    public ExternalFunctionProcess(IExternalFunctionInfo finfo, URL[] libraryUrls, List<String> javaOptions,
+            File channelFile, int numSlots, int slotSize, long startupTimeoutMs, long callTimeoutMs)
+            throws HyracksDataException {
+        name = finfo.getFunctionIdentifier().getNamespace() + "." + finfo.getFunctionIdentifier().getName();
+        this.callTimeoutMs = callTimeoutMs;
+        answered = new boolean[numSlots];
+        abandoned = new boolean[numSlots];
+        freeSlots = new ArrayBlockingQueue<>(numSlots);
+        for (int i = 0; i < numSlots; i++) {
+            freeSlots.add(i);
+        }
+        SharedMemoryChannel sharedChannel = null;
+        Process child = null;
+        try {
+            sharedChannel = new SharedMemoryChannel(channelFile, numSlots, slotSize);
+            List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.addAll(javaOptions);
+            // unless the options narrow it down, the worker gets the class path of the node, which holds the classes
+            // it reads its arguments with; the library is loaded from its own jars
+            if (!javaOptions.contains("-cp") && !javaOptions.contains("-classpath")) {
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+            }
+            command.add(ExternalFunctionWorker.class.getName());
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.directory(channelFile.getParentFile());
+            builder.redirectError(Redirect.INHERIT);
+            child = builder.start();
+            requests = new DataOutputStream(new BufferedOutputStream(child.getOutputStream()));
+            responses = new DataInputStream(new BufferedInputStream(child.getInputStream()));
+            writeSetup(finfo, libraryUrls, channelFile, numSlots, slotSize);
+            if (readStartupStatus(child, startupTimeoutMs) != READY) {
+                throw new IOException(responses.readUTF());
+            }
+        } catch (IOException e) {
+            if (child != null) {
+                child.destroyForcibly();
+            }
+            closeQuietly(sharedChannel, channelFile);
+            throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, e, name,
+                    String.valueOf(e.getMessage()));
+        }
+        this.channelFile = channelFile;
+        channel = sharedChannel;
+        process = child;
+        Thread reader = new Thread(this::readResponses, "External function process " + name);
+        reader.setDaemon(true);
+        reader.start();
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Started a process for external function " + name);
+        }
+    }
+
+    private void writeSetup(IExternalFunctionInfo finfo, URL[] libraryUrls, File file, int numSlots, int slotSize)
+            throws IOException {
+        ByteArrayOutputStream serializedInfo = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serializedInfo)) {
+            out.writeObject(finfo);
+        }
+        requests.writeInt(serializedInfo.size());
+        serializedInfo.writeTo(requests);
+        requests.writeInt(libraryUrls.length);
+        for (URL url : libraryUrls) {
+            requests.writeUTF(url.toString());
+        }
+        requests.writeUTF(file.getAbsolutePath());
+        requests.writeInt(numSlots);
+        requests.writeInt(slotSize);
+        requests.flush();
+    }
+
+    private static ScheduledThreadPoolExecutor createStartupTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "External function process startup timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the timeouts of processes that start in time are cancelled, don't keep them around
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Waits for the process to report whether it loaded the function. A process that does not report in time is
+     * killed, which ends its output.
+     */
+    private int readStartupStatus(Process child, long startupTimeoutMs) throws IOException {
+        if (startupTimeoutMs <= 0) {
+            return responses.readInt();
+        }
+        ScheduledFuture<?> timeout = STARTUP_TIMER.schedule(() -> {
+            child.destroyForcibly();
+        }, startupTimeoutMs, TimeUnit.MILLISECONDS);
+        int status;
+        try {
+            status = responses.readInt();
+        } catch (IOException e) {
+            if (timeout.cancel(false)) {
+                throw e;
+            }
+            throw new IOException("the process did not load the function within " + startupTimeoutMs + " ms", e);
+        }
+        if (!timeout.cancel(false)) {
+            throw new IOException("the process did not load the function within " + startupTimeoutMs + " ms");
+        }
+        return status;
+    }
+
+    private void readResponses() {
+        try {
+            while (true) {
+                int slot = responses.readInt();
+                synchronized (this) {
+                    if (abandoned[slot]) {
+                        abandoned[slot] = false;
+                        freeSlots.add(slot);
+                    } else {
+                        answered[slot] = true;
+                        notifyAll();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (alive && LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "The process of external function " + name + " exited", e);
+            }
+        }
+        synchronized (this) {
+            alive = false;
+            notifyAll();
+        }
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public int getFreeSlots() {
+        return freeSlots.size();
+    }
+
+    /**
+     * Waits for a free slot.
+     *
+     * @return the index of the slot
+     */
+    public int acquireSlot() throws HyracksDataException {
+        try {
+            Integer slot;
+            while ((slot = freeSlots.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+                ensureAlive();
+            }
+            return slot;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    public ByteBuffer getRequest(int slot) {
+        return channel.getRequest(slot);
+    }
+
+    /**
+     * Hands the request in a slot to the process and waits for the response. If the response does not arrive in
+     * time, the process is killed.
+     *
+     * @return the response buffer of the slot
+     */
+    public ByteBuffer call(int slot) throws HyracksDataException {
+        synchronized (this) {
+            answered[slot] = false;
+        }
+        try {
+            synchronized (requests) {
+                requests.writeInt(slot);
+                requests.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, e, name,
+                    String.valueOf(e.getMessage()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+        synchronized (this) {
+            while (!answered[slot]) {
+                ensureAlive();
+                try {
+                    if (callTimeoutMs <= 0) {
+                        wait();
+                    } else {
+                        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (remainingMs <= 0) {
+                            kill();
+                            throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, name,
+                                    "the process did not answer within " + callTimeoutMs + " ms");
+                        }
+                        wait(remainingMs);
+                    }
+                } catch (InterruptedException e) {
+                    // the process still owns the slot, it is freed once the response arrives
+                    abandoned[slot] = true;
+                    Thread.currentThread().interrupt();
+                    throw HyracksDataException.create(e);
+                }
+            }
+        }
+        return channel.getResponse(slot);
+    }
+
+    /**
+     * Frees a slot acquired by {@link #acquireSlot()}, unless the call in it was abandoned.
+     */
+    public void releaseSlot(int slot) {
+        synchronized (this) {
+            if (abandoned[slot]) {
+                return;
+            }
+        }
+        freeSlots.add(slot);
+    }
+
+    /**
+     * Kills a process that stopped answering. The callers that wait for it fail, and the pool replaces it.
+     */
+    private synchronized void kill() {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning("Killing the process of external function " + name + ", it did not answer in time");
+        }
+        alive = false;
+        process.destroyForcibly();
+        notifyAll();
+    }
+
+    private void ensureAlive() throws HyracksDataException {
+        if (!alive) {
+            throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, name,
+                    "the process exited");
+        }
+    }
+
+    /**
+     * Closes the standard input of the process, which makes it exit, and releases the exchange buffer.
+     */
+    @Override
+    public void close() {
+        alive = false;
+        try {
+            requests.close();
+            if (!process.waitFor(EXIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(channel, channelFile);
+    }
+
+    private static void closeQuietly(SharedMemoryChannel channel, File file) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close the exchange buffer " + file, e);
+        }
+        if (file != null && !file.delete()) {
+            LOGGER.warning("Failed to delete the exchange buffer " + file);
+        }
+    }
+}
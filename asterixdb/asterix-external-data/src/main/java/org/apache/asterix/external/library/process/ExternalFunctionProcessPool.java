@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.process;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+
+/**
+ * The processes that run an external function of an isolated library on this node. Processes are started on
+ * demand, up to a fixed number per function and a configured number for all the functions of the node, and replaced
+ * when they exit. When the node has as many processes as it may, an idle process of another function is stopped to
+ * make room for a new one, or the caller waits for one to become idle.
+ */
+public class ExternalFunctionProcessPool {
+
+    private static final int MAX_PROCESSES_PER_FUNCTION = 2;
+    // bounds the batches in flight per process
+    private static final int NUM_SLOTS = 4;
+    private static final int SLOT_SIZE = 8 * 1024 * 1024;
+    private static final long WAIT_INTERVAL_MS = 100;
+    private static final String CHANNEL_FILE_PREFIX = "udf";
+    // guards the pools, their processes and the number of processes of the node
+    private static final Map<String, ExternalFunctionProcessPool> POOLS = new HashMap<>();
+    private static int numOfProcesses;
+
+    private final IExternalFunctionInfo finfo;
+    private final URL[] libraryUrls;
+    private final List<String> javaOptions;
+    private final int maxProcesses;
+    private final long startupTimeoutMs;
+    private final long callTimeoutMs;
+    // the live processes, with the number of callers that use each of them
+    private final Map<ExternalFunctionProcess, Integer> processes = new HashMap<>();
+    private int numOfStartingProcesses;
+    private boolean closed;
+
+    private ExternalFunctionProcessPool(IExternalFunctionInfo finfo, URL[] libraryUrls, List<String> javaOptions,
+            int maxProcesses, long startupTimeoutMs, long callTimeoutMs) {
+        this.finfo = finfo;
+        this.libraryUrls = libraryUrls;
+        this.javaOptions = javaOptions;
+        this.maxProcesses = maxProcesses;
+        this.startupTimeoutMs = startupTimeoutMs;
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    /**
+     * @param javaParams
+     *            the JVM options of the processes, separated by white space
+     * @param maxProcesses
+     *            the maximum number of processes of all the functions of the node
+     * @param startupTimeoutMs
+     *            the time a process has to load the function, or 0 to wait without limit
+     * @param callTimeoutMs
+     *            the time a process has to answer a call, or 0 to wait without limit
+     */
+    public static ExternalFunctionProcessPool getPool(IExternalFunctionInfo finfo, String dataverseName,
+            String libraryName, ClassLoader libraryClassLoader, String javaParams, int maxProcesses,
+            long startupTimeoutMs, long callTimeoutMs) throws HyracksDataException {
+        String key = getKey(dataverseName, libraryName) + finfo.getFunctionIdentifier().getName();
+        synchronized (POOLS) {
+            ExternalFunctionProcessPool pool = POOLS.get(key);
+            if (pool == null) {
+                if (!(libraryClassLoader instanceof URLClassLoader)) {
+                    throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED,
+                            finfo.getFunctionIdentifier().getName(), "the library jars are unknown");
+                }
+                String trimmed = javaParams == null ? "" : javaParams.trim();
+                List<String> javaOptions =
+                        trimmed.isEmpty() ? Collections.emptyList() : Arrays.asList(trimmed.split("\\s+"));
+                pool = new ExternalFunctionProcessPool(finfo, ((URLClassLoader) libraryClassLoader).getURLs(),
+                        javaOptions, Math.max(maxProcesses, 1), startupTimeoutMs, callTimeoutMs);
+                POOLS.put(key, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Stops the processes of the functions of a library.
+     */
+    public static void shutdown(String dataverseName, String libraryName) {
+        String prefix = getKey(dataverseName, libraryName);
+        synchronized (POOLS) {
+            Iterator<Map.Entry<String, ExternalFunctionProcessPool>> it = POOLS.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, ExternalFunctionProcessPool> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    entry.getValue().close();
+                    it.remove();
+                }
+            }
+            POOLS.notifyAll();
+        }
+    }
+
+    private static String getKey(String dataverseName, String libraryName) {
+        return dataverseName + "." + libraryName + "#";
+    }
+
+    /**
+     * Picks the live process with the most free slots, or starts a new one if all processes of the function are busy
+     * and the limits allow it. The exchange buffer of a new process is mapped from a workspace file of the node.
+     * The process has to be handed back with {@link #releaseProcess(ExternalFunctionProcess)}.
+     */
+    public ExternalFunctionProcess getProcess(IIOManager ioManager) throws HyracksDataException {
+        synchronized (POOLS) {
+            while (true) {
+                ensureOpen();
+                ExternalFunctionProcess best = null;
+                Iterator<ExternalFunctionProcess> it = processes.keySet().iterator();
+                while (it.hasNext()) {
+                    ExternalFunctionProcess process = it.next();
+                    if (!process.isAlive()) {
+                        it.remove();
+                        stop(process);
+                    } else if (best == null || process.getFreeSlots() > best.getFreeSlots()) {
+                        best = process;
+                    }
+                }
+                if ((best == null || best.getFreeSlots() == 0)
+                        && processes.size() + numOfStartingProcesses < MAX_PROCESSES_PER_FUNCTION
+                        && (numOfProcesses < maxProcesses || stopIdleProcess())) {
+                    numOfProcesses++;
+                    numOfStartingProcesses++;
+                    break;
+                }
+                if (best != null) {
+                    processes.merge(best, 1, Integer::sum);
+                    return best;
+                }
+                try {
+                    POOLS.wait(WAIT_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw HyracksDataException.create(e);
+                }
+            }
+        }
+        // a process takes a while to start, the other functions are not held up meanwhile
+        ExternalFunctionProcess process = null;
+        boolean added = false;
+        try {
+            File channelFile = ioManager.createWorkspaceFile(CHANNEL_FILE_PREFIX).getFile();
+            process = new ExternalFunctionProcess(finfo, libraryUrls, javaOptions, channelFile, NUM_SLOTS, SLOT_SIZE,
+                    startupTimeoutMs, callTimeoutMs);
+        } finally {
+            synchronized (POOLS) {
+                numOfStartingProcesses--;
+                if (process != null && !closed) {
+                    processes.put(process, 1);
+                    added = true;
+                } else {
+                    numOfProcesses--;
+                    POOLS.notifyAll();
+                }
+            }
+        }
+        if (!added) {
+            process.close();
+            ensureOpen();
+        }
+        return process;
+    }
+
+    /**
+     * Hands back a process acquired by {@link #getProcess(IIOManager)}.
+     */
+    public void releaseProcess(ExternalFunctionProcess process) {
+        synchronized (POOLS) {
+            processes.computeIfPresent(process, (p, users) -> users - 1);
+            POOLS.notifyAll();
+        }
+    }
+
+    private void ensureOpen() throws HyracksDataException {
+        synchronized (POOLS) {
+            if (closed) {
+                throw new RuntimeDataException(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED,
+                        finfo.getFunctionIdentifier().getName(), "the library was uninstalled");
+            }
+        }
+    }
+
+    /**
+     * Stops a process that no caller uses, of any function.
+     *
+     * @return true if a process was stopped
+     */
+    private static boolean stopIdleProcess() {
+        for (ExternalFunctionProcessPool pool : POOLS.values()) {
+            Iterator<Map.Entry<ExternalFunctionProcess, Integer>> it = pool.processes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<ExternalFunctionProcess, Integer> entry = it.next();
+                if (entry.getValue() == 0) {
+                    it.remove();
+                    stop(entry.getKey());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void stop(ExternalFunctionProcess process) {
+        process.close();
+        numOfProcesses--;
+        POOLS.notifyAll();
+    }
+
+    private void close() {
+        closed = true;
+        for (ExternalFunctionProcess process : processes.keySet()) {
+            stop(process);
+        }
+        processes.clear();
+    }
+}
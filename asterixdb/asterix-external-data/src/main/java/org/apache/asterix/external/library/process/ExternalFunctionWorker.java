@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.asterix.external.api.IExternalBatchScalarFunction;
+import org.apache.asterix.external.api.IExternalScalarFunction;
+import org.apache.asterix.external.api.IFunctionFactory;
+import org.apache.asterix.external.library.JavaBatchFunctionHelper;
+import org.apache.asterix.external.library.JavaFunctionHelper;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+
+/**
+ * The main class of an {@link ExternalFunctionProcess}. It loads the function from the library jars, then answers
+ * the requests of the slots it is handed until its standard input is closed.
+ */
+public class ExternalFunctionWorker {
+
+    private final SharedMemoryChannel channel;
+    private final int numArguments;
+    private final IExternalScalarFunction function;
+    private final IExternalBatchScalarFunction batchFunction;
+    private final ArrayBackedValueStorage resultBuffer = new ArrayBackedValueStorage();
+    private final JavaFunctionHelper functionHelper;
+    private final JavaBatchFunctionHelper batchFunctionHelper;
+    private final ArrayBackedValueStorage[] arguments;
+    private final IPointable result = new VoidPointable();
+
+    private ExternalFunctionWorker(DataInputStream setup) throws Exception {
+        byte[] serializedInfo = new byte[setup.readInt()];
+        setup.readFully(serializedInfo);
+        IExternalFunctionInfo finfo;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedInfo))) {
+            finfo = (IExternalFunctionInfo) in.readObject();
+        }
+        URL[] libraryUrls = new URL[setup.readInt()];
+        for (int i = 0; i < libraryUrls.length; i++) {
+            libraryUrls[i] = new URL(setup.readUTF());
+        }
+        channel = new SharedMemoryChannel(new File(setup.readUTF()), setup.readInt(), setup.readInt());
+        numArguments = finfo.getParamList().size();
+        arguments = new ArrayBackedValueStorage[numArguments];
+        for (int i = 0; i < numArguments; i++) {
+            arguments[i] = new ArrayBackedValueStorage();
+        }
+
+        ClassLoader libraryClassLoader = new URLClassLoader(libraryUrls, ExternalFunctionWorker.class.getClassLoader());
+        Class<?> clazz = Class.forName(finfo.getFunctionBody().trim(), true, libraryClassLoader);
+        function = (IExternalScalarFunction) ((IFunctionFactory) clazz.newInstance()).getExternalFunction();
+        functionHelper = new JavaFunctionHelper(finfo, resultBuffer);
+        if (function instanceof IExternalBatchScalarFunction) {
+            batchFunction = (IExternalBatchScalarFunction) function;
+            batchFunctionHelper = new JavaBatchFunctionHelper(finfo);
+        } else {
+            batchFunction = null;
+            batchFunctionHelper = null;
+        }
+        function.initialize(functionHelper);
+    }
+
+    private void answer(int slot) throws IOException {
+        ByteBuffer request = channel.getRequest(slot);
+        ByteBuffer response = channel.getResponse(slot);
+        int numCalls = request.getInt();
+        response.putInt(0);
+        int answered = -1;
+        if (batchFunction != null) {
+            answered = evaluateBatch(request, numCalls, response);
+        }
+        if (answered < 0) {
+            request.position(Integer.BYTES);
+            response.position(Integer.BYTES);
+            answered = evaluateEach(request, numCalls, response);
+        }
+        response.putInt(0, answered);
+    }
+
+    /**
+     * @return the number of calls answered, or -1 if the batch failed and the calls have to be evaluated one by one
+     */
+    private int evaluateBatch(ByteBuffer request, int numCalls, ByteBuffer response) throws IOException {
+        try {
+            batchFunctionHelper.startBatch(numCalls);
+            for (int i = 0; i < numCalls; i++) {
+                readArguments(request);
+                for (int j = 0; j < numArguments; j++) {
+                    batchFunctionHelper.setArgument(i, j, arguments[j]);
+                }
+            }
+            batchFunction.evaluateBatch(batchFunctionHelper);
+        } catch (Exception e) {
+            return -1;
+        }
+        for (int i = 0; i < numCalls; i++) {
+            batchFunctionHelper.getResult(i, result);
+            if (!SharedMemoryChannel.putValue(response, result)) {
+                return answerOverflow(response, i);
+            }
+        }
+        return numCalls;
+    }
+
+    private int evaluateEach(ByteBuffer request, int numCalls, ByteBuffer response) throws IOException {
+        for (int i = 0; i < numCalls; i++) {
+            resultBuffer.reset();
+            readArguments(request);
+            String error = null;
+            try {
+                for (int j = 0; j < numArguments; j++) {
+                    functionHelper.setArgument(j, arguments[j]);
+                }
+                function.evaluate(functionHelper);
+            } catch (Exception e) {
+                error = String.valueOf(e);
+            } finally {
+                functionHelper.reset();
+            }
+            if (error != null) {
+                if (!putError(response, error)) {
+                    return i;
+                }
+            } else if (!functionHelper.isValidResult() || resultBuffer.getLength() == 0
+                    || resultBuffer.getByteArray()[0] == ATypeTag.SERIALIZED_MISSING_TYPE_TAG) {
+                if (response.remaining() < Integer.BYTES) {
+                    return i;
+                }
+                response.putInt(SharedMemoryChannel.MISSING);
+            } else if (!SharedMemoryChannel.putValue(response, resultBuffer)) {
+                return answerOverflow(response, i);
+            }
+        }
+        return numCalls;
+    }
+
+    private void readArguments(ByteBuffer request) {
+        for (ArrayBackedValueStorage argument : arguments) {
+            argument.reset();
+            SharedMemoryChannel.getValue(request, argument);
+        }
+    }
+
+    /**
+     * Ends a response at the call whose result does not fit. The remaining calls are requested again, unless the
+     * result would not fit an empty response either, which is answered with an error.
+     */
+    private static int answerOverflow(ByteBuffer response, int answered) {
+        if (answered > 0) {
+            return answered;
+        }
+        putError(response, "The result does not fit the exchange buffer");
+        return 1;
+    }
+
+    private static boolean putError(ByteBuffer response, String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (response.remaining() < 2 * Integer.BYTES + bytes.length) {
+            return false;
+        }
+        response.putInt(SharedMemoryChannel.ERROR);
+        response.putInt(bytes.length);
+        response.put(bytes);
+        return true;
+    }
+
+    private void close() throws IOException {
+        function.deinitialize();
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream responses =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        // keep whatever the function prints off the control stream
+        System.setOut(System.err);
+        ExternalFunctionWorker worker;
+        try {
+            worker = new ExternalFunctionWorker(requests);
+        } catch (Exception e) {
+            e.printStackTrace();
+            responses.writeInt(ExternalFunctionProcess.FAILED);
+            responses.writeUTF(String.valueOf(e));
+            responses.flush();
+            System.exit(1);
+            return;
+        }
+        responses.writeInt(ExternalFunctionProcess.READY);
+        responses.flush();
+        while (true) {
+            int slot;
+            try {
+                slot = requests.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            worker.answer(slot);
+            responses.writeInt(slot);
+            responses.flush();
+        }
+        worker.close();
+    }
+}
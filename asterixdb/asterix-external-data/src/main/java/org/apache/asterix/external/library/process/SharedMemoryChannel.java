@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.process;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+
+/**
+ * A memory-mapped file shared by a node controller and an external function process, divided into slots that each
+ * carry one batch of calls at a time. The first half of a slot holds the request, the second half the response.
+ * <p>
+ * A request is the number of calls followed by the arguments of each call. A response is the number of calls it
+ * answers, which can be fewer than requested if their results do not fit, followed by the result of each call.
+ * Every value is framed like an entry of the binary ADM format, the 4-byte length of the tagged serialized value
+ * followed by its bytes. In a response, a negative length stands for {@link #MISSING} or {@link #ERROR}; an error
+ * is followed by a framed UTF-8 message.
+ * <p>
+ * Slots are handed back and forth over the control streams of the process, which also orders the accesses of both
+ * sides to the mapped memory.
+ */
+public class SharedMemoryChannel implements Closeable {
+
+    public static final int MISSING = -1;
+    public static final int ERROR = -2;
+
+    private final RandomAccessFile file;
+    private final ByteBuffer[] requests;
+    private final ByteBuffer[] responses;
+
+    public SharedMemoryChannel(File file, int numSlots, int slotSize) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        FileChannel channel = this.file.getChannel();
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, (long) numSlots * slotSize);
+        requests = new ByteBuffer[numSlots];
+        responses = new ByteBuffer[numSlots];
+        int half = slotSize / 2;
+        for (int i = 0; i < numSlots; i++) {
+            requests[i] = slice(buffer, i * slotSize, half);
+            responses[i] = slice(buffer, i * slotSize + half, half);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    public int getNumSlots() {
+        return requests.length;
+    }
+
+    /**
+     * @return the request buffer of a slot, cleared
+     */
+    public ByteBuffer getRequest(int slot) {
+        ByteBuffer request = requests[slot];
+        request.clear();
+        return request;
+    }
+
+    /**
+     * @return the response buffer of a slot, cleared
+     */
+    public ByteBuffer getResponse(int slot) {
+        ByteBuffer response = responses[slot];
+        response.clear();
+        return response;
+    }
+
+    /**
+     * Appends a framed value to a buffer.
+     *
+     * @return false if the value does not fit, in which case the buffer is left unchanged
+     */
+    public static boolean putValue(ByteBuffer buffer, IValueReference value) {
+        if (buffer.remaining() < Integer.BYTES + value.getLength()) {
+            return false;
+        }
+        buffer.putInt(value.getLength());
+        buffer.put(value.getByteArray(), value.getStartOffset(), value.getLength());
+        return true;
+    }
+
+    /**
+     * Reads a framed value of a buffer and appends it to a storage.
+     *
+     * @return the length of the value, or a negative marker without a value
+     */
+    public static int getValue(ByteBuffer buffer, ArrayBackedValueStorage storage) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            int start = storage.getLength();
+            storage.setSize(start + length);
+            buffer.get(storage.getByteArray(), start, length);
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.dataflow.data.nontagged.serde.ARecordSerializerDeserializer;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordDataParser;
+import org.apache.asterix.external.input.record.ADMBinaryRecord;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.utils.ADMBinaryFormatUtil;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Parser for records in the binary ADM format. The records already are in the layout of tuple fields, so they are
+ * copied to the output as they are, once they have been deserialized with the type of the dataset to make sure it
+ * can read them. Inputs that say they were serialized with another type are rejected before their records are read.
+ */
+public class ADMBinaryDataParser extends AbstractDataParser implements IRecordDataParser<byte[]> {
+
+    // tag and length
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    private final ARecordType recordType;
+    private final long typeId;
+    private final ARecordSerializerDeserializer recordSerde;
+
+    public ADMBinaryDataParser(ARecordType recordType) {
+        this.recordType = recordType;
+        typeId = ADMBinaryFormatUtil.getTypeId(recordType);
+        recordSerde = new ARecordSerializerDeserializer(recordType);
+    }
+
+    @Override
+    public void parse(IRawRecord<? extends byte[]> record, DataOutput out) throws HyracksDataException {
+        byte[] bytes = record.get();
+        int length = record.size();
+        if (length < RECORD_HEADER_SIZE || bytes[0] != ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_BINARY_DATA_PARSER_MALFORMED_INPUT, "not an object");
+        }
+        int recordLength = ARecordSerializerDeserializer.getRecordLength(bytes, 1);
+        if (recordLength != length) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_BINARY_DATA_PARSER_MALFORMED_INPUT,
+                    "its length is " + length + " but its object is " + recordLength + " bytes long");
+        }
+        if (record instanceof ADMBinaryRecord && ((ADMBinaryRecord) record).hasTypeId()
+                && ((ADMBinaryRecord) record).getTypeId() != typeId) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_BINARY_DATA_PARSER_TYPE_MISMATCH,
+                    recordType.getTypeName());
+        }
+        // a matching type id doesn't tell a corrupted record from a good one, so every record is validated
+        validate(bytes, length);
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void validate(byte[] bytes, int length) throws HyracksDataException {
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes, 1, length - 1);
+        try {
+            recordSerde.deserialize(new DataInputStream(in));
+        } catch (HyracksDataException | RuntimeException e) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_BINARY_DATA_PARSER_MALFORMED_INPUT, e,
+                    "it can't be read as " + recordType.getTypeName());
+        }
+        if (in.available() > 0) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_BINARY_DATA_PARSER_MALFORMED_INPUT,
+                    "its object ends " + in.available() + " bytes before its end");
+        }
+    }
+}
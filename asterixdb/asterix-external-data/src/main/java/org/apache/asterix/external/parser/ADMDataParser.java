@@ -24,7 +24,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.util.BitSet;
-import java.util.List;
 
 import org.apache.asterix.builders.AbvsBuilderFactory;
 import org.apache.asterix.builders.IARecordBuilder;
@@ -44,7 +43,6 @@ import org.apache.asterix.om.base.temporal.GregorianCalendarSystem;
 import org.apache.asterix.om.types.AOrderedListType;
 import org.apache.asterix.om.types.ARecordType;
 import org.apache.asterix.om.types.ATypeTag;
-import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.AUnorderedListType;
 import org.apache.asterix.om.types.IAType;
 import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
@@ -429,54 +427,6 @@ public class ADMDataParser extends AbstractDataParser implements IStreamDataPars
         }
     }
 
-    private IAType getComplexType(IAType aObjectType, ATypeTag tag) {
-        if (aObjectType == null) {
-            return null;
-        }
-
-        if (aObjectType.getTypeTag() == tag) {
-            return aObjectType;
-        }
-
-        if (aObjectType.getTypeTag() == ATypeTag.UNION) {
-            AUnionType unionType = (AUnionType) aObjectType;
-            IAType type = unionType.getActualType();
-            if (type.getTypeTag() == tag) {
-                return type;
-            }
-        }
-        return null; // wont get here
-    }
-
-    private ATypeTag getTargetTypeTag(ATypeTag expectedTypeTag, IAType aObjectType) throws HyracksDataException {
-        if (aObjectType == null) {
-            return expectedTypeTag;
-        }
-        if (aObjectType.getTypeTag() != ATypeTag.UNION) {
-            ATypeTag typeTag = aObjectType.getTypeTag();
-            if (ATypeHierarchy.canPromote(expectedTypeTag, typeTag)
-                    || ATypeHierarchy.canDemote(expectedTypeTag, typeTag)) {
-                return typeTag;
-            } else {
-                return null;
-            }
-        } else { // union
-            List<IAType> unionList = ((AUnionType) aObjectType).getUnionList();
-            for (IAType t : unionList) {
-                final ATypeTag typeTag = t.getTypeTag();
-                if (ATypeHierarchy.canPromote(expectedTypeTag, typeTag)
-                        || ATypeHierarchy.canDemote(expectedTypeTag, typeTag)) {
-                    return typeTag;
-                }
-            }
-        }
-        return null;
-    }
-
-    private boolean checkType(ATypeTag expectedTypeTag, IAType aObjectType) throws IOException {
-        return getTargetTypeTag(expectedTypeTag, aObjectType) != null;
-    }
-
     private void parseRecord(ARecordType recType, DataOutput out) throws IOException {
         ArrayBackedValueStorage fieldValueBuffer = getTempBuffer();
         ArrayBackedValueStorage fieldNameBuffer = getTempBuffer();
@@ -587,27 +537,6 @@ public class ADMDataParser extends AbstractDataParser implements IStreamDataPars
         recBuilder.write(out, true);
     }
 
-    private int checkOptionalConstraints(ARecordType recType, BitSet nulls) {
-        for (int i = 0; i < recType.getFieldTypes().length; i++) {
-            if (nulls.get(i) == false) {
-                IAType type = recType.getFieldTypes()[i];
-                if ((type.getTypeTag() != ATypeTag.NULL) && (type.getTypeTag() != ATypeTag.UNION)) {
-                    return i;
-                }
-
-                if (type.getTypeTag() != ATypeTag.UNION) {
-                    continue;
-                }
-                // union
-                AUnionType unionType = (AUnionType) type;
-                if (!unionType.isUnknownableType()) {
-                    return i;
-                }
-            }
-        }
-        return -1;
-    }
-
     private void parseInterval(ATypeTag typeTag, IAType objectType, DataOutput out) throws IOException {
         long start = 0, end = 0;
         byte tag = 0;
@@ -19,7 +19,12 @@
 package org.apache.asterix.external.parser;
 
 import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
 
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
 import org.apache.asterix.external.api.IDataParser;
 import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
 import org.apache.asterix.om.base.ABinary;
@@ -71,7 +76,12 @@ import org.apache.asterix.om.base.temporal.ADurationParserFactory;
 import org.apache.asterix.om.base.temporal.ADurationParserFactory.ADurationParseOption;
 import org.apache.asterix.om.base.temporal.ATimeParserFactory;
 import org.apache.asterix.om.base.temporal.GregorianCalendarSystem;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
 import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.util.bytes.Base64Parser;
@@ -357,4 +367,139 @@ public abstract class AbstractDataParser implements IDataParser {
 
         return ATimeParserFactory.parseTimePart(interval, startOffset, endOffset - startOffset + 1);
     }
+
+    protected static IAType getComplexType(IAType aObjectType, ATypeTag tag) {
+        if (aObjectType == null) {
+            return null;
+        }
+
+        if (aObjectType.getTypeTag() == tag) {
+            return aObjectType;
+        }
+
+        if (aObjectType.getTypeTag() == ATypeTag.UNION) {
+            AUnionType unionType = (AUnionType) aObjectType;
+            IAType type = unionType.getActualType();
+            if (type.getTypeTag() == tag) {
+                return type;
+            }
+        }
+        return null; // wont get here
+    }
+
+    protected static ATypeTag getTargetTypeTag(ATypeTag expectedTypeTag, IAType aObjectType)
+            throws HyracksDataException {
+        if (aObjectType == null) {
+            return expectedTypeTag;
+        }
+        if (aObjectType.getTypeTag() != ATypeTag.UNION) {
+            ATypeTag typeTag = aObjectType.getTypeTag();
+            if (ATypeHierarchy.canPromote(expectedTypeTag, typeTag)
+                    || ATypeHierarchy.canDemote(expectedTypeTag, typeTag)) {
+                return typeTag;
+            } else {
+                return null;
+            }
+        } else { // union
+            List<IAType> unionList = ((AUnionType) aObjectType).getUnionList();
+            for (IAType t : unionList) {
+                final ATypeTag typeTag = t.getTypeTag();
+                if (ATypeHierarchy.canPromote(expectedTypeTag, typeTag)
+                        || ATypeHierarchy.canDemote(expectedTypeTag, typeTag)) {
+                    return typeTag;
+                }
+            }
+        }
+        return null;
+    }
+
+    protected static boolean checkType(ATypeTag expectedTypeTag, IAType aObjectType) throws IOException {
+        return getTargetTypeTag(expectedTypeTag, aObjectType) != null;
+    }
+
+    protected static int checkOptionalConstraints(ARecordType recType, BitSet nulls) {
+        for (int i = 0; i < recType.getFieldTypes().length; i++) {
+            if (nulls.get(i) == false) {
+                IAType type = recType.getFieldTypes()[i];
+                if ((type.getTypeTag() != ATypeTag.NULL) && (type.getTypeTag() != ATypeTag.UNION)) {
+                    return i;
+                }
+
+                if (type.getTypeTag() != ATypeTag.UNION) {
+                    continue;
+                }
+                // union
+                AUnionType unionType = (AUnionType) type;
+                if (!unionType.isUnknownableType()) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes an integer as a tagged value of the type it is expected to be.
+     */
+    protected static void writeInteger(long value, IAType type, DataOutput out) throws IOException {
+        ATypeTag targetTypeTag = getTargetTypeTag(ATypeTag.BIGINT, type);
+        if (targetTypeTag == null) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+        switch (targetTypeTag) {
+            case BIGINT:
+                out.writeByte(ATypeTag.SERIALIZED_INT64_TYPE_TAG);
+                out.writeLong(value);
+                break;
+            case INTEGER:
+                checkRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE, targetTypeTag);
+                out.writeByte(ATypeTag.SERIALIZED_INT32_TYPE_TAG);
+                out.writeInt((int) value);
+                break;
+            case SMALLINT:
+                checkRange(value, Short.MIN_VALUE, Short.MAX_VALUE, targetTypeTag);
+                out.writeByte(ATypeTag.SERIALIZED_INT16_TYPE_TAG);
+                out.writeShort((short) value);
+                break;
+            case TINYINT:
+                checkRange(value, Byte.MIN_VALUE, Byte.MAX_VALUE, targetTypeTag);
+                out.writeByte(ATypeTag.SERIALIZED_INT8_TYPE_TAG);
+                out.writeByte((byte) value);
+                break;
+            case DOUBLE:
+                out.writeByte(ATypeTag.SERIALIZED_DOUBLE_TYPE_TAG);
+                out.writeDouble(value);
+                break;
+            case FLOAT:
+                out.writeByte(ATypeTag.SERIALIZED_FLOAT_TYPE_TAG);
+                out.writeFloat(value);
+                break;
+            default:
+                throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+    }
+
+    protected static void checkRange(long value, long min, long max, ATypeTag targetTypeTag)
+            throws HyracksDataException {
+        if (value < min || value > max) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_CAST_ERROR, ATypeTag.BIGINT,
+                    targetTypeTag);
+        }
+    }
+
+    /**
+     * Writes a double as a tagged value of the type it is expected to be.
+     */
+    protected static void writeDouble(double value, IAType type, DataOutput out) throws IOException {
+        ATypeTag targetTypeTag = getTargetTypeTag(ATypeTag.DOUBLE, type);
+        if (targetTypeTag == ATypeTag.DOUBLE) {
+            out.writeByte(ATypeTag.SERIALIZED_DOUBLE_TYPE_TAG);
+            out.writeDouble(value);
+        } else if (targetTypeTag == ATypeTag.FLOAT) {
+            out.writeByte(ATypeTag.SERIALIZED_FLOAT_TYPE_TAG);
+            out.writeFloat((float) value);
+        } else {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+    }
 }
@@ -0,0 +1,758 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.builders.AbvsBuilderFactory;
+import org.apache.asterix.builders.IARecordBuilder;
+import org.apache.asterix.builders.IAsterixListBuilder;
+import org.apache.asterix.builders.ListBuilderFactory;
+import org.apache.asterix.builders.RecordBuilderFactory;
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordDataParser;
+import org.apache.asterix.om.base.ABoolean;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnorderedListType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.util.container.IObjectPool;
+import org.apache.asterix.om.util.container.ListObjectPool;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IMutableValueStorage;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.util.string.UTF8StringUtil;
+
+/**
+ * Parser for JSON records encoded in UTF-8. Unlike {@link ADMDataParser}, which tokenizes characters, this parser
+ * works on the raw bytes of a record in two stages:
+ * <ol>
+ * <li>The record is scanned in blocks of 64 bytes. For every block, bitmasks of the quotes, backslashes and
+ * structural characters are built without data-dependent branches, escaped characters and string interiors are
+ * derived from them with carry-less bit arithmetic, and the positions of the structural characters outside strings
+ * and of the string delimiters are appended to an index.</li>
+ * <li>The value is built by walking the index. Scalars are the bytes between two consecutive index entries, strings
+ * without escapes or 4-byte sequences are copied to the output as-is (UTF-8 and the modified UTF-8 used by ADM are
+ * the same for them) and field names are looked up in the record type by their bytes.</li>
+ * </ol>
+ */
+public class JSONDataParser extends AbstractDataParser implements IRecordDataParser<byte[]> {
+
+    private static final int QUOTE = 1;
+    private static final int BACKSLASH = 2;
+    private static final int STRUCTURAL = 4;
+    // bytes that prevent a string from being copied as-is: backslashes, NUL and the leading bytes of 4-byte sequences
+    private static final int SPECIAL = 8;
+    private static final byte[] CLASSES = new byte[256];
+    private static final long EVEN_BITS = 0x5555555555555555L;
+    private static final long ODD_BITS = ~EVEN_BITS;
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final int UUID_LENGTH = 36;
+
+    static {
+        CLASSES['"'] = QUOTE;
+        CLASSES['\\'] = BACKSLASH | SPECIAL;
+        for (char c : new char[] { '{', '}', '[', ']', ':', ',' }) {
+            CLASSES[c] = STRUCTURAL;
+        }
+        CLASSES[0] = SPECIAL;
+        for (int i = 0xF0; i < 256; i++) {
+            CLASSES[i] = SPECIAL;
+        }
+    }
+
+    private final ARecordType recordType;
+    private final IObjectPool<IARecordBuilder, ATypeTag> recordBuilderPool =
+            new ListObjectPool<IARecordBuilder, ATypeTag>(new RecordBuilderFactory());
+    private final IObjectPool<IAsterixListBuilder, ATypeTag> listBuilderPool =
+            new ListObjectPool<IAsterixListBuilder, ATypeTag>(new ListBuilderFactory());
+    private final IObjectPool<IMutableValueStorage, ATypeTag> abvsBuilderPool =
+            new ListObjectPool<IMutableValueStorage, ATypeTag>(new AbvsBuilderFactory());
+    private final Map<ARecordType, FieldNameIndex> fieldNameIndexes = new IdentityHashMap<>();
+    private final byte[] lengthBuffer = new byte[5];
+    // per nesting depth of objects, the fields present in the object being parsed
+    private final List<BitSet> presentFields = new ArrayList<>();
+
+    private byte[] data;
+    private int length;
+    // positions of the structural characters and string delimiters; structurals[structuralCount] == length
+    private int[] structurals = new int[64];
+    private int structuralCount;
+    // per 64-byte block, the positions of SPECIAL bytes
+    private long[] specialBlocks = new long[16];
+    // next index entry and next byte to be consumed
+    private int next;
+    private int pos;
+    private byte[] stringBuffer = new byte[64];
+    // nesting depth of the object being parsed
+    private int objectDepth;
+
+    public JSONDataParser(ARecordType recordType) {
+        this.recordType = recordType;
+    }
+
+    @Override
+    public void parse(IRawRecord<? extends byte[]> record, DataOutput out) throws HyracksDataException {
+        data = record.get();
+        length = record.size() < 0 ? data.length : record.size();
+        try {
+            resetPools();
+            index();
+            next = 0;
+            pos = 0;
+            objectDepth = 0;
+            parseValue(recordType, out);
+            int end = skipWhitespace(pos);
+            if (end != length) {
+                throw malformed(end, "unexpected content after the end of the record");
+            }
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    /**
+     * Stage 1: builds the index of structural characters and string delimiters of the record.
+     */
+    private void index() throws HyracksDataException {
+        structuralCount = 0;
+        int blocks = (length + 63) >>> 6;
+        if (specialBlocks.length < blocks) {
+            specialBlocks = new long[Math.max(blocks, specialBlocks.length * 2)];
+        }
+        // 1 if the first byte of the next block is escaped
+        long prevEscaped = 0;
+        // all ones if the next block starts inside a string
+        long prevInString = 0;
+        for (int block = 0; block < blocks; block++) {
+            int base = block << 6;
+            int n = Math.min(64, length - base);
+            long quote = 0;
+            long backslash = 0;
+            long structural = 0;
+            long special = 0;
+            for (int i = 0; i < n; i++) {
+                int c = CLASSES[data[base + i] & 0xFF];
+                quote |= (long) (c & QUOTE) << i;
+                backslash |= (long) ((c & BACKSLASH) >>> 1) << i;
+                structural |= (long) ((c & STRUCTURAL) >>> 2) << i;
+                special |= (long) ((c & SPECIAL) >>> 3) << i;
+            }
+            // characters preceded by an odd number of backslashes are escaped
+            long escaped;
+            if (backslash == 0) {
+                escaped = prevEscaped;
+                prevEscaped = 0;
+            } else {
+                long escape = backslash & ~prevEscaped;
+                long followsEscape = (escape << 1) | prevEscaped;
+                long oddSequenceStarts = escape & ODD_BITS & ~followsEscape;
+                long sequencesStartingOnEvenBits = oddSequenceStarts + escape;
+                prevEscaped = ((oddSequenceStarts & escape)
+                        | ((oddSequenceStarts | escape) & ~sequencesStartingOnEvenBits)) >>> 63;
+                long invertMask = sequencesStartingOnEvenBits << 1;
+                escaped = (EVEN_BITS ^ invertMask) & followsEscape;
+            }
+            long delimiters = quote & ~escaped;
+            // bits from an opening quote (included) to the closing quote (excluded)
+            long inString = prefixXor(delimiters) ^ prevInString;
+            // the bits past the end of a partial block carry the state after its last byte
+            prevInString = inString >> 63;
+            specialBlocks[block] = special;
+            long bits = (structural & ~inString) | delimiters;
+            int count = Long.bitCount(bits);
+            if (structurals.length <= structuralCount + count) {
+                structurals = Arrays.copyOf(structurals, Math.max(structuralCount + count + 1, structurals.length * 2));
+            }
+            while (bits != 0) {
+                structurals[structuralCount++] = base + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        if (prevInString != 0) {
+            throw malformed(length, "unterminated string");
+        }
+        if (structurals.length <= structuralCount) {
+            structurals = Arrays.copyOf(structurals, structuralCount + 1);
+        }
+        structurals[structuralCount] = length;
+    }
+
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+    /*
+     * Stage 2: builds the value by walking the index.
+     */
+
+    private void parseValue(IAType type, DataOutput out) throws IOException {
+        int start = skipWhitespace(pos);
+        if (start >= length) {
+            throw malformed(start, "unexpected end of the record");
+        }
+        if (structurals[next] == start) {
+            next++;
+            pos = start + 1;
+            switch (data[start]) {
+                case '{':
+                    parseObject(type, out);
+                    break;
+                case '[':
+                    parseArray(type, out);
+                    break;
+                case '"':
+                    parseString(start, type, out);
+                    break;
+                default:
+                    throw malformed(start, "unexpected '" + (char) data[start] + "'");
+            }
+        } else {
+            int end = structurals[next];
+            pos = end;
+            while (end > start && isWhitespace(data[end - 1])) {
+                end--;
+            }
+            parseScalar(start, end, type, out);
+        }
+    }
+
+    private void parseObject(IAType type, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.OBJECT, type)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+        ARecordType recType = (ARecordType) getComplexType(type, ATypeTag.OBJECT);
+        IARecordBuilder recBuilder = getRecordBuilder();
+        ArrayBackedValueStorage fieldNameBuffer = getTempBuffer();
+        ArrayBackedValueStorage fieldValueBuffer = getTempBuffer();
+        FieldNameIndex fieldNames = null;
+        BitSet nulls = null;
+        if (recType != null) {
+            fieldNames = getFieldNameIndex(recType);
+            nulls = getPresentFields(objectDepth);
+        }
+        objectDepth++;
+        recBuilder.reset(recType);
+        recBuilder.init();
+        if (peek() == '}') {
+            consume();
+        } else {
+            byte separator;
+            do {
+                int open = consume();
+                if (data[open] != '"') {
+                    throw malformed(open, "expecting a field name");
+                }
+                int close = structurals[next++];
+                pos = close + 1;
+                boolean plain = !hasSpecial(open + 1, close);
+                int fieldId = -1;
+                if (fieldNames != null) {
+                    fieldId = plain ? fieldNames.find(data, open + 1, close - open - 1)
+                            : fieldNames.find(stringBuffer, 0, unescape(open + 1, close));
+                    if (fieldId < 0 && !recType.isOpen()) {
+                        throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_EXTRA_FIELD_IN_CLOSED_RECORD,
+                                new String(data, open + 1, close - open - 1, StandardCharsets.UTF_8));
+                    }
+                }
+                int colon = consume();
+                if (data[colon] != ':') {
+                    throw malformed(colon, "expecting ':'");
+                }
+                fieldValueBuffer.reset();
+                if (fieldId >= 0) {
+                    nulls.set(fieldId);
+                    parseValue(recType.getFieldTypes()[fieldId], fieldValueBuffer.getDataOutput());
+                    recBuilder.addField(fieldId, fieldValueBuffer);
+                } else {
+                    fieldNameBuffer.reset();
+                    writeString(open + 1, close, plain, fieldNameBuffer.getDataOutput());
+                    parseValue(null, fieldValueBuffer.getDataOutput());
+                    recBuilder.addField(fieldNameBuffer, fieldValueBuffer);
+                }
+                separator = data[consume()];
+            } while (separator == ',');
+            if (separator != '}') {
+                throw malformed(pos - 1, "expecting ',' or '}'");
+            }
+        }
+        objectDepth--;
+        if (recType != null) {
+            int nullableFieldId = checkOptionalConstraints(recType, nulls);
+            if (nullableFieldId != -1) {
+                throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_FIELD_NOT_NULL,
+                        recType.getFieldNames()[nullableFieldId]);
+            }
+        }
+        recBuilder.write(out, true);
+    }
+
+    /**
+     * @return the cleared set of the fields present in the object being parsed at {@code depth}, which is reused
+     *         across objects
+     */
+    private BitSet getPresentFields(int depth) {
+        while (presentFields.size() <= depth) {
+            presentFields.add(new BitSet());
+        }
+        BitSet fields = presentFields.get(depth);
+        fields.clear();
+        return fields;
+    }
+
+    private void parseArray(IAType type, DataOutput out) throws IOException {
+        IAsterixListBuilder listBuilder;
+        IAType itemType = null;
+        if (checkType(ATypeTag.ARRAY, type)) {
+            AOrderedListType listType = (AOrderedListType) getComplexType(type, ATypeTag.ARRAY);
+            if (listType != null) {
+                itemType = listType.getItemType();
+            }
+            listBuilder = listBuilderPool.allocate(ATypeTag.ARRAY);
+            listBuilder.reset(listType);
+        } else if (checkType(ATypeTag.MULTISET, type)) {
+            AUnorderedListType listType = (AUnorderedListType) getComplexType(type, ATypeTag.MULTISET);
+            if (listType != null) {
+                itemType = listType.getItemType();
+            }
+            listBuilder = listBuilderPool.allocate(ATypeTag.MULTISET);
+            listBuilder.reset(listType);
+        } else {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+        ArrayBackedValueStorage itemBuffer = getTempBuffer();
+        if (peek() == ']') {
+            consume();
+        } else {
+            byte separator;
+            do {
+                itemBuffer.reset();
+                parseValue(itemType, itemBuffer.getDataOutput());
+                listBuilder.addItem(itemBuffer);
+                separator = data[consume()];
+            } while (separator == ',');
+            if (separator != ']') {
+                throw malformed(pos - 1, "expecting ',' or ']'");
+            }
+        }
+        listBuilder.write(out, true);
+    }
+
+    private void parseString(int open, IAType type, DataOutput out) throws IOException {
+        int close = structurals[next++];
+        pos = close + 1;
+        if (checkType(ATypeTag.STRING, type)) {
+            writeString(open + 1, close, !hasSpecial(open + 1, close), out);
+        } else if (checkType(ATypeTag.UUID, type)) {
+            if (close - open - 1 != UUID_LENGTH) {
+                throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_WRONG_INSTANCE, "uuid");
+            }
+            aUUID.parseUUIDHexBytes(data, open + 1);
+            uuidSerde.serialize(aUUID, out);
+        } else {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+    }
+
+    private void parseScalar(int start, int end, IAType type, DataOutput out) throws IOException {
+        switch (data[start]) {
+            case 't':
+                expectLiteral(start, end, TRUE);
+                writeBoolean(true, type, out);
+                break;
+            case 'f':
+                expectLiteral(start, end, FALSE);
+                writeBoolean(false, type, out);
+                break;
+            case 'n':
+                expectLiteral(start, end, NULL);
+                if (!checkType(ATypeTag.NULL, type)) {
+                    throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_FIELD_NOT_NULL, "");
+                }
+                nullSerde.serialize(ANull.NULL, out);
+                break;
+            default:
+                parseNumber(start, end, type, out);
+                break;
+        }
+    }
+
+    private void writeBoolean(boolean value, IAType type, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.BOOLEAN, type)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+        booleanSerde.serialize(value ? ABoolean.TRUE : ABoolean.FALSE, out);
+    }
+
+    private void parseNumber(int start, int end, IAType type, DataOutput out) throws IOException {
+        int i = start;
+        boolean negative = data[i] == '-';
+        if (negative) {
+            i++;
+        }
+        int digitsStart = i;
+        long value = 0;
+        while (i < end && isDigit(data[i])) {
+            value = value * 10 + (data[i] - '0');
+            i++;
+        }
+        int digits = i - digitsStart;
+        if (digits == 0) {
+            throw malformed(start, "invalid value");
+        }
+        if (i == end) {
+            if (digits > 18) {
+                // may not fit in the accumulator; the sign is parsed with the digits so that the minimum fits
+                try {
+                    value = Long.parseLong(new String(data, start, end - start, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_WRONG_INSTANCE, "int64");
+                }
+            } else if (negative) {
+                value = -value;
+            }
+            writeInteger(value, type, out);
+            return;
+        }
+        if (data[i] == '.') {
+            i = skipDigits(i + 1, end, start);
+        }
+        if (i < end && (data[i] == 'e' || data[i] == 'E')) {
+            i++;
+            if (i < end && (data[i] == '+' || data[i] == '-')) {
+                i++;
+            }
+            i = skipDigits(i, end, start);
+        }
+        if (i != end) {
+            throw malformed(start, "invalid number");
+        }
+        writeDouble(Double.parseDouble(new String(data, start, end - start, StandardCharsets.US_ASCII)), type, out);
+    }
+
+    private int skipDigits(int i, int end, int start) throws HyracksDataException {
+        int digitsStart = i;
+        while (i < end && isDigit(data[i])) {
+            i++;
+        }
+        if (i == digitsStart) {
+            throw malformed(start, "invalid number");
+        }
+        return i;
+    }
+
+    private void expectLiteral(int start, int end, byte[] literal) throws HyracksDataException {
+        if (end - start != literal.length) {
+            throw malformed(start, "invalid value");
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (data[start + i] != literal[i]) {
+                throw malformed(start, "invalid value");
+            }
+        }
+    }
+
+    /**
+     * Writes the string between the two given offsets as a tagged ADM string.
+     *
+     * @param plain
+     *            true if the string has no SPECIAL bytes and can be copied as-is
+     */
+    private void writeString(int start, int end, boolean plain, DataOutput out) throws IOException {
+        out.writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+        if (plain) {
+            UTF8StringUtil.writeUTF8Length(end - start, lengthBuffer, out);
+            out.write(data, start, end - start);
+        } else {
+            int len = unescape(start, end);
+            UTF8StringUtil.writeUTF8Length(len, lengthBuffer, out);
+            out.write(stringBuffer, 0, len);
+        }
+    }
+
+    /**
+     * Decodes the escapes and 4-byte sequences of the string between the two given offsets into stringBuffer.
+     *
+     * @return the length of the decoded string
+     */
+    private int unescape(int start, int end) throws HyracksDataException {
+        // no sequence grows by more than a factor of 2
+        if (stringBuffer.length < 2 * (end - start)) {
+            stringBuffer = new byte[2 * (end - start)];
+        }
+        int o = 0;
+        int i = start;
+        while (i < end) {
+            int c = data[i] & 0xFF;
+            if (c == '\\') {
+                if (i + 1 >= end) {
+                    throw malformed(i, "incomplete escape");
+                }
+                byte escaped = data[i + 1];
+                i += 2;
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        stringBuffer[o++] = escaped;
+                        break;
+                    case 'b':
+                        stringBuffer[o++] = '\b';
+                        break;
+                    case 'f':
+                        stringBuffer[o++] = '\f';
+                        break;
+                    case 'n':
+                        stringBuffer[o++] = '\n';
+                        break;
+                    case 'r':
+                        stringBuffer[o++] = '\r';
+                        break;
+                    case 't':
+                        stringBuffer[o++] = '\t';
+                        break;
+                    case 'u':
+                        if (i + 4 > end) {
+                            throw malformed(i - 2, "incomplete escape");
+                        }
+                        int ch = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int digit = Character.digit(data[i + k], 16);
+                            if (digit < 0) {
+                                throw malformed(i - 2, "invalid unicode escape");
+                            }
+                            ch = (ch << 4) | digit;
+                        }
+                        i += 4;
+                        o = encodeModifiedUTF8((char) ch, stringBuffer, o);
+                        break;
+                    default:
+                        throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_ILLEGAL_ESCAPE,
+                                (char) escaped);
+                }
+            } else if (c >= 0xF0) {
+                // supplementary characters are written as surrogate pairs
+                if (i + 4 > end) {
+                    throw malformed(i, "invalid UTF-8 sequence");
+                }
+                int codePoint = ((c & 0x07) << 18) | ((data[i + 1] & 0x3F) << 12) | ((data[i + 2] & 0x3F) << 6)
+                        | (data[i + 3] & 0x3F);
+                i += 4;
+                o = encodeModifiedUTF8(Character.highSurrogate(codePoint), stringBuffer, o);
+                o = encodeModifiedUTF8(Character.lowSurrogate(codePoint), stringBuffer, o);
+            } else if (c == 0) {
+                o = encodeModifiedUTF8((char) 0, stringBuffer, o);
+                i++;
+            } else {
+                stringBuffer[o++] = (byte) c;
+                i++;
+            }
+        }
+        return o;
+    }
+
+    private static int encodeModifiedUTF8(char c, byte[] dest, int offset) {
+        if (c >= 0x0001 && c <= 0x007F) {
+            dest[offset++] = (byte) c;
+        } else if (c <= 0x07FF) {
+            dest[offset++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+            dest[offset++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            dest[offset++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+            dest[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            dest[offset++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return offset;
+    }
+
+    private boolean hasSpecial(int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        int firstBlock = start >>> 6;
+        int lastBlock = (end - 1) >>> 6;
+        long firstMask = -1L << (start & 63);
+        long lastMask = -1L >>> (63 - ((end - 1) & 63));
+        if (firstBlock == lastBlock) {
+            return (specialBlocks[firstBlock] & firstMask & lastMask) != 0;
+        }
+        if ((specialBlocks[firstBlock] & firstMask) != 0) {
+            return true;
+        }
+        for (int block = firstBlock + 1; block < lastBlock; block++) {
+            if (specialBlocks[block] != 0) {
+                return true;
+            }
+        }
+        return (specialBlocks[lastBlock] & lastMask) != 0;
+    }
+
+    /**
+     * @return the next structural character if it is the next non-whitespace byte, 0 otherwise
+     */
+    private byte peek() {
+        int p = skipWhitespace(pos);
+        return p < length && structurals[next] == p ? data[p] : 0;
+    }
+
+    /**
+     * Consumes the next structural character, which must be the next non-whitespace byte.
+     *
+     * @return its offset
+     */
+    private int consume() throws HyracksDataException {
+        int p = skipWhitespace(pos);
+        if (p >= length) {
+            throw malformed(p, "unexpected end of the record");
+        }
+        if (structurals[next] != p) {
+            throw malformed(p, "unexpected '" + (char) data[p] + "'");
+        }
+        next++;
+        pos = p + 1;
+        return p;
+    }
+
+    private int skipWhitespace(int p) {
+        while (p < length && isWhitespace(data[p])) {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static HyracksDataException malformed(int offset, String reason) {
+        return new RuntimeDataException(ErrorCode.PARSER_JSON_DATA_PARSER_MALFORMED_INPUT, offset, reason);
+    }
+
+    private FieldNameIndex getFieldNameIndex(ARecordType recType) {
+        FieldNameIndex index = fieldNameIndexes.get(recType);
+        if (index == null) {
+            index = new FieldNameIndex(recType.getFieldNames());
+            fieldNameIndexes.put(recType, index);
+        }
+        return index;
+    }
+
+    private IARecordBuilder getRecordBuilder() {
+        return recordBuilderPool.allocate(ATypeTag.OBJECT);
+    }
+
+    private ArrayBackedValueStorage getTempBuffer() {
+        return (ArrayBackedValueStorage) abvsBuilderPool.allocate(ATypeTag.BINARY);
+    }
+
+    private void resetPools() {
+        listBuilderPool.reset();
+        recordBuilderPool.reset();
+        abvsBuilderPool.reset();
+    }
+
+    /**
+     * Open addressing table from the modified UTF-8 bytes of the field names of a record type to field ids.
+     */
+    private static final class FieldNameIndex {
+        private final byte[][] names;
+        // field id + 1 for every slot, 0 for empty slots
+        private final int[] slots;
+        private final int mask;
+
+        FieldNameIndex(String[] fieldNames) {
+            names = new byte[fieldNames.length][];
+            int size = 2;
+            while (size < fieldNames.length * 2) {
+                size <<= 1;
+            }
+            slots = new int[size];
+            mask = size - 1;
+            for (int i = 0; i < fieldNames.length; i++) {
+                String fieldName = fieldNames[i];
+                int nameLength = 0;
+                for (int k = 0; k < fieldName.length(); k++) {
+                    nameLength += UTF8StringUtil.getModifiedUTF8Len(fieldName.charAt(k));
+                }
+                byte[] name = new byte[nameLength];
+                int offset = 0;
+                for (int k = 0; k < fieldName.length(); k++) {
+                    offset = encodeModifiedUTF8(fieldName.charAt(k), name, offset);
+                }
+                names[i] = name;
+                int slot = hash(name, 0, name.length) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        int find(byte[] bytes, int start, int len) {
+            for (int slot = hash(bytes, start, len) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                byte[] name = names[slots[slot] - 1];
+                if (name.length == len && equals(name, bytes, start)) {
+                    return slots[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean equals(byte[] name, byte[] bytes, int start) {
+            for (int i = 0; i < name.length; i++) {
+                if (name[i] != bytes[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(byte[] bytes, int start, int len) {
+            int h = len;
+            for (int i = start; i < start + len; i++) {
+                h = 31 * h + bytes[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.asterix.builders.AbvsBuilderFactory;
+import org.apache.asterix.builders.IARecordBuilder;
+import org.apache.asterix.builders.IAsterixListBuilder;
+import org.apache.asterix.builders.ListBuilderFactory;
+import org.apache.asterix.builders.RecordBuilderFactory;
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordDataParser;
+import org.apache.asterix.om.base.ABoolean;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.base.temporal.GregorianCalendarSystem;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnorderedListType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.util.container.IObjectPool;
+import org.apache.asterix.om.util.container.ListObjectPool;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IMutableValueStorage;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.util.string.UTF8StringUtil;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Converts the records of Parquet files to ADM. Values are written from their binary form, without going through
+ * text, and only the columns the reader was asked to read are present in the records.
+ * <ul>
+ * <li>Groups are records, LIST and MAP annotated groups and repeated fields are ordered lists. MAP entries are
+ * records with a key and a value field.</li>
+ * <li>UTF8, ENUM and JSON binaries are strings, other binaries are binaries.</li>
+ * <li>DATE, TIME and TIMESTAMP annotated integers and INT96 timestamps are dates, times and datetimes, DECIMAL values
+ * are doubles.</li>
+ * <li>Null values are missing fields.</li>
+ * </ul>
+ */
+public class ParquetDataParser extends AbstractDataParser implements IRecordDataParser<Group> {
+
+    private static final long JULIAN_DAY_OF_EPOCH = 2440588L;
+
+    private final ARecordType recordType;
+    private final IObjectPool<IARecordBuilder, ATypeTag> recordBuilderPool =
+            new ListObjectPool<IARecordBuilder, ATypeTag>(new RecordBuilderFactory());
+    private final IObjectPool<IAsterixListBuilder, ATypeTag> listBuilderPool =
+            new ListObjectPool<IAsterixListBuilder, ATypeTag>(new ListBuilderFactory());
+    private final IObjectPool<IMutableValueStorage, ATypeTag> abvsBuilderPool =
+            new ListObjectPool<IMutableValueStorage, ATypeTag>(new AbvsBuilderFactory());
+    // groups of the same file share their types, so fields are resolved once per type
+    private final Map<GroupType, FieldMapping> fieldMappings = new IdentityHashMap<>();
+    private final byte[] lengthBuffer = new byte[5];
+
+    public ParquetDataParser(ARecordType recordType) {
+        this.recordType = recordType;
+    }
+
+    @Override
+    public void parse(IRawRecord<? extends Group> record, DataOutput out) throws HyracksDataException {
+        try {
+            resetPools();
+            writeGroup(record.get(), recordType, out);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void writeGroup(Group group, IAType type, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.OBJECT, type)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+        ARecordType recType = (ARecordType) getComplexType(type, ATypeTag.OBJECT);
+        GroupType groupType = group.getType();
+        FieldMapping mapping = getFieldMapping(groupType, recType);
+        IARecordBuilder recBuilder = getRecordBuilder();
+        ArrayBackedValueStorage fieldValueBuffer = getTempBuffer();
+        BitSet nulls = recType == null ? null : new BitSet(recType.getFieldNames().length);
+        recBuilder.reset(recType);
+        recBuilder.init();
+        for (int i = 0; i < groupType.getFieldCount(); i++) {
+            Type fieldType = groupType.getType(i);
+            int count = group.getFieldRepetitionCount(i);
+            int fieldId = mapping.fieldIds[i];
+            IAType expectedType = fieldId >= 0 ? recType.getFieldTypes()[fieldId] : null;
+            fieldValueBuffer.reset();
+            if (fieldType.isRepetition(Type.Repetition.REPEATED)) {
+                writeRepeated(group, i, fieldType, count, expectedType, fieldValueBuffer.getDataOutput());
+            } else if (count > 0) {
+                writeValue(group, i, 0, fieldType, expectedType, fieldValueBuffer.getDataOutput());
+            } else {
+                continue;
+            }
+            if (fieldId >= 0) {
+                nulls.set(fieldId);
+                recBuilder.addField(fieldId, fieldValueBuffer);
+            } else {
+                recBuilder.addField(mapping.fieldNames[i], fieldValueBuffer);
+            }
+        }
+        if (recType != null) {
+            int nullableFieldId = checkOptionalConstraints(recType, nulls);
+            if (nullableFieldId != -1) {
+                throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_FIELD_NOT_NULL,
+                        recType.getFieldNames()[nullableFieldId]);
+            }
+        }
+        recBuilder.write(out, true);
+    }
+
+    private void writeValue(Group group, int fieldIndex, int index, Type type, IAType expectedType, DataOutput out)
+            throws IOException {
+        if (type.isPrimitive()) {
+            writePrimitive(group, fieldIndex, index, type.asPrimitiveType(), expectedType, out);
+        } else if (type.getOriginalType() == OriginalType.LIST || type.getOriginalType() == OriginalType.MAP
+                || type.getOriginalType() == OriginalType.MAP_KEY_VALUE) {
+            writeList(group.getGroup(fieldIndex, index), expectedType, out);
+        } else {
+            writeGroup(group.getGroup(fieldIndex, index), expectedType, out);
+        }
+    }
+
+    /**
+     * Writes a LIST or MAP annotated group, which has a single repeated field. With the standard 3-level layout the
+     * repeated field is a group that wraps the element, with the legacy 2-level layouts it is the element itself.
+     */
+    private void writeList(Group list, IAType expectedType, DataOutput out) throws IOException {
+        Type repeatedType = list.getType().getType(0);
+        int count = list.getFieldRepetitionCount(0);
+        if (repeatedType.isPrimitive() || repeatedType.asGroupType().getFieldCount() > 1
+                || "array".equals(repeatedType.getName()) || repeatedType.getName().endsWith("_tuple")) {
+            writeRepeated(list, 0, repeatedType, count, expectedType, out);
+            return;
+        }
+        IAsterixListBuilder listBuilder = getListBuilder(expectedType);
+        IAType itemType = getItemType(expectedType);
+        ArrayBackedValueStorage itemBuffer = getTempBuffer();
+        for (int i = 0; i < count; i++) {
+            Group element = list.getGroup(0, i);
+            itemBuffer.reset();
+            if (element.getFieldRepetitionCount(0) > 0) {
+                writeValue(element, 0, 0, element.getType().getType(0), itemType, itemBuffer.getDataOutput());
+            } else {
+                writeNull(itemType, itemBuffer.getDataOutput());
+            }
+            listBuilder.addItem(itemBuffer);
+        }
+        listBuilder.write(out, true);
+    }
+
+    private void writeRepeated(Group group, int fieldIndex, Type type, int count, IAType expectedType,
+            DataOutput out) throws IOException {
+        IAsterixListBuilder listBuilder = getListBuilder(expectedType);
+        IAType itemType = getItemType(expectedType);
+        ArrayBackedValueStorage itemBuffer = getTempBuffer();
+        for (int i = 0; i < count; i++) {
+            itemBuffer.reset();
+            writeValue(group, fieldIndex, i, type, itemType, itemBuffer.getDataOutput());
+            listBuilder.addItem(itemBuffer);
+        }
+        listBuilder.write(out, true);
+    }
+
+    private void writePrimitive(Group group, int fieldIndex, int index, PrimitiveType type, IAType expectedType,
+            DataOutput out) throws IOException {
+        OriginalType originalType = type.getOriginalType();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                if (!checkType(ATypeTag.BOOLEAN, expectedType)) {
+                    throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                            expectedType.getTypeName());
+                }
+                booleanSerde.serialize(group.getBoolean(fieldIndex, index) ? ABoolean.TRUE : ABoolean.FALSE, out);
+                break;
+            case INT32:
+                writeInt32(group.getInteger(fieldIndex, index), type, expectedType, out);
+                break;
+            case INT64:
+                writeInt64(group.getLong(fieldIndex, index), type, expectedType, out);
+                break;
+            case INT96:
+                writeDateTime(getInt96Millis(group.getInt96(fieldIndex, index)), expectedType, out);
+                break;
+            case FLOAT:
+                writeFloat(group.getFloat(fieldIndex, index), expectedType, out);
+                break;
+            case DOUBLE:
+                writeDouble(group.getDouble(fieldIndex, index), expectedType, out);
+                break;
+            case BINARY:
+            case FIXED_LEN_BYTE_ARRAY:
+                Binary value = group.getBinary(fieldIndex, index);
+                if (originalType == OriginalType.UTF8 || originalType == OriginalType.ENUM
+                        || originalType == OriginalType.JSON) {
+                    writeString(value, expectedType, out);
+                } else if (originalType == OriginalType.DECIMAL) {
+                    writeDouble(new BigDecimal(new BigInteger(value.getBytes()), type.getDecimalMetadata().getScale())
+                            .doubleValue(), expectedType, out);
+                } else {
+                    writeBinary(value, expectedType, out);
+                }
+                break;
+            default:
+                throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                        type.getPrimitiveTypeName());
+        }
+    }
+
+    private void writeInt32(int value, PrimitiveType type, IAType expectedType, DataOutput out) throws IOException {
+        OriginalType originalType = type.getOriginalType();
+        if (originalType == null) {
+            writeInteger(value, expectedType, out);
+            return;
+        }
+        switch (originalType) {
+            case DATE:
+                if (!checkType(ATypeTag.DATE, expectedType)) {
+                    throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                            expectedType.getTypeName());
+                }
+                aDate.setValue(value);
+                dateSerde.serialize(aDate, out);
+                break;
+            case TIME_MILLIS:
+                writeTime(value, expectedType, out);
+                break;
+            case DECIMAL:
+                writeDouble(BigDecimal.valueOf(value, type.getDecimalMetadata().getScale()).doubleValue(),
+                        expectedType, out);
+                break;
+            case UINT_32:
+                writeInteger(value & 0xFFFFFFFFL, expectedType, out);
+                break;
+            default:
+                writeInteger(value, expectedType, out);
+                break;
+        }
+    }
+
+    private void writeInt64(long value, PrimitiveType type, IAType expectedType, DataOutput out) throws IOException {
+        OriginalType originalType = type.getOriginalType();
+        if (originalType == null) {
+            writeInteger(value, expectedType, out);
+            return;
+        }
+        switch (originalType) {
+            case TIMESTAMP_MILLIS:
+                writeDateTime(value, expectedType, out);
+                break;
+            case TIMESTAMP_MICROS:
+                writeDateTime(Math.floorDiv(value, 1000L), expectedType, out);
+                break;
+            case TIME_MICROS:
+                writeTime((int) (value / 1000L), expectedType, out);
+                break;
+            case DECIMAL:
+                writeDouble(BigDecimal.valueOf(value, type.getDecimalMetadata().getScale()).doubleValue(),
+                        expectedType, out);
+                break;
+            case UINT_64:
+                if (value < 0) {
+                    // doesn't fit in a bigint
+                    writeDouble(new BigInteger(Long.toUnsignedString(value)).doubleValue(), expectedType, out);
+                } else {
+                    writeInteger(value, expectedType, out);
+                }
+                break;
+            default:
+                writeInteger(value, expectedType, out);
+                break;
+        }
+    }
+
+    private static void writeFloat(float value, IAType type, DataOutput out) throws IOException {
+        ATypeTag targetTypeTag = getTargetTypeTag(ATypeTag.FLOAT, type);
+        if (targetTypeTag == ATypeTag.FLOAT) {
+            out.writeByte(ATypeTag.SERIALIZED_FLOAT_TYPE_TAG);
+            out.writeFloat(value);
+        } else if (targetTypeTag == ATypeTag.DOUBLE) {
+            out.writeByte(ATypeTag.SERIALIZED_DOUBLE_TYPE_TAG);
+            out.writeDouble(value);
+        } else {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, type.getTypeName());
+        }
+    }
+
+    private void writeDateTime(long chrononTime, IAType expectedType, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.DATETIME, expectedType)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                    expectedType.getTypeName());
+        }
+        aDateTime.setValue(chrononTime);
+        datetimeSerde.serialize(aDateTime, out);
+    }
+
+    private void writeTime(int chrononTime, IAType expectedType, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.TIME, expectedType)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                    expectedType.getTypeName());
+        }
+        aTime.setValue(chrononTime);
+        timeSerde.serialize(aTime, out);
+    }
+
+    private void writeString(Binary value, IAType expectedType, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.STRING, expectedType)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                    expectedType.getTypeName());
+        }
+        byte[] bytes = value.getBytesUnsafe();
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            // NUL and 4-byte sequences are encoded differently in the modified UTF-8 used by ADM
+            if (bytes[i] == 0 || (bytes[i] & 0xF8) == 0xF0) {
+                aString.setValue(value.toStringUsingUTF8());
+                stringSerde.serialize(aString, out);
+                return;
+            }
+        }
+        out.writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+        UTF8StringUtil.writeUTF8Length(length, lengthBuffer, out);
+        out.write(bytes, 0, length);
+    }
+
+    private void writeBinary(Binary value, IAType expectedType, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.BINARY, expectedType)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                    expectedType.getTypeName());
+        }
+        aBinary.setValue(value.getBytesUnsafe(), 0, value.length());
+        binarySerde.serialize(aBinary, out);
+    }
+
+    private void writeNull(IAType expectedType, DataOutput out) throws IOException {
+        if (!checkType(ATypeTag.NULL, expectedType)) {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_FIELD_NOT_NULL, "");
+        }
+        nullSerde.serialize(ANull.NULL, out);
+    }
+
+    /**
+     * @return the milliseconds since the epoch of an INT96 timestamp: the nanoseconds of the day followed by the
+     *         Julian day, both little endian
+     */
+    private static long getInt96Millis(Binary value) {
+        ByteBuffer buffer = value.toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        long nanosOfDay = buffer.getLong();
+        long julianDay = buffer.getInt();
+        return (julianDay - JULIAN_DAY_OF_EPOCH) * GregorianCalendarSystem.CHRONON_OF_DAY + nanosOfDay / 1000000L;
+    }
+
+    private IAsterixListBuilder getListBuilder(IAType expectedType) throws IOException {
+        IAsterixListBuilder listBuilder;
+        if (checkType(ATypeTag.ARRAY, expectedType)) {
+            listBuilder = listBuilderPool.allocate(ATypeTag.ARRAY);
+            listBuilder.reset((AOrderedListType) getComplexType(expectedType, ATypeTag.ARRAY));
+        } else if (checkType(ATypeTag.MULTISET, expectedType)) {
+            listBuilder = listBuilderPool.allocate(ATypeTag.MULTISET);
+            listBuilder.reset((AUnorderedListType) getComplexType(expectedType, ATypeTag.MULTISET));
+        } else {
+            throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH,
+                    expectedType.getTypeName());
+        }
+        return listBuilder;
+    }
+
+    private static IAType getItemType(IAType expectedType) {
+        IAType listType = getComplexType(expectedType, ATypeTag.ARRAY);
+        if (listType != null) {
+            return ((AOrderedListType) listType).getItemType();
+        }
+        listType = getComplexType(expectedType, ATypeTag.MULTISET);
+        return listType == null ? null : ((AUnorderedListType) listType).getItemType();
+    }
+
+    private FieldMapping getFieldMapping(GroupType groupType, ARecordType recType) throws IOException {
+        FieldMapping mapping = fieldMappings.get(groupType);
+        if (mapping == null || mapping.recType != recType) {
+            mapping = new FieldMapping(groupType, recType);
+            fieldMappings.put(groupType, mapping);
+        }
+        return mapping;
+    }
+
+    private IARecordBuilder getRecordBuilder() {
+        return recordBuilderPool.allocate(ATypeTag.OBJECT);
+    }
+
+    private ArrayBackedValueStorage getTempBuffer() {
+        return (ArrayBackedValueStorage) abvsBuilderPool.allocate(ATypeTag.BINARY);
+    }
+
+    private void resetPools() {
+        listBuilderPool.reset();
+        recordBuilderPool.reset();
+        abvsBuilderPool.reset();
+    }
+
+    /**
+     * The ids of the fields of a group in a record type, and the serialized names of the fields that are open.
+     */
+    private final class FieldMapping {
+        private final ARecordType recType;
+        private final int[] fieldIds;
+        private final ArrayBackedValueStorage[] fieldNames;
+
+        private FieldMapping(GroupType groupType, ARecordType recType) throws IOException {
+            this.recType = recType;
+            int fieldCount = groupType.getFieldCount();
+            fieldIds = new int[fieldCount];
+            fieldNames = new ArrayBackedValueStorage[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                String fieldName = groupType.getFieldName(i);
+                fieldIds[i] = recType == null ? -1 : recType.getFieldIndex(fieldName);
+                if (fieldIds[i] < 0) {
+                    if (recType != null && !recType.isOpen()) {
+                        throw new RuntimeDataException(
+                                ErrorCode.PARSER_ADM_DATA_PARSER_EXTRA_FIELD_IN_CLOSED_RECORD, fieldName);
+                    }
+                    fieldNames[i] = new ArrayBackedValueStorage();
+                    aStringFieldName.setValue(fieldName);
+                    stringSerde.serialize(aStringFieldName, fieldNames[i].getDataOutput());
+                }
+            }
+        }
+    }
+}
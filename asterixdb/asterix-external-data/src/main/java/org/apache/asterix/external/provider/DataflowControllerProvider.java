@@ -19,6 +19,8 @@
 package org.apache.asterix.external.provider;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.asterix.common.exceptions.AsterixException;
@@ -45,6 +47,7 @@ import org.apache.asterix.external.dataflow.FeedStreamDataFlowController;
 import org.apache.asterix.external.dataflow.FeedTupleForwarder;
 import org.apache.asterix.external.dataflow.FeedWithMetaDataFlowController;
 import org.apache.asterix.external.dataflow.IndexingDataFlowController;
+import org.apache.asterix.external.dataflow.ParallelFeedRecordDataFlowController;
 import org.apache.asterix.external.dataflow.RecordDataFlowController;
 import org.apache.asterix.external.dataflow.StreamDataFlowController;
 import org.apache.asterix.external.util.DataflowUtils;
@@ -91,10 +94,19 @@ public class DataflowControllerProvider {
                             int numOfKeys = ExternalDataUtils.getNumberOfKeys(configuration);
                             return new ChangeFeedDataFlowController(ctx, tupleForwarder, feedLogManager, numOfKeys + 1,
                                     (IRecordWithPKDataParser) dataParser, recordReader);
-                        } else {
-                            return new FeedRecordDataFlowController(ctx, tupleForwarder, feedLogManager, 1, dataParser,
-                                    recordReader);
                         }
+                        int numOfParserThreads = ExternalDataUtils.getNumberOfParserThreads(configuration);
+                        if (numOfParserThreads > 1) {
+                            List<IRecordDataParser> parsers = new ArrayList<>(numOfParserThreads);
+                            parsers.add(dataParser);
+                            for (int i = 1; i < numOfParserThreads; i++) {
+                                parsers.add(recordParserFactory.createRecordParser(ctx));
+                            }
+                            return new ParallelFeedRecordDataFlowController(ctx, tupleForwarder, feedLogManager, 1,
+                                    parsers, recordReader, ExternalDataUtils.isParserOrdered(configuration));
+                        }
+                        return new FeedRecordDataFlowController(ctx, tupleForwarder, feedLogManager, 1, dataParser,
+                                recordReader);
                     } else {
                         return new RecordDataFlowController(ctx,
                                 DataflowUtils.getTupleForwarder(configuration, feedLogManager), dataParser,
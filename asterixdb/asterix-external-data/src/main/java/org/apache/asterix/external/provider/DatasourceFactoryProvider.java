@@ -36,6 +36,7 @@ import org.apache.asterix.external.api.IExternalDataSourceFactory;
 import org.apache.asterix.external.api.IExternalDataSourceFactory.DataSourceType;
 import org.apache.asterix.external.api.IInputStreamFactory;
 import org.apache.asterix.external.api.IRecordReaderFactory;
+import org.apache.asterix.external.input.record.reader.parquet.ParquetRecordReaderFactory;
 import org.apache.asterix.external.input.stream.factory.LocalFSInputStreamFactory;
 import org.apache.asterix.external.input.stream.factory.SocketServerInputStreamFactory;
 import org.apache.asterix.external.util.ExternalDataConstants;
@@ -108,6 +109,11 @@ public class DatasourceFactoryProvider {
         if (adaptorName.equals(ExternalDataConstants.EXTERNAL)) {
             return ExternalDataUtils.createExternalRecordReaderFactory(libraryManager, configuration);
         }
+        if (adaptorName.equals(ExternalDataConstants.ALIAS_LOCALFS_ADAPTER)
+                && ExternalDataConstants.FORMAT_PARQUET.equals(configuration.get(ExternalDataConstants.KEY_FORMAT))) {
+            // Parquet files are read as a whole rather than as a stream
+            return new ParquetRecordReaderFactory();
+        }
 
         if (factories == null) {
             factories = initFactories();
@@ -33,7 +33,7 @@ import java.util.Map;
 import org.apache.asterix.common.exceptions.AsterixException;
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.external.api.AsterixInputStream;
-import org.apache.asterix.external.input.record.reader.stream.StreamRecordReader;
+import org.apache.asterix.external.input.record.reader.stream.AbstractStreamRecordReader;
 import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -44,9 +44,9 @@ public class StreamRecordReaderProvider {
             + "reader.stream.StreamRecordReader";
     private static Map<String, List<Pair<String[], Class>>> recordReaders = null;
 
-    protected static StreamRecordReader getInstance(Class clazz) throws AsterixException {
+    protected static AbstractStreamRecordReader<?> getInstance(Class clazz) throws AsterixException {
         try {
-            return (StreamRecordReader) clazz.newInstance();
+            return (AbstractStreamRecordReader<?>) clazz.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
             throw new AsterixException("Cannot create RecordReader: " + clazz.getSimpleName(), e);
         }
@@ -121,7 +121,8 @@ public class StreamRecordReaderProvider {
                         continue;
                     }
                     final Class<?> clazz = Class.forName(className);
-                    StreamRecordReader newInstance = (StreamRecordReader) clazz.getConstructor().newInstance();
+                    AbstractStreamRecordReader<?> newInstance =
+                            (AbstractStreamRecordReader<?>) clazz.getConstructor().newInstance();
                     List<String> formats = newInstance.getRecordReaderFormats();
                     String[] configs = newInstance.getRequiredConfigs().split(":");
                     for (String format : formats) {
@@ -59,7 +59,7 @@ public class DataflowUtils {
         }
         switch (policyType) {
             case FEED:
-                return new FeedTupleForwarder(feedLogManager);
+                return FeedTupleForwarder.create(configuration, feedLogManager);
             case FRAME_FULL:
                 return new FrameFullTupleForwarder();
             case COUNTER_TIMER_EXPIRED:
@@ -35,6 +35,12 @@ public class ExternalDataConstants {
     public static final String KEY_HDFS_URL = "hdfs";
     // specify the path when reading from a file system
     public static final String KEY_PATH = "path";
+    // specify the size of the byte ranges local files are split into to be read in parallel
+    public static final String KEY_SPLIT_SIZE = "split-size";
+    // set by the compiler: the comma separated top-level fields a query needs from columnar files
+    public static final String KEY_REQUESTED_FIELDS = "requested-fields";
+    // set by the compiler: ';' separated "field op value" conjuncts columnar readers may use to skip records
+    public static final String KEY_PUSHED_FILTER = "pushed-filter";
     // specify the HDFS input format when reading data from HDFS
     public static final String KEY_INPUT_FORMAT = "input-format";
     // specifies the filesystem (localfs or HDFS) when using a filesystem data source
@@ -88,6 +94,10 @@ public class ExternalDataConstants {
     public static final String KEY_IS_CHANGE_FEED = "change-feed";
     // a boolean indicating whether the feed use upsert
     public static final String KEY_IS_UPSERT_FEED = "upsert-feed";
+    // an integer representing the number of threads parsing the records of a feed intake partition
+    public static final String KEY_PARSER_THREADS = "parser-threads";
+    // a boolean indicating whether records parsed by parser threads are forwarded in the order they were read
+    public static final String KEY_PARSER_ORDERED = "parser-ordered";
     // an integer representing the number of keys in a change feed
     public static final String KEY_KEY_SIZE = "key-size";
     // a boolean indicating whether the feed produces records with metadata
@@ -144,6 +154,9 @@ public class ExternalDataConstants {
     public static final String FORMAT_BINARY = "binary";
     public static final String FORMAT_ADM = "adm";
     public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_JSON_UTF8 = "json-utf8";
+    public static final String FORMAT_PARQUET = "parquet";
+    public static final String FORMAT_ADM_BINARY = "adm-binary";
     public static final String FORMAT_DELIMITED_TEXT = "delimited-text";
     public static final String FORMAT_TWEET = "twitter-status";
     public static final String FORMAT_RSS = "rss";
@@ -287,6 +287,15 @@ public class ExternalDataUtils {
                 : ExternalDataConstants.DEFAULT_QUEUE_SIZE;
     }
 
+    public static int getNumberOfParserThreads(Map<String, String> configuration) {
+        return configuration.containsKey(ExternalDataConstants.KEY_PARSER_THREADS)
+                ? Integer.parseInt(configuration.get(ExternalDataConstants.KEY_PARSER_THREADS)) : 1;
+    }
+
+    public static boolean isParserOrdered(Map<String, String> configuration) {
+        return Boolean.parseBoolean(configuration.get(ExternalDataConstants.KEY_PARSER_ORDERED));
+    }
+
     public static boolean isRecordWithMeta(Map<String, String> configuration) {
         return configuration.containsKey(ExternalDataConstants.KEY_META_TYPE_NAME);
     }
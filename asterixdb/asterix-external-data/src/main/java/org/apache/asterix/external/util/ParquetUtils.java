@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.Column;
+import org.apache.parquet.filter2.predicate.Operators.SupportsLtGt;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.Type;
+
+public class ParquetUtils {
+
+    public static final String FIELD_SEPARATOR = ",";
+    public static final String CONJUNCT_SEPARATOR = ";";
+    public static final String OPERAND_SEPARATOR = " ";
+
+    private ParquetUtils() {
+    }
+
+    /**
+     * @return the top-level fields that were requested, or null if all of them are needed
+     */
+    public static Set<String> getRequestedFields(Map<String, String> configuration) {
+        String requestedFields = configuration.get(ExternalDataConstants.KEY_REQUESTED_FIELDS);
+        if (requestedFields == null) {
+            return null;
+        }
+        Set<String> fields = new HashSet<>();
+        for (String field : requestedFields.split(FIELD_SEPARATOR)) {
+            if (!field.isEmpty()) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return the schema of the requested top-level fields of a file. Records are still needed when none of their
+     *         fields are, so the first field is kept in that case.
+     */
+    public static MessageType project(MessageType fileSchema, Set<String> requestedFields) {
+        if (requestedFields == null) {
+            return fileSchema;
+        }
+        List<Type> fields = new ArrayList<>();
+        for (Type field : fileSchema.getFields()) {
+            if (requestedFields.contains(field.getName())) {
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty() && fileSchema.getFieldCount() > 0) {
+            fields.add(fileSchema.getType(0));
+        }
+        return new MessageType(fileSchema.getName(), fields);
+    }
+
+    /**
+     * Translates the pushed filter, "field op value" conjuncts where op is one of =, <, <=, > and >=, to a filter on
+     * the columns of a file. Records the filter drops are dropped by the query anyway, so conjuncts that can't be
+     * evaluated exactly on the columns of the file are left out.
+     */
+    public static FilterCompat.Filter getFilter(String pushedFilter, MessageType fileSchema) {
+        if (pushedFilter == null) {
+            return FilterCompat.NOOP;
+        }
+        FilterPredicate filter = null;
+        for (String conjunct : pushedFilter.split(CONJUNCT_SEPARATOR)) {
+            FilterPredicate predicate = getPredicate(conjunct.split(OPERAND_SEPARATOR), fileSchema);
+            if (predicate != null) {
+                filter = filter == null ? predicate : FilterApi.and(filter, predicate);
+            }
+        }
+        return filter == null ? FilterCompat.NOOP : FilterCompat.get(filter);
+    }
+
+    public static String toConjunct(String field, String op, String value) {
+        return String.join(OPERAND_SEPARATOR, Arrays.asList(field, op, value));
+    }
+
+    private static FilterPredicate getPredicate(String[] operands, MessageType fileSchema) {
+        if (operands.length != 3 || !fileSchema.containsField(operands[0])) {
+            return null;
+        }
+        String field = operands[0];
+        String op = operands[1];
+        String value = operands[2];
+        Type type = fileSchema.getType(field);
+        // only signed numbers compare the same way in Parquet and in queries
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)
+                || !isSignedNumber(type.getOriginalType())) {
+            return null;
+        }
+        switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+                Long intValue = toLong(value);
+                if (intValue == null || intValue < Integer.MIN_VALUE || intValue > Integer.MAX_VALUE) {
+                    return null;
+                }
+                return compare(FilterApi.intColumn(field), op, intValue.intValue());
+            case INT64:
+                Long longValue = toLong(value);
+                return longValue == null ? null : compare(FilterApi.longColumn(field), op, longValue);
+            case FLOAT:
+                Double floatValue = toDouble(value);
+                if (floatValue == null || floatValue.floatValue() != floatValue.doubleValue()) {
+                    return null;
+                }
+                return compare(FilterApi.floatColumn(field), op, floatValue.floatValue());
+            case DOUBLE:
+                Double doubleValue = toDouble(value);
+                return doubleValue == null ? null : compare(FilterApi.doubleColumn(field), op, doubleValue);
+            default:
+                return null;
+        }
+    }
+
+    private static <T extends Comparable<T>, C extends Column<T> & SupportsLtGt> FilterPredicate compare(C column,
+            String op, T value) {
+        switch (op) {
+            case "=":
+                return FilterApi.eq(column, value);
+            case "<":
+                return FilterApi.lt(column, value);
+            case "<=":
+                return FilterApi.ltEq(column, value);
+            case ">":
+                return FilterApi.gt(column, value);
+            case ">=":
+                return FilterApi.gtEq(column, value);
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isSignedNumber(OriginalType originalType) {
+        return originalType == null || originalType == OriginalType.INT_8 || originalType == OriginalType.INT_16
+                || originalType == OriginalType.INT_32 || originalType == OriginalType.INT_64;
+    }
+
+    /**
+     * @return the value as a long if it is an integer, null otherwise
+     */
+    private static Long toLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            Double doubleValue = toDouble(value);
+            if (doubleValue == null || doubleValue != Math.rint(doubleValue)
+                    || Math.abs(doubleValue) >= 0x1p63) {
+                return null;
+            }
+            return doubleValue.longValue();
+        }
+    }
+
+    /**
+     * @return the value as a double if it is exactly representable as one, null otherwise
+     */
+    private static Double toDouble(String value) {
+        try {
+            long longValue = Long.parseLong(value);
+            double doubleValue = longValue;
+            return (long) doubleValue == longValue && longValue != Long.MAX_VALUE ? doubleValue : null;
+        } catch (NumberFormatException e) {
+            try {
+                double doubleValue = Double.parseDouble(value);
+                return Double.isNaN(doubleValue) || Double.isInfinite(doubleValue) ? null : doubleValue;
+            } catch (NumberFormatException e1) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.dataflow;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.commons.io.FileUtils;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FeedTupleForwarderTest {
+
+    private static final int FRAME_SIZE = 32768;
+    private static final long TARGET_LATENCY_MS = 10000L;
+    private static final long ARRIVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1L));
+    private final ArrayTupleBuilder tb = new ArrayTupleBuilder(1);
+    private IHyracksTaskContext ctx;
+    private File logDir;
+
+    @Before
+    public void setUp() throws Exception {
+        ctx = TestUtils.create(FRAME_SIZE);
+        logDir = Files.createTempDirectory("feed-forwarder").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(logDir);
+    }
+
+    @Test
+    public void testAdaptiveBatchSize() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        FeedTupleForwarder forwarder = createForwarder(Runnable::run);
+        forwarder.initialize(ctx, writer);
+        // tuples arrive every 100ms and frames are pushed at once, so a frame holds the tuples of the 10s budget
+        addTuples(forwarder, 301);
+        Assert.assertEquals(4, writer.tupleCounts.size());
+        Assert.assertEquals(1, (int) writer.tupleCounts.get(0));
+        for (int i = 1; i < 4; i++) {
+            Assert.assertEquals(100, (int) writer.tupleCounts.get(i));
+        }
+
+        // the store side pushes back: a push takes 2s, so the frames get smaller to make up for it
+        writer.pushNanos = TimeUnit.SECONDS.toNanos(2L);
+        addTuples(forwarder, 1000);
+        int slowFrames = 0;
+        for (int i = 5; i < writer.tupleCounts.size(); i++) {
+            Assert.assertTrue(writer.tupleCounts.get(i) < 100);
+            Assert.assertTrue(writer.tupleCounts.get(i) > 1);
+            slowFrames++;
+        }
+        Assert.assertTrue(slowFrames > 10);
+        // once the push time is known, the oldest tuple of a frame is through the push within the target latency
+        long targetLatency = TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS);
+        for (int i = writer.waits.size() - 5; i < writer.waits.size(); i++) {
+            Assert.assertTrue(writer.waits.get(i) + writer.pushNanos <= targetLatency);
+        }
+        forwarder.close();
+    }
+
+    @Test
+    public void testDeadlineFlush() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        FeedTupleForwarder forwarder = createForwarder(Runnable::run);
+        forwarder.initialize(ctx, writer);
+        // the first tuple is pushed alone, the next ones are expected to be followed by many more
+        addTuples(forwarder, 4);
+        Assert.assertEquals(1, writer.tupleCounts.size());
+        forwarder.checkDeadline();
+        Assert.assertEquals(1, writer.tupleCounts.size());
+
+        // the source goes quiet until the oldest tuple of the frame has waited for the whole budget
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS) - 3 * ARRIVAL_NANOS);
+        forwarder.checkDeadline();
+        Assert.assertEquals(2, writer.tupleCounts.size());
+        Assert.assertEquals(3, (int) writer.tupleCounts.get(1));
+        forwarder.close();
+        Assert.assertEquals(2, writer.tupleCounts.size());
+    }
+
+    @Test
+    public void testScheduledDeadlineFlush() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "task-executor"));
+        try {
+            RecordingWriter writer = new RecordingWriter();
+            FeedLogManager logManager = new FeedLogManager(new File(logDir, "log"));
+            FeedTupleForwarder forwarder = new FeedTupleForwarder(logManager, 50L, System::nanoTime, executor);
+            forwarder.initialize(ctx, writer);
+            forwarder.addTuple(createTuple(0L));
+            forwarder.addTuple(createTuple(1L));
+            long deadline = System.currentTimeMillis() + 10000L;
+            while (writer.frameCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertEquals(2, writer.frameCount());
+            // the frame whose deadline passed is pushed on the executor of the task
+            Assert.assertEquals("task-executor", writer.threads.get(1));
+            forwarder.close();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlushFailure() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        FeedTupleForwarder forwarder = createForwarder(Runnable::run);
+        forwarder.initialize(ctx, writer);
+        addTuples(forwarder, 2);
+        writer.failure = new HyracksDataException("store is gone");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TARGET_LATENCY_MS));
+        forwarder.checkDeadline();
+        try {
+            forwarder.addTuple(createTuple(clock.get()));
+            Assert.fail("the failure of a deadline push was not reported");
+        } catch (HyracksDataException e) {
+            Assert.assertSame(writer.failure, e.getCause() == null ? e : e.getCause());
+        }
+        try {
+            forwarder.close();
+        } catch (HyracksDataException e) {
+            // the frame can't be pushed on close either
+        }
+    }
+
+    private FeedTupleForwarder createForwarder(java.util.concurrent.Executor executor) throws HyracksDataException {
+        return new FeedTupleForwarder(new FeedLogManager(new File(logDir, "log")), TARGET_LATENCY_MS, clock::get,
+                executor);
+    }
+
+    private void addTuples(FeedTupleForwarder forwarder, int count) throws HyracksDataException {
+        for (int i = 0; i < count; i++) {
+            forwarder.addTuple(createTuple(clock.get()));
+            clock.addAndGet(ARRIVAL_NANOS);
+        }
+    }
+
+    // a tuple with its arrival time
+    private ArrayTupleBuilder createTuple(long arrivalTime) throws HyracksDataException {
+        tb.reset();
+        tb.addField(ByteBuffer.allocate(Long.BYTES).putLong(0, arrivalTime).array(), 0, Long.BYTES);
+        return tb;
+    }
+
+    private class RecordingWriter implements IFrameWriter {
+        private final FrameTupleAccessor accessor =
+                new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[1]));
+        private final List<Integer> tupleCounts = new ArrayList<>();
+        // the time the oldest tuple of each frame waited for its push
+        private final List<Long> waits = new ArrayList<>();
+        private final List<String> threads = new ArrayList<>();
+        private volatile long pushNanos;
+        private volatile HyracksDataException failure;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public synchronized void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            if (failure != null) {
+                throw failure;
+            }
+            accessor.reset(buffer);
+            tupleCounts.add(accessor.getTupleCount());
+            long arrivalTime = buffer.getLong(accessor.getTupleStartOffset(0) + accessor.getFieldSlotsLength());
+            waits.add(clock.get() - arrivalTime);
+            threads.add(Thread.currentThread().getName());
+            clock.addAndGet(pushNanos);
+        }
+
+        synchronized int frameCount() {
+            return tupleCounts.size();
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
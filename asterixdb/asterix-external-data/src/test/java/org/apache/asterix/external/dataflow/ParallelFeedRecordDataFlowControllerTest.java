@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.dataflow;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.api.IRecordDataParser;
+import org.apache.asterix.external.api.IRecordReader;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.commons.io.FileUtils;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFeedRecordDataFlowControllerTest {
+
+    private static final int FRAME_SIZE = 32768;
+    private static final int NUM_OF_PARSERS = 4;
+    private static final int NUM_OF_RECORDS = 5000;
+
+    private ExecutorService executor;
+    private IHyracksTaskContext ctx;
+    private File logDir;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        IHyracksTaskContext testCtx = TestUtils.create(FRAME_SIZE);
+        // the parsers run on the executor of the task, which the test context doesn't have
+        ctx = (IHyracksTaskContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { IHyracksTaskContext.class },
+                (proxy, method, args) -> "getExecutorService".equals(method.getName()) ? executor
+                        : method.invoke(testCtx, args));
+        logDir = Files.createTempDirectory("parallel-feed").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        FileUtils.deleteQuietly(logDir);
+    }
+
+    @Test
+    public void testOrderedReassembly() throws Exception {
+        List<Integer> values = run(true, i -> true, -1);
+        Assert.assertEquals(expectedValues(), values);
+    }
+
+    @Test
+    public void testUnorderedReassembly() throws Exception {
+        List<Integer> values = run(false, i -> true, -1);
+        Collections.sort(values);
+        Assert.assertEquals(expectedValues(), values);
+    }
+
+    @Test
+    public void testInlineFallback() throws Exception {
+        // records that can't be copied are parsed on the intake thread after the records read before them
+        List<Integer> values = run(true, i -> i % 100 != 0, -1);
+        Assert.assertEquals(expectedValues(), values);
+    }
+
+    @Test
+    public void testParserFailure() throws Exception {
+        try {
+            run(false, i -> true, NUM_OF_RECORDS / 2);
+            Assert.fail("the failure of a parser was not reported");
+        } catch (HyracksDataException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause instanceof ParserError)) {
+                cause = cause.getCause();
+            }
+            Assert.assertTrue(cause instanceof ParserError);
+        }
+    }
+
+    private List<Integer> run(boolean ordered, Copyable copyable, int failingRecord) throws Exception {
+        List<IRecordDataParser<Integer>> parsers = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_PARSERS; i++) {
+            parsers.add(new IntegerParser(failingRecord));
+        }
+        FeedLogManager logManager = new FeedLogManager(new File(logDir, "log"));
+        FeedTupleForwarder forwarder = new FeedTupleForwarder(logManager);
+        ParallelFeedRecordDataFlowController<Integer> controller = new ParallelFeedRecordDataFlowController<>(ctx,
+                forwarder, logManager, 1, parsers, new IntegerReader(copyable), ordered);
+        CollectingWriter writer = new CollectingWriter();
+        controller.start(writer);
+        return writer.values;
+    }
+
+    private static List<Integer> expectedValues() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_RECORDS; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    @FunctionalInterface
+    private interface Copyable {
+        boolean test(int value);
+    }
+
+    private static class ParserError extends Error {
+        private static final long serialVersionUID = 1L;
+
+        ParserError(String message) {
+            super(message);
+        }
+    }
+
+    private static class IntegerRecord implements IRawRecord<Integer> {
+        private final Copyable copyable;
+        private Integer value;
+
+        IntegerRecord(Copyable copyable) {
+            this.copyable = copyable;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(0, value).array();
+        }
+
+        @Override
+        public Integer get() {
+            return value;
+        }
+
+        @Override
+        public void reset() {
+            value = null;
+        }
+
+        @Override
+        public int size() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void set(Integer value) {
+            this.value = value;
+        }
+
+        @Override
+        public IRawRecord<Integer> copy() {
+            if (!copyable.test(value)) {
+                return null;
+            }
+            IntegerRecord copy = new IntegerRecord(copyable);
+            copy.set(value);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    private static class IntegerReader implements IRecordReader<Integer> {
+        private final IntegerRecord record;
+        private int next;
+
+        IntegerReader(Copyable copyable) {
+            record = new IntegerRecord(copyable);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < NUM_OF_RECORDS;
+        }
+
+        @Override
+        public IRawRecord<Integer> next() {
+            record.set(next++);
+            return record;
+        }
+
+        @Override
+        public boolean stop() {
+            return true;
+        }
+
+        @Override
+        public void setController(AbstractFeedDataFlowController controller) {
+        }
+
+        @Override
+        public void setFeedLogManager(FeedLogManager feedLogManager) {
+        }
+
+        @Override
+        public boolean handleException(Throwable th) {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // writes the value of a record, taking a random time to shuffle the order batches are parsed in
+    private static class IntegerParser implements IRecordDataParser<Integer> {
+        private final int failingRecord;
+
+        IntegerParser(int failingRecord) {
+            this.failingRecord = failingRecord;
+        }
+
+        @Override
+        public void parse(IRawRecord<? extends Integer> record, DataOutput out) throws HyracksDataException {
+            int value = record.get();
+            if (value == failingRecord) {
+                throw new ParserError("Failed to parse " + value);
+            }
+            if (ThreadLocalRandom.current().nextInt(500) == 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw HyracksDataException.create(e);
+                }
+            }
+            try {
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+        }
+    }
+
+    private static class CollectingWriter implements IFrameWriter {
+        private final FrameTupleAccessor accessor =
+                new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[1]));
+        private final List<Integer> values = new ArrayList<>();
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                values.add(buffer.getInt(accessor.getTupleStartOffset(i) + accessor.getFieldSlotsLength()));
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
@@ -794,6 +794,45 @@ public class InputHandlerTest {
         Assert.assertNull(cause);
     }
 
+    /*
+     * With a target latency, the input handler holds no more frames in memory than the writer can process
+     * within that latency, and blocks the producer instead of spilling.
+     */
+    @org.junit.Test
+    public void testTargetLatencyBoundsFramesInMemory() {
+        try {
+            int numFrames = 10;
+            IHyracksTaskContext ctx = TestUtils.create(DEFAULT_FRAME_SIZE);
+            // Spill, No discard
+            FeedPolicyAccessor fpa =
+                    createFeedPolicyAccessor(true, false, NUM_FRAMES * DEFAULT_FRAME_SIZE, DISCARD_ALLOWANCE);
+            Mockito.when(fpa.getTargetLatency()).thenReturn(50L);
+            // Writer that takes 20ms per frame
+            TestControlledFrameWriter writer = FrameWriterTestUtils.create(DEFAULT_FRAME_SIZE, false);
+            writer.time(20);
+            // FramePool
+            ConcurrentFramePool framePool = new ConcurrentFramePool(NODE_ID, FEED_MEM_BUDGET, DEFAULT_FRAME_SIZE);
+            FeedRuntimeInputHandler handler = createInputHandler(ctx, writer, fpa, framePool);
+            handler.open();
+            ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_FRAME_SIZE);
+            int maxFramesInMemory = 0;
+            for (int i = 0; i < numFrames; i++) {
+                handler.nextFrame(buffer);
+                maxFramesInMemory = Math.max(maxFramesInMemory, NUM_FRAMES - framePool.remaining());
+            }
+            handler.close();
+            // 50ms of target latency at 20ms per frame allow 2 frames in memory
+            Assert.assertTrue(maxFramesInMemory <= 3);
+            Assert.assertEquals(0, handler.getNumSpilled());
+            Assert.assertEquals(numFrames, handler.getCommitLatencies().getCount());
+            Assert.assertTrue(handler.getBackpressureLatencies().getCount() > 0);
+        } catch (Throwable th) {
+            th.printStackTrace();
+            Assert.fail();
+        }
+        Assert.assertNull(cause);
+    }
+
     private class Pusher implements Runnable {
         private final ByteBuffer buffer;
         private final IFrameWriter writer;
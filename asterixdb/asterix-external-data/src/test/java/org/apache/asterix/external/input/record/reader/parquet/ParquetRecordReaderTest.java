@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.asterix.external.util.ExternalDataConstants;
+import org.apache.asterix.external.util.ParquetUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.schema.MessageType;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParquetRecordReaderTest {
+
+    private static File dir;
+    private static List<File> files;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        dir = Files.createTempDirectory("parquet").toFile();
+        files = ParquetTestFiles.writeUsers(dir);
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testProjection() throws Exception {
+        List<Group> users = readAll(new HashSet<>(Arrays.asList("age", "address")), null);
+        Assert.assertEquals(5, users.size());
+        for (Group user : users) {
+            Assert.assertEquals(2, user.getType().getFieldCount());
+            Assert.assertEquals("age", user.getType().getFieldName(0));
+            Assert.assertEquals("address", user.getType().getFieldName(1));
+        }
+        Assert.assertEquals("Irvine", users.get(0).getGroup("address", 0).getString("city", 0));
+    }
+
+    @Test
+    public void testNoRequestedFields() throws Exception {
+        // records are still read when none of their fields are needed
+        List<Group> users = readAll(Collections.emptySet(), null);
+        Assert.assertEquals(5, users.size());
+        Assert.assertEquals(1, users.get(0).getType().getFieldCount());
+        Assert.assertEquals("id", users.get(0).getType().getFieldName(0));
+    }
+
+    @Test
+    public void testPushedFilter() throws Exception {
+        // the statistics of the first file rule out all of its users
+        List<Group> users = readAll(null, ParquetUtils.toConjunct("age", ">", "35"));
+        Assert.assertEquals(Arrays.asList(4, 5), getIds(users));
+        users = readAll(null, String.join(ParquetUtils.CONJUNCT_SEPARATOR, ParquetUtils.toConjunct("id", "<", "3.0"),
+                ParquetUtils.toConjunct("age", "<=", "30")));
+        // records of the row groups the filter keeps may or may not be filtered one by one
+        Assert.assertTrue(getIds(users).contains(1));
+        Assert.assertFalse(getIds(users).contains(4));
+    }
+
+    @Test
+    public void testFilterConjuncts() {
+        MessageType schema = ParquetTestFiles.USERS_SCHEMA;
+        Assert.assertNotEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("id", "=", "1"), schema));
+        Assert.assertEquals(FilterCompat.NOOP, ParquetUtils.getFilter(null, schema));
+        // strings, nested fields, unknown fields and values that don't fit the column aren't pushed
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("name", "=", "1"), schema));
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("address", "=", "1"), schema));
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("email", "=", "1"), schema));
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("age", ">", "2147483648"), schema));
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("age", ">", "30.5"), schema));
+        Assert.assertEquals(FilterCompat.NOOP,
+                ParquetUtils.getFilter(ParquetUtils.toConjunct("age", "!=", "30"), schema));
+    }
+
+    @Test
+    public void testRequestedFieldsConfiguration() {
+        Map<String, String> configuration = new HashMap<>();
+        Assert.assertNull(ParquetUtils.getRequestedFields(configuration));
+        configuration.put(ExternalDataConstants.KEY_REQUESTED_FIELDS,
+                String.join(ParquetUtils.FIELD_SEPARATOR, "id", "age"));
+        Set<String> fields = ParquetUtils.getRequestedFields(configuration);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id", "age")), fields);
+        MessageType projected = ParquetUtils.project(ParquetTestFiles.USERS_SCHEMA, fields);
+        Assert.assertEquals(2, projected.getFieldCount());
+        Assert.assertTrue(projected.containsField("age"));
+        Assert.assertFalse(projected.containsField("name"));
+    }
+
+    private static List<Group> readAll(Set<String> requestedFields, String pushedFilter) throws Exception {
+        ParquetRecordReader reader =
+                new ParquetRecordReader(new ConcurrentLinkedQueue<>(files), requestedFields, pushedFilter);
+        List<Group> groups = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                groups.add(reader.next().get());
+            }
+        } finally {
+            reader.close();
+        }
+        return groups;
+    }
+
+    private static List<Integer> getIds(List<Group> users) {
+        List<Integer> ids = new ArrayList<>();
+        for (Group user : users) {
+            ids.add(user.getInteger("id", 0));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.input.record.reader.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ParquetProperties.WriterVersion;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+
+/**
+ * Writes the small Parquet files the Parquet tests read. The users are split across two files, one per row group,
+ * so that a filter on the age can rule out a whole row group.
+ */
+public class ParquetTestFiles {
+
+    public static final MessageType USERS_SCHEMA = MessageTypeParser.parseMessageType(
+            "message users {\n"
+            + "  required int32 id;\n"
+            + "  required binary name (UTF8);\n"
+            + "  optional int32 age;\n"
+            + "  optional group address {\n"
+            + "    required binary city (UTF8);\n"
+            + "    optional int32 zip;\n"
+            + "  }\n"
+            + "  optional group tags (LIST) {\n"
+            + "    repeated group list {\n"
+            + "      optional binary element (UTF8);\n"
+            + "    }\n"
+            + "  }\n"
+            + "}");
+
+    private ParquetTestFiles() {
+    }
+
+    /**
+     * Writes users 1 to 3, all younger than 30, to users-1.parquet and users 4 and 5, both older than 40, to
+     * users-2.parquet:
+     * <ul>
+     * <li>1, Ann, 25, Irvine 92617, [a, b]</li>
+     * <li>2, Bob, no age, Riverside without zip, []</li>
+     * <li>3, Cat, 28, no address, no tags</li>
+     * <li>4, Dan, 41, Irvine 92618, [c, null]</li>
+     * <li>5, Eve, 45, no address, [d]</li>
+     * </ul>
+     *
+     * @return the two files
+     */
+    public static List<File> writeUsers(File dir) throws IOException {
+        SimpleGroupFactory factory = new SimpleGroupFactory(USERS_SCHEMA);
+        List<Group> young = new ArrayList<>();
+        Group ann = user(factory, 1, "Ann").append("age", 25);
+        ann.addGroup("address").append("city", "Irvine").append("zip", 92617);
+        addTags(ann, "a", "b");
+        young.add(ann);
+        Group bob = user(factory, 2, "Bob");
+        bob.addGroup("address").append("city", "Riverside");
+        addTags(bob);
+        young.add(bob);
+        young.add(user(factory, 3, "Cat").append("age", 28));
+        List<Group> old = new ArrayList<>();
+        Group dan = user(factory, 4, "Dan").append("age", 41);
+        dan.addGroup("address").append("city", "Irvine").append("zip", 92618);
+        addTags(dan, "c", null);
+        old.add(dan);
+        Group eve = user(factory, 5, "Eve").append("age", 45);
+        addTags(eve, "d");
+        old.add(eve);
+        File youngFile = new File(dir, "users-1.parquet");
+        File oldFile = new File(dir, "users-2.parquet");
+        write(youngFile, USERS_SCHEMA, young);
+        write(oldFile, USERS_SCHEMA, old);
+        return Arrays.asList(youngFile, oldFile);
+    }
+
+    /**
+     * Writes the groups to a new uncompressed file, replacing any existing one.
+     */
+    public static void write(File file, MessageType schema, List<Group> groups) throws IOException {
+        file.getParentFile().mkdirs();
+        // the local file system of Hadoop writes a checksum file next to the file, which isn't a Parquet file
+        File checksumFile = new File(file.getParentFile(), "." + file.getName() + ".crc");
+        file.delete();
+        checksumFile.delete();
+        Configuration conf = new Configuration();
+        GroupWriteSupport.setSchema(schema, conf);
+        try (ParquetWriter<Group> writer = new ParquetWriter<>(new Path(file.toURI()), new GroupWriteSupport(),
+                CompressionCodecName.UNCOMPRESSED, ParquetWriter.DEFAULT_BLOCK_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE,
+                ParquetWriter.DEFAULT_PAGE_SIZE, ParquetWriter.DEFAULT_IS_DICTIONARY_ENABLED,
+                ParquetWriter.DEFAULT_IS_VALIDATING_ENABLED, WriterVersion.PARQUET_1_0, conf)) {
+            for (Group group : groups) {
+                writer.write(group);
+            }
+        }
+        checksumFile.delete();
+    }
+
+    private static Group user(SimpleGroupFactory factory, int id, String name) {
+        return factory.newGroup().append("id", id).append("name", name);
+    }
+
+    private static void addTags(Group user, String... tags) {
+        Group list = user.addGroup("tags");
+        for (String tag : tags) {
+            Group element = list.addGroup("list");
+            if (tag != null) {
+                element.append("element", tag);
+            }
+        }
+    }
+}
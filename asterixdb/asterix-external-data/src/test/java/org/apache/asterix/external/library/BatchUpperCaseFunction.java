@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library;
+
+import org.apache.asterix.external.api.IBatchFunctionHelper;
+import org.apache.asterix.external.api.IExternalBatchScalarFunction;
+import org.apache.asterix.external.api.IFunctionHelper;
+import org.apache.asterix.external.library.java.JObjects.JString;
+
+/**
+ * Accepts a string and returns it in upper case, either one invocation at a time or for a whole batch.
+ */
+public class BatchUpperCaseFunction implements IExternalBatchScalarFunction {
+
+    @Override
+    public void initialize(IFunctionHelper functionHelper) {
+    }
+
+    @Override
+    public void deinitialize() {
+    }
+
+    @Override
+    public void evaluate(IFunctionHelper functionHelper) throws Exception {
+        JString text = (JString) functionHelper.getArgument(0);
+        JString result = (JString) functionHelper.getResultObject();
+        result.setValue(text.getValue().toUpperCase());
+        functionHelper.setResult(result);
+    }
+
+    @Override
+    public void evaluateBatch(IBatchFunctionHelper functionHelper) throws Exception {
+        JString result = (JString) functionHelper.getResultObject();
+        for (int i = 0; i < functionHelper.getBatchSize(); i++) {
+            JString text = (JString) functionHelper.getArgument(i, 0);
+            result.setValue(text.getValue().toUpperCase());
+            functionHelper.setResult(i, result);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.common.library.ILibraryManager;
+import org.apache.asterix.dataflow.data.nontagged.serde.AStringSerializerDeserializer;
+import org.apache.asterix.external.api.IBatchFunctionHelper;
+import org.apache.asterix.external.api.IExternalFunction;
+import org.apache.asterix.external.api.IFunctionFactory;
+import org.apache.asterix.external.api.IFunctionHelper;
+import org.apache.asterix.om.base.AMutableString;
+import org.apache.asterix.om.functions.ExternalFunctionInfo;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression.FunctionKind;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.ColumnAccessEvalFactory;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ExternalScalarFunctionTest {
+
+    private static final int FRAME_SIZE = 32768;
+    private static final IExternalFunctionInfo FINFO = new ExternalFunctionInfo("test", "lib#upper", 1,
+            FunctionKind.SCALAR, Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+            CountingUpperCaseFactory.class.getName(), "JAVA");
+
+    private static int numOfTupleCalls;
+    private static int numOfBatchedTuples;
+    private static int numOfArgumentEvaluations;
+
+    private final FrameTupleAccessor accessor =
+            new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[1]));
+    private final FrameTupleReference tuple = new FrameTupleReference();
+    private final VoidPointable result = new VoidPointable();
+    private IHyracksTaskContext ctx;
+    private ExternalScalarFunction function;
+
+    @Before
+    public void setUp() throws Exception {
+        numOfTupleCalls = 0;
+        numOfBatchedTuples = 0;
+        numOfArgumentEvaluations = 0;
+        ctx = TestUtils.create(FRAME_SIZE);
+        ILibraryManager libraryManager = Mockito.mock(ILibraryManager.class);
+        Mockito.when(libraryManager.getLibraryClassLoader("test", "lib")).thenReturn(getClass().getClassLoader());
+        IApplicationContext appCtx = Mockito.mock(IApplicationContext.class);
+        Mockito.when(appCtx.getLibraryManager()).thenReturn(libraryManager);
+        function = new ExternalScalarFunction(FINFO, new IScalarEvaluatorFactory[] { new CountingArgumentFactory() },
+                ctx, appCtx);
+    }
+
+    @Test
+    public void testAnnouncedFrame() throws Exception {
+        VSizeFrame frame = createFrame("a", 100);
+        accessor.reset(frame.getBuffer());
+        function.startFrame(accessor);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertArrayEquals(bytes(serialize("A" + i)), evaluate(i));
+        }
+        // the function is invoked for the whole frame at once, and every argument is evaluated once
+        Assert.assertEquals(0, numOfTupleCalls);
+        Assert.assertEquals(100, numOfBatchedTuples);
+        Assert.assertEquals(100, numOfArgumentEvaluations);
+    }
+
+    @Test
+    public void testTuplesOfUnannouncedFrame() throws Exception {
+        // e.g. the function is only evaluated for some tuples, in a branch of a case expression
+        VSizeFrame frame = createFrame("a", 100);
+        accessor.reset(frame.getBuffer());
+        Assert.assertArrayEquals(bytes(serialize("A5")), evaluate(5));
+        Assert.assertArrayEquals(bytes(serialize("A7")), evaluate(7));
+        Assert.assertEquals(2, numOfTupleCalls);
+        Assert.assertEquals(0, numOfBatchedTuples);
+        Assert.assertEquals(2, numOfArgumentEvaluations);
+    }
+
+    @Test
+    public void testReplacedFrame() throws Exception {
+        VSizeFrame frame = createFrame("a", 10);
+        accessor.reset(frame.getBuffer());
+        function.startFrame(accessor);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertArrayEquals(bytes(serialize("A" + i)), evaluate(i));
+        }
+        // the next frame is read into the same buffer, behind the same accessor
+        fillFrame(frame, "b", 10);
+        accessor.reset(frame.getBuffer());
+        function.startFrame(accessor);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertArrayEquals(bytes(serialize("B" + i)), evaluate(i));
+        }
+        Assert.assertEquals(20, numOfBatchedTuples);
+        Assert.assertEquals(20, numOfArgumentEvaluations);
+    }
+
+    private byte[] evaluate(int tupleIndex) throws HyracksDataException {
+        tuple.reset(accessor, tupleIndex);
+        function.evaluate(tuple, result);
+        return bytes(result);
+    }
+
+    private VSizeFrame createFrame(String prefix, int numOfTuples) throws Exception {
+        VSizeFrame frame = new VSizeFrame(ctx);
+        fillFrame(frame, prefix, numOfTuples);
+        return frame;
+    }
+
+    private static void fillFrame(VSizeFrame frame, String prefix, int numOfTuples) throws Exception {
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(1);
+        for (int i = 0; i < numOfTuples; i++) {
+            tb.reset();
+            ArrayBackedValueStorage value = serialize(prefix + i);
+            tb.addField(value.getByteArray(), value.getStartOffset(), value.getLength());
+            Assert.assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+        }
+    }
+
+    private static byte[] bytes(IValueReference value) {
+        return Arrays.copyOfRange(value.getByteArray(), value.getStartOffset(),
+                value.getStartOffset() + value.getLength());
+    }
+
+    private static ArrayBackedValueStorage serialize(String value) throws Exception {
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        storage.getDataOutput().writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+        AStringSerializerDeserializer.INSTANCE.serialize(new AMutableString(value), storage.getDataOutput());
+        return storage;
+    }
+
+    private static class CountingArgumentFactory implements IScalarEvaluatorFactory {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public IScalarEvaluator createScalarEvaluator(IHyracksTaskContext ctx) throws HyracksDataException {
+            IScalarEvaluator column = new ColumnAccessEvalFactory(0).createScalarEvaluator(ctx);
+            return (tuple, result) -> {
+                numOfArgumentEvaluations++;
+                column.evaluate(tuple, result);
+            };
+        }
+    }
+
+    public static class CountingUpperCaseFactory implements IFunctionFactory {
+        @Override
+        public IExternalFunction getExternalFunction() {
+            return new BatchUpperCaseFunction() {
+                @Override
+                public void evaluate(IFunctionHelper functionHelper) throws Exception {
+                    numOfTupleCalls++;
+                    super.evaluate(functionHelper);
+                }
+
+                @Override
+                public void evaluateBatch(IBatchFunctionHelper functionHelper) throws Exception {
+                    numOfBatchedTuples += functionHelper.getBatchSize();
+                    super.evaluateBatch(functionHelper);
+                }
+            };
+        }
+    }
+}
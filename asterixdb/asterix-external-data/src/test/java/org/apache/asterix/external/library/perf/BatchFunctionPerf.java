@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.perf;
+
+import java.util.Collections;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.AStringSerializerDeserializer;
+import org.apache.asterix.external.library.BatchUpperCaseFunction;
+import org.apache.asterix.external.library.JavaBatchFunctionHelper;
+import org.apache.asterix.external.library.JavaFunctionHelper;
+import org.apache.asterix.om.base.AMutableString;
+import org.apache.asterix.om.functions.ExternalFunctionInfo;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression.FunctionKind;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+
+/**
+ * Compares per-tuple invocation of a Java UDF with batched invocation through
+ * {@link org.apache.asterix.external.api.IExternalBatchScalarFunction}.
+ */
+public class BatchFunctionPerf {
+
+    public static void main(String[] args) throws Exception {
+        int numValues = 1000000;
+        int repeats = 5;
+        IExternalFunctionInfo finfo = new ExternalFunctionInfo("test", "lib#upper", 1, FunctionKind.SCALAR,
+                Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+                BatchUpperCaseFunction.class.getName(), "JAVA");
+        ArrayBackedValueStorage[] values = new ArrayBackedValueStorage[numValues];
+        for (int i = 0; i < numValues; i++) {
+            values[i] = new ArrayBackedValueStorage();
+            values[i].getDataOutput().writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+            AStringSerializerDeserializer.INSTANCE.serialize(new AMutableString("value " + i),
+                    values[i].getDataOutput());
+        }
+        for (int i = 0; i < repeats; i++) {
+            System.out.println("PER TUPLE " + i + ": " + runPerTuple(finfo, values) + "ms");
+        }
+        for (int batchSize : new int[] { 16, 128, 1024 }) {
+            for (int i = 0; i < repeats; i++) {
+                System.out.println("BATCH " + batchSize + " " + i + ": " + runBatched(finfo, values, batchSize)
+                        + "ms");
+            }
+        }
+    }
+
+    private static long runPerTuple(IExternalFunctionInfo finfo, ArrayBackedValueStorage[] values)
+            throws Exception {
+        BatchUpperCaseFunction function = new BatchUpperCaseFunction();
+        ArrayBackedValueStorage resultBuffer = new ArrayBackedValueStorage();
+        JavaFunctionHelper helper = new JavaFunctionHelper(finfo, resultBuffer);
+        long start = System.currentTimeMillis();
+        for (ArrayBackedValueStorage value : values) {
+            resultBuffer.reset();
+            helper.setArgument(0, value);
+            function.evaluate(helper);
+            helper.reset();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static long runBatched(IExternalFunctionInfo finfo, ArrayBackedValueStorage[] values, int batchSize)
+            throws Exception {
+        BatchUpperCaseFunction function = new BatchUpperCaseFunction();
+        JavaBatchFunctionHelper helper = new JavaBatchFunctionHelper(finfo);
+        VoidPointable result = new VoidPointable();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < values.length; i += batchSize) {
+            int size = Math.min(batchSize, values.length - i);
+            helper.startBatch(size);
+            for (int j = 0; j < size; j++) {
+                helper.setArgument(j, 0, values[i + j]);
+            }
+            function.evaluateBatch(helper);
+            for (int j = 0; j < size; j++) {
+                helper.getResult(j, result);
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.dataflow.data.nontagged.serde.AStringSerializerDeserializer;
+import org.apache.asterix.external.api.IExternalFunction;
+import org.apache.asterix.external.api.IExternalScalarFunction;
+import org.apache.asterix.external.api.IFunctionFactory;
+import org.apache.asterix.external.api.IFunctionHelper;
+import org.apache.asterix.external.library.BatchUpperCaseFactory;
+import org.apache.asterix.external.library.process.ExternalFunctionProcess;
+import org.apache.asterix.external.library.process.ExternalFunctionProcessPool;
+import org.apache.asterix.external.library.process.SharedMemoryChannel;
+import org.apache.asterix.om.base.AMutableString;
+import org.apache.asterix.om.functions.ExternalFunctionInfo;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression.FunctionKind;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExternalFunctionProcessTest {
+
+    private static final IExternalFunctionInfo FINFO = new ExternalFunctionInfo("test", "lib#upper", 1,
+            FunctionKind.SCALAR, Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+            BatchUpperCaseFactory.class.getName(), "JAVA");
+    private static final IExternalFunctionInfo OTHER_FINFO = new ExternalFunctionInfo("test", "lib#upper2", 1,
+            FunctionKind.SCALAR, Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+            BatchUpperCaseFactory.class.getName(), "JAVA");
+    private static final IExternalFunctionInfo SLEEP_FINFO = new ExternalFunctionInfo("test", "lib#sleep", 1,
+            FunctionKind.SCALAR, Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+            SleepFactory.class.getName(), "JAVA");
+    private static final String JAVA_PARAMS = "-Xmx64m -XX:+UseSerialGC";
+    private static final List<String> JAVA_OPTIONS = Arrays.asList(JAVA_PARAMS.split(" "));
+    private static final int NUM_SLOTS = 2;
+    private static final int SLOT_SIZE = 512;
+    private static final long STARTUP_TIMEOUT_MS = 60000;
+    private static final long CALL_TIMEOUT_MS = 60000;
+
+    private final IIOManager ioManager = TestUtils.create(32768).getIoManager();
+
+    @Test
+    public void callsInEverySlot() throws Exception {
+        File channelFile = ioManager.createWorkspaceFile("udf").getFile();
+        try (ExternalFunctionProcess process = new ExternalFunctionProcess(FINFO, new URL[0], JAVA_OPTIONS,
+                channelFile, NUM_SLOTS, SLOT_SIZE, STARTUP_TIMEOUT_MS, CALL_TIMEOUT_MS)) {
+            int[] slots = new int[NUM_SLOTS];
+            for (int i = 0; i < NUM_SLOTS; i++) {
+                slots[i] = process.acquireSlot();
+            }
+            Assert.assertEquals(0, process.getFreeSlots());
+            for (int slot : slots) {
+                int numCalls = putRequest(process.getRequest(slot), "slot-" + slot);
+                ByteBuffer response = process.call(slot);
+                Assert.assertEquals(numCalls, response.getInt());
+                ArrayBackedValueStorage result = new ArrayBackedValueStorage();
+                for (int i = 0; i < numCalls; i++) {
+                    result.reset();
+                    Assert.assertEquals(SharedMemoryChannel.getValue(response, result), result.getLength());
+                    Assert.assertArrayEquals(bytes(serialize(("slot-" + slot + "-" + i).toUpperCase())),
+                            bytes(result));
+                }
+                process.releaseSlot(slot);
+            }
+            Assert.assertEquals(NUM_SLOTS, process.getFreeSlots());
+            Assert.assertTrue(process.isAlive());
+        }
+        Assert.assertFalse(channelFile.exists());
+    }
+
+    @Test
+    public void failedCallsAreAnsweredWithAnError() throws Exception {
+        try (ExternalFunctionProcess process = new ExternalFunctionProcess(FINFO, new URL[0], JAVA_OPTIONS,
+                ioManager.createWorkspaceFile("udf").getFile(), 1, SLOT_SIZE, STARTUP_TIMEOUT_MS, CALL_TIMEOUT_MS)) {
+            int slot = process.acquireSlot();
+            ByteBuffer request = process.getRequest(slot);
+            request.putInt(1);
+            ArrayBackedValueStorage missing = new ArrayBackedValueStorage();
+            missing.getDataOutput().writeByte(ATypeTag.SERIALIZED_MISSING_TYPE_TAG);
+            Assert.assertTrue(SharedMemoryChannel.putValue(request, missing));
+            ByteBuffer response = process.call(slot);
+            Assert.assertEquals(1, response.getInt());
+            ArrayBackedValueStorage message = new ArrayBackedValueStorage();
+            Assert.assertEquals(SharedMemoryChannel.ERROR, SharedMemoryChannel.getValue(response, message));
+            Assert.assertTrue(SharedMemoryChannel.getValue(response, message) > 0);
+            process.releaseSlot(slot);
+        }
+    }
+
+    @Test
+    public void processesThatDoNotStartInTimeAreKilled() throws Exception {
+        File channelFile = ioManager.createWorkspaceFile("udf").getFile();
+        try {
+            // no JVM loads a function within a millisecond
+            new ExternalFunctionProcess(FINFO, new URL[0], JAVA_OPTIONS, channelFile, 1, SLOT_SIZE, 1,
+                    CALL_TIMEOUT_MS).close();
+            Assert.fail("the process started although it was out of time");
+        } catch (HyracksDataException e) {
+            Assert.assertEquals(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, e.getErrorCode());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("did not load the function"));
+        }
+        Assert.assertFalse(channelFile.exists());
+    }
+
+    @Test
+    public void processesThatDoNotAnswerInTimeAreKilled() throws Exception {
+        try (ExternalFunctionProcess process = new ExternalFunctionProcess(SLEEP_FINFO, new URL[0], JAVA_OPTIONS,
+                ioManager.createWorkspaceFile("udf").getFile(), 1, SLOT_SIZE, STARTUP_TIMEOUT_MS, 500)) {
+            int slot = process.acquireSlot();
+            ByteBuffer request = process.getRequest(slot);
+            request.putInt(1);
+            Assert.assertTrue(SharedMemoryChannel.putValue(request, serialize("zzz")));
+            try {
+                process.call(slot);
+                Assert.fail("the call returned although the function never answers");
+            } catch (HyracksDataException e) {
+                Assert.assertEquals(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, e.getErrorCode());
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("did not answer"));
+            }
+            Assert.assertFalse(process.isAlive());
+            try {
+                process.acquireSlot();
+                Assert.fail("a slot of a killed process was handed out");
+            } catch (HyracksDataException e) {
+                Assert.assertEquals(ErrorCode.LIBRARY_EXTERNAL_FUNCTION_PROCESS_FAILED, e.getErrorCode());
+            }
+        }
+    }
+
+    @Test
+    public void idleProcessesMakeRoomForOtherFunctions() throws Exception {
+        // the node may only run one process
+        ClassLoader libraryClassLoader = new URLClassLoader(new URL[0]);
+        ExternalFunctionProcessPool pool =
+                ExternalFunctionProcessPool.getPool(FINFO, "test", "pool", libraryClassLoader, JAVA_PARAMS, 1,
+                        STARTUP_TIMEOUT_MS, CALL_TIMEOUT_MS);
+        ExternalFunctionProcessPool otherPool =
+                ExternalFunctionProcessPool.getPool(OTHER_FINFO, "test", "pool", libraryClassLoader, JAVA_PARAMS, 1,
+                        STARTUP_TIMEOUT_MS, CALL_TIMEOUT_MS);
+        try {
+            ExternalFunctionProcess process = pool.getProcess(ioManager);
+            FutureTask<ExternalFunctionProcess> otherProcess = new FutureTask<>(() -> otherPool.getProcess(ioManager));
+            new Thread(otherProcess).start();
+            try {
+                otherProcess.get(1, TimeUnit.SECONDS);
+                Assert.fail("a process was started while the node had as many as it may");
+            } catch (TimeoutException e) {
+                // expected, the process is in use
+            }
+            Assert.assertTrue(process.isAlive());
+            pool.releaseProcess(process);
+            ExternalFunctionProcess other = otherProcess.get();
+            Assert.assertFalse(process.isAlive());
+            Assert.assertTrue(other.isAlive());
+            otherPool.releaseProcess(other);
+        } finally {
+            ExternalFunctionProcessPool.shutdown("test", "pool");
+        }
+    }
+
+    /**
+     * Creates a function that never answers.
+     */
+    public static class SleepFactory implements IFunctionFactory {
+
+        @Override
+        public IExternalFunction getExternalFunction() {
+            return new IExternalScalarFunction() {
+                @Override
+                public void initialize(IFunctionHelper functionHelper) {
+                }
+
+                @Override
+                public void deinitialize() {
+                }
+
+                @Override
+                public void evaluate(IFunctionHelper functionHelper) throws Exception {
+                    Thread.sleep(Long.MAX_VALUE);
+                }
+            };
+        }
+    }
+
+    /**
+     * Fills a request with as many calls as fit into it.
+     *
+     * @return the number of calls in the request
+     */
+    private static int putRequest(ByteBuffer request, String prefix) throws Exception {
+        request.putInt(0);
+        int numCalls = 0;
+        while (SharedMemoryChannel.putValue(request, serialize(prefix + "-" + numCalls))) {
+            numCalls++;
+        }
+        request.putInt(0, numCalls);
+        return numCalls;
+    }
+
+    private static byte[] bytes(IValueReference value) {
+        return Arrays.copyOfRange(value.getByteArray(), value.getStartOffset(),
+                value.getStartOffset() + value.getLength());
+    }
+
+    private static ArrayBackedValueStorage serialize(String value) throws Exception {
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        storage.getDataOutput().writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+        AStringSerializerDeserializer.INSTANCE.serialize(new AMutableString(value), storage.getDataOutput());
+        return storage;
+    }
+}
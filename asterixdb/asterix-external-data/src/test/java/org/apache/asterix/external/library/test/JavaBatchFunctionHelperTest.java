@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.library.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.AStringSerializerDeserializer;
+import org.apache.asterix.external.library.BatchUpperCaseFunction;
+import org.apache.asterix.external.library.JavaBatchFunctionHelper;
+import org.apache.asterix.external.library.JavaFunctionHelper;
+import org.apache.asterix.om.base.AMutableString;
+import org.apache.asterix.om.functions.ExternalFunctionInfo;
+import org.apache.asterix.om.functions.IExternalFunctionInfo;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression.FunctionKind;
+import org.apache.hyracks.data.std.api.IValueReference;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JavaBatchFunctionHelperTest {
+
+    private static final IExternalFunctionInfo FINFO = new ExternalFunctionInfo("test", "lib#upper", 1,
+            FunctionKind.SCALAR, Collections.singletonList(BuiltinType.ASTRING), BuiltinType.ASTRING, null,
+            BatchUpperCaseFunction.class.getName(), "JAVA");
+
+    @Test
+    public void batchMatchesPerTupleEvaluation() throws Exception {
+        BatchUpperCaseFunction function = new BatchUpperCaseFunction();
+        ArrayBackedValueStorage resultBuffer = new ArrayBackedValueStorage();
+        JavaFunctionHelper helper = new JavaFunctionHelper(FINFO, resultBuffer);
+        JavaBatchFunctionHelper batchHelper = new JavaBatchFunctionHelper(FINFO);
+        VoidPointable batchResult = new VoidPointable();
+
+        // a smaller second batch reuses the arguments of the first one
+        for (int size : new int[] { 100, 7 }) {
+            ArrayBackedValueStorage[] arguments = new ArrayBackedValueStorage[size];
+            batchHelper.startBatch(size);
+            for (int i = 0; i < size; i++) {
+                arguments[i] = serialize("value-" + size + "-" + i);
+                batchHelper.setArgument(i, 0, arguments[i]);
+            }
+            function.evaluateBatch(batchHelper);
+            for (int i = 0; i < size; i++) {
+                resultBuffer.reset();
+                helper.setArgument(0, arguments[i]);
+                function.evaluate(helper);
+                helper.reset();
+                batchHelper.getResult(i, batchResult);
+                Assert.assertArrayEquals(bytes(serialize(("value-" + size + "-" + i).toUpperCase())),
+                        bytes(batchResult));
+                Assert.assertArrayEquals(bytes(resultBuffer), bytes(batchResult));
+            }
+        }
+    }
+
+    @Test
+    public void missingResultForUnsetTuples() throws Exception {
+        JavaBatchFunctionHelper batchHelper = new JavaBatchFunctionHelper(FINFO);
+        batchHelper.startBatch(3);
+        for (int i = 0; i < 3; i++) {
+            batchHelper.setArgument(i, 0, serialize(String.valueOf(i)));
+        }
+        batchHelper.setResult(0, batchHelper.getArgument(0, 0));
+        batchHelper.setResult(2, null);
+        VoidPointable result = new VoidPointable();
+        batchHelper.getResult(0, result);
+        Assert.assertArrayEquals(bytes(serialize("0")), bytes(result));
+        for (int i = 1; i < 3; i++) {
+            batchHelper.getResult(i, result);
+            Assert.assertEquals(1, result.getLength());
+            Assert.assertEquals(ATypeTag.SERIALIZED_MISSING_TYPE_TAG, result.getByteArray()[result.getStartOffset()]);
+        }
+    }
+
+    private static byte[] bytes(IValueReference value) {
+        return Arrays.copyOfRange(value.getByteArray(), value.getStartOffset(),
+                value.getStartOffset() + value.getLength());
+    }
+
+    private static ArrayBackedValueStorage serialize(String value) throws Exception {
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        storage.getDataOutput().writeByte(ATypeTag.SERIALIZED_STRING_TYPE_TAG);
+        AStringSerializerDeserializer.INSTANCE.serialize(new AMutableString(value), storage.getDataOutput());
+        return storage;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.asterix.dataflow.data.nontagged.printers.binary.ARecordPrinterFactory;
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.input.record.ByteArrayRecord;
+import org.apache.asterix.external.input.record.reader.stream.ADMBinaryRecordReader;
+import org.apache.asterix.external.parser.ADMBinaryDataParser;
+import org.apache.asterix.external.parser.JSONDataParser;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.om.utils.ADMBinaryFormatUtil;
+import org.apache.hyracks.algebricks.data.IPrinter;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ADMBinaryDataParserTest {
+
+    private static final ARecordType TYPE = new ARecordType("Type",
+            new String[] { "id", "name", "tags", "nick" }, new IAType[] { BuiltinType.AINT64, BuiltinType.ASTRING,
+                    new AOrderedListType(BuiltinType.ASTRING, null),
+                    AUnionType.createUnknownableType(BuiltinType.ASTRING) },
+            true);
+    private static final String[] JSON = { "{\"id\": 1, \"name\": \"a\", \"tags\": []}",
+            "{\"id\": 2, \"name\": \"\u00e9\", \"tags\": [\"x\"], \"nick\": \"b\", \"extra\": {\"y\": [1.5]}}",
+            "{\"id\": 3, \"name\": \"c\", \"tags\": [\"y\", \"z\"], \"nick\": null}" };
+
+    @Test
+    public void testTypeId() {
+        ARecordType renamed = new ARecordType("Other", TYPE.getFieldNames(), TYPE.getFieldTypes(), true);
+        ARecordType closed = new ARecordType("Type", TYPE.getFieldNames(), TYPE.getFieldTypes(), false);
+        Assert.assertEquals(ADMBinaryFormatUtil.getTypeId(TYPE), ADMBinaryFormatUtil.getTypeId(renamed));
+        Assert.assertNotEquals(ADMBinaryFormatUtil.getTypeId(TYPE), ADMBinaryFormatUtil.getTypeId(closed));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<byte[]> records = serialize(TYPE, JSON);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ADMBinaryFormatUtil.writeHeader(bos, ADMBinaryFormatUtil.getTypeId(TYPE));
+        write(bos, records);
+        // the line feeds that are added to the end of local files
+        bos.write('\n');
+        Assert.assertEquals(records.size(), read(TYPE, bos.toByteArray(), records));
+
+        // without a header, the records are validated and still make it
+        bos.reset();
+        write(bos, records);
+        Assert.assertEquals(records.size(), read(TYPE, bos.toByteArray(), records));
+    }
+
+    @Test
+    public void testTypeMismatch() throws IOException {
+        ARecordType otherType = new ARecordType("Other", new String[] { "id" },
+                new IAType[] { BuiltinType.AINT64 }, true);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ADMBinaryFormatUtil.writeHeader(bos, ADMBinaryFormatUtil.getTypeId(otherType));
+        write(bos, serialize(otherType, "{\"id\": 1}"));
+        assertFails(TYPE, bos.toByteArray());
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        byte[] record = serialize(TYPE, JSON[0]).get(0);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        write(bos, Collections.singletonList(record));
+        byte[] input = bos.toByteArray();
+        // a truncated stream
+        assertFails(TYPE, Arrays.copyOf(input, input.length - 1));
+        // a length that doesn't match the one of the object
+        input[3]--;
+        assertFails(TYPE, Arrays.copyOf(input, input.length - 1));
+        // not an object
+        bos.reset();
+        ADMBinaryFormatUtil.writeInt(bos, 5);
+        bos.write(new byte[] { BuiltinType.AINT32.getTypeTag().serialize(), 0, 0, 0, 1 });
+        assertFails(TYPE, bos.toByteArray());
+    }
+
+    @Test
+    public void testCorruptedRecordWithTypeId() throws IOException {
+        byte[] record = serialize(TYPE, JSON[1]).get(0);
+        // the object is cut short, but its length says it isn't
+        byte[] truncated = Arrays.copyOf(record, record.length - 1);
+        setRecordLength(truncated);
+        // the object is followed by bytes that aren't part of it
+        byte[] extended = Arrays.copyOf(record, record.length + 1);
+        setRecordLength(extended);
+        for (byte[] corrupted : Arrays.asList(truncated, extended)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ADMBinaryFormatUtil.writeHeader(bos, ADMBinaryFormatUtil.getTypeId(TYPE));
+            write(bos, Collections.singletonList(corrupted));
+            assertFails(TYPE, bos.toByteArray());
+        }
+    }
+
+    private static void setRecordLength(byte[] record) {
+        ByteBuffer.wrap(record).putInt(1, record.length);
+    }
+
+    private static List<byte[]> serialize(ARecordType type, String... json) throws IOException {
+        JSONDataParser parser = new JSONDataParser(type);
+        List<byte[]> records = new ArrayList<>();
+        for (String value : json) {
+            ByteArrayRecord record = new ByteArrayRecord();
+            record.set(value.getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            parser.parse(record, new DataOutputStream(bos));
+            records.add(bos.toByteArray());
+        }
+        return records;
+    }
+
+    private static void write(ByteArrayOutputStream bos, List<byte[]> records) throws HyracksDataException {
+        IPrinter printer = new ARecordPrinterFactory(TYPE).createPrinter();
+        PrintStream ps = new PrintStream(bos);
+        printer.init();
+        for (byte[] record : records) {
+            printer.print(record, 0, record.length, ps);
+        }
+        ps.flush();
+    }
+
+    private static int read(ARecordType type, byte[] input, List<byte[]> expected) throws IOException {
+        ADMBinaryRecordReader reader = new ADMBinaryRecordReader();
+        reader.configure(new ByteArrayAsterixInputStream(input), Collections.emptyMap());
+        ADMBinaryDataParser parser = new ADMBinaryDataParser(type);
+        int count = 0;
+        while (reader.hasNext()) {
+            IRawRecord<byte[]> record = reader.next();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            parser.parse(record, new DataOutputStream(bos));
+            if (expected != null) {
+                Assert.assertArrayEquals(expected.get(count), bos.toByteArray());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static void assertFails(ARecordType type, byte[] input) throws IOException {
+        try {
+            read(type, input, null);
+            Assert.fail("read malformed input");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    private static class ByteArrayAsterixInputStream extends AsterixInputStream {
+        private final ByteArrayInputStream in;
+
+        ByteArrayAsterixInputStream(byte[] bytes) {
+            in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // return a few bytes at a time to cut entries across reads
+            return in.read(b, off, Math.min(len, 5));
+        }
+
+        @Override
+        public boolean stop() throws Exception {
+            return true;
+        }
+
+        @Override
+        public boolean handleException(Throwable th) {
+            return false;
+        }
+    }
+}
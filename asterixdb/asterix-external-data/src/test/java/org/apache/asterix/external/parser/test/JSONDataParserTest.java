@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.ARecordSerializerDeserializer;
+import org.apache.asterix.external.api.AsterixInputStream;
+import org.apache.asterix.external.input.record.ByteArrayRecord;
+import org.apache.asterix.external.input.record.reader.stream.JSONRecordReader;
+import org.apache.asterix.external.parser.JSONDataParser;
+import org.apache.asterix.om.base.ABoolean;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AFloat;
+import org.apache.asterix.om.base.AInt16;
+import org.apache.asterix.om.base.AInt32;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AInt8;
+import org.apache.asterix.om.base.AOrderedList;
+import org.apache.asterix.om.base.ARecord;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JSONDataParserTest {
+
+    private static final ARecordType OPEN_TYPE = new ARecordType("OpenType", new String[0], new IAType[0], true);
+
+    @Test
+    public void testClosedFields() throws IOException {
+        ARecordType type = new ARecordType("ClosedType",
+                new String[] { "id", "name", "score", "tags", "ok", "nick" },
+                new IAType[] { BuiltinType.AINT32, BuiltinType.ASTRING, BuiltinType.ADOUBLE,
+                        new AOrderedListType(BuiltinType.ASTRING, null), BuiltinType.ABOOLEAN,
+                        AUnionType.createUnknownableType(BuiltinType.ASTRING) },
+                false);
+        ARecord record = parse(type,
+                "{ \"id\": 7, \"name\": \"Ann\", \"score\": 3, \"tags\": [\"x\", \"y\"], \"ok\": false }");
+        Assert.assertEquals(7, ((AInt32) field(record, "id")).getIntegerValue());
+        Assert.assertEquals("Ann", ((AString) field(record, "name")).getStringValue());
+        Assert.assertEquals(3.0, ((ADouble) field(record, "score")).getDoubleValue(), 0);
+        AOrderedList tags = (AOrderedList) field(record, "tags");
+        Assert.assertEquals(2, tags.size());
+        Assert.assertEquals("y", ((AString) tags.getItem(1)).getStringValue());
+        Assert.assertEquals(ABoolean.FALSE, field(record, "ok"));
+        Assert.assertNotEquals(ATypeTag.STRING, field(record, "nick").getType().getTypeTag());
+
+        assertFails(type, "{ \"id\": 7, \"name\": \"Ann\", \"score\": 3, \"tags\": [], \"ok\": true, \"x\": 1 }");
+        assertFails(type, "{ \"id\": 7, \"score\": 3, \"tags\": [], \"ok\": true }");
+        assertFails(type, "{ \"id\": \"7\", \"name\": \"Ann\", \"score\": 3, \"tags\": [], \"ok\": true }");
+    }
+
+    @Test
+    public void testOpenFields() throws IOException {
+        ARecord record = parse(OPEN_TYPE, "{\"s\": \"a\\\"b\\\\c\\n\\u00e9\\u4e2d\", \"raw\": \"\u00e9\u4e2d\", "
+                + "\"emoji\": \"\ud83d\ude00\", \"n\": null, \"arr\": [1, 2.5, -3e2, true], \"o\": {\"x\": []},"
+                + " \"w\\u0069th escape\": 1}\n");
+        Assert.assertEquals("a\"b\\c\n\u00e9\u4e2d", ((AString) field(record, "s")).getStringValue());
+        Assert.assertEquals("\u00e9\u4e2d", ((AString) field(record, "raw")).getStringValue());
+        Assert.assertEquals("\ud83d\ude00", ((AString) field(record, "emoji")).getStringValue());
+        Assert.assertEquals(ATypeTag.NULL, field(record, "n").getType().getTypeTag());
+        AOrderedList arr = (AOrderedList) field(record, "arr");
+        Assert.assertEquals(1L, ((AInt64) arr.getItem(0)).getLongValue());
+        Assert.assertEquals(2.5, ((ADouble) arr.getItem(1)).getDoubleValue(), 0);
+        Assert.assertEquals(-300.0, ((ADouble) arr.getItem(2)).getDoubleValue(), 0);
+        Assert.assertEquals(ABoolean.TRUE, arr.getItem(3));
+        Assert.assertEquals(ATypeTag.OBJECT, field(record, "o").getType().getTypeTag());
+        Assert.assertEquals(1L, ((AInt64) field(record, "with escape")).getLongValue());
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        ARecordType type = new ARecordType("NumberType", new String[] { "i8", "i16", "i32", "i64", "f", "d" },
+                new IAType[] { BuiltinType.AINT8, BuiltinType.AINT16, BuiltinType.AINT32, BuiltinType.AINT64,
+                        BuiltinType.AFLOAT, BuiltinType.ADOUBLE },
+                false);
+        ARecord record = parse(type, "{\"i8\": -128, \"i16\": 32767, \"i32\": -2147483648, "
+                + "\"i64\": 9223372036854775807, \"f\": 1.5, \"d\": 12}");
+        Assert.assertEquals(-128, ((AInt8) field(record, "i8")).getByteValue());
+        Assert.assertEquals(32767, ((AInt16) field(record, "i16")).getShortValue());
+        Assert.assertEquals(Integer.MIN_VALUE, ((AInt32) field(record, "i32")).getIntegerValue());
+        Assert.assertEquals(Long.MAX_VALUE, ((AInt64) field(record, "i64")).getLongValue());
+        Assert.assertEquals(1.5f, ((AFloat) field(record, "f")).getFloatValue(), 0);
+        Assert.assertEquals(12.0, ((ADouble) field(record, "d")).getDoubleValue(), 0);
+
+        record = parse(type,
+                "{\"i8\": 0, \"i16\": 0, \"i32\": 0, \"i64\": -9223372036854775808, \"f\": 0, \"d\": 0}");
+        Assert.assertEquals(Long.MIN_VALUE, ((AInt64) field(record, "i64")).getLongValue());
+
+        assertFails(type, "{\"i8\": 128, \"i16\": 1, \"i32\": 1, \"i64\": 1, \"f\": 1, \"d\": 1}");
+        assertFails(type, "{\"i8\": 1, \"i16\": 1, \"i32\": 1.5, \"i64\": 1, \"f\": 1, \"d\": 1}");
+        assertFails(type, "{\"i8\": 1, \"i16\": 1, \"i32\": 1, \"i64\": 9223372036854775808, \"f\": 1, \"d\": 1}");
+        assertFails(type, "{\"i8\": 1, \"i16\": 1, \"i32\": 1, \"i64\": -9223372036854775809, \"f\": 1, \"d\": 1}");
+        assertFails(type, "{\"i8\": 1, \"i16\": 1, \"i32\": 1, \"i64\": 1, \"f\": 1., \"d\": 1}");
+    }
+
+    @Test
+    public void testRequiredFieldsOfNestedObjects() throws IOException {
+        // the sets of present fields are reused across objects and nesting depths
+        ARecordType inner = new ARecordType("InnerType", new String[] { "x", "y" },
+                new IAType[] { BuiltinType.AINT64, AUnionType.createUnknownableType(BuiltinType.AINT64) }, false);
+        ARecordType type = new ARecordType("OuterType", new String[] { "a", "b", "c" },
+                new IAType[] { inner, BuiltinType.AINT64, inner }, false);
+        JSONDataParser parser = new JSONDataParser(type);
+        for (int i = 0; i < 3; i++) {
+            ARecord record = parse(parser, type, "{\"a\": {\"x\": 1, \"y\": 2}, \"b\": 3, \"c\": {\"x\": 4}}");
+            Assert.assertEquals(4L, ((AInt64) ((ARecord) field(record, "c")).getValueByPos(0)).getLongValue());
+            // a field present in an earlier object does not satisfy a later one
+            assertFails(parser, type, "{\"a\": {\"x\": 1, \"y\": 2}, \"b\": 3, \"c\": {\"y\": 4}}");
+            assertFails(parser, type, "{\"a\": {\"x\": 1}, \"c\": {\"x\": 4}}");
+        }
+    }
+
+    @Test
+    public void testStringsAcrossBlocks() throws IOException {
+        // escapes, quotes and multi-byte sequences at every position relative to the 64 byte blocks
+        char[] alphabet = { 'a', '\\', '"', '\u00e9', '\ud83d', '{', '}', ',', '\n' };
+        Random random = new Random(17);
+        JSONDataParser parser = new JSONDataParser(OPEN_TYPE);
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder value = new StringBuilder();
+            int len = random.nextInt(150);
+            for (int i = 0; i < len; i++) {
+                char c = alphabet[random.nextInt(alphabet.length)];
+                value.append(c);
+                if (c == '\ud83d') {
+                    value.append('\ude00');
+                }
+            }
+            StringBuilder json = new StringBuilder("{");
+            for (int i = random.nextInt(64); i > 0; i--) {
+                json.append(' ');
+            }
+            json.append("\"k\": \"").append(escape(value)).append("\", \"n\": ").append(round).append('}');
+            ARecord record = parse(parser, OPEN_TYPE, json.toString());
+            Assert.assertEquals(json.toString(), value.toString(), ((AString) field(record, "k")).getStringValue());
+            Assert.assertEquals(round, ((AInt64) field(record, "n")).getLongValue());
+        }
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        assertFails(OPEN_TYPE, "{\"a\": \"unterminated}");
+        assertFails(OPEN_TYPE, "{\"a\" 1}");
+        assertFails(OPEN_TYPE, "{\"a\": 1,}");
+        assertFails(OPEN_TYPE, "{\"a\": [1 2]}");
+        assertFails(OPEN_TYPE, "{\"a\": tru}");
+        assertFails(OPEN_TYPE, "{\"a\": 1} 2");
+        assertFails(OPEN_TYPE, "{\"a\": \"\\x\"}");
+        assertFails(OPEN_TYPE, "[1]");
+        // the parser can still be used after an error
+        Assert.assertEquals(1L, ((AInt64) field(parse(OPEN_TYPE, "{\"a\": 1}"), "a")).getLongValue());
+    }
+
+    @Test
+    public void testRecordReader() throws IOException {
+        String input = "{\"a\": \"}{\\\"\"}\n  {\"b\": {\"c\": [\"\u00e9\"]}}{}\n";
+        JSONRecordReader reader = new JSONRecordReader();
+        reader.configure(new ByteArrayAsterixInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                Collections.emptyMap());
+        List<String> records = new ArrayList<>();
+        while (reader.hasNext()) {
+            records.add(reader.next().toString());
+        }
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals("{\"a\": \"}{\\\"\"}", records.get(0));
+        Assert.assertEquals("{\"b\": {\"c\": [\"\u00e9\"]}}", records.get(1));
+        Assert.assertEquals("{}", records.get(2));
+    }
+
+    private static String escape(CharSequence value) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static IAObject field(ARecord record, String name) {
+        return record.getValueByPos(record.getType().getFieldIndex(name));
+    }
+
+    private static ARecord parse(ARecordType type, String json) throws IOException {
+        return parse(new JSONDataParser(type), type, json);
+    }
+
+    private static ARecord parse(JSONDataParser parser, ARecordType type, String json) throws IOException {
+        ByteArrayRecord record = new ByteArrayRecord();
+        record.set(json.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        parser.parse(record, new DataOutputStream(bos));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(ATypeTag.SERIALIZED_RECORD_TYPE_TAG, in.readByte());
+        return new ARecordSerializerDeserializer(type).deserialize(in);
+    }
+
+    private static void assertFails(ARecordType type, String json) throws IOException {
+        assertFails(new JSONDataParser(type), type, json);
+    }
+
+    private static void assertFails(JSONDataParser parser, ARecordType type, String json) throws IOException {
+        try {
+            parse(parser, type, json);
+            Assert.fail("parsed " + json);
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    private static class ByteArrayAsterixInputStream extends AsterixInputStream {
+        private final ByteArrayInputStream in;
+
+        ByteArrayAsterixInputStream(byte[] bytes) {
+            in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // return a few bytes at a time to cut records across reads
+            return in.read(b, off, Math.min(len, 5));
+        }
+
+        @Override
+        public boolean stop() throws Exception {
+            return true;
+        }
+
+        @Override
+        public boolean handleException(Throwable th) {
+            return false;
+        }
+    }
+}
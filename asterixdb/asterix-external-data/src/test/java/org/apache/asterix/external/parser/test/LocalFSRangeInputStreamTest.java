@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.external.input.stream.LocalFSRangeInputStream;
+import org.apache.asterix.external.input.stream.LocalFSRangeInputStream.FileRange;
+import org.apache.asterix.external.util.FeedLogManager;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalFSRangeInputStreamTest {
+
+    @Test
+    public void testLines() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(i + "|" + repeat('x', i % 37) + "|");
+        }
+        File file = write(records, "\n");
+        for (long splitSize : new long[] { 1, 7, 64, 1000, file.length() + 1 }) {
+            for (int partitions : new int[] { 1, 3 }) {
+                List<String> read = split(readAll(file, splitSize, partitions, LocalFSRangeInputStream.LINE_START),
+                        "\n");
+                assertSameRecords(records, read);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiLineRecords() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // nested records and lines that don't start with the record start belong to the enclosing record
+            records.add("{\"id\": " + i + ",\n  \"nested\": { \"a\": \"" + repeat('{', i % 5) + "\" }\n}");
+        }
+        File file = write(records, "\n");
+        for (long splitSize : new long[] { 1, 13, 100, 4096 }) {
+            for (int partitions : new int[] { 1, 4 }) {
+                List<String> read = split(readAll(file, splitSize, partitions, '{'), "\n{");
+                assertSameRecords(records, read);
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptedInputSkipsAndLogsRange() throws IOException {
+        File file = write(Arrays.asList("a", "b", "c", "d"), "\n");
+        File tempDir = Files.createTempDirectory("range-log").toFile();
+        File logDir = new File(tempDir, "log");
+        FeedLogManager logManager = new FeedLogManager(logDir);
+        try {
+            Queue<FileRange> ranges = new ConcurrentLinkedQueue<>();
+            ranges.add(new FileRange(file, 0, file.length()));
+            LocalFSRangeInputStream stream = new LocalFSRangeInputStream(ranges, LocalFSRangeInputStream.LINE_START);
+            stream.setFeedLogManager(logManager);
+            byte[] buffer = new byte[2];
+            Assert.assertEquals(2, stream.read(buffer, 0, buffer.length));
+            Assert.assertTrue(
+                    stream.handleException(new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM)));
+            // the rest of the range is skipped, only the new line ending the last record read is left
+            Assert.assertEquals(-1, stream.read(buffer, 0, buffer.length));
+            stream.close();
+            String log = new String(
+                    Files.readAllBytes(new File(logDir, FeedLogManager.BAD_RECORDS_FILE_NAME).toPath()),
+                    StandardCharsets.UTF_8);
+            Assert.assertTrue(log, log.contains(file.getAbsolutePath() + "[2, " + file.length() + ")"));
+        } finally {
+            logManager.close();
+            FileUtils.deleteDirectory(tempDir);
+        }
+    }
+
+    @Test
+    public void testCorruptedInputWithoutFeedLogFails() throws IOException {
+        File file = write(Arrays.asList("a", "b"), "\n");
+        Queue<FileRange> ranges = new ConcurrentLinkedQueue<>();
+        ranges.add(new FileRange(file, 0, file.length()));
+        LocalFSRangeInputStream stream = new LocalFSRangeInputStream(ranges, LocalFSRangeInputStream.LINE_START);
+        byte[] buffer = new byte[2];
+        Assert.assertEquals(2, stream.read(buffer, 0, buffer.length));
+        Assert.assertFalse(
+                stream.handleException(new RuntimeDataException(ErrorCode.RECORD_READER_MALFORMED_INPUT_STREAM)));
+        stream.close();
+    }
+
+    private static String readAll(File file, long splitSize, int partitions, int recordStart) throws IOException {
+        Queue<FileRange> ranges = new ConcurrentLinkedQueue<>();
+        for (long start = 0; start < file.length(); start += splitSize) {
+            ranges.add(new FileRange(file, start, Math.min(start + splitSize, file.length())));
+        }
+        // partitions share the ranges and take turns reading them
+        List<LocalFSRangeInputStream> streams = new ArrayList<>();
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            streams.add(new LocalFSRangeInputStream(ranges, recordStart));
+            outputs.add(new ByteArrayOutputStream());
+        }
+        byte[] buffer = new byte[5];
+        boolean reading = true;
+        while (reading) {
+            reading = false;
+            for (int i = 0; i < partitions; i++) {
+                int read = streams.get(i).read(buffer, 0, buffer.length);
+                if (read > 0) {
+                    outputs.get(i).write(buffer, 0, read);
+                    reading = true;
+                }
+            }
+        }
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < partitions; i++) {
+            streams.get(i).close();
+            String output = new String(outputs.get(i).toByteArray(), StandardCharsets.UTF_8);
+            Assert.assertTrue(output.isEmpty() || output.endsWith("\n"));
+            all.append(output);
+        }
+        return all.toString();
+    }
+
+    private static File write(List<String> records, String separator) throws IOException {
+        File file = File.createTempFile("range", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), (String.join(separator, records) + separator).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> split(String content, String separator) {
+        List<String> records = new ArrayList<>();
+        for (String record : content.split(Pattern.quote(separator))) {
+            record = record.trim();
+            if (!record.isEmpty()) {
+                records.add(record.charAt(0) == '{' || !separator.endsWith("{") ? record : "{" + record);
+            }
+        }
+        return records;
+    }
+
+    private static void assertSameRecords(List<String> expected, List<String> actual) {
+        List<String> sortedExpected = new ArrayList<>(expected);
+        List<String> sortedActual = new ArrayList<>(actual);
+        Collections.sort(sortedExpected);
+        Collections.sort(sortedActual);
+        Assert.assertEquals(sortedExpected, sortedActual);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
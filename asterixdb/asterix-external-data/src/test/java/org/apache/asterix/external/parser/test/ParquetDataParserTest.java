@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.external.parser.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.ARecordSerializerDeserializer;
+import org.apache.asterix.external.api.IRawRecord;
+import org.apache.asterix.external.input.record.reader.parquet.ParquetRecordReader;
+import org.apache.asterix.external.input.record.reader.parquet.ParquetTestFiles;
+import org.apache.asterix.external.parser.ParquetDataParser;
+import org.apache.asterix.om.base.AInt32;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AOrderedList;
+import org.apache.asterix.om.base.ARecord;
+import org.apache.asterix.om.base.AString;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.types.AOrderedListType;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.commons.io.FileUtils;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.parquet.example.data.Group;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParquetDataParserTest {
+
+    private static final ARecordType OPEN_TYPE = new ARecordType("OpenType", new String[0], new IAType[0], true);
+    private static final ARecordType ADDRESS_TYPE = new ARecordType("AddressType", new String[] { "city", "zip" },
+            new IAType[] { BuiltinType.ASTRING, AUnionType.createUnknownableType(BuiltinType.AINT64) }, false);
+    private static final ARecordType USER_TYPE = new ARecordType("UserType",
+            new String[] { "id", "name", "age", "address", "tags", "email" },
+            new IAType[] { BuiltinType.AINT64, BuiltinType.ASTRING,
+                    AUnionType.createUnknownableType(BuiltinType.AINT32),
+                    AUnionType.createUnknownableType(ADDRESS_TYPE),
+                    AUnionType.createUnknownableType(
+                            new AOrderedListType(AUnionType.createUnknownableType(BuiltinType.ASTRING), null)),
+                    AUnionType.createUnknownableType(BuiltinType.ASTRING) },
+            false);
+
+    private static File dir;
+    private static List<File> files;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        dir = Files.createTempDirectory("parquet").toFile();
+        files = ParquetTestFiles.writeUsers(dir);
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testNestedAndOptionalColumns() throws Exception {
+        List<ARecord> users = parseAll(USER_TYPE, null);
+        Assert.assertEquals(5, users.size());
+
+        ARecord ann = users.get(0);
+        Assert.assertEquals(1L, ((AInt64) field(ann, "id")).getLongValue());
+        Assert.assertEquals("Ann", ((AString) field(ann, "name")).getStringValue());
+        Assert.assertEquals(25, ((AInt32) field(ann, "age")).getIntegerValue());
+        ARecord address = (ARecord) field(ann, "address");
+        Assert.assertEquals("Irvine", ((AString) field(address, "city")).getStringValue());
+        Assert.assertEquals(92617L, ((AInt64) field(address, "zip")).getLongValue());
+        AOrderedList tags = (AOrderedList) field(ann, "tags");
+        Assert.assertEquals(2, tags.size());
+        Assert.assertEquals("b", ((AString) tags.getItem(1)).getStringValue());
+        // the file has no email column
+        assertAbsent(ann, "email");
+
+        ARecord bob = users.get(1);
+        assertAbsent(bob, "age");
+        address = (ARecord) field(bob, "address");
+        Assert.assertEquals("Riverside", ((AString) field(address, "city")).getStringValue());
+        assertAbsent(address, "zip");
+        Assert.assertEquals(0, ((AOrderedList) field(bob, "tags")).size());
+
+        ARecord cat = users.get(2);
+        assertAbsent(cat, "address");
+        assertAbsent(cat, "tags");
+
+        tags = (AOrderedList) field(users.get(3), "tags");
+        Assert.assertEquals(2, tags.size());
+        Assert.assertEquals("c", ((AString) tags.getItem(0)).getStringValue());
+        Assert.assertEquals(ATypeTag.NULL, tags.getItem(1).getType().getTypeTag());
+    }
+
+    @Test
+    public void testOpenFields() throws Exception {
+        List<ARecord> users = parseAll(OPEN_TYPE, null);
+        Assert.assertEquals(5, users.size());
+        ARecord dan = users.get(3);
+        // open fields keep the types of the columns
+        Assert.assertEquals(4, ((AInt32) openField(dan, "id")).getIntegerValue());
+        ARecord address = (ARecord) openField(dan, "address");
+        Assert.assertEquals(92618, ((AInt32) openField(address, "zip")).getIntegerValue());
+        Assert.assertNull(openField(users.get(2), "address"));
+    }
+
+    @Test
+    public void testRequestedFields() throws Exception {
+        // requested fields that the file doesn't have are ignored
+        List<ARecord> users = parseAll(OPEN_TYPE, new HashSet<>(Arrays.asList("name", "nickname")));
+        Assert.assertEquals(5, users.size());
+        for (ARecord user : users) {
+            Assert.assertNotNull(openField(user, "name"));
+            Assert.assertNull(openField(user, "id"));
+            Assert.assertNull(openField(user, "address"));
+            Assert.assertNull(openField(user, "nickname"));
+        }
+    }
+
+    @Test
+    public void testMissingRequiredColumn() throws Exception {
+        ARecordType type = new ARecordType("RequiredEmailType", new String[] { "id", "email" },
+                new IAType[] { BuiltinType.AINT64, BuiltinType.ASTRING }, true);
+        assertFails(type);
+    }
+
+    @Test
+    public void testExtraColumnInClosedType() throws Exception {
+        ARecordType type = new ARecordType("ClosedType", new String[] { "id", "name" },
+                new IAType[] { BuiltinType.AINT64, BuiltinType.ASTRING }, false);
+        assertFails(type);
+    }
+
+    @Test
+    public void testTypeMismatch() throws Exception {
+        ARecordType type = new ARecordType("StringIdType", new String[] { "id" },
+                new IAType[] { BuiltinType.ASTRING }, true);
+        assertFails(type);
+    }
+
+    private static List<ARecord> parseAll(ARecordType type, Set<String> requestedFields) throws Exception {
+        ParquetRecordReader reader = new ParquetRecordReader(new ConcurrentLinkedQueue<>(files), requestedFields, null);
+        ParquetDataParser parser = new ParquetDataParser(type);
+        List<ARecord> records = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                records.add(parse(parser, type, reader.next()));
+            }
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+
+    private static ARecord parse(ParquetDataParser parser, ARecordType type, IRawRecord<Group> record)
+            throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        parser.parse(record, new DataOutputStream(bos));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(ATypeTag.SERIALIZED_RECORD_TYPE_TAG, in.readByte());
+        return new ARecordSerializerDeserializer(type).deserialize(in);
+    }
+
+    private static void assertFails(ARecordType type) throws Exception {
+        try {
+            parseAll(type, null);
+            Assert.fail("parsed the users as " + type.getTypeName());
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    private static IAObject field(ARecord record, String name) {
+        return record.getValueByPos(record.getType().getFieldIndex(name));
+    }
+
+    /**
+     * @return the value of a field, or null if the record doesn't have it
+     */
+    private static IAObject openField(ARecord record, String name) {
+        int index = record.getType().getFieldIndex(name);
+        return index < 0 ? null : record.getValueByPos(index);
+    }
+
+    private static void assertAbsent(ARecord record, String name) {
+        ATypeTag tag = field(record, name).getType().getTypeTag();
+        Assert.assertTrue(name + " is " + tag, tag == ATypeTag.MISSING || tag == ATypeTag.NULL);
+    }
+}
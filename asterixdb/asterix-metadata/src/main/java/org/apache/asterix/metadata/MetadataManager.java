@@ -23,6 +23,7 @@ import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -90,6 +91,7 @@ public class MetadataManager implements IMetadataManager {
     protected final IAsterixStateProxy proxy;
     protected IMetadataNode metadataNode;
     private final ReadWriteLock metadataLatch;
+    private final AtomicLong metadataVersion = new AtomicLong();
     protected boolean rebindMetadataNode = false;
 
     // TODO(mblow): replace references of this (non-constant) field with a method, update field name accordingly
@@ -127,6 +129,9 @@ public class MetadataManager implements IMetadataManager {
     public void commitTransaction(MetadataTransactionContext ctx) throws RemoteException, ACIDException {
         metadataNode.commitTransaction(ctx.getJobId());
         cache.commit(ctx);
+        if (!ctx.getOpLog().isEmpty()) {
+            metadataVersion.incrementAndGet();
+        }
     }
 
     @Override
@@ -1008,6 +1013,11 @@ public class MetadataManager implements IMetadataManager {
         }
     }
 
+    @Override
+    public long getMetadataVersion() {
+        return metadataVersion.get();
+    }
+
     @Override
     public void rebindMetadataNode() {
         rebindMetadataNode = true;
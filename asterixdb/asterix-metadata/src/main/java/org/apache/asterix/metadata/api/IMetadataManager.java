@@ -697,6 +697,13 @@ public interface IMetadataManager extends IMetadataBootstrap {
      */
     void rebindMetadataNode();
 
+    /**
+     * @return a counter that advances every time a metadata transaction that changed metadata entities commits.
+     *         Anything derived from the metadata (e.g., a compiled query plan) is stale once the counter moves on
+     *         from the value read before it was derived.
+     */
+    long getMetadataVersion();
+
     /**
      * Feed Connection Related Metadata operations
      */
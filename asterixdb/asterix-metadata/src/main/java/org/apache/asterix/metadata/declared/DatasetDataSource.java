@@ -18,10 +18,13 @@
  */
 package org.apache.asterix.metadata.declared;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.external.api.IAdapterFactory;
+import org.apache.asterix.external.util.ExternalDataConstants;
 import org.apache.asterix.metadata.IDatasetDetails;
 import org.apache.asterix.metadata.MetadataManager;
 import org.apache.asterix.metadata.entities.Dataset;
@@ -105,8 +108,12 @@ public class DatasetDataSource extends DataSource {
                         externalDataset.getItemTypeDataverseName(), itemTypeName).getDatatype();
 
                 ExternalDatasetDetails edd = (ExternalDatasetDetails) externalDataset.getDatasetDetails();
+                // the pushed-down projection and filter only apply to this scan, never to the stored details
+                Map<String, String> configuration = new HashMap<>(edd.getProperties());
+                addPushedProperty(configuration, ExternalDataConstants.KEY_REQUESTED_FIELDS);
+                addPushedProperty(configuration, ExternalDataConstants.KEY_PUSHED_FILTER);
                 IAdapterFactory adapterFactory = metadataProvider.getConfiguredAdapterFactory(externalDataset,
-                        edd.getAdapter(), edd.getProperties(), (ARecordType) itemType, null);
+                        edd.getAdapter(), configuration, (ARecordType) itemType, null);
                 return metadataProvider.buildExternalDatasetDataScannerRuntime(jobSpec, itemType, adapterFactory,
                         NonTaggedDataFormat.INSTANCE);
             case INTERNAL:
@@ -143,4 +150,10 @@ public class DatasetDataSource extends DataSource {
         return dataset.getDatasetType() == DatasetType.EXTERNAL;
     }
 
+    private void addPushedProperty(Map<String, String> configuration, String key) {
+        Object value = getProperties().get(key);
+        if (value instanceof String) {
+            configuration.put(key, (String) value);
+        }
+    }
 }
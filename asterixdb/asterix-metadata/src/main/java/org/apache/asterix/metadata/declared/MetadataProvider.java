@@ -429,6 +429,21 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
             boolean retainMissing, Dataset dataset, String indexName, int[] lowKeyFields, int[] highKeyFields,
             boolean lowKeyInclusive, boolean highKeyInclusive, boolean propagateFilter, int[] minFilterFieldIndexes,
             int[] maxFilterFieldIndexes) throws AlgebricksException {
+        return buildBtreeRuntime(jobSpec, opSchema, typeEnv, context, retainInput, retainMissing, dataset, indexName,
+                lowKeyFields, highKeyFields, lowKeyInclusive, highKeyInclusive, propagateFilter,
+                minFilterFieldIndexes, maxFilterFieldIndexes, false);
+    }
+
+    /**
+     * @param isIndexOnlyPlan
+     *            whether the results of a secondary-index search are used without a primary-index lookup,
+     *            in which case the search itself must only return committed entries
+     */
+    public Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> buildBtreeRuntime(JobSpecification jobSpec,
+            IOperatorSchema opSchema, IVariableTypeEnvironment typeEnv, JobGenContext context, boolean retainInput,
+            boolean retainMissing, Dataset dataset, String indexName, int[] lowKeyFields, int[] highKeyFields,
+            boolean lowKeyInclusive, boolean highKeyInclusive, boolean propagateFilter, int[] minFilterFieldIndexes,
+            int[] maxFilterFieldIndexes, boolean isIndexOnlyPlan) throws AlgebricksException {
         boolean isSecondary = true;
         try {
             Index primaryIndex = MetadataManager.INSTANCE.getIndex(mdTxnCtx, dataset.getDataverseName(),
@@ -447,16 +462,30 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
                 primaryKeyFields[i] = i;
             }
 
-            ISearchOperationCallbackFactory searchCallbackFactory = dataset.getSearchCallbackFactory(
-                    storaegComponentProvider, theIndex, jobId, IndexOperation.SEARCH, primaryKeyFields);
+            ISearchOperationCallbackFactory searchCallbackFactory;
+            if (isSecondary && isIndexOnlyPlan) {
+                // secondary-index tuples are the secondary keys followed by the primary keys
+                int numSecondaryKeys = theIndex.getKeyFieldNames().size();
+                int[] secondaryPrimaryKeyFields = new int[numPrimaryKeys];
+                for (int i = 0; i < numPrimaryKeys; i++) {
+                    secondaryPrimaryKeyFields[i] = numSecondaryKeys + i;
+                }
+                searchCallbackFactory = dataset.getIndexOnlySearchCallbackFactory(storaegComponentProvider, jobId,
+                        secondaryPrimaryKeyFields);
+            } else {
+                searchCallbackFactory = dataset.getSearchCallbackFactory(storaegComponentProvider, theIndex, jobId,
+                        IndexOperation.SEARCH, primaryKeyFields);
+            }
             IStorageManager storageManager = getStorageComponentProvider().getStorageManager();
             IIndexDataflowHelperFactory indexHelperFactory = new IndexDataflowHelperFactory(storageManager, spPc.first);
             BTreeSearchOperatorDescriptor btreeSearchOp;
             if (dataset.getDatasetType() == DatasetType.INTERNAL) {
+                // primary key lookups (e.g., after a secondary index search) are served in batches of a frame
+                boolean batchPointLookups = !isSecondary;
                 btreeSearchOp = new BTreeSearchOperatorDescriptor(jobSpec, outputRecDesc, lowKeyFields, highKeyFields,
                         lowKeyInclusive, highKeyInclusive, indexHelperFactory, retainInput, retainMissing,
                         context.getMissingWriterFactory(), searchCallbackFactory, minFilterFieldIndexes,
-                        maxFilterFieldIndexes, propagateFilter);
+                        maxFilterFieldIndexes, propagateFilter, batchPointLookups);
             } else {
                 btreeSearchOp = new ExternalBTreeSearchOperatorDescriptor(jobSpec, outputRecDesc, lowKeyFields,
                         highKeyFields, lowKeyInclusive, highKeyInclusive, indexHelperFactory, retainInput,
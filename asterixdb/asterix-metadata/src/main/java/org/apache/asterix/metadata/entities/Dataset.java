@@ -545,6 +545,23 @@ public class Dataset implements IMetadataEntity<Dataset>, IDataset {
         return new SecondaryIndexSearchOperationCallbackFactory();
     }
 
+    /**
+     * Get the search callback factory for a secondary-index search whose results are not validated by a
+     * primary-index lookup. Like primary-index searches, it takes instant locks on the primary keys of entries
+     * in the in-memory component, so uncommitted entries are never returned.
+     *
+     * @param primaryKeyFields
+     *            the positions of the primary keys in the secondary-index tuples
+     */
+    public ISearchOperationCallbackFactory getIndexOnlySearchCallbackFactory(
+            IStorageComponentProvider storageComponentProvider, JobId jobId, int[] primaryKeyFields) {
+        if (getDatasetDetails().isTemp()) {
+            return NoOpOperationCallbackFactory.INSTANCE;
+        }
+        return new PrimaryIndexInstantSearchOperationCallbackFactory(jobId, getDatasetId(), primaryKeyFields,
+                storageComponentProvider.getTransactionSubsystemProvider(), ResourceType.LSM_BTREE);
+    }
+
     /**
      * Get the modification callback factory associated with this dataset, the passed index, and operation.
      *
@@ -19,6 +19,7 @@
 package org.apache.asterix.metadata.lock;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.asterix.common.exceptions.AsterixException;
@@ -48,6 +49,13 @@ public class LockList {
         locks.add(Pair.of(mode, lock));
     }
 
+    /**
+     * @return the locks held, in the order they were acquired
+     */
+    public List<Pair<IMetadataLock.Mode, IMetadataLock>> getLocks() {
+        return Collections.unmodifiableList(locks);
+    }
+
     /**
      * Once unlock() is called, no caller can call add(IMetadataLock.Mode mode, IMetadataLock lock),
      * except that reset() is called.
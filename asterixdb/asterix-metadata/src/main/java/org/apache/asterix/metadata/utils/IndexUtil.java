@@ -18,6 +18,7 @@
  */
 package org.apache.asterix.metadata.utils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.asterix.common.config.DatasetConfig;
@@ -31,17 +32,25 @@ import org.apache.asterix.metadata.entities.Dataset;
 import org.apache.asterix.metadata.entities.Index;
 import org.apache.asterix.metadata.entities.InternalDatasetDetails;
 import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
+import org.apache.asterix.runtime.utils.RuntimeUtils;
 import org.apache.asterix.transaction.management.service.transaction.JobIdFactory;
+import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraintHelper;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.jobgen.impl.ConnectorPolicyAssignmentPolicy;
 import org.apache.hyracks.algebricks.core.rewriter.base.PhysicalOptimizationConfig;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
 import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.misc.ReplicateOperatorDescriptor;
 
 public class IndexUtil {
 
     //TODO: replace this null with an empty array. currently, this breaks many tests
     private static final int[] empty = null;
+    // the sorts of the loads of several indexes share the sort memory, but each needs at least this many frames
+    private static final int MIN_FRAME_LIMIT_FOR_SORT = 3;
     private static final PhysicalOptimizationConfig physicalOptimizationConfig =
             OptimizationConfUtil.getPhysicalOptimizationConfig();
 
@@ -134,6 +143,51 @@ public class IndexUtil {
         return secondaryIndexHelper.buildLoadingJobSpec();
     }
 
+    /**
+     * Builds a job that loads all the given secondary indexes of an internal dataset. The primary index is scanned
+     * once and its records are replicated to the sort and bulk load operators of every index, which run concurrently
+     * and share the sort memory of a single index load.
+     */
+    public static JobSpecification buildSecondaryIndexesLoadingJobSpec(Dataset dataset, List<Index> indexes,
+            MetadataProvider metadataProvider) throws AlgebricksException {
+        if (dataset.getDatasetType() != DatasetConfig.DatasetType.INTERNAL || indexes.isEmpty()) {
+            throw new CompilationException(ErrorCode.COMPILATION_ILLEGAL_STATE,
+                    "Cannot load the indexes of " + dataset.getDatasetName() + " from a single scan");
+        }
+        int sortNumFrames = Math.max(MIN_FRAME_LIMIT_FOR_SORT,
+                physicalOptimizationConfig.getMaxFramesExternalSort() / indexes.size());
+        List<SecondaryIndexOperationsHelper> secondaryIndexHelpers = new ArrayList<>();
+        for (Index index : indexes) {
+            SecondaryIndexOperationsHelper secondaryIndexHelper = dataset.isCorrelated()
+                    ? SecondaryCorrelatedTreeIndexOperationsHelper.createIndexOperationsHelper(dataset, index,
+                            metadataProvider, physicalOptimizationConfig)
+                    : SecondaryIndexOperationsHelper.createIndexOperationsHelper(dataset, index, metadataProvider,
+                            physicalOptimizationConfig);
+            secondaryIndexHelper.setSortNumFrames(sortNumFrames);
+            secondaryIndexHelpers.add(secondaryIndexHelper);
+        }
+        JobSpecification spec = RuntimeUtils.createJobSpecification(metadataProvider.getApplicationContext());
+        // Create dummy key provider for feeding the primary index scan.
+        IOperatorDescriptor keyProviderOp = DatasetUtil.createDummyKeyProviderOp(spec, dataset, metadataProvider);
+        JobId jobId = bindJobEventListener(spec, metadataProvider);
+
+        // Create primary index scan op and replicate its output to one loading pipeline per index. The helpers of
+        // the indexes of a dataset all read the same records, so any of them can create the scan.
+        SecondaryIndexOperationsHelper scanHelper = secondaryIndexHelpers.get(0);
+        IOperatorDescriptor primaryScanOp = scanHelper.createLoadingScanOp(spec, jobId);
+        ReplicateOperatorDescriptor replicateOp = new ReplicateOperatorDescriptor(spec,
+                scanHelper.getLoadingScanRecordDescriptor(), indexes.size());
+        AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, replicateOp,
+                metadataProvider.getSplitProviderAndConstraints(dataset).second);
+        spec.connect(new OneToOneConnectorDescriptor(spec), keyProviderOp, 0, primaryScanOp, 0);
+        spec.connect(new OneToOneConnectorDescriptor(spec), primaryScanOp, 0, replicateOp, 0);
+        for (int i = 0; i < secondaryIndexHelpers.size(); i++) {
+            spec.addRoot(secondaryIndexHelpers.get(i).buildLoadingPipeline(spec, replicateOp, i));
+        }
+        spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
+        return spec;
+    }
+
     public static JobSpecification buildSecondaryIndexCompactJobSpec(Dataset dataset, Index index,
             MetadataProvider metadataProvider) throws AlgebricksException {
         SecondaryIndexOperationsHelper secondaryIndexHelper = SecondaryIndexOperationsHelper
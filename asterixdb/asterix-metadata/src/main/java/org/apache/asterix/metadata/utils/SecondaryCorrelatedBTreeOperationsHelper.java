@@ -66,8 +66,6 @@ public class SecondaryCorrelatedBTreeOperationsHelper extends SecondaryCorrelate
     public JobSpecification buildLoadingJobSpec() throws AlgebricksException {
         JobSpecification spec = RuntimeUtils.createJobSpecification(metadataProvider.getApplicationContext());
 
-        boolean isOverridingKeyFieldTypes = index.isOverridingKeyFieldTypes();
-
         assert dataset.getDatasetType() == DatasetType.INTERNAL;
 
         // only handle internal datasets
@@ -78,14 +76,25 @@ public class SecondaryCorrelatedBTreeOperationsHelper extends SecondaryCorrelate
         IOperatorDescriptor keyProviderOp = DatasetUtil.createDummyKeyProviderOp(spec, dataset, metadataProvider);
 
         // Create primary index scan op.
-        IOperatorDescriptor primaryScanOp = createPrimaryIndexScanDiskComponentsOp(spec, metadataProvider,
-                getTaggedRecordDescriptor(dataset.getPrimaryRecordDescriptor(metadataProvider)), jobId);
+        IOperatorDescriptor primaryScanOp = createLoadingScanOp(spec, jobId);
+        spec.connect(new OneToOneConnectorDescriptor(spec), keyProviderOp, 0, primaryScanOp, 0);
+        spec.addRoot(buildLoadingPipeline(spec, primaryScanOp, 0));
+        spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
+        return spec;
+    }
+
+    @Override
+    public IOperatorDescriptor buildLoadingPipeline(JobSpecification spec, IOperatorDescriptor inputOp,
+            int inputPort) throws AlgebricksException {
+        boolean isOverridingKeyFieldTypes = index.isOverridingKeyFieldTypes();
 
         // Assign op.
-        IOperatorDescriptor sourceOp = primaryScanOp;
+        IOperatorDescriptor sourceOp = inputOp;
+        int sourcePort = inputPort;
         if (isOverridingKeyFieldTypes && !enforcedItemType.equals(itemType)) {
             sourceOp = createCastOp(spec, dataset.getDatasetType(), index.isEnforced());
-            spec.connect(new OneToOneConnectorDescriptor(spec), primaryScanOp, 0, sourceOp, 0);
+            spec.connect(new OneToOneConnectorDescriptor(spec), inputOp, inputPort, sourceOp, 0);
+            sourcePort = 0;
         }
         RecordDescriptor taggedSecondaryRecDesc = getTaggedRecordDescriptor(secondaryRecDesc);
         AlgebricksMetaOperatorDescriptor asterixAssignOp =
@@ -106,15 +115,12 @@ public class SecondaryCorrelatedBTreeOperationsHelper extends SecondaryCorrelate
                 new AlgebricksMetaOperatorDescriptor(spec, 1, 0, new IPushRuntimeFactory[] { new SinkRuntimeFactory() },
                         new RecordDescriptor[] { taggedSecondaryRecDesc });
         // Connect the operators.
-        spec.connect(new OneToOneConnectorDescriptor(spec), keyProviderOp, 0, primaryScanOp, 0);
-        spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, 0, asterixAssignOp, 0);
+        spec.connect(new OneToOneConnectorDescriptor(spec), sourceOp, sourcePort, asterixAssignOp, 0);
         spec.connect(new OneToOneConnectorDescriptor(spec), asterixAssignOp, 0, processorOp, 0);
         spec.connect(new OneToOneConnectorDescriptor(spec), processorOp, 0, sortOp, 0);
         spec.connect(new OneToOneConnectorDescriptor(spec), sortOp, 0, secondaryBulkLoadOp, 0);
         spec.connect(new OneToOneConnectorDescriptor(spec), secondaryBulkLoadOp, 0, metaOp, 0);
-        spec.addRoot(metaOp);
-        spec.setConnectorPolicyAssignmentPolicy(new ConnectorPolicyAssignmentPolicy());
-        return spec;
+        return metaOp;
     }
 
     @Override
@@ -255,9 +255,8 @@ public abstract class SecondaryCorrelatedTreeIndexOperationsHelper extends Secon
         for (int i = 1; i < taggedSortFields.length; i++) {
             taggedSortFields[i] = i + 1;
         }
-        ExternalSortOperatorDescriptor sortOp =
-                new ExternalSortOperatorDescriptor(spec, physOptConf.getMaxFramesExternalSort(), taggedSortFields,
-                        taggedSecondaryComparatorFactories, taggedSecondaryRecDesc);
+        ExternalSortOperatorDescriptor sortOp = new ExternalSortOperatorDescriptor(spec, sortNumFrames,
+                taggedSortFields, taggedSecondaryComparatorFactories, taggedSecondaryRecDesc);
         AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, sortOp, primaryPartitionConstraint);
         return sortOp;
     }
@@ -279,6 +278,16 @@ public abstract class SecondaryCorrelatedTreeIndexOperationsHelper extends Secon
         return treeIndexBulkLoadOp;
     }
 
+    @Override
+    public IOperatorDescriptor createLoadingScanOp(JobSpecification spec, JobId jobId) throws AlgebricksException {
+        return createPrimaryIndexScanDiskComponentsOp(spec, metadataProvider, getLoadingScanRecordDescriptor(), jobId);
+    }
+
+    @Override
+    public RecordDescriptor getLoadingScanRecordDescriptor() throws AlgebricksException {
+        return getTaggedRecordDescriptor(dataset.getPrimaryRecordDescriptor(metadataProvider));
+    }
+
     protected IOperatorDescriptor createPrimaryIndexScanDiskComponentsOp(JobSpecification spec,
             MetadataProvider metadataProvider, RecordDescriptor outRecDesc, JobId jobId) throws AlgebricksException {
         ITransactionSubsystemProvider txnSubsystemProvider = TransactionSubsystemProvider.INSTANCE;
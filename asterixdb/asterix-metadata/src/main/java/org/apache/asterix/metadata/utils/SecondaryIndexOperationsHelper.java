@@ -27,6 +27,7 @@ import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.DatasetConfig.ExternalFilePendingOp;
 import org.apache.asterix.common.exceptions.CompilationException;
 import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.transactions.JobId;
 import org.apache.asterix.external.indexing.ExternalFile;
 import org.apache.asterix.external.indexing.IndexingConstants;
 import org.apache.asterix.external.operators.ExternalIndexBulkLoadOperatorDescriptor;
@@ -61,6 +62,7 @@ import org.apache.hyracks.algebricks.runtime.evaluators.ColumnAccessEvalFactory;
 import org.apache.hyracks.algebricks.runtime.operators.meta.AlgebricksMetaOperatorDescriptor;
 import org.apache.hyracks.algebricks.runtime.operators.std.AssignRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.std.StreamSelectRuntimeFactory;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
@@ -114,6 +116,7 @@ public abstract class SecondaryIndexOperationsHelper {
     protected int[] secondaryBTreeFields;
     protected List<ExternalFile> externalFiles;
     protected int numPrimaryKeys;
+    protected int sortNumFrames;
 
     // Prevent public construction. Should be created via createIndexCreator().
     protected SecondaryIndexOperationsHelper(Dataset dataset, Index index, PhysicalOptimizationConfig physOptConf,
@@ -121,6 +124,7 @@ public abstract class SecondaryIndexOperationsHelper {
         this.dataset = dataset;
         this.index = index;
         this.physOptConf = physOptConf;
+        this.sortNumFrames = physOptConf.getMaxFramesExternalSort();
         this.metadataProvider = metadataProvider;
         this.itemType = (ARecordType) metadataProvider.findType(dataset.getItemTypeDataverseName(),
                 dataset.getItemTypeName());
@@ -168,6 +172,28 @@ public abstract class SecondaryIndexOperationsHelper {
 
     public abstract JobSpecification buildLoadingJobSpec() throws AlgebricksException;
 
+    /**
+     * Connects the operators that load this index from the records produced at the given output of {@code inputOp},
+     * and returns the sink that ends them. The records are the ones of {@link #createLoadingScanOp}. The caller owns
+     * the scan, so several indexes of an internal dataset can be loaded from a single scan of its primary index.
+     */
+    public abstract IOperatorDescriptor buildLoadingPipeline(JobSpecification spec, IOperatorDescriptor inputOp,
+            int inputPort) throws AlgebricksException;
+
+    /**
+     * Creates the scan of the primary index that {@link #buildLoadingPipeline} loads this index from.
+     */
+    public IOperatorDescriptor createLoadingScanOp(JobSpecification spec, JobId jobId) throws AlgebricksException {
+        return DatasetUtil.createPrimaryIndexScanOp(spec, metadataProvider, dataset, jobId);
+    }
+
+    /**
+     * @return the descriptor of the records of {@link #createLoadingScanOp}
+     */
+    public RecordDescriptor getLoadingScanRecordDescriptor() throws AlgebricksException {
+        return dataset.getPrimaryRecordDescriptor(metadataProvider);
+    }
+
     public abstract JobSpecification buildCompactJobSpec() throws AlgebricksException;
 
     public abstract JobSpecification buildDropJobSpec() throws AlgebricksException;
@@ -330,8 +356,8 @@ public abstract class SecondaryIndexOperationsHelper {
         for (int i = 0; i < secondaryComparatorFactories.length; i++) {
             sortFields[i] = i;
         }
-        ExternalSortOperatorDescriptor sortOp = new ExternalSortOperatorDescriptor(spec,
-                physOptConf.getMaxFramesExternalSort(), sortFields, secondaryComparatorFactories, secondaryRecDesc);
+        ExternalSortOperatorDescriptor sortOp = new ExternalSortOperatorDescriptor(spec, sortNumFrames, sortFields,
+                secondaryComparatorFactories, secondaryRecDesc);
         AlgebricksPartitionConstraintHelper.setPartitionConstraintInJobSpec(spec, sortOp, primaryPartitionConstraint);
         return sortOp;
     }
@@ -476,4 +502,12 @@ public abstract class SecondaryIndexOperationsHelper {
     public void setExternalFiles(List<ExternalFile> externalFiles) {
         this.externalFiles = externalFiles;
     }
+
+    /**
+     * Sets the number of frames of the sort that orders the entries to load, which defaults to the sort memory of
+     * the physical optimization config, for jobs in which several sorts share that memory.
+     */
+    public void setSortNumFrames(int sortNumFrames) {
+        this.sortNumFrames = sortNumFrames;
+    }
 }
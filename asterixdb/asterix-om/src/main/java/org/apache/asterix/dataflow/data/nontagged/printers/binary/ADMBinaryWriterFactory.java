@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.dataflow.data.nontagged.printers.binary;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.apache.asterix.formats.nontagged.ADMBinaryPrinterFactoryProvider;
+import org.apache.asterix.om.utils.ADMBinaryFormatUtil;
+import org.apache.hyracks.algebricks.data.IAWriter;
+import org.apache.hyracks.algebricks.data.IAWriterFactory;
+import org.apache.hyracks.algebricks.data.IPrinter;
+import org.apache.hyracks.algebricks.data.IPrinterFactory;
+import org.apache.hyracks.algebricks.data.IPrinterFactoryProvider;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Writes query results in the binary ADM format, so that they can be loaded into a dataset of the same type without
+ * being parsed. Selected with
+ * <code>write output to nc:"path" using "org.apache.asterix.dataflow.data.nontagged.printers.binary
+ * .ADMBinaryWriterFactory"</code>, which makes the query write its results to that file of that node instead of
+ * returning them. The file starts with the id of the type of the results when that type is known.
+ */
+public class ADMBinaryWriterFactory implements IAWriterFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean requiresFileSink() {
+        // binary results can't be returned to clients
+        return true;
+    }
+
+    @Override
+    public IPrinterFactoryProvider getPrinterFactoryProvider() {
+        // the binary format is the same for every session, and this writer needs the types of the results
+        return ADMBinaryPrinterFactoryProvider.INSTANCE;
+    }
+
+    @Override
+    public IAWriter createWriter(final int[] fields, final PrintStream ps, IPrinterFactory[] printerFactories,
+            RecordDescriptor inputRecordDescriptor) {
+        final IPrinter[] printers = new IPrinter[printerFactories.length];
+        for (int i = 0; i < printerFactories.length; i++) {
+            printers[i] = printerFactories[i].createPrinter();
+        }
+        final ARecordPrinterFactory recordPrinterFactory =
+                fields.length == 1 && printerFactories[0] instanceof ARecordPrinterFactory
+                        ? (ARecordPrinterFactory) printerFactories[0] : null;
+
+        return new IAWriter() {
+
+            @Override
+            public void init() throws HyracksDataException {
+                if (recordPrinterFactory != null && recordPrinterFactory.getRecordType() != null) {
+                    try {
+                        ADMBinaryFormatUtil.writeHeader(ps,
+                                ADMBinaryFormatUtil.getTypeId(recordPrinterFactory.getRecordType()));
+                    } catch (IOException e) {
+                        throw HyracksDataException.create(e);
+                    }
+                }
+                for (int i = 0; i < printers.length; i++) {
+                    printers[i].init();
+                }
+            }
+
+            @Override
+            public void printTuple(IFrameTupleAccessor tAccess, int tIdx) throws HyracksDataException {
+                for (int i = 0; i < fields.length; i++) {
+                    int fldStart = tAccess.getTupleStartOffset(tIdx) + tAccess.getFieldSlotsLength()
+                            + tAccess.getFieldStartOffset(tIdx, fields[i]);
+                    int fldLen = tAccess.getFieldLength(tIdx, fields[i]);
+                    printers[i].print(tAccess.getBuffer().array(), fldStart, fldLen, ps);
+                }
+            }
+        };
+    }
+}
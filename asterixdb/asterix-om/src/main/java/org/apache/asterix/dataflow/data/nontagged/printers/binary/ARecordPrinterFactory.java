@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.dataflow.data.nontagged.printers.binary;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.apache.asterix.common.exceptions.ErrorCode;
+import org.apache.asterix.common.exceptions.RuntimeDataException;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.utils.ADMBinaryFormatUtil;
+import org.apache.hyracks.algebricks.data.IPrinter;
+import org.apache.hyracks.algebricks.data.IPrinterFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Prints records as entries of the binary ADM format. Missing and null values are skipped, since they can't be
+ * stored as records.
+ */
+public class ARecordPrinterFactory implements IPrinterFactory {
+
+    private static final long serialVersionUID = 1L;
+    private final ARecordType recType;
+
+    public ARecordPrinterFactory(ARecordType recType) {
+        this.recType = recType;
+    }
+
+    /**
+     * @return the type the printed records were serialized with, or null if it isn't known
+     */
+    public ARecordType getRecordType() {
+        return recType;
+    }
+
+    @Override
+    public IPrinter createPrinter() {
+        return new IPrinter() {
+            @Override
+            public void init() {
+                // nothing to initialize
+            }
+
+            @Override
+            public void print(byte[] b, int start, int l, PrintStream ps) throws HyracksDataException {
+                if (b[start] == ATypeTag.SERIALIZED_MISSING_TYPE_TAG || b[start] == ATypeTag.SERIALIZED_NULL_TYPE_TAG) {
+                    return;
+                }
+                if (b[start] != ATypeTag.SERIALIZED_RECORD_TYPE_TAG) {
+                    throw new RuntimeDataException(ErrorCode.PARSER_ADM_DATA_PARSER_TYPE_MISMATCH, ATypeTag.OBJECT);
+                }
+                try {
+                    ADMBinaryFormatUtil.writeInt(ps, l);
+                } catch (IOException e) {
+                    throw HyracksDataException.create(e);
+                }
+                ps.write(b, start, l);
+            }
+        };
+    }
+}
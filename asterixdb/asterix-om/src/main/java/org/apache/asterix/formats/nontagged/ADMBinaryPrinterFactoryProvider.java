@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.formats.nontagged;
+
+import org.apache.asterix.dataflow.data.nontagged.printers.binary.ARecordPrinterFactory;
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.IAType;
+import org.apache.hyracks.algebricks.data.IPrinterFactory;
+import org.apache.hyracks.algebricks.data.IPrinterFactoryProvider;
+
+/**
+ * Provides the printers of the binary ADM format, which only prints records.
+ */
+public class ADMBinaryPrinterFactoryProvider implements IPrinterFactoryProvider {
+
+    public static final ADMBinaryPrinterFactoryProvider INSTANCE = new ADMBinaryPrinterFactoryProvider();
+
+    private ADMBinaryPrinterFactoryProvider() {
+    }
+
+    @Override
+    public IPrinterFactory getPrinterFactory(Object type) {
+        IAType aqlType = (IAType) type;
+        if (aqlType != null && aqlType.getTypeTag() == ATypeTag.UNION) {
+            aqlType = ((AUnionType) aqlType).getActualType();
+        }
+        return new ARecordPrinterFactory(
+                aqlType != null && aqlType.getTypeTag() == ATypeTag.OBJECT ? (ARecordType) aqlType : null);
+    }
+}
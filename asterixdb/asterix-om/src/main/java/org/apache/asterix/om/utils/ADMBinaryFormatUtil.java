@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.om.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.asterix.om.types.ARecordType;
+import org.apache.asterix.om.types.AUnionType;
+import org.apache.asterix.om.types.AbstractCollectionType;
+import org.apache.asterix.om.types.IAType;
+
+/**
+ * The binary ADM format is a sequence of entries that each start with a 4-byte big-endian int.
+ * An entry is either a record, the length of the tagged serialized record followed by its bytes, or a header, the
+ * {@link #MAGIC} followed by the 8-byte id of the type the records after it were serialized with. Since the closed
+ * part of a serialized record can only be read with its type, a reader may trust records whose type id matches the
+ * type it reads them with, and has to validate the others.
+ */
+public class ADMBinaryFormatUtil {
+
+    /**
+     * "ADMB", which is larger than the size of any record
+     */
+    public static final int MAGIC = 0x41444D42;
+    public static final int HEADER_SIZE = 12;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ADMBinaryFormatUtil() {
+    }
+
+    /**
+     * @return an id of the layout of the values of a type: types that only differ by their names get the same id
+     */
+    public static long getTypeId(IAType type) {
+        StringBuilder description = new StringBuilder();
+        describe(type, description);
+        long id = FNV_OFFSET_BASIS;
+        for (byte b : description.toString().getBytes(StandardCharsets.UTF_8)) {
+            id ^= b & 0xff;
+            id *= FNV_PRIME;
+        }
+        return id;
+    }
+
+    private static void describe(IAType type, StringBuilder description) {
+        switch (type.getTypeTag()) {
+            case OBJECT:
+                ARecordType recordType = (ARecordType) type;
+                description.append(recordType.isOpen() ? "open{" : "closed{");
+                String[] fieldNames = recordType.getFieldNames();
+                IAType[] fieldTypes = recordType.getFieldTypes();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    description.append(fieldNames[i].length()).append(':').append(fieldNames[i]).append(':');
+                    describe(fieldTypes[i], description);
+                    description.append(',');
+                }
+                description.append('}');
+                break;
+            case UNION:
+                description.append("union(");
+                for (IAType member : ((AUnionType) type).getUnionList()) {
+                    describe(member, description);
+                    description.append(',');
+                }
+                description.append(')');
+                break;
+            case ARRAY:
+            case MULTISET:
+                description.append(type.getTypeTag()).append('(');
+                describe(((AbstractCollectionType) type).getItemType(), description);
+                description.append(')');
+                break;
+            default:
+                description.append(type.getTypeTag());
+                break;
+        }
+    }
+
+    public static void writeHeader(OutputStream out, long typeId) throws IOException {
+        writeInt(out, MAGIC);
+        writeInt(out, (int) (typeId >>> 32));
+        writeInt(out, (int) typeId);
+    }
+
+    public static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
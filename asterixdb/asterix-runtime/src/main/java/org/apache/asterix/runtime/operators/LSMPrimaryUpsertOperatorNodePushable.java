@@ -21,6 +21,8 @@ package org.apache.asterix.runtime.operators;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.asterix.common.api.INcApplicationContext;
 import org.apache.asterix.common.dataflow.LSMIndexUtil;
@@ -60,6 +62,7 @@ import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameOperationCallbackFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.IFrameTupleProcessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.dataflow.LSMIndexInsertUpdateDeleteOperatorNodePushable;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
@@ -68,6 +71,7 @@ import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.MultiComparator;
 
 public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDeleteOperatorNodePushable {
+    private static final Logger LOGGER = Logger.getLogger(LSMPrimaryUpsertOperatorNodePushable.class.getName());
 
     private final PermutingFrameTupleReference key;
     private MultiComparator keySearchCmp;
@@ -96,6 +100,10 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
     private final ISearchOperationCallbackFactory searchCallbackFactory;
     private final IFrameTupleProcessor processor;
     private LSMTreeIndexAccessor lsmAccessor;
+    // searches for the previous values of the upserted keys, the keys found and the keys ruled out by key filters
+    private long numSearches;
+    private long numFound;
+    private long numExcludedByFilters;
 
     public LSMPrimaryUpsertOperatorNodePushable(IHyracksTaskContext ctx, int partition,
             IIndexDataflowHelperFactory indexHelperFactory, int[] fieldPermutation, RecordDescriptor inputRecDesc,
@@ -137,7 +145,9 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                     resetSearchPredicate(index);
                     if (isFiltered || hasSecondaries) {
                         lsmAccessor.search(cursor, searchPred);
+                        numSearches++;
                         if (cursor.hasNext()) {
+                            numFound++;
                             cursor.next();
                             prevTuple = cursor.getTuple();
                             cursor.reset(); // end the search
@@ -146,6 +156,10 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
                             appendPreviousMeta();
                             appendFilterToOutput();
                         } else {
+                            if (cursor instanceof ILSMBatchPointSearchCursor
+                                    && ((ILSMBatchPointSearchCursor) cursor).isKeyExcludedByFilters()) {
+                                numExcludedByFilters++;
+                            }
                             appendPreviousTupleAsMissing();
                         }
                     } else {
@@ -353,8 +367,31 @@ public class LSMPrimaryUpsertOperatorNodePushable extends LSMIndexInsertUpdateDe
         return new RangePredicate(key, key, true, true, keySearchCmp, keySearchCmp, null, null);
     }
 
+    public long getNumSearches() {
+        return numSearches;
+    }
+
+    /**
+     * @return the number of upserted keys that had a previous value
+     */
+    public long getNumFound() {
+        return numFound;
+    }
+
+    /**
+     * @return the number of upserted keys found new by the key filters of the index, without searching any tree
+     */
+    public long getNumExcludedByFilters() {
+        return numExcludedByFilters;
+    }
+
     @Override
     public void close() throws HyracksDataException {
+        if (numSearches > 0 && LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Upsert into " + indexHelper.getResource().getPath() + " searched " + numSearches
+                    + " keys: " + numFound + " found, " + numExcludedByFilters + " ruled out by key filters, "
+                    + (numSearches - numFound - numExcludedByFilters) + " not found by tree searches");
+        }
         try {
             try {
                 cursor.close();
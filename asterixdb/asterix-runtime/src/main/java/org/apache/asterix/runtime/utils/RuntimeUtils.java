@@ -28,6 +28,7 @@ import java.util.Set;
 
 import org.apache.asterix.common.config.CompilerProperties;
 import org.apache.asterix.common.dataflow.ICcApplicationContext;
+import org.apache.hyracks.api.client.NodeControllerInfo;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.JobSpecification;
 import org.apache.hyracks.control.cc.ClusterControllerService;
@@ -66,6 +67,27 @@ public class RuntimeUtils {
         return nodeManager.getIpAddressNodeNameMap();
     }
 
+    public static Map<String, NodeControllerInfo> getForcedNodeControllerInfoMap(ICcApplicationContext appCtx) {
+        ClusterControllerService ccs = (ClusterControllerService) appCtx.getServiceContext().getControllerService();
+        return ccs.getNodeManager().getNodeControllerInfoMap();
+    }
+
+    /**
+     * @return the given nodes, each repeated as many times as it has available cores
+     */
+    public static String[] getLocationsPerCore(ICcApplicationContext appCtx, Collection<String> nodes) {
+        Map<String, NodeControllerInfo> ncInfos = getForcedNodeControllerInfoMap(appCtx);
+        List<String> locations = new ArrayList<>();
+        for (String node : nodes) {
+            NodeControllerInfo ncInfo = ncInfos.get(node);
+            int cores = ncInfo == null ? 1 : Math.max(1, ncInfo.getNumAvailableCores());
+            for (int i = 0; i < cores; i++) {
+                locations.add(node);
+            }
+        }
+        return locations.toArray(new String[locations.size()]);
+    }
+
     public static JobSpecification createJobSpecification(ICcApplicationContext appCtx) {
         CompilerProperties compilerProperties = appCtx.getCompilerProperties();
         int frameSize = compilerProperties.getFrameSize();
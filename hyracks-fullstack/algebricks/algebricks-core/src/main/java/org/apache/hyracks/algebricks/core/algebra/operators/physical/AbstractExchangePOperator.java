@@ -27,14 +27,33 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSch
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
 import org.apache.hyracks.api.job.IConnectorDescriptorRegistry;
+import org.apache.hyracks.dataflow.common.comm.compression.IFrameCodecFactory;
+import org.apache.hyracks.dataflow.std.base.AbstractMToNConnectorDescriptor;
 
 public abstract class AbstractExchangePOperator extends AbstractPhysicalOperator {
+    private IFrameCodecFactory frameCodecFactory;
+
+    /**
+     * Sets the codec used to compress the frames of the generated connector, or null to send raw frames.
+     * Only M:N connectors compress frames.
+     */
+    public void setFrameCodecFactory(IFrameCodecFactory frameCodecFactory) {
+        this.frameCodecFactory = frameCodecFactory;
+    }
+
+    public IFrameCodecFactory getFrameCodecFactory() {
+        return frameCodecFactory;
+    }
+
     @Override
     public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
             IOperatorSchema opSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
             throws AlgebricksException {
         Pair<IConnectorDescriptor, TargetConstraint> connPair = createConnectorDescriptor(builder.getJobSpec(), op,
                 opSchema, context);
+        if (frameCodecFactory != null && connPair.first instanceof AbstractMToNConnectorDescriptor) {
+            ((AbstractMToNConnectorDescriptor) connPair.first).setFrameCodecFactory(frameCodecFactory);
+        }
         builder.contributeConnectorWithTargetConstraint(op, connPair.first, connPair.second);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
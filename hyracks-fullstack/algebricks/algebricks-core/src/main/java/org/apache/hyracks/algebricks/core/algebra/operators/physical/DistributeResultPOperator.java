@@ -37,6 +37,7 @@ import org.apache.hyracks.algebricks.core.algebra.metadata.IMetadataProvider;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.DistributeResultOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningProperty;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningProperty.PartitioningType;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningRequirementsCoordinator;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
 import org.apache.hyracks.algebricks.core.algebra.properties.PhysicalRequirements;
@@ -104,13 +105,26 @@ public class DistributeResultPOperator extends AbstractPhysicalOperator {
                 context, columns);
 
         Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> runtimeAndConstraints = mp.getResultHandleRuntime(
-                resultOp.getDataSink(), columns, pf, inputDesc, true, spec);
+                resultOp.getDataSink(), columns, pf, inputDesc, isOrderedAcrossPartitions(op), spec);
 
         builder.contributeHyracksOperator(resultOp, runtimeAndConstraints.first);
         ILogicalOperator src = resultOp.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, resultOp, 0);
     }
 
+    /**
+     * @return true if readers of the result need to consume its partitions in partition order, i.e., if the
+     *         result is range-partitioned on an order or its partitioning is unknown
+     */
+    private static boolean isOrderedAcrossPartitions(ILogicalOperator op) {
+        IPhysicalPropertiesVector deliveredProperties = op.getDeliveredPhysicalProperties();
+        if (deliveredProperties == null || deliveredProperties.getPartitioningProperty() == null) {
+            return true;
+        }
+        return deliveredProperties.getPartitioningProperty().getPartitioningType()
+                == PartitioningType.ORDERED_PARTITIONED;
+    }
+
     @Override
     public boolean expensiveThanMaterialization() {
         return false;
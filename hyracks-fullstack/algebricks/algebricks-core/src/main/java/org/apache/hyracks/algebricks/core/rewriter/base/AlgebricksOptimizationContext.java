@@ -65,7 +65,8 @@ public class AlgebricksOptimizationContext implements IOptimizationContext {
 
         @Override
         public int getVariableEvalSize(LogicalVariable var) {
-            return varSizeMap.get(var);
+            Integer size = varSizeMap.get(var);
+            return size == null ? -1 : size;
         }
     };
 
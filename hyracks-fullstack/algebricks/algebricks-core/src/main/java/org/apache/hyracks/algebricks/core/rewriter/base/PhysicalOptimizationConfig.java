@@ -30,6 +30,7 @@ public class PhysicalOptimizationConfig {
     private static final String MAX_FRAMES_FOR_JOIN = "MAX_FRAMES_FOR_JOIN";
     private static final String FUDGE_FACTOR = "FUDGE_FACTOR";
     private static final String MAX_RECORDS_PER_FRAME = "MAX_RECORDS_PER_FRAME";
+    private static final String FRAME_COMPRESSION_MIN_TUPLE_WIDTH = "FRAME_COMPRESSION_MIN_TUPLE_WIDTH";
 
     private static final String DEFAULT_HASH_GROUP_TABLE_SIZE = "DEFAULT_HASH_GROUP_TABLE_SIZE";
     private static final String DEFAULT_EXTERNAL_GROUP_TABLE_SIZE = "DEFAULT_EXTERNAL_GROUP_TABLE_SIZE";
@@ -133,6 +134,18 @@ public class PhysicalOptimizationConfig {
         setInt(DEFAULT_IN_MEM_HASH_JOIN_TABLE_SIZE, tableSize);
     }
 
+    /**
+     * @return the estimated tuple width, in bytes, from which data exchanges compress their frames.
+     *         0 disables frame compression.
+     */
+    public int getFrameCompressionMinTupleWidth() {
+        return getInt(FRAME_COMPRESSION_MIN_TUPLE_WIDTH, 0);
+    }
+
+    public void setFrameCompressionMinTupleWidth(int minTupleWidth) {
+        setInt(FRAME_COMPRESSION_MIN_TUPLE_WIDTH, minTupleWidth);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
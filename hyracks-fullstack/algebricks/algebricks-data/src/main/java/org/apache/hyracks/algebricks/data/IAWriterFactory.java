@@ -26,4 +26,20 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 public interface IAWriterFactory extends Serializable {
     public IAWriter createWriter(int[] fields, PrintStream ps, IPrinterFactory[] printerFactories,
             RecordDescriptor inputRecordDescriptor);
+
+    /**
+     * @return true if the output of this writer can't be returned to clients, so that the results of a query
+     *         using it must be written to the query's output file
+     */
+    default boolean requiresFileSink() {
+        return false;
+    }
+
+    /**
+     * @return the provider of the printers this writer needs, or null if it works with the printers of any
+     *         output format
+     */
+    default IPrinterFactoryProvider getPrinterFactoryProvider() {
+        return null;
+    }
 }
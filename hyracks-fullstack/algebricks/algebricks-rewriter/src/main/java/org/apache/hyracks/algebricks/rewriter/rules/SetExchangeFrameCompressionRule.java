@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableEvalSizeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.visitors.VariableUtilities;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractExchangePOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+import org.apache.hyracks.dataflow.common.comm.compression.LZFrameCodecFactory;
+
+/**
+ * Enables frame compression on the data exchanges that repartition or broadcast wide tuples. The width of a tuple
+ * is estimated from the evaluation sizes of the exchanged variables, counting
+ * {@link #VARIABLE_LENGTH_FIELD_WIDTH} bytes for each variable whose size is unknown, i.e. for variable-length
+ * values such as strings and records, which are the values that compress well.
+ * The rule is disabled when {@code PhysicalOptimizationConfig#getFrameCompressionMinTupleWidth()} is 0.
+ */
+public class SetExchangeFrameCompressionRule implements IAlgebraicRewriteRule {
+    static final int VARIABLE_LENGTH_FIELD_WIDTH = 64;
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.EXCHANGE || op.getPhysicalOperator() == null) {
+            return false;
+        }
+        int minTupleWidth = context.getPhysicalOptimizationConfig().getFrameCompressionMinTupleWidth();
+        if (minTupleWidth <= 0 || !isCompressible(op.getPhysicalOperator().getOperatorTag())) {
+            return false;
+        }
+        if (estimateTupleWidth(op, context) >= minTupleWidth) {
+            ((AbstractExchangePOperator) op.getPhysicalOperator()).setFrameCodecFactory(LZFrameCodecFactory.INSTANCE);
+        }
+        return false;
+    }
+
+    private static boolean isCompressible(PhysicalOperatorTag tag) {
+        switch (tag) {
+            case HASH_PARTITION_EXCHANGE:
+            case HASH_PARTITION_MERGE_EXCHANGE:
+            case BROADCAST_EXCHANGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long estimateTupleWidth(ILogicalOperator op, IOptimizationContext context)
+            throws AlgebricksException {
+        List<LogicalVariable> liveVars = new ArrayList<>();
+        VariableUtilities.getLiveVariables(op, liveVars);
+        IVariableEvalSizeEnvironment sizeEnv = context.getVariableEvalSizeEnvironment();
+        long width = 0;
+        for (LogicalVariable var : liveVars) {
+            int size = sizeEnv.getVariableEvalSize(var);
+            width += size < 0 ? VARIABLE_LENGTH_FIELD_WIDTH : size;
+        }
+        return width;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.base;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A scalar evaluator that can evaluate the tuples of a frame ahead of the calls for them. An operator that is about
+ * to evaluate it for every tuple of a frame, in tuple order, announces the frame first. Calls for the tuples of the
+ * announced frame may then be served from results computed for many tuples at once. Calls for other tuples, e.g.
+ * from an evaluator that only evaluates its arguments conditionally, are evaluated on their own.
+ */
+public interface IFrameAwareScalarEvaluator extends IScalarEvaluator {
+
+    /**
+     * Announces that the evaluator is going to be called for every tuple of the frame behind the accessor, in order,
+     * until the next frame is announced.
+     */
+    public void startFrame(IFrameTupleAccessor accessor) throws HyracksDataException;
+}
@@ -19,8 +19,11 @@
 package org.apache.hyracks.algebricks.runtime.operators.std;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import org.apache.hyracks.algebricks.runtime.base.IFrameAwareScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
@@ -94,6 +97,8 @@ public class AssignRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactor
         return new AbstractOneInputOneOutputOneFramePushRuntime() {
             private IPointable result = VoidPointable.FACTORY.createPointable();
             private IScalarEvaluator[] eval = new IScalarEvaluator[evalFactories.length];
+            // the evaluators that are called for every tuple and want to know the frames beforehand
+            private List<IFrameAwareScalarEvaluator> frameAwareEvals = new ArrayList<>();
             private ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(projectionList.length);
             private boolean first = true;
             private boolean isOpen = false;
@@ -108,6 +113,12 @@ public class AssignRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactor
                     for (int i = 0; i < n; i++) {
                         eval[i] = evalFactories[i].createScalarEvaluator(ctx);
                     }
+                    for (int k : projectionToOutColumns) {
+                        if (k >= 0 && eval[k] instanceof IFrameAwareScalarEvaluator
+                                && !frameAwareEvals.contains(eval[k])) {
+                            frameAwareEvals.add((IFrameAwareScalarEvaluator) eval[k]);
+                        }
+                    }
                 }
                 isOpen = true;
                 writer.open();
@@ -131,6 +142,9 @@ public class AssignRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactor
                     }
                     appender.flush(writer);
                 } else {
+                    for (IFrameAwareScalarEvaluator frameAwareEval : frameAwareEvals) {
+                        frameAwareEval.startFrame(tAccess);
+                    }
                     if (nTuple > 1) {
                         for (; tupleIndex < nTuple - 1; tupleIndex++) {
                             tRef.reset(tAccess, tupleIndex);
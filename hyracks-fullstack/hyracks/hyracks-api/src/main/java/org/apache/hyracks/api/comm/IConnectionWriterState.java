@@ -23,7 +23,10 @@ import java.nio.ByteBuffer;
 public interface IConnectionWriterState {
 
     /**
-     * Resets the connection write state based on the passed parameters.
+     * Queues the current command, followed by the next {@code pendingWriteSize} bytes of {@code pendingBuffer}, for
+     * writing on the connection. The command may be sent together with commands of other channels in a single
+     * write; {@code ccb} is notified through {@link IChannelControlBlock#writeComplete()} once the payload has been
+     * written.
      *
      * @param pendingBuffer
      * @param pendingWriteSize
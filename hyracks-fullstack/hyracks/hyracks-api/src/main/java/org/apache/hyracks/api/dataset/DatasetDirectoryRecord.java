@@ -40,6 +40,8 @@ public class DatasetDirectoryRecord implements Serializable {
 
     private boolean empty;
 
+    private boolean ordered;
+
     public DatasetDirectoryRecord() {
         this.address = null;
         this.readEOS = false;
@@ -62,6 +64,19 @@ public class DatasetDirectoryRecord implements Serializable {
         return empty;
     }
 
+    /**
+     * @param ordered
+     *            whether the result set of this partition is ordered across partitions, i.e., whether readers need
+     *            to consume the partitions in partition order
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
     public void readEOS() {
         this.readEOS = true;
     }
@@ -38,7 +38,32 @@ public class HyracksDataset implements IHyracksDataset {
 
     private final IHyracksCommonContext datasetClientCtx;
 
+    private final int nPrefetchFrames;
+
+    private final boolean readInArrivalOrder;
+
     public HyracksDataset(IHyracksClientConnection hcc, int frameSize, int nReaders) throws Exception {
+        this(hcc, frameSize, nReaders, HyracksDatasetReader.DEFAULT_PREFETCH_FRAMES);
+    }
+
+    /**
+     * @param nPrefetchFrames
+     *            the number of frames that readers buffer ahead for every result partition
+     */
+    public HyracksDataset(IHyracksClientConnection hcc, int frameSize, int nReaders, int nPrefetchFrames)
+            throws Exception {
+        this(hcc, frameSize, nReaders, nPrefetchFrames, false);
+    }
+
+    /**
+     * @param nPrefetchFrames
+     *            the number of frames that readers buffer ahead for every result partition
+     * @param readInArrivalOrder
+     *            whether readers return the frames of unordered result sets as they arrive instead of in partition
+     *            order, which makes the order of such results nondeterministic
+     */
+    public HyracksDataset(IHyracksClientConnection hcc, int frameSize, int nReaders, int nPrefetchFrames,
+            boolean readInArrivalOrder) throws Exception {
         NetworkAddress ddsAddress = hcc.getDatasetDirectoryServiceInfo();
         datasetDirectoryServiceConnection =
                 new HyracksDatasetDirectoryServiceConnection(ddsAddress.getAddress(), ddsAddress.getPort());
@@ -47,6 +72,8 @@ public class HyracksDataset implements IHyracksDataset {
         netManager.start();
 
         datasetClientCtx = new DatasetClientContext(frameSize);
+        this.nPrefetchFrames = nPrefetchFrames;
+        this.readInArrivalOrder = readInArrivalOrder;
     }
 
     @Override
@@ -54,7 +81,7 @@ public class HyracksDataset implements IHyracksDataset {
         IHyracksDatasetReader reader = null;
         try {
             reader = new HyracksDatasetReader(datasetDirectoryServiceConnection, netManager, datasetClientCtx, jobId,
-                    resultSetId);
+                    resultSetId, nPrefetchFrames, readInArrivalOrder);
         } catch (Exception e) {
             throw new HyracksDataException(e);
         }
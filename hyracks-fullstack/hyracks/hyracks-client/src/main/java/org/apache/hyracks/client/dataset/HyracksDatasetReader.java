@@ -41,21 +41,32 @@ import org.apache.hyracks.api.dataset.IHyracksDatasetReader;
 import org.apache.hyracks.api.dataset.ResultSetId;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
-import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.client.net.ClientNetworkManager;
 import org.apache.hyracks.comm.channels.DatasetNetworkInputChannel;
 
 // TODO(madhusudancs): Should this implementation be moved to org.apache.hyracks.client?
+/**
+ * Reads a result set from all of its partitions at once. Every partition is read through its own channel that
+ * buffers up to a fixed number of frames ahead of the reader. Frames are returned in partition order, so that the
+ * order of a result does not depend on the timing of its partitions. Readers that are created to read in arrival
+ * order return the frames of unordered result sets from whichever partition has data available instead.
+ */
 public class HyracksDatasetReader implements IHyracksDatasetReader {
     private static final Logger LOGGER = Logger.getLogger(HyracksDatasetReader.class.getName());
 
+    public static final int DEFAULT_PREFETCH_FRAMES = 2;
+
     private final IHyracksDatasetDirectoryServiceConnection datasetDirectoryServiceConnection;
 
     private final ClientNetworkManager netManager;
 
     private final IHyracksCommonContext datasetClientCtx;
 
+    private final int nPrefetchFrames;
+
+    private final boolean readInArrivalOrder;
+
     private JobId jobId;
 
     private ResultSetId resultSetId;
@@ -64,28 +75,48 @@ public class HyracksDatasetReader implements IHyracksDatasetReader {
 
     private IDatasetInputChannelMonitor[] monitors;
 
-    private int lastReadPartition;
+    private IInputChannel[] resultChannels;
 
-    private IDatasetInputChannelMonitor lastMonitor;
+    private boolean[] readComplete;
 
-    private DatasetNetworkInputChannel resultChannel;
+    private boolean ordered;
 
-    private static int NUM_READ_BUFFERS = 1;
+    private int lastReadPartition;
 
     public HyracksDatasetReader(IHyracksDatasetDirectoryServiceConnection datasetDirectoryServiceConnection,
             ClientNetworkManager netManager, IHyracksCommonContext datasetClientCtx, JobId jobId,
             ResultSetId resultSetId)
             throws Exception {
+        this(datasetDirectoryServiceConnection, netManager, datasetClientCtx, jobId, resultSetId,
+                DEFAULT_PREFETCH_FRAMES);
+    }
+
+    public HyracksDatasetReader(IHyracksDatasetDirectoryServiceConnection datasetDirectoryServiceConnection,
+            ClientNetworkManager netManager, IHyracksCommonContext datasetClientCtx, JobId jobId,
+            ResultSetId resultSetId, int nPrefetchFrames) throws Exception {
+        this(datasetDirectoryServiceConnection, netManager, datasetClientCtx, jobId, resultSetId, nPrefetchFrames,
+                false);
+    }
+
+    /**
+     * @param readInArrivalOrder
+     *            whether to return the frames of unordered result sets as they arrive instead of in partition order
+     */
+    public HyracksDatasetReader(IHyracksDatasetDirectoryServiceConnection datasetDirectoryServiceConnection,
+            ClientNetworkManager netManager, IHyracksCommonContext datasetClientCtx, JobId jobId,
+            ResultSetId resultSetId, int nPrefetchFrames, boolean readInArrivalOrder) throws Exception {
         this.datasetDirectoryServiceConnection = datasetDirectoryServiceConnection;
         this.netManager = netManager;
         this.datasetClientCtx = datasetClientCtx;
         this.jobId = jobId;
         this.resultSetId = resultSetId;
+        this.nPrefetchFrames = nPrefetchFrames;
+        this.readInArrivalOrder = readInArrivalOrder;
         knownRecords = null;
         monitors = null;
+        resultChannels = null;
+        readComplete = null;
         lastReadPartition = -1;
-        lastMonitor = null;
-        resultChannel = null;
     }
 
     @Override
@@ -102,88 +133,172 @@ public class HyracksDatasetReader implements IHyracksDatasetReader {
         return null;
     }
 
-    private DatasetDirectoryRecord getRecord(int partition) throws Exception {
-        while (knownRecords == null || knownRecords[partition] == null) {
-            knownRecords = datasetDirectoryServiceConnection
-                    .getDatasetResultLocations(jobId, resultSetId, knownRecords);
-        }
-        return knownRecords[partition];
-    }
-
-    private boolean nextPartition() throws HyracksDataException {
-        ++lastReadPartition;
+    /**
+     * Waits until the directory service knows locations that this reader does not know yet and opens the channels
+     * of all non-empty partitions with a known location.
+     */
+    private void updateRecords() throws HyracksDataException {
         try {
-            DatasetDirectoryRecord record = getRecord(lastReadPartition);
-            while (record.getEmpty() && (++lastReadPartition) < knownRecords.length) {
-                record = getRecord(lastReadPartition);
+            knownRecords =
+                    datasetDirectoryServiceConnection.getDatasetResultLocations(jobId, resultSetId, knownRecords);
+            if (monitors == null) {
+                monitors = new DatasetInputChannelMonitor[knownRecords.length];
+                resultChannels = new IInputChannel[knownRecords.length];
+                readComplete = new boolean[knownRecords.length];
+                for (DatasetDirectoryRecord record : knownRecords) {
+                    if (record != null) {
+                        ordered = record.isOrdered() || !readInArrivalOrder;
+                        break;
+                    }
+                }
             }
-            if (lastReadPartition == knownRecords.length) {
-                return false;
+            for (int partition = 0; partition < knownRecords.length; ++partition) {
+                DatasetDirectoryRecord record = knownRecords[partition];
+                if (record == null || readComplete[partition] || monitors[partition] != null) {
+                    continue;
+                }
+                if (record.getEmpty()) {
+                    readComplete[partition] = true;
+                } else {
+                    openPartition(partition, record);
+                }
             }
-            resultChannel = new DatasetNetworkInputChannel(netManager, getSocketAddress(record), jobId, resultSetId,
-                    lastReadPartition, NUM_READ_BUFFERS);
-            lastMonitor = getMonitor(lastReadPartition);
-            resultChannel.registerMonitor(lastMonitor);
-            resultChannel.open(datasetClientCtx);
-            return true;
+        } catch (HyracksDataException e) {
+            throw e;
         } catch (Exception e) {
             throw HyracksDataException.create(e);
         }
     }
 
-    @Override
-    public int read(IFrame frame) throws HyracksDataException {
-        frame.reset();
-        ByteBuffer readBuffer;
-        int readSize = 0;
+    private void openPartition(int partition, DatasetDirectoryRecord record) throws Exception {
+        IInputChannel resultChannel = createChannel(partition, record);
+        monitors[partition] = new DatasetInputChannelMonitor();
+        resultChannel.registerMonitor(monitors[partition]);
+        resultChannels[partition] = resultChannel;
+        resultChannel.open(datasetClientCtx);
+    }
 
-        if (lastReadPartition == -1) {
-            if (!nextPartition()) {
-                return readSize;
-            }
+    IInputChannel createChannel(int partition, DatasetDirectoryRecord record) throws UnknownHostException {
+        return new DatasetNetworkInputChannel(netManager, getSocketAddress(record), jobId, resultSetId, partition,
+                nPrefetchFrames);
+    }
+
+    /**
+     * @return the partition to read the next frame from, or -1 if all partitions have been read completely
+     */
+    private int nextPartition() throws HyracksDataException {
+        if (knownRecords == null) {
+            updateRecords();
         }
+        return ordered ? nextOrderedPartition() : nextReadyPartition();
+    }
 
-        while (readSize < frame.getFrameSize()
-                && !((lastReadPartition == knownRecords.length - 1) && isPartitionReadComplete(lastMonitor))) {
-            waitForNextFrame(lastMonitor);
-            if (isPartitionReadComplete(lastMonitor)) {
-                knownRecords[lastReadPartition].readEOS();
-                resultChannel.close();
-                if ((lastReadPartition == knownRecords.length - 1) || !nextPartition()) {
-                    break;
-                }
+    private int nextOrderedPartition() throws HyracksDataException {
+        int partition = Math.max(lastReadPartition, 0);
+        while (partition < knownRecords.length) {
+            if (readComplete[partition]) {
+                ++partition;
+            } else if (monitors[partition] == null) {
+                updateRecords();
             } else {
-                readBuffer = resultChannel.getNextBuffer();
-                lastMonitor.notifyFrameRead();
-                if (readBuffer != null) {
-                    if (readSize <=0) {
-                        int nBlocks = FrameHelper.deserializeNumOfMinFrame(readBuffer);
-                        frame.ensureFrameSize(frame.getMinSize() * nBlocks);
-                        frame.getBuffer().clear();
-                        frame.getBuffer().put(readBuffer);
-                        resultChannel.recycleBuffer(readBuffer);
-                        readSize = frame.getBuffer().position();
+                return partition;
+            }
+        }
+        return -1;
+    }
+
+    private int nextReadyPartition() throws HyracksDataException {
+        while (true) {
+            boolean pendingChannels = false;
+            boolean unknownLocations = false;
+            synchronized (this) {
+                // start after the last partition read so that no partition is starved
+                for (int i = 1; i <= knownRecords.length; ++i) {
+                    int partition = (lastReadPartition + i) % knownRecords.length;
+                    if (readComplete[partition]) {
+                        continue;
+                    }
+                    IDatasetInputChannelMonitor monitor = monitors[partition];
+                    if (monitor == null) {
+                        unknownLocations = true;
+                    } else if (monitor.getNFramesAvailable() > 0 || monitor.eosReached() || monitor.failed()) {
+                        return partition;
                     } else {
-                        frame.getBuffer().put(readBuffer);
-                        resultChannel.recycleBuffer(readBuffer);
-                        readSize = frame.getBuffer().position();
+                        pendingChannels = true;
+                    }
+                }
+                if (pendingChannels) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw HyracksDataException.create(e);
                     }
+                    continue;
                 }
             }
+            if (!unknownLocations) {
+                return -1;
+            }
+            // all open partitions have been read, the remaining ones need their locations
+            updateRecords();
         }
+    }
 
+    @Override
+    public int read(IFrame frame) throws HyracksDataException {
+        frame.reset();
+        int readSize = 0;
+        int partition;
+        while (readSize <= 0 && (partition = nextPartition()) >= 0) {
+            lastReadPartition = partition;
+            readSize = readFrame(partition, frame);
+        }
         frame.getBuffer().flip();
         return readSize;
     }
 
-    private static void waitForNextFrame(IDatasetInputChannelMonitor monitor) throws HyracksDataException {
-        synchronized (monitor) {
-            while (monitor.getNFramesAvailable() <= 0 && !monitor.eosReached() && !monitor.failed()) {
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    throw new HyracksDataException(e);
+    /**
+     * Reads the next (possibly multi-buffer) frame of the given partition.
+     *
+     * @return the size of the frame, or 0 if the partition has been read completely
+     */
+    private int readFrame(int partition, IFrame frame) throws HyracksDataException {
+        IDatasetInputChannelMonitor monitor = monitors[partition];
+        IInputChannel resultChannel = resultChannels[partition];
+        ByteBuffer readBuffer;
+        int readSize = 0;
+        while (readSize < frame.getFrameSize()) {
+            waitForNextFrame(monitor);
+            if (isPartitionReadComplete(monitor)) {
+                knownRecords[partition].readEOS();
+                readComplete[partition] = true;
+                resultChannel.close();
+                resultChannels[partition] = null;
+                break;
+            }
+            readBuffer = resultChannel.getNextBuffer();
+            monitor.notifyFrameRead();
+            if (readBuffer != null) {
+                if (readSize <= 0) {
+                    int nBlocks = FrameHelper.deserializeNumOfMinFrame(readBuffer);
+                    frame.ensureFrameSize(frame.getMinSize() * nBlocks);
+                    frame.getBuffer().clear();
                 }
+                frame.getBuffer().put(readBuffer);
+                resultChannel.recycleBuffer(readBuffer);
+                readSize = frame.getBuffer().position();
+            }
+        }
+        return readSize;
+    }
+
+    private synchronized void waitForNextFrame(IDatasetInputChannelMonitor monitor) throws HyracksDataException {
+        while (monitor.getNFramesAvailable() <= 0 && !monitor.eosReached() && !monitor.failed()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new HyracksDataException(e);
             }
         }
         if (monitor.failed()) {
@@ -200,19 +315,14 @@ public class HyracksDatasetReader implements IHyracksDatasetReader {
         return new InetSocketAddress(InetAddress.getByAddress(netAddr.lookupIpAddress()), netAddr.getPort());
     }
 
-    private IDatasetInputChannelMonitor getMonitor(int partition) throws HyracksException {
-        if (knownRecords == null || knownRecords[partition] == null) {
-            throw new HyracksException("Accessing monitors before the obtaining the corresponding addresses.");
-        }
-        if (monitors == null) {
-            monitors = new DatasetInputChannelMonitor[knownRecords.length];
-        }
-        if (monitors[partition] == null) {
-            monitors[partition] = new DatasetInputChannelMonitor();
-        }
-        return monitors[partition];
+    private synchronized void notifyReader() {
+        notifyAll();
     }
 
+    /**
+     * Tracks the frames of one partition. All monitors of a reader wake up the reader, so that it can wait for any
+     * of its partitions.
+     */
     private class DatasetInputChannelMonitor implements IDatasetInputChannelMonitor {
         private final AtomicInteger nAvailableFrames;
 
@@ -227,40 +337,40 @@ public class HyracksDatasetReader implements IHyracksDatasetReader {
         }
 
         @Override
-        public synchronized void notifyFailure(IInputChannel channel) {
+        public void notifyFailure(IInputChannel channel) {
             failed.set(true);
-            notifyAll();
+            notifyReader();
         }
 
         @Override
-        public synchronized void notifyDataAvailability(IInputChannel channel, int nFrames) {
+        public void notifyDataAvailability(IInputChannel channel, int nFrames) {
             nAvailableFrames.addAndGet(nFrames);
-            notifyAll();
+            notifyReader();
         }
 
         @Override
-        public synchronized void notifyEndOfStream(IInputChannel channel) {
+        public void notifyEndOfStream(IInputChannel channel) {
             eos.set(true);
-            notifyAll();
+            notifyReader();
         }
 
         @Override
-        public synchronized boolean eosReached() {
+        public boolean eosReached() {
             return eos.get();
         }
 
         @Override
-        public synchronized boolean failed() {
+        public boolean failed() {
             return failed.get();
         }
 
         @Override
-        public synchronized int getNFramesAvailable() {
+        public int getNFramesAvailable() {
             return nAvailableFrames.get();
         }
 
         @Override
-        public synchronized void notifyFrameRead() {
+        public void notifyFrameRead() {
             nAvailableFrames.decrementAndGet();
         }
 
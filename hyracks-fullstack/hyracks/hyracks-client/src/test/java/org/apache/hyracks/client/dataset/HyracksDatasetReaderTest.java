@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.client.dataset;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.dataset.DatasetDirectoryRecord;
+import org.apache.hyracks.api.dataset.DatasetJobRecord.Status;
+import org.apache.hyracks.api.dataset.IHyracksDatasetDirectoryServiceConnection;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HyracksDatasetReaderTest {
+
+    private static final int FRAME_SIZE = 128;
+    private static final int PARTITION_OFFSET = 8;
+    private static final int SEQUENCE_OFFSET = 12;
+
+    private final HyracksDataset.DatasetClientContext ctx = new HyracksDataset.DatasetClientContext(FRAME_SIZE);
+
+    @Test
+    public void orderedResultsAreReadInPartitionOrder() throws Exception {
+        TestChannel[] channels = channels(3);
+        DatasetDirectoryRecord[] records = records(3, true);
+        // the location of the last partition only becomes known after the first partitions have been opened
+        HyracksDatasetReader reader =
+                createReader(channels, true, new DatasetDirectoryRecord[] { records[0], records[1], null }, records);
+        channels[2].push(2, 0).end();
+        channels[1].push(1, 0).push(1, 1).end();
+        channels[0].push(0, 0).end();
+        IFrame frame = new VSizeFrame(ctx);
+        assertFrame(reader, frame, 0, 0);
+        Assert.assertTrue(channels[1].opened);
+        assertFrame(reader, frame, 1, 0);
+        assertFrame(reader, frame, 1, 1);
+        assertFrame(reader, frame, 2, 0);
+        Assert.assertEquals(0, reader.read(frame));
+        assertClosed(channels);
+    }
+
+    @Test
+    public void unorderedResultsAreReadInPartitionOrderByDefault() throws Exception {
+        TestChannel[] channels = channels(2);
+        HyracksDatasetReader reader = createReader(channels, false, records(2, false));
+        channels[1].push(1, 0).end();
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channels[0].push(0, 0).end();
+        });
+        producer.start();
+        IFrame frame = new VSizeFrame(ctx);
+        assertFrame(reader, frame, 0, 0);
+        assertFrame(reader, frame, 1, 0);
+        Assert.assertEquals(0, reader.read(frame));
+        producer.join();
+        assertClosed(channels);
+    }
+
+    @Test
+    public void unorderedResultsAreReadInArrivalOrder() throws Exception {
+        TestChannel[] channels = channels(2);
+        HyracksDatasetReader reader = createReader(channels, true, records(2, false));
+        channels[1].push(1, 0).end();
+        IFrame frame = new VSizeFrame(ctx);
+        // partition 0 has not produced anything yet, so partition 1 is read first
+        assertFrame(reader, frame, 1, 0);
+        channels[0].push(0, 0).push(0, 1).end();
+        assertFrame(reader, frame, 0, 0);
+        assertFrame(reader, frame, 0, 1);
+        Assert.assertEquals(0, reader.read(frame));
+        assertClosed(channels);
+    }
+
+    @Test
+    public void interleavedFramesOfSeveralPartitionsAreReadInArrivalOrder() throws Exception {
+        TestChannel[] channels = channels(3);
+        HyracksDatasetReader reader = createReader(channels, true, records(3, false));
+        IFrame frame = new VSizeFrame(ctx);
+        // every frame is read as soon as it arrives, whichever partition it comes from
+        channels[2].push(2, 0);
+        assertFrame(reader, frame, 2, 0);
+        channels[0].push(0, 0);
+        assertFrame(reader, frame, 0, 0);
+        channels[1].push(1, 0);
+        assertFrame(reader, frame, 1, 0);
+        channels[2].push(2, 1).end();
+        assertFrame(reader, frame, 2, 1);
+        channels[0].push(0, 1).end();
+        assertFrame(reader, frame, 0, 1);
+        channels[1].push(1, 1).end();
+        assertFrame(reader, frame, 1, 1);
+        Assert.assertEquals(0, reader.read(frame));
+        assertClosed(channels);
+    }
+
+    @Test
+    public void framesOfConcurrentPartitionsAreAllReadInArrivalOrder() throws Exception {
+        int nPartitions = 4;
+        int nFrames = 50;
+        TestChannel[] channels = channels(nPartitions);
+        HyracksDatasetReader reader = createReader(channels, true, records(nPartitions, false));
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < nPartitions; ++p) {
+            int partition = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < nFrames; ++i) {
+                    channels[partition].push(partition, i);
+                    Thread.yield();
+                }
+                channels[partition].end();
+            }));
+        }
+        producers.forEach(Thread::start);
+        int[] nextSequence = new int[nPartitions];
+        IFrame frame = new VSizeFrame(ctx);
+        while (reader.read(frame) > 0) {
+            // the frames of a partition keep their order, whatever the frames of the other partitions
+            int partition = frame.getBuffer().getInt(PARTITION_OFFSET);
+            Assert.assertEquals(nextSequence[partition]++, frame.getBuffer().getInt(SEQUENCE_OFFSET));
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (int p = 0; p < nPartitions; ++p) {
+            Assert.assertEquals(nFrames, nextSequence[p]);
+        }
+        assertClosed(channels);
+    }
+
+    @Test
+    public void emptyAndEarlyClosedPartitionsAreSkipped() throws Exception {
+        TestChannel[] channels = channels(3);
+        DatasetDirectoryRecord[] records = records(3, true);
+        records[1].setEmpty(true);
+        HyracksDatasetReader reader = createReader(channels, true, records);
+        // partition 0 closes its stream before it produced any frame
+        channels[0].end();
+        channels[2].push(2, 0).push(2, 1).end();
+        IFrame frame = new VSizeFrame(ctx);
+        assertFrame(reader, frame, 2, 0);
+        assertFrame(reader, frame, 2, 1);
+        Assert.assertEquals(0, reader.read(frame));
+        Assert.assertFalse(channels[1].opened);
+        Assert.assertTrue(channels[0].closed);
+        Assert.assertTrue(channels[2].closed);
+    }
+
+    @Test
+    public void failureOfALaterPartitionFailsTheOrderedRead() throws Exception {
+        TestChannel[] channels = channels(2);
+        HyracksDatasetReader reader = createReader(channels, true, records(2, true));
+        channels[0].push(0, 0);
+        channels[1].fail();
+        IFrame frame = new VSizeFrame(ctx);
+        assertFrame(reader, frame, 0, 0);
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channels[0].end();
+        });
+        producer.start();
+        try {
+            reader.read(frame);
+            Assert.fail("the failure of partition 1 was not reported");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+        producer.join();
+    }
+
+    @Test
+    public void failureIsReportedWhileWaitingForOtherPartitions() throws Exception {
+        TestChannel[] channels = channels(2);
+        HyracksDatasetReader reader = createReader(channels, true, records(2, false));
+        // partition 0 never produces anything, the reader must not wait for it once partition 1 failed
+        channels[1].fail();
+        try {
+            reader.read(new VSizeFrame(ctx));
+            Assert.fail("the failure of partition 1 was not reported");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    private HyracksDatasetReader createReader(TestChannel[] channels, boolean readInArrivalOrder,
+            DatasetDirectoryRecord[]... locations) throws Exception {
+        IHyracksDatasetDirectoryServiceConnection directory = new IHyracksDatasetDirectoryServiceConnection() {
+            private int nCalls = 0;
+
+            @Override
+            public Status getDatasetResultStatus(JobId jobId, ResultSetId rsId) {
+                return null;
+            }
+
+            @Override
+            public DatasetDirectoryRecord[] getDatasetResultLocations(JobId jobId, ResultSetId rsId,
+                    DatasetDirectoryRecord[] knownRecords) {
+                return locations[Math.min(nCalls++, locations.length - 1)].clone();
+            }
+        };
+        return new HyracksDatasetReader(directory, null, ctx, new JobId(0), new ResultSetId(0), 1,
+                readInArrivalOrder) {
+            @Override
+            IInputChannel createChannel(int partition, DatasetDirectoryRecord record) {
+                return channels[partition];
+            }
+        };
+    }
+
+    private static TestChannel[] channels(int nPartitions) {
+        TestChannel[] channels = new TestChannel[nPartitions];
+        for (int i = 0; i < nPartitions; ++i) {
+            channels[i] = new TestChannel();
+        }
+        return channels;
+    }
+
+    private static DatasetDirectoryRecord[] records(int nPartitions, boolean ordered) {
+        DatasetDirectoryRecord[] records = new DatasetDirectoryRecord[nPartitions];
+        for (int i = 0; i < nPartitions; ++i) {
+            records[i] = new DatasetDirectoryRecord();
+            records[i].setOrdered(ordered);
+        }
+        return records;
+    }
+
+    private static void assertFrame(HyracksDatasetReader reader, IFrame frame, int partition, int sequence)
+            throws HyracksDataException {
+        Assert.assertEquals(FRAME_SIZE, reader.read(frame));
+        Assert.assertEquals(partition, frame.getBuffer().getInt(PARTITION_OFFSET));
+        Assert.assertEquals(sequence, frame.getBuffer().getInt(SEQUENCE_OFFSET));
+    }
+
+    private static void assertClosed(TestChannel[] channels) {
+        for (TestChannel channel : channels) {
+            Assert.assertTrue(channel.closed);
+        }
+    }
+
+    /**
+     * A channel whose frames, end of stream, and failure are produced by the test. Whatever is produced before the
+     * reader opens the channel is delivered when it is opened.
+     */
+    private static class TestChannel implements IInputChannel {
+        private final List<ByteBuffer> frames = new ArrayList<>();
+        private final List<Runnable> pending = new ArrayList<>();
+        private IInputChannelMonitor monitor;
+        private boolean opened;
+        private boolean closed;
+
+        TestChannel push(int partition, int sequence) {
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+            FrameHelper.serializeFrameSize(frame, 1);
+            frame.putInt(PARTITION_OFFSET, partition);
+            frame.putInt(SEQUENCE_OFFSET, sequence);
+            return produce(() -> {
+                synchronized (frames) {
+                    frames.add(frame);
+                }
+                monitor.notifyDataAvailability(this, 1);
+            });
+        }
+
+        TestChannel end() {
+            return produce(() -> monitor.notifyEndOfStream(this));
+        }
+
+        TestChannel fail() {
+            return produce(() -> monitor.notifyFailure(this));
+        }
+
+        private synchronized TestChannel produce(Runnable event) {
+            if (opened) {
+                event.run();
+            } else {
+                pending.add(event);
+            }
+            return this;
+        }
+
+        @Override
+        public void registerMonitor(IInputChannelMonitor monitor) {
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void setAttachment(Object attachment) {
+            // not needed
+        }
+
+        @Override
+        public Object getAttachment() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getNextBuffer() {
+            synchronized (frames) {
+                return frames.isEmpty() ? null : frames.remove(0);
+            }
+        }
+
+        @Override
+        public void recycleBuffer(ByteBuffer buffer) {
+            // frames are not reused
+        }
+
+        @Override
+        public synchronized void open(IHyracksCommonContext ctx) {
+            opened = true;
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
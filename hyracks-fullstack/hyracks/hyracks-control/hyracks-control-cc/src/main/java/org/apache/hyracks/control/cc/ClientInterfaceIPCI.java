@@ -44,6 +44,7 @@ import org.apache.hyracks.control.cc.work.GetThreadDumpWork;
 import org.apache.hyracks.control.cc.work.JobStartWork;
 import org.apache.hyracks.control.cc.work.WaitForJobCompletionWork;
 import org.apache.hyracks.control.common.work.IPCResponder;
+import org.apache.hyracks.control.common.work.PreparedWorkScheduler;
 import org.apache.hyracks.ipc.api.IIPCHandle;
 import org.apache.hyracks.ipc.api.IIPCI;
 import org.apache.hyracks.ipc.exceptions.IPCException;
@@ -53,10 +54,13 @@ class ClientInterfaceIPCI implements IIPCI {
     private static final Logger LOGGER = Logger.getLogger(ClientInterfaceIPCI.class.getName());
     private final ClusterControllerService ccs;
     private final JobIdFactory jobIdFactory;
+    private final PreparedWorkScheduler jobStartScheduler;
 
     ClientInterfaceIPCI(ClusterControllerService ccs, JobIdFactory jobIdFactory) {
         this.ccs = ccs;
         this.jobIdFactory = jobIdFactory;
+        jobStartScheduler = new PreparedWorkScheduler(r -> ccs.getExecutor().execute(r),
+                work -> ccs.getWorkQueue().schedule(work));
     }
 
     @Override
@@ -115,23 +119,26 @@ class ClientInterfaceIPCI implements IIPCI {
                     //The job has been predistributed. We don't need to send an ActivityClusterGraph
                     predistributed = true;
                 }
-                ccs.getWorkQueue().schedule(new JobStartWork(ccs, sjf.getDeploymentId(), acggfBytes, sjf.getJobFlags(),
-                        jobId, new IPCResponder<JobId>(handle, mid), predistributed));
+                final JobStartWork startWork = new JobStartWork(ccs, sjf.getDeploymentId(), acggfBytes,
+                        sjf.getJobFlags(), jobId, new IPCResponder<JobId>(handle, mid), predistributed);
+                // build the plan off the work queue so that job submissions do not serialize on it, the jobs still
+                // reach the job manager in submission order
+                jobStartScheduler.submit(startWork, startWork::prepare);
                 break;
             case GET_DATASET_DIRECTORY_SERIVICE_INFO:
-                ccs.getWorkQueue().schedule(new GetDatasetDirectoryServiceInfoWork(ccs,
+                ccs.getDatasetWorkQueue().schedule(new GetDatasetDirectoryServiceInfoWork(ccs,
                         new IPCResponder<NetworkAddress>(handle, mid)));
                 break;
             case GET_DATASET_RESULT_STATUS:
                 HyracksClientInterfaceFunctions.GetDatasetResultStatusFunction gdrsf =
                         (HyracksClientInterfaceFunctions.GetDatasetResultStatusFunction) fn;
-                ccs.getWorkQueue().schedule(new GetResultStatusWork(ccs, gdrsf.getJobId(),
+                ccs.getDatasetWorkQueue().schedule(new GetResultStatusWork(ccs, gdrsf.getJobId(),
                         gdrsf.getResultSetId(), new IPCResponder<Status>(handle, mid)));
                 break;
             case GET_DATASET_RESULT_LOCATIONS:
                 HyracksClientInterfaceFunctions.GetDatasetResultLocationsFunction gdrlf =
                         (HyracksClientInterfaceFunctions.GetDatasetResultLocationsFunction) fn;
-                ccs.getWorkQueue().schedule(new GetResultPartitionLocationsWork(ccs,
+                ccs.getDatasetWorkQueue().schedule(new GetResultPartitionLocationsWork(ccs,
                         gdrlf.getJobId(), gdrlf.getResultSetId(), gdrlf.getKnownRecords(),
                         new IPCResponder<>(handle, mid)));
                 break;
@@ -174,8 +181,9 @@ class ClientInterfaceIPCI implements IIPCI {
                 HyracksClientInterfaceFunctions.GetNodeDetailsJSONFunction gndjf =
                         (HyracksClientInterfaceFunctions.GetNodeDetailsJSONFunction) fn;
                 ccs.getWorkQueue()
-                        .schedule(new GetNodeDetailsJSONWork(ccs.getNodeManager(), ccs.getCCConfig(), gndjf.getNodeId(),
-                        gndjf.isIncludeStats(), gndjf.isIncludeConfig(), new IPCResponder<>(handle, mid)));
+                        .schedule(new GetNodeDetailsJSONWork(ccs.getNodeManager(), ccs.getCCConfig(),
+                                ccs.getWorkQueues(), gndjf.getNodeId(), gndjf.isIncludeStats(),
+                                gndjf.isIncludeConfig(), new IPCResponder<>(handle, mid)));
                 break;
             case THREAD_DUMP:
                 HyracksClientInterfaceFunctions.ThreadDumpFunction tdf =
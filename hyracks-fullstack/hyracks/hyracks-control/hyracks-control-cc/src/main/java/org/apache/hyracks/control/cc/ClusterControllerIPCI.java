@@ -31,6 +31,7 @@ import org.apache.hyracks.control.cc.work.NotifyDeployBinaryWork;
 import org.apache.hyracks.control.cc.work.NotifyShutdownWork;
 import org.apache.hyracks.control.cc.work.NotifyStateDumpResponse;
 import org.apache.hyracks.control.cc.work.NotifyThreadDumpResponse;
+import org.apache.hyracks.control.cc.work.PlanCacheMissWork;
 import org.apache.hyracks.control.cc.work.RegisterNodeWork;
 import org.apache.hyracks.control.cc.work.RegisterPartitionAvailibilityWork;
 import org.apache.hyracks.control.cc.work.RegisterPartitionRequestWork;
@@ -47,15 +48,19 @@ import org.apache.hyracks.control.common.ipc.CCNCFunctions.ShutdownResponseFunct
 import org.apache.hyracks.control.common.ipc.CCNCFunctions.StateDumpResponseFunction;
 import org.apache.hyracks.control.common.work.IPCResponder;
 import org.apache.hyracks.control.common.work.IResultCallback;
+import org.apache.hyracks.control.common.work.PreparedWorkScheduler;
 import org.apache.hyracks.ipc.api.IIPCHandle;
 import org.apache.hyracks.ipc.api.IIPCI;
 
 class ClusterControllerIPCI implements IIPCI {
     private static final Logger LOGGER = Logger.getLogger(ClusterControllerIPCI.class.getName());
     private final ClusterControllerService ccs;
+    private final PreparedWorkScheduler messageScheduler;
 
     ClusterControllerIPCI(ClusterControllerService ccs) {
         this.ccs = ccs;
+        messageScheduler = new PreparedWorkScheduler(r -> ccs.getExecutor().execute(r),
+                work -> ccs.getWorkQueue().schedule(work));
     }
 
     @Override
@@ -105,6 +110,11 @@ class ClusterControllerIPCI implements IIPCI {
                         (CCNCFunctions.ReportDistributedJobFailureFunction) fn;
                 ccs.getWorkQueue().schedule(new DistributedJobFailureWork(rdjf.getJobId(), rdjf.getNodeId()));
                 break;
+            case REPORT_PLAN_CACHE_MISS:
+                CCNCFunctions.ReportPlanCacheMissFunction rpcmf = (CCNCFunctions.ReportPlanCacheMissFunction) fn;
+                ccs.getWorkQueue().schedule(new PlanCacheMissWork(ccs, rpcmf.getJobId(), rpcmf.getNodeId(),
+                        rpcmf.getPlanHash(), rpcmf.getTaskDescriptors()));
+                break;
             case REGISTER_PARTITION_PROVIDER:
                 CCNCFunctions.RegisterPartitionProviderFunction rppf =
                         (CCNCFunctions.RegisterPartitionProviderFunction) fn;
@@ -139,8 +149,10 @@ class ClusterControllerIPCI implements IIPCI {
             case SEND_APPLICATION_MESSAGE:
                 CCNCFunctions.SendApplicationMessageFunction rsf =
                         (CCNCFunctions.SendApplicationMessageFunction) fn;
-                ccs.getWorkQueue().schedule(new ApplicationMessageWork(ccs, rsf.getMessage(),
-                        rsf.getDeploymentId(), rsf.getNodeId()));
+                ApplicationMessageWork messageWork = new ApplicationMessageWork(ccs, rsf.getMessage(),
+                        rsf.getDeploymentId(), rsf.getNodeId());
+                // decode the message off the work queue, the messages are still handled in the order they arrived
+                messageScheduler.submit(messageWork, messageWork::prepare);
                 break;
             case GET_NODE_CONTROLLERS_INFO:
                 ccs.getWorkQueue().schedule(new GetNodeControllersInfoWork(ccs.getNodeManager(),
@@ -25,6 +25,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -110,6 +111,8 @@ public class ClusterControllerService implements IControllerService {
 
     private final WorkQueue workQueue;
 
+    private final WorkQueue datasetWorkQueue;
+
     private ExecutorService executor;
 
     private final Timer timer;
@@ -155,6 +158,10 @@ public class ClusterControllerService implements IControllerService {
 
         // WorkQueue is in charge of heartbeat as well as other events.
         workQueue = new WorkQueue("ClusterController", Thread.MAX_PRIORITY);
+        // the dataset directory service is thread-safe; result lookups have their own queue so that they are not
+        // delayed by job control work and vice versa. The result partition reports of the NCs stay on the control
+        // queue to remain ordered with the job lifecycle.
+        datasetWorkQueue = new WorkQueue("ClusterController-DatasetDirectory", Thread.MAX_PRIORITY);
         this.timer = new Timer(true);
         final ClusterTopology topology = computeClusterTopology(ccConfig);
         ccContext = new ClusterControllerContext(topology);
@@ -208,6 +215,7 @@ public class ClusterControllerService implements IControllerService {
 
         datasetDirectoryService.init(executor);
         workQueue.start();
+        datasetWorkQueue.start();
         connectNCs();
         LOGGER.log(Level.INFO, "Started ClusterControllerService");
         notifyApplication();
@@ -308,6 +316,7 @@ public class ClusterControllerService implements IControllerService {
         stopApplication();
         webServer.stop();
         sweeper.cancel();
+        datasetWorkQueue.stop();
         workQueue.stop();
         executor.shutdownNow();
         clusterIPC.stop();
@@ -353,6 +362,14 @@ public class ClusterControllerService implements IControllerService {
         return workQueue;
     }
 
+    public WorkQueue getDatasetWorkQueue() {
+        return datasetWorkQueue;
+    }
+
+    public List<WorkQueue> getWorkQueues() {
+        return Arrays.asList(workQueue, datasetWorkQueue);
+    }
+
     @Override
     public ExecutorService getExecutor() {
         return executor;
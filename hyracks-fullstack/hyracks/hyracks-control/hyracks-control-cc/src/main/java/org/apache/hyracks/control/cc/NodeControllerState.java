@@ -26,6 +26,10 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.hyracks.api.comm.NetworkAddress;
+import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
+import org.apache.hyracks.api.dataflow.connectors.IConnectorPolicy;
+import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.resource.NodeCapacity;
 import org.apache.hyracks.control.common.base.INodeController;
@@ -34,6 +38,8 @@ import org.apache.hyracks.control.common.controllers.NodeRegistration;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatData;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatSchema;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatSchema.GarbageCollectorInfo;
+import org.apache.hyracks.control.common.job.JobPlanCache;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -53,6 +59,8 @@ public class NodeControllerState {
 
     private final Set<JobId> activeJobIds;
 
+    private final JobPlanCache<Boolean> planCache;
+
     private final String osName;
 
     private final String arch;
@@ -146,12 +154,21 @@ public class NodeControllerState {
     private NodeCapacity capacity;
 
     public NodeControllerState(INodeController nodeController, NodeRegistration reg) {
+        this(nodeController, reg, 0);
+    }
+
+    /**
+     * @param planCacheSize
+     *            the capacity of the plan cache of the node controller, which the state mirrors; 0 if disabled
+     */
+    public NodeControllerState(INodeController nodeController, NodeRegistration reg, long planCacheSize) {
         this.nodeController = nodeController;
         ncConfig = reg.getNCConfig();
         dataPort = reg.getDataPort();
         datasetPort = reg.getDatasetPort();
         messagingPort = reg.getMessagingPort();
         activeJobIds = new HashSet<>();
+        planCache = new JobPlanCache<>(planCacheSize);
 
         osName = reg.getOSName();
         arch = reg.getArch();
@@ -263,6 +280,38 @@ public class NodeControllerState {
         return activeJobIds;
     }
 
+    /**
+     * @return the mirror of the plan cache of the node controller
+     */
+    public JobPlanCache<Boolean> getPlanCache() {
+        return planCache;
+    }
+
+    /**
+     * Sends tasks of a job to the node. A plan that the mirror of the plan cache of the node holds is sent as its hash
+     * only, any other plan is sent in full. The mirror records a plan only once it has been sent, so a failed send
+     * leaves the mirror unchanged.
+     *
+     * @param planBytes
+     *            the serialized plan, or null if the node already has the plan of the job
+     * @param planHash
+     *            the hash of the plan, or null if the plan is not to be cached
+     * @param listenerFactoryBytes
+     *            the serialized joblet event listener factory that a plan to be cached is serialized without, or null
+     * @return whether only the hash of the plan was sent
+     */
+    public boolean startTasks(DeploymentId deploymentId, JobId jobId, byte[] planBytes, String planHash,
+            byte[] listenerFactoryBytes, List<TaskAttemptDescriptor> taskDescriptors,
+            Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, Set<JobFlag> flags) throws Exception {
+        boolean cached = planBytes != null && planHash != null && planCache.get(planHash) != null;
+        nodeController.startTasks(deploymentId, jobId, cached ? null : planBytes, planHash, listenerFactoryBytes,
+                taskDescriptors, connectorPolicies, flags);
+        if (planBytes != null && planHash != null && !cached) {
+            planCache.put(planHash, Boolean.TRUE, planBytes.length);
+        }
+        return cached;
+    }
+
     public NetworkAddress getDataPort() {
         return dataPort;
     }
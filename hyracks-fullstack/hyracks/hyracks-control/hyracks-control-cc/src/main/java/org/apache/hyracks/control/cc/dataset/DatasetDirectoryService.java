@@ -115,12 +115,17 @@ public class DatasetDirectoryService implements IDatasetDirectoryService {
     public synchronized void registerResultPartitionLocation(JobId jobId, ResultSetId rsId, boolean orderedResult,
             boolean emptyResult, int partition, int nPartitions, NetworkAddress networkAddress)
             throws HyracksDataException {
-        DatasetJobRecord djr = getNonNullDatasetJobRecord(jobId);
+        DatasetJobRecord djr = getDatasetJobRecord(jobId);
+        if (djr == null) {
+            logLateReport("registration", jobId, rsId, partition);
+            return;
+        }
         djr.setResultSetMetaData(rsId, orderedResult, nPartitions);
         DatasetDirectoryRecord record = djr.getOrCreateDirectoryRecord(rsId, partition);
 
         record.setNetworkAddress(networkAddress);
         record.setEmpty(emptyResult);
+        record.setOrdered(orderedResult);
         record.start();
 
         final JobResultInfo jobResultInfo = jobResultLocations.get(jobId);
@@ -142,7 +147,11 @@ public class DatasetDirectoryService implements IDatasetDirectoryService {
     @Override
     public synchronized void reportResultPartitionWriteCompletion(JobId jobId, ResultSetId rsId, int partition)
             throws HyracksDataException {
-        DatasetJobRecord djr = getNonNullDatasetJobRecord(jobId);
+        DatasetJobRecord djr = getDatasetJobRecord(jobId);
+        if (djr == null || djr.getResultSetMetaData(rsId) == null) {
+            logLateReport("write completion", jobId, rsId, partition);
+            return;
+        }
         djr.getDirectoryRecord(rsId, partition).writeEOS();
         djr.updateState(rsId);
         notifyAll();
@@ -150,14 +159,30 @@ public class DatasetDirectoryService implements IDatasetDirectoryService {
 
     @Override
     public synchronized void reportResultPartitionFailure(JobId jobId, ResultSetId rsId, int partition) {
-        DatasetJobRecord djr = getDatasetJobRecord(jobId);
-        if (djr != null) {
+        final JobResultInfo jobResultInfo = jobResultLocations.get(jobId);
+        if (jobResultInfo == null) {
+            logLateReport("failure", jobId, rsId, partition);
+            return;
+        }
+        DatasetJobRecord djr = jobResultInfo.getRecord();
+        if (djr.getResultSetMetaData(rsId) != null) {
             djr.fail(rsId, partition);
         }
-        jobResultLocations.get(jobId).setException(new Exception());
+        jobResultInfo.setException(new Exception());
         notifyAll();
     }
 
+    /**
+     * Reports of the NCs may arrive after the state of the job was removed, e.g. by the result sweeper. They are
+     * dropped, as there is nobody left to read the result.
+     */
+    private static void logLateReport(String report, JobId jobId, ResultSetId rsId, int partition) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Ignoring result partition " + report + " of " + jobId + ":" + rsId + ":" + partition
+                    + " as the job has no result state");
+        }
+    }
+
     @Override
     public synchronized void reportJobFailure(JobId jobId, List<Exception> exceptions) {
         DatasetJobRecord djr = getDatasetJobRecord(jobId);
@@ -298,9 +323,10 @@ class JobResultInfo {
 
     void setException(Exception exception) {
         if (waiters != null) {
-            for (ResultSetId rsId : waiters.keySet()) {
-                waiters.remove(rsId).callback.setException(exception);
+            for (Waiter waiter : waiters.values()) {
+                waiter.callback.setException(exception);
             }
+            waiters.clear();
         }
     }
 
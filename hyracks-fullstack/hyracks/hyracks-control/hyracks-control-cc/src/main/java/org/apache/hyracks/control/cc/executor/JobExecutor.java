@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.control.cc.executor;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +29,7 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,6 +49,7 @@ import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.ActivityCluster;
 import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.api.partitions.PartitionId;
@@ -63,6 +66,7 @@ import org.apache.hyracks.control.cc.job.TaskCluster;
 import org.apache.hyracks.control.cc.job.TaskClusterAttempt;
 import org.apache.hyracks.control.cc.partitions.PartitionMatchMaker;
 import org.apache.hyracks.control.cc.work.JobCleanupWork;
+import org.apache.hyracks.control.common.job.JobPlanCache;
 import org.apache.hyracks.control.common.job.PartitionState;
 import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 
@@ -70,6 +74,16 @@ import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 public class JobExecutor {
     private static final Logger LOGGER = Logger.getLogger(JobExecutor.class.getName());
 
+    public static final String QUEUE_TIME_COUNTER = "startup.queueMicros";
+
+    public static final String SCHEDULING_TIME_COUNTER = "startup.schedulingMicros";
+
+    public static final String PLAN_SERIALIZATION_TIME_COUNTER = "startup.planSerializationMicros";
+
+    public static final String PLAN_BYTES_SENT_COUNTER = "startup.planBytesSent";
+
+    public static final String PLAN_CACHE_HITS_COUNTER = "startup.planCacheHits";
+
     private final ClusterControllerService ccs;
 
     private final JobRun jobRun;
@@ -86,6 +100,8 @@ public class JobExecutor {
 
     private boolean cancelled = false;
 
+    private boolean tasksDispatched = false;
+
     public JobExecutor(ClusterControllerService ccs, JobRun jobRun, Collection<Constraint> constraints,
             boolean predistributed) {
         this.ccs = ccs;
@@ -499,8 +515,18 @@ public class JobExecutor {
         final Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies = new HashMap<>(
                 jobRun.getConnectorPolicyMap());
         INodeManager nodeManager = ccs.getNodeManager();
+        if (!tasksDispatched) {
+            tasksDispatched = true;
+            updateStartupCounter(QUEUE_TIME_COUNTER, micros(jobRun.getStartNanoTime() - jobRun.getCreateNanoTime()));
+            updateStartupCounter(SCHEDULING_TIME_COUNTER, micros(System.nanoTime() - jobRun.getStartNanoTime()));
+        }
         try {
-            byte[] acgBytes = predistributed ? null : JavaSerializationUtils.serialize(acg);
+            // the plan is serialized once, when the first node joins the job
+            byte[] acgBytes = null;
+            // a plan to be cached is serialized without its joblet event listener factory, which is sent alongside
+            byte[] cachedPlanBytes = null;
+            String planHash = null;
+            byte[] listenerFactoryBytes = null;
             for (Map.Entry<String, List<TaskAttemptDescriptor>> entry : taskAttemptMap.entrySet()) {
                 String nodeId = entry.getKey();
                 final List<TaskAttemptDescriptor> taskDescriptors = entry.getValue();
@@ -511,9 +537,39 @@ public class JobExecutor {
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("Starting: " + taskDescriptors + " at " + entry.getKey());
                     }
-                    byte[] jagBytes = changed ? acgBytes : null;
-                    node.getNodeController().startTasks(deploymentId, jobId, jagBytes, taskDescriptors,
-                            connectorPolicies, jobRun.getFlags());
+                    byte[] jagBytes = null;
+                    String nodePlanHash = null;
+                    byte[] nodeListenerFactoryBytes = null;
+                    if (changed && !predistributed) {
+                        if (node.getPlanCache().isEnabled()) {
+                            if (cachedPlanBytes == null) {
+                                long serializationStart = System.nanoTime();
+                                cachedPlanBytes = JobPlanCache.serializePlan(acg);
+                                listenerFactoryBytes = serializeListenerFactory();
+                                updateStartupCounter(PLAN_SERIALIZATION_TIME_COUNTER,
+                                        micros(System.nanoTime() - serializationStart));
+                                planHash = JobPlanCache.computeHash(deploymentId, cachedPlanBytes);
+                            }
+                            jagBytes = cachedPlanBytes;
+                            nodePlanHash = planHash;
+                            nodeListenerFactoryBytes = listenerFactoryBytes;
+                        } else {
+                            if (acgBytes == null) {
+                                long serializationStart = System.nanoTime();
+                                acgBytes = JavaSerializationUtils.serialize(acg);
+                                updateStartupCounter(PLAN_SERIALIZATION_TIME_COUNTER,
+                                        micros(System.nanoTime() - serializationStart));
+                            }
+                            jagBytes = acgBytes;
+                        }
+                    }
+                    boolean hashOnly = node.startTasks(deploymentId, jobId, jagBytes, nodePlanHash,
+                            nodeListenerFactoryBytes, taskDescriptors, connectorPolicies, jobRun.getFlags());
+                    if (hashOnly) {
+                        updateStartupCounter(PLAN_CACHE_HITS_COUNTER, 1);
+                    } else if (jagBytes != null) {
+                        updateStartupCounter(PLAN_BYTES_SENT_COUNTER, jagBytes.length);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -521,6 +577,64 @@ public class JobExecutor {
         }
     }
 
+    /**
+     * Resends tasks to a node that was sent the hash of a plan it does not hold, this time with the full plan. Tasks
+     * that are no longer running, e.g. because their task cluster was aborted in the meantime, are not resent.
+     */
+    public void resendTasks(NodeControllerState node, String planHash, List<TaskAttemptDescriptor> taskDescriptors) {
+        List<TaskAttemptDescriptor> runningTasks = new ArrayList<>();
+        for (TaskAttemptDescriptor td : taskDescriptors) {
+            TaskAttempt ta = findTaskAttempt(td.getTaskAttemptId());
+            if (ta != null && ta.getStatus() == TaskAttempt.TaskStatus.RUNNING) {
+                runningTasks.add(td);
+            }
+        }
+        if (runningTasks.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] acgBytes = JobPlanCache.serializePlan(jobRun.getActivityClusterGraph());
+            node.startTasks(jobRun.getDeploymentId(), jobRun.getJobId(), acgBytes, planHash,
+                    serializeListenerFactory(), runningTasks, new HashMap<>(jobRun.getConnectorPolicyMap()),
+                    jobRun.getFlags());
+            updateStartupCounter(PLAN_BYTES_SENT_COUNTER, acgBytes.length);
+        } catch (Exception e) {
+            abortJob(Collections.singletonList(e));
+        }
+    }
+
+    private byte[] serializeListenerFactory() throws IOException {
+        IJobletEventListenerFactory listenerFactory =
+                jobRun.getActivityClusterGraph().getJobletEventListenerFactory();
+        return listenerFactory == null ? null : JavaSerializationUtils.serialize(listenerFactory);
+    }
+
+    private TaskAttempt findTaskAttempt(TaskAttemptId taId) {
+        TaskId tid = taId.getTaskId();
+        ActivityCluster ac = jobRun.getActivityClusterGraph().getActivityMap().get(tid.getActivityId());
+        if (ac == null) {
+            return null;
+        }
+        Task[] tasks = jobRun.getActivityClusterPlanMap().get(ac.getId()).getActivityPlanMap()
+                .get(tid.getActivityId()).getTasks();
+        if (tasks == null || tasks.length <= tid.getPartition()) {
+            return null;
+        }
+        List<TaskClusterAttempt> attempts = tasks[tid.getPartition()].getTaskCluster().getAttempts();
+        if (attempts == null || attempts.size() <= taId.getAttempt()) {
+            return null;
+        }
+        return attempts.get(taId.getAttempt()).getTaskAttempts().get(tid);
+    }
+
+    private void updateStartupCounter(String name, long delta) {
+        jobRun.getJobProfile().getCounters().merge(name, delta, Long::sum);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
     private void abortJob(List<Exception> exceptions) {
         Set<TaskCluster> inProgressTaskClustersCopy = new HashSet<>(inProgressTaskClusters);
         for (TaskCluster tc : inProgressTaskClustersCopy) {
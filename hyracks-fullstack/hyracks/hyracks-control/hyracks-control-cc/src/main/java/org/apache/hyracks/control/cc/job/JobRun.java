@@ -85,6 +85,10 @@ public class JobRun implements IJobStatusConditionVariable {
 
     private long startTime;
 
+    private final long createNanoTime;
+
+    private long startNanoTime;
+
     private long endTime;
 
     private JobStatus status;
@@ -112,6 +116,7 @@ public class JobRun implements IJobStatusConditionVariable {
         connectorPolicyMap = new HashMap<>();
         operatorLocations = new HashMap<>();
         createTime = System.currentTimeMillis();
+        createNanoTime = System.nanoTime();
     }
 
     //Run a Pre-distributed job by passing the JobId
@@ -196,6 +201,21 @@ public class JobRun implements IJobStatusConditionVariable {
 
     public void setStartTime(long startTime) {
         this.startTime = startTime;
+        startNanoTime = System.nanoTime();
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} when the job was created, for measuring startup latencies
+     */
+    public long getCreateNanoTime() {
+        return createNanoTime;
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} when the job was started, for measuring startup latencies
+     */
+    public long getStartNanoTime() {
+        return startNanoTime;
     }
 
     public long getEndTime() {
@@ -37,6 +37,8 @@ public class ApplicationMessageWork extends AbstractHeartbeatWork {
     private DeploymentId deploymentId;
     private String nodeId;
     private ClusterControllerService ccs;
+    private volatile IMessage data;
+    private volatile Exception decodeFailure;
 
     public ApplicationMessageWork(ClusterControllerService ccs, byte[] message, DeploymentId deploymentId,
             String nodeId) {
@@ -47,25 +49,42 @@ public class ApplicationMessageWork extends AbstractHeartbeatWork {
         this.message = message;
     }
 
+    /**
+     * Decodes the message. Safe to call outside the work queue, so that large messages (e.g. statements forwarded by
+     * NCs) are not decoded on it.
+     *
+     * @return true, as a message that cannot be decoded is reported when the work runs
+     */
+    public boolean prepare() {
+        try {
+            data = (IMessage) DeploymentUtils.deserialize(message, deploymentId, ccs.getContext());
+        } catch (Exception e) {
+            decodeFailure = e;
+        }
+        return true;
+    }
+
     @Override
     public void runWork() {
         final ICCServiceContext ctx = ccs.getContext();
-        try {
-            final IMessage data = (IMessage) DeploymentUtils.deserialize(message, deploymentId, ctx);
-            ccs.getExecutor().execute(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        ctx.getMessageBroker().receivedMessage(data, nodeId);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Error in stats reporting", e);
-            throw new RuntimeException(e);
+        if (data == null && decodeFailure == null) {
+            prepare();
         }
+        if (decodeFailure != null) {
+            LOGGER.log(Level.WARNING, "Error decoding application message from " + nodeId, decodeFailure);
+            throw new RuntimeException(decodeFailure);
+        }
+        final IMessage decoded = data;
+        ccs.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ctx.getMessageBroker().receivedMessage(decoded, nodeId);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
     }
 
     @Override
@@ -28,6 +28,7 @@ import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
 import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -42,6 +43,8 @@ import org.apache.hyracks.control.common.controllers.NCConfig;
 import org.apache.hyracks.control.common.utils.PidHelper;
 import org.apache.hyracks.control.common.work.IPCResponder;
 import org.apache.hyracks.control.common.work.SynchronizableWork;
+import org.apache.hyracks.control.common.work.WorkLane;
+import org.apache.hyracks.control.common.work.WorkQueue;
 
 public class GetNodeDetailsJSONWork extends SynchronizableWork {
     private static final Section [] CC_SECTIONS = { Section.CC, Section.COMMON };
@@ -49,6 +52,7 @@ public class GetNodeDetailsJSONWork extends SynchronizableWork {
 
     private final INodeManager nodeManager;
     private final CCConfig ccConfig;
+    private final List<WorkQueue> workQueues;
     private final String nodeId;
     private final boolean includeStats;
     private final boolean includeConfig;
@@ -56,16 +60,22 @@ public class GetNodeDetailsJSONWork extends SynchronizableWork {
     private ObjectNode detail;
     private ObjectMapper om = new ObjectMapper();
 
-    public GetNodeDetailsJSONWork(INodeManager nodeManager, CCConfig ccConfig, String nodeId, boolean includeStats,
-            boolean includeConfig, IPCResponder<String> callback) {
+    public GetNodeDetailsJSONWork(INodeManager nodeManager, CCConfig ccConfig, List<WorkQueue> workQueues,
+            String nodeId, boolean includeStats, boolean includeConfig, IPCResponder<String> callback) {
         this.nodeManager = nodeManager;
         this.ccConfig = ccConfig;
+        this.workQueues = workQueues;
         this.nodeId = nodeId;
         this.includeStats = includeStats;
         this.includeConfig = includeConfig;
         this.callback = callback;
     }
 
+    public GetNodeDetailsJSONWork(INodeManager nodeManager, CCConfig ccConfig, String nodeId, boolean includeStats,
+            boolean includeConfig, IPCResponder<String> callback) {
+        this(nodeManager, ccConfig, Collections.emptyList(), nodeId, includeStats, includeConfig, callback);
+    }
+
     public GetNodeDetailsJSONWork(INodeManager nodeManager, CCConfig ccConfig, String nodeId, boolean includeStats,
             boolean includeConfig) {
         this(nodeManager, ccConfig, nodeId, includeStats, includeConfig, null);
@@ -149,10 +159,29 @@ public class GetNodeDetailsJSONWork extends SynchronizableWork {
             o.put("peak_thread_count", threadMXBean.getPeakThreadCount());
             o.put("started_thread_count", threadMXBean.getTotalStartedThreadCount());
             o.put("system_load_average", osMXBean.getSystemLoadAverage());
+            o.putPOJO("work_queues", getWorkQueueStats());
         }
         return o;
     }
 
+    private List<ObjectNode> getWorkQueueStats() {
+        List<ObjectNode> queues = new ArrayList<>();
+        for (WorkQueue workQueue : workQueues) {
+            ObjectNode queue = om.createObjectNode();
+            queue.put("name", workQueue.getId());
+            for (WorkLane lane : WorkLane.values()) {
+                WorkQueue.LaneStats stats = workQueue.getLaneStats(lane);
+                ObjectNode laneNode = queue.putObject(lane.name().toLowerCase());
+                laneNode.put("queued", stats.getQueued());
+                laneNode.put("executed", stats.getExecuted());
+                laneNode.put("avg_queue_latency_us", stats.getAverageQueueLatencyMicros());
+                laneNode.put("max_queue_latency_us", stats.getMaxQueueLatencyMicros());
+            }
+            queues.add(queue);
+        }
+        return queues;
+    }
+
 
     public ObjectNode getDetail() {
         return detail;
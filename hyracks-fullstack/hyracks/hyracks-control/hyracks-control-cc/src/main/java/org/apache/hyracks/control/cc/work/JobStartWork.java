@@ -33,6 +33,13 @@ import org.apache.hyracks.control.common.deployment.DeploymentUtils;
 import org.apache.hyracks.control.common.work.IResultCallback;
 import org.apache.hyracks.control.common.work.SynchronizableWork;
 
+/**
+ * Adds a submitted job to the {@link IJobManager}. For new jobs, the expensive part of the submission
+ * (deserializing the job specification and building its activity cluster graph) can be done by calling
+ * {@link #prepare()} on a thread other than the work queue's, so that concurrent short queries are not
+ * serialized behind each other's plan construction. Only the job manager bookkeeping runs on the work queue, and a
+ * {@link org.apache.hyracks.control.common.work.PreparedWorkScheduler} keeps the jobs in submission order.
+ */
 public class JobStartWork extends SynchronizableWork {
     private final ClusterControllerService ccs;
     private final byte[] acggfBytes;
@@ -41,6 +48,7 @@ public class JobStartWork extends SynchronizableWork {
     private final JobId jobId;
     private final IResultCallback<JobId> callback;
     private final boolean predestributed;
+    private volatile JobRun run;
 
     public JobStartWork(ClusterControllerService ccs, DeploymentId deploymentId, byte[] acggfBytes,
             EnumSet<JobFlag> jobFlags, JobId jobId, IResultCallback<JobId> callback, boolean predestributed) {
@@ -53,28 +61,55 @@ public class JobStartWork extends SynchronizableWork {
         this.predestributed = predestributed;
     }
 
+    /**
+     * Creates the {@link JobRun} of a new job. Safe to call outside the work queue.
+     *
+     * @return true if the work should be scheduled, false if preparation failed and the callback was notified
+     */
+    public boolean prepare() {
+        if (predestributed || run != null) {
+            return true;
+        }
+        try {
+            run = createRun();
+            return true;
+        } catch (Exception e) {
+            callback.setException(e);
+            return false;
+        }
+    }
+
+    public boolean isPredistributed() {
+        return predestributed;
+    }
+
     @Override
     protected void doRun() throws Exception {
         IJobManager jobManager = ccs.getJobManager();
         try {
-            final CCServiceContext ccServiceCtx = ccs.getContext();
-            JobRun run;
-            if (!predestributed) {
-                //Need to create the ActivityClusterGraph
-                IActivityClusterGraphGeneratorFactory acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils
-                        .deserialize(acggfBytes, deploymentId, ccServiceCtx);
-                IActivityClusterGraphGenerator acgg =
-                        acggf.createActivityClusterGraphGenerator(jobId, ccServiceCtx, jobFlags);
-                run = new JobRun(ccs, deploymentId, jobId, acggf, acgg, jobFlags);
-            } else {
-                //ActivityClusterGraph has already been distributed
-                run = new JobRun(ccs, deploymentId, jobId, jobFlags,
-                        ccs.getPreDistributedJobStore().getDistributedJobDescriptor(jobId));
+            JobRun jobRun = run;
+            if (jobRun == null) {
+                jobRun = createRun();
             }
-            jobManager.add(run);
+            jobManager.add(jobRun);
             callback.setValue(jobId);
         } catch (Exception e) {
             callback.setException(e);
         }
     }
+
+    private JobRun createRun() throws Exception {
+        if (!predestributed) {
+            //Need to create the ActivityClusterGraph
+            final CCServiceContext ccServiceCtx = ccs.getContext();
+            IActivityClusterGraphGeneratorFactory acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils
+                    .deserialize(acggfBytes, deploymentId, ccServiceCtx);
+            IActivityClusterGraphGenerator acgg =
+                    acggf.createActivityClusterGraphGenerator(jobId, ccServiceCtx, jobFlags);
+            return new JobRun(ccs, deploymentId, jobId, acggf, acgg, jobFlags);
+        }
+        //ActivityClusterGraph has already been distributed
+        return new JobRun(ccs, deploymentId, jobId, jobFlags,
+                ccs.getPreDistributedJobStore().getDistributedJobDescriptor(jobId));
+    }
 }
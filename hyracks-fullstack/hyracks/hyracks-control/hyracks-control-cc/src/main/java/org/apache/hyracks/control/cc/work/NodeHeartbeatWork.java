@@ -22,6 +22,7 @@ import java.util.logging.Level;
 
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatData;
+import org.apache.hyracks.control.common.work.WorkLane;
 
 public class NodeHeartbeatWork extends AbstractHeartbeatWork {
 
@@ -34,6 +35,11 @@ public class NodeHeartbeatWork extends AbstractHeartbeatWork {
 
     }
 
+    @Override
+    public WorkLane lane() {
+        return WorkLane.MONITORING;
+    }
+
     @Override
     public Level logLevel() {
         return Level.FINEST;
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.work;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.cc.ClusterControllerService;
+import org.apache.hyracks.control.cc.NodeControllerState;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
+import org.apache.hyracks.control.common.work.AbstractWork;
+
+/**
+ * Handles a node controller that was sent the hash of a plan it does not hold: the plan is dropped from the mirror of
+ * the plan cache of the node and the tasks are resent with the full plan.
+ */
+public class PlanCacheMissWork extends AbstractWork {
+    private static final Logger LOGGER = Logger.getLogger(PlanCacheMissWork.class.getName());
+
+    private final ClusterControllerService ccs;
+    private final JobId jobId;
+    private final String nodeId;
+    private final String planHash;
+    private final List<TaskAttemptDescriptor> taskDescriptors;
+
+    public PlanCacheMissWork(ClusterControllerService ccs, JobId jobId, String nodeId, String planHash,
+            List<TaskAttemptDescriptor> taskDescriptors) {
+        this.ccs = ccs;
+        this.jobId = jobId;
+        this.nodeId = nodeId;
+        this.planHash = planHash;
+        this.taskDescriptors = taskDescriptors;
+    }
+
+    @Override
+    public void run() {
+        NodeControllerState node = ccs.getNodeManager().getNodeControllerState(nodeId);
+        if (node == null) {
+            // the tasks of a dead node are rescheduled by the node failure handling
+            return;
+        }
+        node.getPlanCache().remove(planHash);
+        JobRun run = ccs.getJobManager().get(jobId);
+        if (run == null) {
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info("Ignoring plan cache miss of " + nodeId + " for completed job " + jobId);
+            }
+            return;
+        }
+        run.getExecutor().resendTasks(node, planHash, taskDescriptors);
+    }
+
+    @Override
+    public String toString() {
+        return getName() + ": [" + jobId + ":" + nodeId + "]";
+    }
+}
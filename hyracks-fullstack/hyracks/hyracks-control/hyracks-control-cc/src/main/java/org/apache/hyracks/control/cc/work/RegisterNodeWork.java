@@ -55,7 +55,7 @@ public class RegisterNodeWork extends SynchronizableWork {
         Map<IOption, Object> ncConfiguration = new HashMap<>();
         try {
             INodeController nc = new NodeControllerRemoteProxy(ccs.getClusterIPC(), reg.getNodeControllerAddress());
-            NodeControllerState state = new NodeControllerState(nc, reg);
+            NodeControllerState state = new NodeControllerState(nc, reg, ccs.getCCConfig().getJobPlanCacheSize());
             INodeManager nodeManager = ccs.getNodeManager();
             nodeManager.addNode(id, state);
             IApplicationConfig cfg = state.getNCConfig().getConfigManager().getNodeEffectiveConfig(id);
@@ -68,6 +68,7 @@ public class RegisterNodeWork extends SynchronizableWork {
             params.setDistributedState(ccs.getContext().getDistributedState());
             params.setHeartbeatPeriod(ccs.getCCConfig().getHeartbeatPeriod());
             params.setProfileDumpPeriod(ccs.getCCConfig().getProfileDumpPeriod());
+            params.setPlanCacheSize(ccs.getCCConfig().getJobPlanCacheSize());
             result = new CCNCFunctions.NodeRegistrationResult(params, null);
             ccs.getJobIdFactory().ensureMinimumId(reg.getMaxJobId() + 1);
         } catch (Exception e) {
@@ -26,6 +26,7 @@ import org.apache.hyracks.control.cc.job.IJobManager;
 import org.apache.hyracks.control.cc.job.JobRun;
 import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.work.AbstractWork;
+import org.apache.hyracks.control.common.work.WorkLane;
 
 public class ReportProfilesWork extends AbstractWork {
     private final IJobManager jobManager;
@@ -47,6 +48,11 @@ public class ReportProfilesWork extends AbstractWork {
         }
     }
 
+    @Override
+    public WorkLane lane() {
+        return WorkLane.MONITORING;
+    }
+
     @Override
     public Level logLevel() {
         return Level.FINEST;
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.apache.hyracks.api.job.JobFlag;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.common.base.INodeController;
+import org.apache.hyracks.control.common.controllers.NodeRegistration;
+import org.apache.hyracks.control.common.heartbeat.HeartbeatSchema;
+import org.apache.hyracks.control.common.heartbeat.HeartbeatSchema.GarbageCollectorInfo;
+import org.apache.hyracks.control.common.job.JobPlanCache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeControllerStateTest {
+
+    private static final long CACHE_SIZE = 1000;
+
+    // the plan cache of the simulated node controller
+    private JobPlanCache<byte[]> nodeCache;
+
+    // the hashes of the plans the node controller was sent as a hash only but did not hold
+    private List<String> misses;
+
+    private boolean failSend;
+
+    private NodeControllerState node;
+
+    @Before
+    public void setUp() {
+        nodeCache = new JobPlanCache<>(CACHE_SIZE);
+        misses = new ArrayList<>();
+        failSend = false;
+        INodeController nc = (INodeController) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { INodeController.class }, (proxy, method, args) -> {
+                    if ("startTasks".equals(method.getName())) {
+                        if (failSend) {
+                            throw new Exception("send failed");
+                        }
+                        byte[] planBytes = (byte[]) args[2];
+                        String planHash = (String) args[3];
+                        if (planBytes != null) {
+                            nodeCache.put(planHash, planBytes, planBytes.length);
+                        } else if (nodeCache.get(planHash) == null) {
+                            misses.add(planHash);
+                        }
+                    }
+                    return null;
+                });
+        NodeRegistration reg = new NodeRegistration(null, "nc1", null, null, null, null, null, null, 1, null, null,
+                null, null, null, null, Collections.emptyList(), Collections.emptyMap(),
+                new HeartbeatSchema(new GarbageCollectorInfo[0]), null, null, 0, 0);
+        node = new NodeControllerState(nc, reg, CACHE_SIZE);
+    }
+
+    @Test
+    public void testCachedPlanIsSentAsHash() throws Exception {
+        byte[] plan = plan(100, 1);
+        String hash = JobPlanCache.computeHash(null, plan);
+        Assert.assertFalse(send(1, plan, hash));
+        Assert.assertTrue(send(2, plan, hash));
+        Assert.assertTrue(misses.isEmpty());
+        Assert.assertEquals(nodeCache.getSize(), node.getPlanCache().getSize());
+    }
+
+    @Test
+    public void testFailedSendIsNotRecorded() throws Exception {
+        byte[] plan = plan(100, 1);
+        String hash = JobPlanCache.computeHash(null, plan);
+        failSend = true;
+        try {
+            send(1, plan, hash);
+            Assert.fail("the send should have failed");
+        } catch (Exception e) {
+            // expected
+        }
+        Assert.assertNull(node.getPlanCache().get(hash));
+        failSend = false;
+        // the plan is sent in full on the next attempt, so the node never sees a hash it does not hold
+        Assert.assertFalse(send(2, plan, hash));
+        Assert.assertTrue(send(3, plan, hash));
+        Assert.assertTrue(misses.isEmpty());
+    }
+
+    @Test
+    public void testMissResendsFullPlan() throws Exception {
+        byte[] plan = plan(100, 1);
+        String hash = JobPlanCache.computeHash(null, plan);
+        send(1, plan, hash);
+        // the node loses the plan without the mirror knowing, e.g. because it evicted it in a different order
+        nodeCache.remove(hash);
+        Assert.assertTrue(send(2, plan, hash));
+        Assert.assertEquals(Collections.singletonList(hash), misses);
+
+        // on the reported miss the mirror drops the plan and the tasks are resent with the full plan
+        node.getPlanCache().remove(hash);
+        Assert.assertFalse(send(2, plan, hash));
+        Assert.assertNotNull(nodeCache.get(hash));
+        Assert.assertTrue(send(3, plan, hash));
+        Assert.assertEquals(1, misses.size());
+        Assert.assertEquals(nodeCache.getSize(), node.getPlanCache().getSize());
+        Assert.assertEquals(nodeCache.getPlanCount(), node.getPlanCache().getPlanCount());
+    }
+
+    @Test
+    public void testPlanWithoutHashIsNotRecorded() throws Exception {
+        byte[] plan = plan(100, 1);
+        Assert.assertFalse(send(1, plan, null));
+        Assert.assertFalse(send(2, null, null));
+        Assert.assertEquals(0, node.getPlanCache().getPlanCount());
+    }
+
+    private boolean send(long jobId, byte[] plan, String hash) throws Exception {
+        return node.startTasks(null, new JobId(jobId), plan, hash, null, Collections.emptyList(),
+                Collections.emptyMap(), EnumSet.noneOf(JobFlag.class));
+    }
+
+    private static byte[] plan(int size, int seed) {
+        byte[] plan = new byte[size];
+        plan[0] = (byte) seed;
+        return plan;
+    }
+}
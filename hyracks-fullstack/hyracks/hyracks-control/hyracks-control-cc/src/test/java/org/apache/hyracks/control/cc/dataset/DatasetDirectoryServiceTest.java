@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.dataset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.NetworkAddress;
+import org.apache.hyracks.api.dataset.DatasetDirectoryRecord;
+import org.apache.hyracks.api.dataset.DatasetJobRecord.State;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.cc.PreDistributedJobStore;
+import org.apache.hyracks.control.common.work.IResultCallback;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatasetDirectoryServiceTest {
+
+    private static final NetworkAddress ADDRESS = new NetworkAddress("127.0.0.1", 1099);
+
+    private DatasetDirectoryService service;
+
+    @Before
+    public void setUp() {
+        service = new DatasetDirectoryService(60000, 60000, new PreDistributedJobStore());
+    }
+
+    @Test
+    public void testResultLifecycle() throws Exception {
+        JobId jobId = new JobId(1);
+        ResultSetId rsId = new ResultSetId(1);
+        service.notifyJobCreation(jobId, null);
+        service.notifyJobStart(jobId);
+        service.registerResultPartitionLocation(jobId, rsId, true, false, 0, 2, ADDRESS);
+        service.registerResultPartitionLocation(jobId, rsId, true, false, 1, 2, ADDRESS);
+        service.reportResultPartitionWriteCompletion(jobId, rsId, 0);
+        Assert.assertEquals(State.RUNNING, service.getResultStatus(jobId, rsId).getState());
+        service.reportResultPartitionWriteCompletion(jobId, rsId, 1);
+        Assert.assertEquals(State.SUCCESS, service.getResultStatus(jobId, rsId).getState());
+    }
+
+    @Test
+    public void testLateReportsAfterDeinit() throws Exception {
+        JobId jobId = new JobId(2);
+        ResultSetId rsId = new ResultSetId(1);
+        service.notifyJobCreation(jobId, null);
+        service.notifyJobStart(jobId);
+        service.registerResultPartitionLocation(jobId, rsId, true, false, 0, 2, ADDRESS);
+        service.deinitState(jobId);
+        // the reports of the NCs that arrive after the result state was swept are dropped
+        service.registerResultPartitionLocation(jobId, rsId, true, false, 1, 2, ADDRESS);
+        service.reportResultPartitionWriteCompletion(jobId, rsId, 0);
+        service.reportResultPartitionFailure(jobId, rsId, 1);
+        Assert.assertTrue(service.getJobIds().isEmpty());
+        Assert.assertNull(service.getState(jobId));
+    }
+
+    @Test
+    public void testReportsBeforeRegistration() throws Exception {
+        JobId jobId = new JobId(3);
+        ResultSetId rsId = new ResultSetId(1);
+        service.notifyJobCreation(jobId, null);
+        service.notifyJobStart(jobId);
+        TestCallback callback = new TestCallback();
+        service.getResultPartitionLocations(jobId, rsId, null, callback);
+        Assert.assertTrue(callback.values.isEmpty());
+        Assert.assertTrue(callback.exceptions.isEmpty());
+
+        // a completion or a failure of a partition whose result set was not registered yet does not fail the
+        // service, but the failure is passed on to the waiting readers
+        service.reportResultPartitionWriteCompletion(jobId, rsId, 0);
+        service.reportResultPartitionFailure(jobId, rsId, 0);
+        Assert.assertTrue(callback.values.isEmpty());
+        Assert.assertEquals(1, callback.exceptions.size());
+    }
+
+    @Test
+    public void testFailureNotifiesAllWaiters() throws Exception {
+        JobId jobId = new JobId(4);
+        service.notifyJobCreation(jobId, null);
+        service.notifyJobStart(jobId);
+        List<TestCallback> callbacks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestCallback callback = new TestCallback();
+            service.getResultPartitionLocations(jobId, new ResultSetId(i), null, callback);
+            callbacks.add(callback);
+        }
+        service.reportResultPartitionFailure(jobId, new ResultSetId(0), 0);
+        for (TestCallback callback : callbacks) {
+            Assert.assertEquals(1, callback.exceptions.size());
+        }
+    }
+
+    private static class TestCallback implements IResultCallback<DatasetDirectoryRecord[]> {
+        private final List<DatasetDirectoryRecord[]> values = new ArrayList<>();
+
+        private final List<Exception> exceptions = new ArrayList<>();
+
+        @Override
+        public void setValue(DatasetDirectoryRecord[] result) {
+            values.add(result);
+        }
+
+        @Override
+        public void setException(Exception e) {
+            exceptions.add(e);
+        }
+    }
+}
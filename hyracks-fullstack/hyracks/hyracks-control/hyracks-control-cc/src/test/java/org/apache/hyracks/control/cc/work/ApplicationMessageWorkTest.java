@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.work;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hyracks.api.messages.IMessage;
+import org.apache.hyracks.api.messages.IMessageBroker;
+import org.apache.hyracks.api.util.JavaSerializationUtils;
+import org.apache.hyracks.control.cc.ClusterControllerService;
+import org.apache.hyracks.control.cc.application.CCServiceContext;
+import org.apache.hyracks.control.cc.cluster.INodeManager;
+import org.apache.hyracks.control.common.work.AbstractWork;
+import org.apache.hyracks.control.common.work.PreparedWorkScheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApplicationMessageWorkTest {
+
+    private ExecutorService executor;
+
+    private List<String> received;
+
+    private ClusterControllerService ccs;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        received = Collections.synchronizedList(new ArrayList<>());
+        IMessageBroker broker = (message, nodeId) -> received.add(((TestMessage) message).text);
+        CCServiceContext ctx = mock(CCServiceContext.class);
+        when(ctx.getMessageBroker()).thenReturn(broker);
+        ccs = mock(ClusterControllerService.class);
+        when(ccs.getContext()).thenReturn(ctx);
+        when(ccs.getExecutor()).thenReturn(executor);
+        when(ccs.getNodeManager()).thenReturn(mock(INodeManager.class));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMessagesAreHandledInArrivalOrder() throws Exception {
+        List<Runnable> preparations = new ArrayList<>();
+        List<AbstractWork> scheduled = new ArrayList<>();
+        PreparedWorkScheduler scheduler = new PreparedWorkScheduler(preparations::add, scheduled::add);
+        for (String text : Arrays.asList("large", "small")) {
+            ApplicationMessageWork work = new ApplicationMessageWork(ccs,
+                    JavaSerializationUtils.serialize(new TestMessage(text)), null, "nc1");
+            scheduler.submit(work, work::prepare);
+        }
+        // the small message is decoded first but is not handled before the large one
+        preparations.get(1).run();
+        Assert.assertTrue(scheduled.isEmpty());
+        preparations.get(0).run();
+        Assert.assertEquals(2, scheduled.size());
+        for (AbstractWork work : scheduled) {
+            work.run();
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("large", "small"), received);
+    }
+
+    @Test
+    public void testUndecodableMessageFailsTheWork() throws Exception {
+        ApplicationMessageWork work = new ApplicationMessageWork(ccs, new byte[] { 1, 2, 3 }, null, "nc1");
+        Assert.assertTrue(work.prepare());
+        work.run();
+        try {
+            work.sync();
+            Assert.fail("an undecodable message should fail the work");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Assert.assertTrue(received.isEmpty());
+    }
+
+    private static class TestMessage implements IMessage {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        TestMessage(String text) {
+            this.text = text;
+        }
+    }
+}
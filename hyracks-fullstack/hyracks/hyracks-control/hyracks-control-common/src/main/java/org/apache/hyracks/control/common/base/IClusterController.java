@@ -30,6 +30,7 @@ import org.apache.hyracks.control.common.deployment.DeploymentStatus;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatData;
 import org.apache.hyracks.control.common.job.PartitionDescriptor;
 import org.apache.hyracks.control.common.job.PartitionRequest;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.job.profiling.om.TaskProfile;
 
@@ -46,6 +47,13 @@ public interface IClusterController {
 
     public void notifyDistributedJobFailure(JobId jobId, String nodeId) throws Exception;
 
+    /**
+     * Reports that the node was sent the hash of a plan it does not hold, so that the cluster controller resends the
+     * tasks with the full plan.
+     */
+    public void reportPlanCacheMiss(JobId jobId, String nodeId, String planHash,
+            List<TaskAttemptDescriptor> taskDescriptors) throws Exception;
+
     public void notifyJobletCleanup(JobId jobId, String nodeId) throws Exception;
 
     public void notifyDeployBinary(DeploymentId deploymentId, String nodeId, DeploymentStatus status) throws Exception;
@@ -21,7 +21,9 @@ package org.apache.hyracks.control.common.controllers;
 import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG;
+import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
+import static org.apache.hyracks.util.StorageUtil.StorageUnit.MEGABYTE;
 
 import java.io.File;
 import java.net.InetAddress;
@@ -34,6 +36,7 @@ import org.apache.hyracks.api.config.IOption;
 import org.apache.hyracks.api.config.IOptionType;
 import org.apache.hyracks.api.config.Section;
 import org.apache.hyracks.control.common.config.ConfigManager;
+import org.apache.hyracks.util.StorageUtil;
 import org.apache.hyracks.util.file.FileUtil;
 import org.ini4j.Ini;
 
@@ -66,7 +69,8 @@ public class CCConfig extends ControllerConfig {
         JOB_QUEUE_CLASS(STRING, "org.apache.hyracks.control.cc.scheduler.FIFOJobQueue"),
         JOB_QUEUE_CAPACITY(INTEGER, 4096),
         JOB_MANAGER_CLASS(STRING, "org.apache.hyracks.control.cc.job.JobManager"),
-        ENFORCE_FRAME_WRITER_PROTOCOL(BOOLEAN, false);
+        ENFORCE_FRAME_WRITER_PROTOCOL(BOOLEAN, false),
+        JOB_PLAN_CACHE_SIZE(LONG_BYTE_UNIT, StorageUtil.getLongSizeInBytes(32L, MEGABYTE));
 
         private final IOptionType parser;
         private Object defaultValue;
@@ -161,6 +165,11 @@ public class CCConfig extends ControllerConfig {
                 case ENFORCE_FRAME_WRITER_PROTOCOL:
                     return "A flag indicating if runtime should enforce frame writer protocol and detect "
                             + "bad behaving operators";
+                case JOB_PLAN_CACHE_SIZE:
+                    return "The maximum total size in bytes of the job plans each node controller caches, so that "
+                            + "resubmitted jobs only send the hash of their plan. The joblet event listener factory of "
+                            + "a job is sent alongside and is not part of the hashed plan, but a plan whose operators "
+                            + "hold state of their job only hits when the same plan is submitted again; 0 to disable";
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -370,4 +379,12 @@ public class CCConfig extends ControllerConfig {
     public void setEnforceFrameWriterProtocol(boolean enforce) {
         configManager.set(Option.ENFORCE_FRAME_WRITER_PROTOCOL, enforce);
     }
+
+    public long getJobPlanCacheSize() {
+        return getAppConfig().getLong(Option.JOB_PLAN_CACHE_SIZE);
+    }
+
+    public void setJobPlanCacheSize(long jobPlanCacheSize) {
+        configManager.set(Option.JOB_PLAN_CACHE_SIZE, jobPlanCacheSize);
+    }
 }
@@ -74,6 +74,7 @@ public class NCConfig extends ControllerConfig {
         RESULT_TTL(LONG, 86400000L),
         RESULT_SWEEP_THRESHOLD(LONG, 60000L),
         RESULT_MANAGER_MEMORY(INTEGER_BYTE_UNIT, -1),
+        RESULT_MANAGER_PARTITION_MEMORY(INTEGER_BYTE_UNIT, -1),
         @SuppressWarnings("RedundantCast") // not redundant- false positive from IDEA
         APP_CLASS(STRING, (String) null),
         NCSERVICE_PID(INTEGER, -1),
@@ -182,6 +183,9 @@ public class NCConfig extends ControllerConfig {
                             + "milliseconds";
                 case RESULT_MANAGER_MEMORY:
                     return "Memory usable for result caching at this Node Controller in bytes";
+                case RESULT_MANAGER_PARTITION_MEMORY:
+                    return "Memory usable for caching a single result partition at this Node Controller in bytes, "
+                            + "older pages of larger results are spilled to compressed files (-1 for no limit)";
                 case APP_CLASS:
                     return "Application NC Main Class";
                 case NCSERVICE_PID:
@@ -485,6 +489,14 @@ public class NCConfig extends ControllerConfig {
         configManager.set(nodeId, Option.RESULT_MANAGER_MEMORY, resultManagerMemory);
     }
 
+    public int getResultManagerPartitionMemory() {
+        return appConfig.getInt(Option.RESULT_MANAGER_PARTITION_MEMORY);
+    }
+
+    public void setResultManagerPartitionMemory(int resultManagerPartitionMemory) {
+        configManager.set(nodeId, Option.RESULT_MANAGER_PARTITION_MEMORY, resultManagerPartitionMemory);
+    }
+
     public String getAppClass() {
         return appConfig.getString(Option.APP_CLASS);
     }
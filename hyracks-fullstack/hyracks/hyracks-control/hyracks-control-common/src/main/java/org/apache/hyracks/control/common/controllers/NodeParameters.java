@@ -33,6 +33,8 @@ public class NodeParameters implements Serializable {
 
     private int profileDumpPeriod;
 
+    private long planCacheSize;
+
     public ClusterControllerInfo getClusterControllerInfo() {
         return ccInfo;
     }
@@ -64,4 +66,12 @@ public class NodeParameters implements Serializable {
     public void setProfileDumpPeriod(int profileDumpPeriod) {
         this.profileDumpPeriod = profileDumpPeriod;
     }
+
+    public long getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    public void setPlanCacheSize(long planCacheSize) {
+        this.planCacheSize = planCacheSize;
+    }
 }
@@ -71,6 +71,8 @@ public class CCNCFunctions {
 
     private static final int FID_CODE_SIZE = 1;
 
+    private static final int ENCODING_CODE_SIZE = 1;
+
     public enum FunctionId {
         REGISTER_NODE,
         UNREGISTER_NODE,
@@ -103,6 +105,7 @@ public class CCNCFunctions {
         DISTRIBUTE_JOB,
         DESTROY_JOB,
         DISTRIBUTED_JOB_FAILURE,
+        REPORT_PLAN_CACHE_MISS,
 
         STATE_DUMP_REQUEST,
         STATE_DUMP_RESPONSE,
@@ -311,6 +314,44 @@ public class CCNCFunctions {
         }
     }
 
+    public static class ReportPlanCacheMissFunction extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final JobId jobId;
+        private final String nodeId;
+        private final String planHash;
+        private final List<TaskAttemptDescriptor> taskDescriptors;
+
+        public ReportPlanCacheMissFunction(JobId jobId, String nodeId, String planHash,
+                List<TaskAttemptDescriptor> taskDescriptors) {
+            this.jobId = jobId;
+            this.nodeId = nodeId;
+            this.planHash = planHash;
+            this.taskDescriptors = taskDescriptors;
+        }
+
+        @Override
+        public FunctionId getFunctionId() {
+            return FunctionId.REPORT_PLAN_CACHE_MISS;
+        }
+
+        public JobId getJobId() {
+            return jobId;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public String getPlanHash() {
+            return planHash;
+        }
+
+        public List<TaskAttemptDescriptor> getTaskDescriptors() {
+            return taskDescriptors;
+        }
+    }
+
     public static class NotifyJobletCleanupFunction extends Function {
         private static final long serialVersionUID = 1L;
 
@@ -418,6 +459,29 @@ public class CCNCFunctions {
         public List<JobProfile> getProfiles() {
             return profiles;
         }
+
+        public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+            DataInputStream dis = new DataInputStream(bais);
+
+            String nodeId = dis.readUTF();
+            int nProfiles = dis.readInt();
+            List<JobProfile> profiles = new ArrayList<>(nProfiles);
+            for (int i = 0; i < nProfiles; i++) {
+                profiles.add(JobProfile.create(dis));
+            }
+            return new ReportProfileFunction(nodeId, profiles);
+        }
+
+        public static void serialize(OutputStream out, Object object) throws Exception {
+            ReportProfileFunction fn = (ReportProfileFunction) object;
+            DataOutputStream dos = new DataOutputStream(out);
+            dos.writeUTF(fn.nodeId);
+            dos.writeInt(fn.profiles.size());
+            for (JobProfile profile : fn.profiles) {
+                profile.writeFields(dos);
+            }
+        }
     }
 
     public static class RegisterPartitionProviderFunction extends Function {
@@ -605,6 +669,33 @@ public class CCNCFunctions {
         public NetworkAddress getNetworkAddress() {
             return networkAddress;
         }
+
+        public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+            DataInputStream dis = new DataInputStream(bais);
+
+            JobId jobId = JobId.create(dis);
+            ResultSetId rsId = new ResultSetId(dis.readLong());
+            boolean orderedResult = dis.readBoolean();
+            boolean emptyResult = dis.readBoolean();
+            int partition = dis.readInt();
+            int nPartitions = dis.readInt();
+            NetworkAddress networkAddress = readNetworkAddress(dis);
+            return new RegisterResultPartitionLocationFunction(jobId, rsId, orderedResult, emptyResult, partition,
+                    nPartitions, networkAddress);
+        }
+
+        public static void serialize(OutputStream out, Object object) throws Exception {
+            RegisterResultPartitionLocationFunction fn = (RegisterResultPartitionLocationFunction) object;
+            DataOutputStream dos = new DataOutputStream(out);
+            fn.jobId.writeFields(dos);
+            dos.writeLong(fn.rsId.getId());
+            dos.writeBoolean(fn.orderedResult);
+            dos.writeBoolean(fn.emptyResult);
+            dos.writeInt(fn.partition);
+            dos.writeInt(fn.nPartitions);
+            writeNetworkAddress(dos, fn.networkAddress);
+        }
     }
 
     public static class ReportResultPartitionWriteCompletionFunction extends Function {
@@ -638,6 +729,24 @@ public class CCNCFunctions {
         public int getPartition() {
             return partition;
         }
+
+        public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+            DataInputStream dis = new DataInputStream(bais);
+
+            JobId jobId = JobId.create(dis);
+            ResultSetId rsId = new ResultSetId(dis.readLong());
+            int partition = dis.readInt();
+            return new ReportResultPartitionWriteCompletionFunction(jobId, rsId, partition);
+        }
+
+        public static void serialize(OutputStream out, Object object) throws Exception {
+            ReportResultPartitionWriteCompletionFunction fn = (ReportResultPartitionWriteCompletionFunction) object;
+            DataOutputStream dos = new DataOutputStream(out);
+            fn.jobId.writeFields(dos);
+            dos.writeLong(fn.rsId.getId());
+            dos.writeInt(fn.partition);
+        }
     }
 
     public static class ReportResultPartitionFailureFunction extends Function {
@@ -671,6 +780,24 @@ public class CCNCFunctions {
         public int getPartition() {
             return partition;
         }
+
+        public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+            DataInputStream dis = new DataInputStream(bais);
+
+            JobId jobId = JobId.create(dis);
+            ResultSetId rsId = new ResultSetId(dis.readLong());
+            int partition = dis.readInt();
+            return new ReportResultPartitionFailureFunction(jobId, rsId, partition);
+        }
+
+        public static void serialize(OutputStream out, Object object) throws Exception {
+            ReportResultPartitionFailureFunction fn = (ReportResultPartitionFailureFunction) object;
+            DataOutputStream dos = new DataOutputStream(out);
+            fn.jobId.writeFields(dos);
+            dos.writeLong(fn.rsId.getId());
+            dos.writeInt(fn.partition);
+        }
     }
 
     public static class NodeRegistrationResult extends Function {
@@ -750,6 +877,8 @@ public class CCNCFunctions {
         private final DeploymentId deploymentId;
         private final JobId jobId;
         private final byte[] planBytes;
+        private final String planHash;
+        private final byte[] listenerFactoryBytes;
         private final List<TaskAttemptDescriptor> taskDescriptors;
         private final Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies;
         private final Set<JobFlag> flags;
@@ -757,9 +886,25 @@ public class CCNCFunctions {
         public StartTasksFunction(DeploymentId deploymentId, JobId jobId, byte[] planBytes,
                 List<TaskAttemptDescriptor> taskDescriptors,
                 Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, Set<JobFlag> flags) {
+            this(deploymentId, jobId, planBytes, null, null, taskDescriptors, connectorPolicies, flags);
+        }
+
+        /**
+         * @param planHash
+         *            the hash of the plan when the node controller should cache the plan bytes, or, if the plan bytes
+         *            are null, take them from its cache; null to bypass the plan cache
+         * @param listenerFactoryBytes
+         *            the serialized joblet event listener factory of the job, which a plan sent with its hash is
+         *            serialized without; null if the job has none or the plan is not sent with its hash
+         */
+        public StartTasksFunction(DeploymentId deploymentId, JobId jobId, byte[] planBytes, String planHash,
+                byte[] listenerFactoryBytes, List<TaskAttemptDescriptor> taskDescriptors,
+                Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, Set<JobFlag> flags) {
             this.deploymentId = deploymentId;
             this.jobId = jobId;
             this.planBytes = planBytes;
+            this.planHash = planHash;
+            this.listenerFactoryBytes = listenerFactoryBytes;
             this.taskDescriptors = taskDescriptors;
             this.connectorPolicies = connectorPolicies;
             this.flags = flags;
@@ -782,6 +927,14 @@ public class CCNCFunctions {
             return planBytes;
         }
 
+        public String getPlanHash() {
+            return planHash;
+        }
+
+        public byte[] getListenerFactoryBytes() {
+            return listenerFactoryBytes;
+        }
+
         public List<TaskAttemptDescriptor> getTaskDescriptors() {
             return taskDescriptors;
         }
@@ -795,6 +948,10 @@ public class CCNCFunctions {
         }
 
         public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            return deserialize(buffer, length, true);
+        }
+
+        private static Object deserialize(ByteBuffer buffer, int length, boolean hasPlanHash) throws Exception {
             ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
             DataInputStream dis = new DataInputStream(bais);
 
@@ -811,7 +968,19 @@ public class CCNCFunctions {
             byte[] planBytes = null;
             if (planBytesSize >= 0) {
                 planBytes = new byte[planBytesSize];
-                dis.read(planBytes, 0, planBytesSize);
+                dis.readFully(planBytes, 0, planBytesSize);
+            }
+
+            // read plan hash and the listener factory the hashed plan is serialized without
+            String planHash = null;
+            byte[] listenerFactoryBytes = null;
+            if (hasPlanHash && dis.readBoolean()) {
+                planHash = dis.readUTF();
+                int listenerFactoryBytesSize = dis.readInt();
+                if (listenerFactoryBytesSize >= 0) {
+                    listenerFactoryBytes = new byte[listenerFactoryBytesSize];
+                    dis.readFully(listenerFactoryBytes, 0, listenerFactoryBytesSize);
+                }
             }
 
             // read task attempt descriptors
@@ -838,7 +1007,8 @@ public class CCNCFunctions {
                 flags.add(JobFlag.values()[(dis.readInt())]);
             }
 
-            return new StartTasksFunction(deploymentId, jobId, planBytes, taskDescriptors, connectorPolicies, flags);
+            return new StartTasksFunction(deploymentId, jobId, planBytes, planHash, listenerFactoryBytes,
+                    taskDescriptors, connectorPolicies, flags);
         }
 
         public static void serialize(OutputStream out, Object object) throws Exception {
@@ -858,6 +1028,16 @@ public class CCNCFunctions {
                 dos.write(fn.planBytes, 0, fn.planBytes.length);
             }
 
+            //write plan hash and listener factory
+            dos.writeBoolean(fn.planHash != null);
+            if (fn.planHash != null) {
+                dos.writeUTF(fn.planHash);
+                dos.writeInt(fn.listenerFactoryBytes == null ? -1 : fn.listenerFactoryBytes.length);
+                if (fn.listenerFactoryBytes != null) {
+                    dos.write(fn.listenerFactoryBytes, 0, fn.listenerFactoryBytes.length);
+                }
+            }
+
             //write task descriptors
             dos.writeInt(fn.taskDescriptors.size());
             for (int i = 0; i < fn.taskDescriptors.size(); i++) {
@@ -902,6 +1082,29 @@ public class CCNCFunctions {
         public List<TaskAttemptId> getTasks() {
             return tasks;
         }
+
+        public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
+            ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
+            DataInputStream dis = new DataInputStream(bais);
+
+            JobId jobId = JobId.create(dis);
+            int nTasks = dis.readInt();
+            List<TaskAttemptId> tasks = new ArrayList<>(nTasks);
+            for (int i = 0; i < nTasks; i++) {
+                tasks.add(readTaskAttemptId(dis));
+            }
+            return new AbortTasksFunction(jobId, tasks);
+        }
+
+        public static void serialize(OutputStream out, Object object) throws Exception {
+            AbortTasksFunction fn = (AbortTasksFunction) object;
+            DataOutputStream dos = new DataOutputStream(out);
+            fn.jobId.writeFields(dos);
+            dos.writeInt(fn.tasks.size());
+            for (TaskAttemptId taId : fn.tasks) {
+                writeTaskAttemptId(dos, taId);
+            }
+        }
     }
 
     public static class CleanupJobletFunction extends Function {
@@ -1269,6 +1472,20 @@ public class CCNCFunctions {
     }
 
     public static class SerializerDeserializer implements IPayloadSerializerDeserializer {
+        /**
+         * The payload that follows the encoding code was written with java serialization
+         */
+        public static final byte JAVA_ENCODING = 0;
+        /**
+         * The payload that follows the encoding code was written with the function's binary codec, version 1
+         */
+        public static final byte BINARY_ENCODING_V1 = 1;
+        /**
+         * The payload that follows the encoding code was written with the function's binary codec, version 2.
+         * Version 2 adds the plan hash to StartTasks, the other codecs are unchanged and keep writing version 1.
+         */
+        public static final byte BINARY_ENCODING_V2 = 2;
+
         private final JavaSerializationBasedPayloadSerializerDeserializer javaSerde;
 
         public SerializerDeserializer() {
@@ -1277,7 +1494,7 @@ public class CCNCFunctions {
 
         @Override
         public Object deserializeObject(ByteBuffer buffer, int length) throws Exception {
-            if (length < FID_CODE_SIZE) {
+            if (length < FID_CODE_SIZE + ENCODING_CODE_SIZE) {
                 throw new IllegalStateException("Message size too small: " + length);
             }
             byte fid = buffer.get();
@@ -1286,7 +1503,7 @@ public class CCNCFunctions {
 
         @Override
         public Exception deserializeException(ByteBuffer buffer, int length) throws Exception {
-            if (length < FID_CODE_SIZE) {
+            if (length < FID_CODE_SIZE + ENCODING_CODE_SIZE) {
                 throw new IllegalStateException("Message size too small: " + length);
             }
             byte fid = buffer.get();
@@ -1314,8 +1531,20 @@ public class CCNCFunctions {
         private byte[] serialize(Object object, byte fid) throws Exception {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             baos.write(fid);
+            baos.write(getBinaryEncoding(fid));
+            try {
+                if (serializeBinary(baos, object, fid)) {
+                    baos.close();
+                    return baos.toByteArray();
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error encoding " + object + ", falling back to java serialization", e);
+            }
+            baos.reset();
+            baos.write(fid);
+            baos.write(JAVA_ENCODING);
             try {
-                serialize(baos, object, fid);
+                JavaSerializationBasedPayloadSerializerDeserializer.serialize(baos, object);
             } catch (Exception e) {
                 LOGGER.log(Level.SEVERE, "Error serializing " + object, e);
                 throw e;
@@ -1324,43 +1553,85 @@ public class CCNCFunctions {
             return baos.toByteArray();
         }
 
-        private void serialize(OutputStream out, Object object, byte fid) throws Exception {
+        private static byte getBinaryEncoding(byte fid) {
+            return fid == FunctionId.START_TASKS.ordinal() ? BINARY_ENCODING_V2 : BINARY_ENCODING_V1;
+        }
+
+        private static boolean serializeBinary(OutputStream out, Object object, byte fid) throws Exception {
             switch (FunctionId.values()[fid]) {
                 case REGISTER_PARTITION_PROVIDER:
                     RegisterPartitionProviderFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case REGISTER_PARTITION_REQUEST:
                     RegisterPartitionRequestFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case REPORT_PARTITION_AVAILABILITY:
                     ReportPartitionAvailabilityFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case NODE_HEARTBEAT:
                     NodeHeartbeatFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case START_TASKS:
                     StartTasksFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case NOTIFY_TASK_COMPLETE:
                     NotifyTaskCompleteFunction.serialize(out, object);
-                    return;
+                    return true;
 
                 case NOTIFY_JOBLET_CLEANUP:
                     NotifyJobletCleanupFunction.serialize(out, object);
-                    return;
+                    return true;
+
                 case CLEANUP_JOBLET:
                     CleanupJobletFunction.serialize(out, object);
-                    return;
+                    return true;
+
+                case REPORT_PROFILE:
+                    ReportProfileFunction.serialize(out, object);
+                    return true;
+
+                case REGISTER_RESULT_PARTITION_LOCATION:
+                    RegisterResultPartitionLocationFunction.serialize(out, object);
+                    return true;
+
+                case REPORT_RESULT_PARTITION_WRITE_COMPLETION:
+                    ReportResultPartitionWriteCompletionFunction.serialize(out, object);
+                    return true;
+
+                case REPORT_RESULT_PARTITION_FAILURE:
+                    ReportResultPartitionFailureFunction.serialize(out, object);
+                    return true;
+
+                case ABORT_TASKS:
+                    AbortTasksFunction.serialize(out, object);
+                    return true;
+
+                default:
+                    return false;
             }
-            JavaSerializationBasedPayloadSerializerDeserializer.serialize(out, object);
         }
 
         private Object deserialize(byte fid, ByteBuffer buffer, int length) throws Exception {
+            byte encoding = buffer.get();
+            int payloadLength = length - ENCODING_CODE_SIZE;
+            switch (encoding) {
+                case JAVA_ENCODING:
+                    return javaSerde.deserializeObject(buffer, payloadLength);
+                case BINARY_ENCODING_V1:
+                case BINARY_ENCODING_V2:
+                    return deserializeBinary(fid, buffer, payloadLength, encoding);
+                default:
+                    throw new IllegalStateException("Unknown encoding " + encoding + " for FID: " + fid);
+            }
+        }
+
+        private static Object deserializeBinary(byte fid, ByteBuffer buffer, int length, byte encoding)
+                throws Exception {
             switch (FunctionId.values()[fid]) {
                 case REGISTER_PARTITION_PROVIDER:
                     return RegisterPartitionProviderFunction.deserialize(buffer, length);
@@ -1375,7 +1646,7 @@ public class CCNCFunctions {
                     return NodeHeartbeatFunction.deserialize(buffer, length);
 
                 case START_TASKS:
-                    return StartTasksFunction.deserialize(buffer, length);
+                    return StartTasksFunction.deserialize(buffer, length, encoding >= BINARY_ENCODING_V2);
 
                 case NOTIFY_TASK_COMPLETE:
                     return NotifyTaskCompleteFunction.deserialize(buffer, length);
@@ -1385,9 +1656,25 @@ public class CCNCFunctions {
 
                 case CLEANUP_JOBLET:
                     return CleanupJobletFunction.deserialize(buffer, length);
-            }
 
-            return javaSerde.deserializeObject(buffer, length);
+                case REPORT_PROFILE:
+                    return ReportProfileFunction.deserialize(buffer, length);
+
+                case REGISTER_RESULT_PARTITION_LOCATION:
+                    return RegisterResultPartitionLocationFunction.deserialize(buffer, length);
+
+                case REPORT_RESULT_PARTITION_WRITE_COMPLETION:
+                    return ReportResultPartitionWriteCompletionFunction.deserialize(buffer, length);
+
+                case REPORT_RESULT_PARTITION_FAILURE:
+                    return ReportResultPartitionFailureFunction.deserialize(buffer, length);
+
+                case ABORT_TASKS:
+                    return AbortTasksFunction.deserialize(buffer, length);
+
+                default:
+                    throw new IllegalStateException("No binary codec for FID: " + fid);
+            }
         }
     }
 
@@ -35,6 +35,7 @@ import org.apache.hyracks.control.common.deployment.DeploymentStatus;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatData;
 import org.apache.hyracks.control.common.job.PartitionDescriptor;
 import org.apache.hyracks.control.common.job.PartitionRequest;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.job.profiling.om.TaskProfile;
 import org.apache.hyracks.ipc.impl.IPCSystem;
@@ -163,6 +164,13 @@ public class ClusterControllerRemoteProxy extends ControllerRemoteProxy implemen
         ensureIpcHandle().send(-1, fn, null);
     }
 
+    @Override
+    public void reportPlanCacheMiss(JobId jobId, String nodeId, String planHash,
+            List<TaskAttemptDescriptor> taskDescriptors) throws Exception {
+        ReportPlanCacheMissFunction fn = new ReportPlanCacheMissFunction(jobId, nodeId, planHash, taskDescriptors);
+        ensureIpcHandle().send(-1, fn, null);
+    }
+
     @Override
     public void getNodeControllerInfos() throws Exception {
         ensureIpcHandle().send(-1, new GetNodeControllersInfoFunction(), null);
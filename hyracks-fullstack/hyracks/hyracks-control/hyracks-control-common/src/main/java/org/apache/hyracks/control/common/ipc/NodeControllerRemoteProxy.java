@@ -58,10 +58,10 @@ public class NodeControllerRemoteProxy extends ControllerRemoteProxy implements
     }
 
     @Override
-    public void startTasks(DeploymentId deploymentId, JobId jobId, byte[] planBytes,
-            List<TaskAttemptDescriptor> taskDescriptors, Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies,
-            Set<JobFlag> flags) throws Exception {
-        StartTasksFunction stf = new StartTasksFunction(deploymentId, jobId, planBytes,
+    public void startTasks(DeploymentId deploymentId, JobId jobId, byte[] planBytes, String planHash,
+            byte[] listenerFactoryBytes, List<TaskAttemptDescriptor> taskDescriptors,
+            Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, Set<JobFlag> flags) throws Exception {
+        StartTasksFunction stf = new StartTasksFunction(deploymentId, jobId, planBytes, planHash, listenerFactoryBytes,
                 taskDescriptors, connectorPolicies, flags);
         ensureIpcHandle().send(-1, stf, null);
     }
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IJobletEventListenerFactory;
+
+/**
+ * A least-recently-used cache of serialized job plans, keyed by the hash of the plan, that is bounded by the total
+ * size of the cached plans.
+ * Each node controller caches the plans it receives and the cluster controller keeps, for each node controller, a
+ * mirror that tracks which plans that node has cached. Both sides apply the same sequence of lookups and insertions
+ * with the same capacity, so the cluster controller can send just the hash of a plan that the node controller holds.
+ * The mirror only records a plan once it has been sent, and a node controller that is sent the hash of a plan it does
+ * not hold reports the miss, so that the cluster controller drops the plan from the mirror and resends it in full.
+ * The joblet event listener factory of a job usually holds state of that job only, such as its transaction id, so
+ * cached plans are serialized without it by {@link #serializePlan(ActivityClusterGraph)} and the factory is sent
+ * alongside the plan or its hash. Plans whose operators hold state of their job still only hit the cache when the
+ * same plan is submitted again.
+ *
+ * @param <T>
+ *            the type of the cached values
+ */
+public class JobPlanCache<T> {
+    private final long capacity;
+
+    private final LinkedHashMap<String, Entry<T>> entries;
+
+    private long size;
+
+    /**
+     * @param capacity
+     *            the maximum total size of the cached plans, in bytes
+     */
+    public JobPlanCache(long capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * @return the value cached for {@code planHash}, or null if there is none
+     */
+    public synchronized T get(String planHash) {
+        Entry<T> entry = entries.get(planHash);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Caches {@code value} for a plan of {@code planSize} bytes, evicting the least recently used plans to stay
+     * within the capacity. Plans larger than the capacity are not cached.
+     */
+    public synchronized void put(String planHash, T value, int planSize) {
+        Entry<T> previous = entries.remove(planHash);
+        if (previous != null) {
+            size -= previous.size;
+        }
+        if (planSize > capacity) {
+            return;
+        }
+        Iterator<Map.Entry<String, Entry<T>>> iterator = entries.entrySet().iterator();
+        while (size + planSize > capacity) {
+            size -= iterator.next().getValue().size;
+            iterator.remove();
+        }
+        entries.put(planHash, new Entry<>(value, planSize));
+        size += planSize;
+    }
+
+    /**
+     * Drops the plan cached for {@code planHash}, if any.
+     */
+    public synchronized void remove(String planHash) {
+        Entry<T> previous = entries.remove(planHash);
+        if (previous != null) {
+            size -= previous.size;
+        }
+    }
+
+    public synchronized int getPlanCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the hash identifying the plan serialized as {@code planBytes} for the deployment {@code deploymentId}
+     */
+    public static String computeHash(DeploymentId deploymentId, byte[] planBytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (deploymentId != null) {
+                digest.update(deploymentId.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(planBytes);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Serializes {@code acg} without its joblet event listener factory, so that plans that only differ in the state
+     * the factory holds for their job serialize, and so hash, the same.
+     */
+    public static byte[] serializePlan(ActivityClusterGraph acg) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ListenerFactoryDroppingOutputStream(baos,
+                acg.getJobletEventListenerFactory())) {
+            oos.writeObject(acg);
+        }
+        return baos.toByteArray();
+    }
+
+    private static class ListenerFactoryDroppingOutputStream extends ObjectOutputStream {
+        private final IJobletEventListenerFactory listenerFactory;
+
+        private ListenerFactoryDroppingOutputStream(OutputStream out, IJobletEventListenerFactory listenerFactory)
+                throws IOException {
+            super(out);
+            this.listenerFactory = listenerFactory;
+            enableReplaceObject(listenerFactory != null);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            return obj == listenerFactory ? null : obj;
+        }
+    }
+
+    private static class Entry<T> {
+        private final T value;
+
+        private final int size;
+
+        private Entry(T value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
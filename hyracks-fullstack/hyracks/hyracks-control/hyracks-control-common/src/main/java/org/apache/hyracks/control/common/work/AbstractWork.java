@@ -21,10 +21,27 @@ package org.apache.hyracks.control.common.work;
 import java.util.logging.Level;
 
 public abstract class AbstractWork implements Runnable {
+    private long scheduledNanoTime;
+
     public Level logLevel() {
         return Level.INFO;
     }
 
+    /**
+     * @return the lane of the {@link WorkQueue} this work is executed in
+     */
+    public WorkLane lane() {
+        return WorkLane.CONTROL;
+    }
+
+    void setScheduledNanoTime(long scheduledNanoTime) {
+        this.scheduledNanoTime = scheduledNanoTime;
+    }
+
+    long getScheduledNanoTime() {
+        return scheduledNanoTime;
+    }
+
     public String getName() {
         final String className = getClass().getName();
         final int endIndex = className.endsWith("Work") ? className.length() - 4 : className.length();
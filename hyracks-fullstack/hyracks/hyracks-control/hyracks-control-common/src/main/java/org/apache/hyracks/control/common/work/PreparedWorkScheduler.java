@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.work;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Runs the expensive preparation of works concurrently on an executor and schedules the prepared works in the order
+ * in which they were submitted, so that taking the preparation off the work queue does not reorder the works.
+ */
+public class PreparedWorkScheduler {
+    private final Executor executor;
+
+    private final Consumer<AbstractWork> scheduler;
+
+    private final Deque<PendingWork> pending;
+
+    /**
+     * @param executor
+     *            the executor running the preparations
+     * @param scheduler
+     *            schedules the prepared works, e.g. on a {@link WorkQueue}
+     */
+    public PreparedWorkScheduler(Executor executor, Consumer<AbstractWork> scheduler) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+        pending = new ArrayDeque<>();
+    }
+
+    /**
+     * Runs {@code preparation} on the executor and schedules {@code work} once all the works submitted before it have
+     * been scheduled or dropped. The work is dropped if the preparation returns false.
+     */
+    public void submit(AbstractWork work, BooleanSupplier preparation) {
+        PendingWork pendingWork = new PendingWork(work);
+        synchronized (this) {
+            pending.addLast(pendingWork);
+        }
+        executor.execute(() -> {
+            boolean ready = false;
+            try {
+                ready = preparation.getAsBoolean();
+            } finally {
+                prepared(pendingWork, ready);
+            }
+        });
+    }
+
+    private synchronized void prepared(PendingWork pendingWork, boolean ready) {
+        pendingWork.prepared = true;
+        pendingWork.ready = ready;
+        while (!pending.isEmpty() && pending.peekFirst().prepared) {
+            PendingWork head = pending.removeFirst();
+            if (head.ready) {
+                scheduler.accept(head.work);
+            }
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private static class PendingWork {
+        private final AbstractWork work;
+
+        private boolean prepared;
+
+        private boolean ready;
+
+        private PendingWork(AbstractWork work) {
+            this.work = work;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.work;
+
+/**
+ * The lanes of a {@link WorkQueue}. Works of the same lane are executed in the order they were scheduled. Pending
+ * {@link #CONTROL} works are executed before pending {@link #MONITORING} works, but a bounded number of
+ * consecutive control works keeps the monitoring lane from starving.
+ */
+public enum WorkLane {
+    /**
+     * Job and cluster control: job submission, task lifecycle, node registration, etc.
+     */
+    CONTROL,
+    /**
+     * Heartbeats and profile reports, whose processing may be delayed without affecting job progress
+     */
+    MONITORING
+}
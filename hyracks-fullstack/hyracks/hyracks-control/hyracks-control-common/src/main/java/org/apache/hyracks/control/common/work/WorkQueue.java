@@ -21,8 +21,14 @@ package org.apache.hyracks.control.common.work;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,8 +39,15 @@ public class WorkQueue {
     //to be fixed when application vs. hyracks log level issues are sorted
     private static final boolean DEBUG = false;
 
-    private final LinkedBlockingQueue<AbstractWork> queue;
+    // number of consecutive control works after which a pending monitoring work is executed
+    private static final int MAX_CONTROL_STREAK = 8;
+
+    private final String id;
+    private final Map<WorkLane, Queue<AbstractWork>> lanes;
+    private final Map<WorkLane, LaneStats> laneStats;
+    private final Semaphore pending;
     private final WorkerThread thread;
+    private int controlStreak;
     private boolean stopped;
     private AtomicInteger enqueueCount;
     private AtomicInteger dequeueCount;
@@ -47,7 +60,14 @@ public class WorkQueue {
             throw new IllegalArgumentException("Illegal thread priority number.");
         }
         this.threadPriority = threadPriority;
-        queue = new LinkedBlockingQueue<>();
+        this.id = id;
+        lanes = new EnumMap<>(WorkLane.class);
+        laneStats = new EnumMap<>(WorkLane.class);
+        for (WorkLane lane : WorkLane.values()) {
+            lanes.put(lane, new ConcurrentLinkedQueue<>());
+            laneStats.put(lane, new LaneStats());
+        }
+        pending = new Semaphore(0);
         thread = new WorkerThread(id);
         stopped = true;
         if (DEBUG) {
@@ -85,7 +105,11 @@ public class WorkQueue {
         if (LOGGER.isLoggable(Level.FINER)) {
             LOGGER.finer("Scheduling: " + event);
         }
-        queue.offer(event);
+        event.setScheduledNanoTime(System.nanoTime());
+        WorkLane lane = event.lane();
+        laneStats.get(lane).queued.incrementAndGet();
+        lanes.get(lane).offer(event);
+        pending.release();
     }
 
     public void scheduleAndSync(SynchronizableWork sRunnable) throws Exception {
@@ -93,6 +117,66 @@ public class WorkQueue {
         sRunnable.sync();
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public LaneStats getLaneStats(WorkLane lane) {
+        return laneStats.get(lane);
+    }
+
+    // called by the worker thread only, after a permit has been acquired
+    private AbstractWork next() {
+        Queue<AbstractWork> control = lanes.get(WorkLane.CONTROL);
+        Queue<AbstractWork> monitoring = lanes.get(WorkLane.MONITORING);
+        AbstractWork r;
+        if (controlStreak >= MAX_CONTROL_STREAK && (r = monitoring.poll()) != null) {
+            controlStreak = 0;
+            return r;
+        }
+        r = control.poll();
+        if (r != null) {
+            controlStreak++;
+            return r;
+        }
+        controlStreak = 0;
+        return monitoring.poll();
+    }
+
+    /**
+     * Queue statistics of one lane of a work queue
+     */
+    public static class LaneStats {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong executed = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        private void executing(long waitNanos) {
+            queued.decrementAndGet();
+            executed.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulate(waitNanos);
+        }
+
+        public int getQueued() {
+            return queued.get();
+        }
+
+        public long getExecuted() {
+            return executed.get();
+        }
+
+        public long getAverageQueueLatencyMicros() {
+            long count = executed.get();
+            return count == 0 ? 0 : totalWaitNanos.get() / count / 1000;
+        }
+
+        public long getMaxQueueLatencyMicros() {
+            return maxWaitNanos.get() / 1000;
+        }
+    }
+
     private class WorkerThread extends Thread {
         WorkerThread(String id) {
             setName("Worker:" + id);
@@ -110,10 +194,12 @@ public class WorkQueue {
                     }
                 }
                 try {
-                    r = queue.take();
+                    pending.acquire();
                 } catch (InterruptedException e) { // NOSONAR: aborting the thread
                     break;
                 }
+                r = next();
+                laneStats.get(r.lane()).executing(System.nanoTime() - r.getScheduledNanoTime());
                 if (DEBUG) {
                     LOGGER.log(Level.FINEST,
                             "Dequeue (" + WorkQueue.this.hashCode() + "): " + dequeueCount.incrementAndGet() + "/"
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.ipc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.ReportProfileFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.SerializerDeserializer;
+import org.apache.hyracks.ipc.impl.JavaSerializationBasedPayloadSerializerDeserializer;
+
+/**
+ * Compares the encode/decode throughput of the binary encoding of profile reports with Java serialization.
+ */
+public class CCNCFunctionsPerf {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        ReportProfileFunction fn = new ReportProfileFunction("nc1", CCNCFunctionsTest.createProfiles(4, 64));
+        SerializerDeserializer serde = new SerializerDeserializer();
+        JavaSerializationBasedPayloadSerializerDeserializer javaSerde =
+                new JavaSerializationBasedPayloadSerializerDeserializer();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        // warm up both paths before measuring
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            byte[] binary = null;
+            for (int i = 0; i < iterations; i++) {
+                binary = serde.serializeObject(fn);
+                serde.deserializeObject(ByteBuffer.wrap(binary), binary.length);
+            }
+            long binaryNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                baos.reset();
+                JavaSerializationBasedPayloadSerializerDeserializer.serialize(baos, fn);
+                javaSerde.deserializeObject(ByteBuffer.wrap(baos.toByteArray()), baos.size());
+            }
+            long javaNanos = System.nanoTime() - start;
+
+            if (round > 0) {
+                System.out.println("ReportProfile encode/decode: binary " + binary.length + " bytes, "
+                        + (iterations * 1000000000L / Math.max(1, binaryNanos)) + " msgs/s; java " + baos.size()
+                        + " bytes, " + (iterations * 1000000000L / Math.max(1, javaNanos)) + " msgs/s");
+            }
+        }
+    }
+}
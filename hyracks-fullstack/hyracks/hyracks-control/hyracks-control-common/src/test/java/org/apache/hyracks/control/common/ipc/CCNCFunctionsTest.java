@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.ipc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.NetworkAddress;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.TaskAttemptId;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.job.JobFlag;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.AbortTasksFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.FunctionId;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.RegisterResultPartitionLocationFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.ReportPlanCacheMissFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.ReportProfileFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.ReportResultPartitionFailureFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.ReportResultPartitionWriteCompletionFunction;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.SerializerDeserializer;
+import org.apache.hyracks.control.common.ipc.CCNCFunctions.StartTasksFunction;
+import org.apache.hyracks.control.common.job.JobPlanCache;
+import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
+import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
+import org.apache.hyracks.control.common.job.profiling.om.JobletProfile;
+import org.apache.hyracks.control.common.job.profiling.om.TaskProfile;
+import org.apache.hyracks.ipc.impl.JavaSerializationBasedPayloadSerializerDeserializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CCNCFunctionsTest {
+
+    private final SerializerDeserializer serde = new SerializerDeserializer();
+
+    @Test
+    public void testReportProfileRoundTrip() throws Exception {
+        ReportProfileFunction fn = new ReportProfileFunction("nc1", createProfiles(2, 4));
+        byte[] bytes = serde.serializeObject(fn);
+        Assert.assertEquals(SerializerDeserializer.BINARY_ENCODING_V1, bytes[1]);
+        ReportProfileFunction result = (ReportProfileFunction) roundTrip(bytes);
+        Assert.assertEquals(fn.getNodeId(), result.getNodeId());
+        Assert.assertEquals(fn.getProfiles().size(), result.getProfiles().size());
+        for (int i = 0; i < fn.getProfiles().size(); i++) {
+            JobProfile expected = fn.getProfiles().get(i);
+            JobProfile actual = result.getProfiles().get(i);
+            Assert.assertEquals(expected.getJobId(), actual.getJobId());
+            Assert.assertEquals(expected.getJobletProfiles().keySet(), actual.getJobletProfiles().keySet());
+            Assert.assertEquals(expected.getJobletProfiles().get("nc1").getTaskProfiles().keySet(),
+                    actual.getJobletProfiles().get("nc1").getTaskProfiles().keySet());
+        }
+    }
+
+    @Test
+    public void testResultPartitionFunctionsRoundTrip() throws Exception {
+        JobId jobId = new JobId(17);
+        ResultSetId rsId = new ResultSetId(3);
+        RegisterResultPartitionLocationFunction register = (RegisterResultPartitionLocationFunction) roundTrip(
+                serde.serializeObject(new RegisterResultPartitionLocationFunction(jobId, rsId, true, false, 2, 8,
+                        new NetworkAddress("10.0.0.1", 19002))));
+        Assert.assertEquals(jobId, register.getJobId());
+        Assert.assertEquals(rsId, register.getResultSetId());
+        Assert.assertTrue(register.getOrderedResult());
+        Assert.assertFalse(register.getEmptyResult());
+        Assert.assertEquals(2, register.getPartition());
+        Assert.assertEquals(8, register.getNPartitions());
+        Assert.assertEquals("10.0.0.1", register.getNetworkAddress().getAddress());
+        Assert.assertEquals(19002, register.getNetworkAddress().getPort());
+
+        ReportResultPartitionWriteCompletionFunction completion =
+                (ReportResultPartitionWriteCompletionFunction) roundTrip(
+                        serde.serializeObject(new ReportResultPartitionWriteCompletionFunction(jobId, rsId, 5)));
+        Assert.assertEquals(jobId, completion.getJobId());
+        Assert.assertEquals(rsId, completion.getResultSetId());
+        Assert.assertEquals(5, completion.getPartition());
+
+        ReportResultPartitionFailureFunction failure = (ReportResultPartitionFailureFunction) roundTrip(
+                serde.serializeObject(new ReportResultPartitionFailureFunction(jobId, rsId, 6)));
+        Assert.assertEquals(jobId, failure.getJobId());
+        Assert.assertEquals(rsId, failure.getResultSetId());
+        Assert.assertEquals(6, failure.getPartition());
+    }
+
+    @Test
+    public void testAbortTasksRoundTrip() throws Exception {
+        List<TaskAttemptId> tasks = Arrays.asList(createTaskAttemptId(1, 0), createTaskAttemptId(1, 1),
+                createTaskAttemptId(2, 3));
+        AbortTasksFunction result =
+                (AbortTasksFunction) roundTrip(serde.serializeObject(new AbortTasksFunction(new JobId(9), tasks)));
+        Assert.assertEquals(new JobId(9), result.getJobId());
+        Assert.assertEquals(tasks, result.getTasks());
+    }
+
+    @Test
+    public void testStartTasksRoundTrip() throws Exception {
+        List<TaskAttemptDescriptor> tasks = Collections
+                .singletonList(new TaskAttemptDescriptor(createTaskAttemptId(1, 2), 4, null, new int[] { 4 }));
+        byte[] planBytes = new byte[] { 1, 2, 3, 4, 5 };
+        String planHash = JobPlanCache.computeHash(null, planBytes);
+
+        byte[] listenerFactoryBytes = new byte[] { 6, 7 };
+
+        byte[] bytes = serde.serializeObject(new StartTasksFunction(null, new JobId(5), planBytes, planHash,
+                listenerFactoryBytes, tasks, Collections.emptyMap(), EnumSet.of(JobFlag.PROFILE_RUNTIME)));
+        Assert.assertEquals(SerializerDeserializer.BINARY_ENCODING_V2, bytes[1]);
+        StartTasksFunction result = (StartTasksFunction) roundTrip(bytes);
+        Assert.assertEquals(new JobId(5), result.getJobId());
+        Assert.assertNull(result.getDeploymentId());
+        Assert.assertArrayEquals(planBytes, result.getPlanBytes());
+        Assert.assertEquals(planHash, result.getPlanHash());
+        Assert.assertArrayEquals(listenerFactoryBytes, result.getListenerFactoryBytes());
+        Assert.assertEquals(1, result.getTaskDescriptors().size());
+        Assert.assertEquals(tasks.get(0).getTaskAttemptId(), result.getTaskDescriptors().get(0).getTaskAttemptId());
+        Assert.assertEquals(EnumSet.of(JobFlag.PROFILE_RUNTIME), result.getFlags());
+
+        // a plan the node has cached is sent as its hash only
+        result = (StartTasksFunction) roundTrip(serde.serializeObject(new StartTasksFunction(null, new JobId(6), null,
+                planHash, null, tasks, Collections.emptyMap(), EnumSet.noneOf(JobFlag.class))));
+        Assert.assertNull(result.getPlanBytes());
+        Assert.assertEquals(planHash, result.getPlanHash());
+        Assert.assertNull(result.getListenerFactoryBytes());
+
+        result = (StartTasksFunction) roundTrip(serde.serializeObject(new StartTasksFunction(null, new JobId(7), null,
+                tasks, Collections.emptyMap(), EnumSet.noneOf(JobFlag.class))));
+        Assert.assertNull(result.getPlanBytes());
+        Assert.assertNull(result.getPlanHash());
+        Assert.assertNull(result.getListenerFactoryBytes());
+    }
+
+    @Test
+    public void testReportPlanCacheMissRoundTrip() throws Exception {
+        List<TaskAttemptDescriptor> tasks = Collections
+                .singletonList(new TaskAttemptDescriptor(createTaskAttemptId(1, 2), 4, null, new int[] { 4 }));
+        ReportPlanCacheMissFunction result = (ReportPlanCacheMissFunction) roundTrip(
+                serde.serializeObject(new ReportPlanCacheMissFunction(new JobId(8), "nc1", "hash", tasks)));
+        Assert.assertEquals(new JobId(8), result.getJobId());
+        Assert.assertEquals("nc1", result.getNodeId());
+        Assert.assertEquals("hash", result.getPlanHash());
+        Assert.assertEquals(tasks.get(0).getTaskAttemptId(), result.getTaskDescriptors().get(0).getTaskAttemptId());
+    }
+
+    @Test
+    public void testFallbackToJavaSerialization() throws Exception {
+        // a null node id cannot be written by the binary codec
+        ReportProfileFunction fn = new ReportProfileFunction(null, Collections.emptyList());
+        byte[] bytes = serde.serializeObject(fn);
+        Assert.assertEquals(FunctionId.REPORT_PROFILE.ordinal(), bytes[0]);
+        Assert.assertEquals(SerializerDeserializer.JAVA_ENCODING, bytes[1]);
+        ReportProfileFunction result = (ReportProfileFunction) roundTrip(bytes);
+        Assert.assertNull(result.getNodeId());
+        Assert.assertTrue(result.getProfiles().isEmpty());
+
+        byte[] exceptionBytes = serde.serializeException(new Exception("oops"));
+        Assert.assertEquals(SerializerDeserializer.JAVA_ENCODING, exceptionBytes[1]);
+        Exception e = serde.deserializeException(ByteBuffer.wrap(exceptionBytes), exceptionBytes.length);
+        Assert.assertEquals("oops", e.getMessage());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnknownEncoding() throws Exception {
+        byte[] bytes =
+                serde.serializeObject(new ReportResultPartitionFailureFunction(new JobId(1), new ResultSetId(1), 0));
+        bytes[1] = Byte.MAX_VALUE;
+        roundTrip(bytes);
+    }
+
+    @Test
+    public void testBinaryEncodingIsSmallerThanJavaSerialization() throws Exception {
+        ReportProfileFunction fn = new ReportProfileFunction("nc1", createProfiles(4, 64));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JavaSerializationBasedPayloadSerializerDeserializer.serialize(baos, fn);
+        Assert.assertTrue(serde.serializeObject(fn).length < baos.size());
+    }
+
+    private Object roundTrip(byte[] bytes) throws Exception {
+        return serde.deserializeObject(ByteBuffer.wrap(bytes), bytes.length);
+    }
+
+    static List<JobProfile> createProfiles(int nJobs, int nTasks) {
+        List<JobProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < nJobs; i++) {
+            JobProfile profile = new JobProfile(new JobId(i));
+            JobletProfile joblet = new JobletProfile("nc1");
+            for (int j = 0; j < nTasks; j++) {
+                TaskAttemptId taId = createTaskAttemptId(j % 4, j);
+                TaskProfile task = new TaskProfile(taId, new HashMap<>());
+                task.getCounters().put("tuples", (long) j);
+                joblet.getTaskProfiles().put(taId, task);
+            }
+            profile.getJobletProfiles().put(joblet.getNodeId(), joblet);
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private static TaskAttemptId createTaskAttemptId(int odId, int partition) {
+        return new TaskAttemptId(new TaskId(new ActivityId(new OperatorDescriptorId(odId), 0), partition), 0);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.job;
+
+import org.apache.hyracks.api.context.IHyracksJobletContext;
+import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IJobletEventListener;
+import org.apache.hyracks.api.job.IJobletEventListenerFactory;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.util.JavaSerializationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JobPlanCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedPlans() {
+        JobPlanCache<String> cache = new JobPlanCache<>(100);
+        Assert.assertTrue(cache.isEnabled());
+        cache.put("a", "plan-a", 40);
+        cache.put("b", "plan-b", 40);
+        // touching a makes b the least recently used plan
+        Assert.assertEquals("plan-a", cache.get("a"));
+        cache.put("c", "plan-c", 40);
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("plan-a", cache.get("a"));
+        Assert.assertEquals("plan-c", cache.get("c"));
+        Assert.assertEquals(2, cache.getPlanCount());
+        Assert.assertEquals(80, cache.getSize());
+
+        // plans larger than the capacity are not cached
+        cache.put("d", "plan-d", 101);
+        Assert.assertNull(cache.get("d"));
+        Assert.assertEquals(80, cache.getSize());
+
+        cache.put("e", "plan-e", 100);
+        Assert.assertEquals(1, cache.getPlanCount());
+        Assert.assertEquals("plan-e", cache.get("e"));
+    }
+
+    @Test
+    public void testRemove() {
+        JobPlanCache<String> cache = new JobPlanCache<>(100);
+        cache.put("a", "plan-a", 40);
+        cache.put("b", "plan-b", 40);
+        cache.remove("a");
+        cache.remove("c");
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(1, cache.getPlanCount());
+        Assert.assertEquals(40, cache.getSize());
+        // the freed space is reused without evicting b
+        cache.put("d", "plan-d", 60);
+        Assert.assertEquals("plan-b", cache.get("b"));
+        Assert.assertEquals(100, cache.getSize());
+    }
+
+    @Test
+    public void testMirrorStaysInSync() {
+        // the cluster controller decides from its mirror whether a node has a plan, so both caches must agree after
+        // applying the same operations
+        JobPlanCache<Boolean> mirror = new JobPlanCache<>(1000);
+        JobPlanCache<byte[]> nodeCache = new JobPlanCache<>(1000);
+        for (int i = 0; i < 200; i++) {
+            byte[] plan = new byte[50 + (i * 37) % 300];
+            plan[0] = (byte) (i % 7);
+            String hash = JobPlanCache.computeHash(null, plan);
+            if (mirror.get(hash) == null) {
+                mirror.put(hash, Boolean.TRUE, plan.length);
+                nodeCache.put(hash, plan, plan.length);
+            } else {
+                Assert.assertNotNull(nodeCache.get(hash));
+            }
+            Assert.assertEquals(mirror.getSize(), nodeCache.getSize());
+            Assert.assertEquals(mirror.getPlanCount(), nodeCache.getPlanCount());
+        }
+    }
+
+    @Test
+    public void testHashDependsOnDeployment() {
+        byte[] plan = new byte[] { 1, 2, 3 };
+        String hash = JobPlanCache.computeHash(null, plan);
+        Assert.assertEquals(64, hash.length());
+        Assert.assertEquals(hash, JobPlanCache.computeHash(null, new byte[] { 1, 2, 3 }));
+        Assert.assertNotEquals(hash, JobPlanCache.computeHash(null, new byte[] { 1, 2, 4 }));
+        Assert.assertNotEquals(hash, JobPlanCache.computeHash(new DeploymentId("lib"), plan));
+        Assert.assertFalse(new JobPlanCache<>(0).isEnabled());
+    }
+
+    @Test
+    public void testPlanIsSerializedWithoutListenerFactory() throws Exception {
+        // plans that only differ in the job their listener factory belongs to hash the same
+        byte[] plan1 = JobPlanCache.serializePlan(createPlan(new TestListenerFactory(new JobId(1))));
+        byte[] plan2 = JobPlanCache.serializePlan(createPlan(new TestListenerFactory(new JobId(2))));
+        Assert.assertArrayEquals(plan1, plan2);
+        Assert.assertEquals(JobPlanCache.computeHash(null, plan1), JobPlanCache.computeHash(null, plan2));
+        Assert.assertArrayEquals(JavaSerializationUtils.serialize(createPlan(null)), plan1);
+
+        ActivityClusterGraph acg = (ActivityClusterGraph) JavaSerializationUtils.deserialize(plan1);
+        Assert.assertNull(acg.getJobletEventListenerFactory());
+        Assert.assertEquals(32768, acg.getFrameSize());
+
+        // the plan itself keeps its factory
+        TestListenerFactory listenerFactory = new TestListenerFactory(new JobId(3));
+        ActivityClusterGraph plan = createPlan(listenerFactory);
+        JobPlanCache.serializePlan(plan);
+        Assert.assertSame(listenerFactory, plan.getJobletEventListenerFactory());
+    }
+
+    private static ActivityClusterGraph createPlan(IJobletEventListenerFactory listenerFactory) {
+        ActivityClusterGraph acg = new ActivityClusterGraph();
+        acg.setFrameSize(32768);
+        acg.setJobletEventListenerFactory(listenerFactory);
+        return acg;
+    }
+
+    private static class TestListenerFactory implements IJobletEventListenerFactory {
+        private static final long serialVersionUID = 1L;
+
+        private final JobId txnId;
+
+        private TestListenerFactory(JobId txnId) {
+            this.txnId = txnId;
+        }
+
+        @Override
+        public IJobletEventListener createListener(IHyracksJobletContext ctx) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.work;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PreparedWorkSchedulerTest {
+
+    @Test
+    public void testSchedulesInSubmissionOrder() {
+        List<Runnable> preparations = new ArrayList<>();
+        List<String> scheduled = new ArrayList<>();
+        PreparedWorkScheduler scheduler = new PreparedWorkScheduler(preparations::add,
+                work -> scheduled.add(work.toString()));
+        scheduler.submit(new NamedWork("a"), () -> true);
+        scheduler.submit(new NamedWork("b"), () -> true);
+        scheduler.submit(new NamedWork("c"), () -> true);
+        Assert.assertEquals(3, scheduler.getPendingCount());
+
+        // b and c are prepared before a, but wait for it
+        preparations.get(2).run();
+        preparations.get(1).run();
+        Assert.assertTrue(scheduled.isEmpty());
+        preparations.get(0).run();
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), scheduled);
+        Assert.assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testFailedPreparationIsDropped() {
+        List<Runnable> preparations = new ArrayList<>();
+        List<String> scheduled = new ArrayList<>();
+        PreparedWorkScheduler scheduler = new PreparedWorkScheduler(preparations::add,
+                work -> scheduled.add(work.toString()));
+        scheduler.submit(new NamedWork("a"), () -> false);
+        scheduler.submit(new NamedWork("b"), () -> {
+            throw new IllegalStateException("preparation failed");
+        });
+        scheduler.submit(new NamedWork("c"), () -> true);
+        preparations.get(2).run();
+        preparations.get(0).run();
+        Assert.assertTrue(scheduled.isEmpty());
+        try {
+            preparations.get(1).run();
+            Assert.fail("the preparation failure should be propagated to the executor");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        // neither a failed nor a throwing preparation holds up the works submitted after it
+        Assert.assertEquals(Collections.singletonList("c"), scheduled);
+        Assert.assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testConcurrentPreparations() throws Exception {
+        final int nWorks = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<String> scheduled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(nWorks);
+        PreparedWorkScheduler scheduler = new PreparedWorkScheduler(executor, work -> {
+            scheduled.add(work.toString());
+            done.countDown();
+        });
+        Random random = new Random(17);
+        List<String> expected = new ArrayList<>();
+        try {
+            for (int i = 0; i < nWorks; i++) {
+                String name = String.valueOf(i);
+                expected.add(name);
+                int delay = random.nextInt(3);
+                scheduler.submit(new NamedWork(name), () -> {
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                });
+            }
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(expected, scheduled);
+    }
+
+    private static class NamedWork extends AbstractWork {
+        private final String name;
+
+        NamedWork(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
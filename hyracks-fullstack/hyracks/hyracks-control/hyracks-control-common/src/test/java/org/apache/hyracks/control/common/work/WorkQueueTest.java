@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.common.work;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkQueueTest {
+
+    @Test
+    public void testControlLaneFirstWithoutStarvingMonitoring() throws Exception {
+        WorkQueue queue = new WorkQueue("test", Thread.NORM_PRIORITY);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(30);
+        for (int i = 0; i < 10; i++) {
+            queue.schedule(new TestWork(WorkLane.MONITORING, "m", executed, done));
+        }
+        for (int i = 0; i < 20; i++) {
+            queue.schedule(new TestWork(WorkLane.CONTROL, "c", executed, done));
+        }
+        Assert.assertEquals(10, queue.getLaneStats(WorkLane.MONITORING).getQueued());
+        Assert.assertEquals(20, queue.getLaneStats(WorkLane.CONTROL).getQueued());
+        queue.start();
+        try {
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            queue.stop();
+        }
+        // a monitoring work is let through after every 8 consecutive control works
+        Assert.assertEquals("ccccccccmccccccccmccccmmmmmmmm", String.join("", executed));
+        for (WorkLane lane : WorkLane.values()) {
+            WorkQueue.LaneStats stats = queue.getLaneStats(lane);
+            Assert.assertEquals(0, stats.getQueued());
+            Assert.assertTrue(stats.getMaxQueueLatencyMicros() >= stats.getAverageQueueLatencyMicros());
+        }
+        Assert.assertEquals(20, queue.getLaneStats(WorkLane.CONTROL).getExecuted());
+        Assert.assertEquals(10, queue.getLaneStats(WorkLane.MONITORING).getExecuted());
+    }
+
+    private static class TestWork extends AbstractWork {
+        private final WorkLane lane;
+        private final String name;
+        private final List<String> executed;
+        private final CountDownLatch done;
+
+        TestWork(WorkLane lane, String name, List<String> executed, CountDownLatch done) {
+            this.lane = lane;
+            this.name = name;
+            this.executed = executed;
+            this.done = done;
+        }
+
+        @Override
+        public WorkLane lane() {
+            return lane;
+        }
+
+        @Override
+        public void run() {
+            executed.add(name);
+            done.countDown();
+        }
+    }
+}
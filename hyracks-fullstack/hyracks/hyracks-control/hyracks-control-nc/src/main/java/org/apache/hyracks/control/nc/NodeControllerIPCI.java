@@ -63,7 +63,8 @@ final class NodeControllerIPCI implements IIPCI {
             case START_TASKS:
                 CCNCFunctions.StartTasksFunction stf = (CCNCFunctions.StartTasksFunction) fn;
                 ncs.getWorkQueue().schedule(new StartTasksWork(ncs, stf.getDeploymentId(), stf.getJobId(),
-                        stf.getPlanBytes(), stf.getTaskDescriptors(), stf.getConnectorPolicies(), stf.getFlags()));
+                        stf.getPlanBytes(), stf.getPlanHash(), stf.getListenerFactoryBytes(), stf.getTaskDescriptors(),
+                        stf.getConnectorPolicies(), stf.getFlags()));
                 return;
             case ABORT_TASKS:
                 CCNCFunctions.AbortTasksFunction atf = (CCNCFunctions.AbortTasksFunction) fn;
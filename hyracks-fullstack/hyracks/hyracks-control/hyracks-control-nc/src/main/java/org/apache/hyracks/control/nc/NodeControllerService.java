@@ -67,6 +67,7 @@ import org.apache.hyracks.control.common.heartbeat.HeartbeatSchema;
 import org.apache.hyracks.control.common.ipc.CCNCFunctions;
 import org.apache.hyracks.control.common.ipc.ClusterControllerRemoteProxy;
 import org.apache.hyracks.control.common.ipc.IControllerRemoteProxyIPCEventListener;
+import org.apache.hyracks.control.common.job.JobPlanCache;
 import org.apache.hyracks.control.common.job.profiling.om.JobProfile;
 import org.apache.hyracks.control.common.utils.PidHelper;
 import org.apache.hyracks.control.common.work.FutureValue;
@@ -129,6 +130,8 @@ public class NodeControllerService implements IControllerService {
 
     private NodeParameters nodeParameters;
 
+    private volatile JobPlanCache<byte[]> planCache;
+
     private HeartbeatTask heartbeatTask;
 
     private final ServerContext serverCtx;
@@ -247,7 +250,8 @@ public class NodeControllerService implements IControllerService {
     private void init() throws Exception {
         ioManager.setExecutor(executor);
         datasetPartitionManager = new DatasetPartitionManager(this, executor, ncConfig.getResultManagerMemory(),
-                ncConfig.getResultTTL(), ncConfig.getResultSweepThreshold());
+                ncConfig.getResultManagerPartitionMemory(), ncConfig.getResultTTL(),
+                ncConfig.getResultSweepThreshold());
         datasetNetworkManager = new DatasetNetworkManager(ncConfig.getResultListenAddress(),
                 ncConfig.getResultListenPort(), datasetPartitionManager, ncConfig.getNetThreadCount(),
                 ncConfig.getNetBufferCount(), ncConfig.getResultPublicAddress(), ncConfig.getResultPublicPort(),
@@ -355,6 +359,8 @@ public class NodeControllerService implements IControllerService {
             throw registrationException;
         }
         serviceCtx.setDistributedState(nodeParameters.getDistributedState());
+        // the cluster controller starts a new mirror of the plan cache for each registration
+        planCache = new JobPlanCache<>(nodeParameters.getPlanCacheSize());
         application.onRegisterNode();
         LOGGER.info("Registering with Cluster Controller complete");
     }
@@ -453,6 +459,10 @@ public class NodeControllerService implements IControllerService {
         return nodeParameters;
     }
 
+    public JobPlanCache<byte[]> getPlanCache() {
+        return planCache;
+    }
+
     @Override
     public ExecutorService getExecutor() {
         return executor;
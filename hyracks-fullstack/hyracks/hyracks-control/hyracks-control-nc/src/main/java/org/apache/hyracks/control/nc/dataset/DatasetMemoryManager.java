@@ -39,8 +39,20 @@ public class DatasetMemoryManager {
 
     private final static int FRAME_SIZE = 32768;
 
+    private final int maxPagesPerPartition;
+
     public DatasetMemoryManager(int availableMemory) {
+        this(availableMemory, -1);
+    }
+
+    /**
+     * @param partitionMemory
+     *            the memory that a single result partition may keep, older pages of larger results are spilled.
+     *            No limit applies if it is not positive.
+     */
+    public DatasetMemoryManager(int availableMemory, int partitionMemory) {
         this.availableMemory = availableMemory;
+        maxPagesPerPartition = partitionMemory > 0 ? Math.max(1, partitionMemory / FRAME_SIZE) : Integer.MAX_VALUE;
 
         availPages = new HashSet<Page>();
 
@@ -92,6 +104,10 @@ public class DatasetMemoryManager {
         return FRAME_SIZE;
     }
 
+    public int getMaxPagesPerPartition() {
+        return maxPagesPerPartition;
+    }
+
     protected void insertPartitionNode(ResultSetPartitionId resultSetPartitionId, PartitionNode pn) {
         leastRecentlyUsedList.add(pn);
         resultPartitionNodesMap.put(resultSetPartitionId, pn);
@@ -54,12 +54,17 @@ public class DatasetPartitionManager implements IDatasetPartitionManager {
 
     public DatasetPartitionManager(NodeControllerService ncs, Executor executor, int availableMemory, long resultTTL,
             long resultSweepThreshold) {
+        this(ncs, executor, availableMemory, -1, resultTTL, resultSweepThreshold);
+    }
+
+    public DatasetPartitionManager(NodeControllerService ncs, Executor executor, int availableMemory,
+            int partitionMemory, long resultTTL, long resultSweepThreshold) {
         this.ncs = ncs;
         this.executor = executor;
         deallocatableRegistry = new DefaultDeallocatableRegistry();
         fileFactory = new WorkspaceFileFactory(deallocatableRegistry, ncs.getIoManager());
         if (availableMemory >= DatasetMemoryManager.getPageSize()) {
-            datasetMemoryManager = new DatasetMemoryManager(availableMemory);
+            datasetMemoryManager = new DatasetMemoryManager(availableMemory, partitionMemory);
         } else {
             datasetMemoryManager = null;
         }
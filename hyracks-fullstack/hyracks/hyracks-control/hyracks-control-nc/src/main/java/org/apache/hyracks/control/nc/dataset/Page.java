@@ -23,14 +23,29 @@ import java.nio.ByteBuffer;
 public class Page {
     private final ByteBuffer buffer;
 
+    private final boolean managed;
+
     public Page(ByteBuffer buffer) {
+        this(buffer, true);
+    }
+
+    /**
+     * @param managed
+     *            whether the page belongs to the {@link DatasetMemoryManager} or to a single result
+     */
+    public Page(ByteBuffer buffer, boolean managed) {
         this.buffer = buffer;
+        this.managed = managed;
     }
 
     public ByteBuffer getBuffer() {
         return buffer;
     }
 
+    public boolean isManaged() {
+        return managed;
+    }
+
     public ByteBuffer clear() {
         return (ByteBuffer) buffer.clear();
     }
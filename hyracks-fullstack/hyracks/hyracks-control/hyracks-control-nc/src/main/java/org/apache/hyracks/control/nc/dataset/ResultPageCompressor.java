@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.dataset;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Compresses result pages that are spilled to disk. Compressors are kept per thread, as pages are spilled and read
+ * by writer, evicting and reader threads that each handle one page at a time.
+ */
+final class ResultPageCompressor {
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private ResultPageCompressor() {
+    }
+
+    /**
+     * @return the compressed length, or -1 if the data does not compress to less than its own length
+     */
+    static int compress(byte[] src, int offset, int length, byte[] dest) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(src, offset, length);
+        deflater.finish();
+        int limit = Math.min(length - 1, dest.length);
+        int compressedLength = 0;
+        while (!deflater.finished() && compressedLength < limit) {
+            compressedLength += deflater.deflate(dest, compressedLength, limit - compressedLength);
+        }
+        return deflater.finished() ? compressedLength : -1;
+    }
+
+    static void decompress(byte[] src, int srcLength, byte[] dest, int destOffset, int length)
+            throws HyracksDataException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(src, 0, srcLength);
+        try {
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int inflated = inflater.inflate(dest, destOffset + n, length - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != length) {
+                throw new HyracksDataException("Corrupted result page - expected " + length + " bytes, found " + n);
+            }
+        } catch (DataFormatException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+}
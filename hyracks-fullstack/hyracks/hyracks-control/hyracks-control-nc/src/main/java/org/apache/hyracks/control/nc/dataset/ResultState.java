@@ -23,6 +23,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -40,9 +41,18 @@ import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+/**
+ * The result of one partition of a result set. The result is kept in pages: the most recent pages are kept in
+ * memory, older pages are spilled, compressed where that pays off, to a run file when memory is needed elsewhere or
+ * when the result exceeds its share of the result memory.
+ */
 public class ResultState implements IStateObject {
     private static final String FILE_PREFIX = "result_";
 
+    private static final int PAGE_SIZE = DatasetMemoryManager.getPageSize();
+
+    private static final int INITIAL_SPILLED_PAGES = 16;
+
     private final ResultSetPartitionId resultSetPartitionId;
 
     private final boolean asyncMode;
@@ -57,6 +67,7 @@ public class ResultState implements IStateObject {
 
     private final AtomicBoolean failed;
 
+    // In-memory pages, oldest first. They hold the bytes [persistentSize, size).
     private final List<Page> localPageList;
 
     private FileReference fileRef;
@@ -69,6 +80,24 @@ public class ResultState implements IStateObject {
 
     private long persistentSize;
 
+    // Directory of the spilled pages, which hold the bytes [0, persistentSize), and their place in the run file.
+    // A page is stored uncompressed if its length in the file is its length in the result.
+    private long[] spilledPageStarts;
+
+    private long[] spilledPageFileOffsets;
+
+    private int[] spilledPageFileLengths;
+
+    private int nSpilledPages;
+
+    private long fileSize;
+
+    private byte[] compressedPage;
+
+    private byte[] decompressedPage;
+
+    private int decompressedPageIndex;
+
     ResultState(ResultSetPartitionId resultSetPartitionId, boolean asyncMode, IIOManager ioManager,
             IWorkspaceFileFactory fileFactory, int frameSize) {
         this.resultSetPartitionId = resultSetPartitionId;
@@ -87,12 +116,24 @@ public class ResultState implements IStateObject {
     public synchronized void open() {
         size = 0;
         persistentSize = 0;
+        fileSize = 0;
+        nSpilledPages = 0;
+        decompressedPageIndex = -1;
     }
 
-    public synchronized void close() {
+    public synchronized void close() throws HyracksDataException {
         eos.set(true);
-        closeWriteFileHandle();
-        notifyAll();
+        try {
+            // Without a memory manager the last page is owned by this result. Asynchronous results may be kept for
+            // a long time, so they give it up.
+            if (asyncMode && !localPageList.isEmpty() && !localPageList.get(0).isManaged()) {
+                spillOldestPage();
+                localPageList.clear();
+            }
+        } finally {
+            closeWriteFileHandle();
+            notifyAll();
+        }
     }
 
     public synchronized void closeAndDelete() {
@@ -103,6 +144,12 @@ public class ResultState implements IStateObject {
         if (fileRef != null) {
             fileRef.delete();
         }
+        // Managed pages that are no longer listed here are reclaimed by the memory manager when it needs them.
+        localPageList.clear();
+        compressedPage = null;
+        decompressedPage = null;
+        // wake up readers that wait for more data, they find the result failed
+        notifyAll();
     }
 
     private void closeWriteFileHandle() {
@@ -116,16 +163,14 @@ public class ResultState implements IStateObject {
         }
     }
 
+    /**
+     * Writes without a memory manager. Unlike the run file that such results used to be written to directly, the
+     * result keeps one page of its own on the heap and spills it whenever it is full, so that spilled pages can be
+     * compressed. The page lives until the result is deleted, unless the result is asynchronous, see
+     * {@link #close()}.
+     */
     public synchronized void write(ByteBuffer buffer) throws HyracksDataException {
-        if (fileRef == null) {
-            String fName = FILE_PREFIX + String.valueOf(resultSetPartitionId.getPartition());
-            fileRef = fileFactory.createUnmanagedWorkspaceFile(fName);
-            writeFileHandle = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
-                    IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
-        }
-
-        size += ioManager.syncWrite(writeFileHandle, size, buffer);
-        notifyAll();
+        write(null, buffer);
     }
 
     public synchronized void write(DatasetMemoryManager datasetMemoryManager, ByteBuffer buffer)
@@ -139,8 +184,7 @@ public class ResultState implements IStateObject {
 
         while (srcOffset < buffer.limit()) {
             if ((destPage == null) || (destPage.getBuffer().remaining() <= 0)) {
-                destPage = datasetMemoryManager.requestPage(resultSetPartitionId, this);
-                localPageList.add(destPage);
+                destPage = nextWritePage(datasetMemoryManager);
             }
             int srcLength = Math.min(buffer.limit() - srcOffset, destPage.getBuffer().remaining());
             destPage.getBuffer().put(buffer.array(), srcOffset, srcLength);
@@ -151,6 +195,74 @@ public class ResultState implements IStateObject {
         notifyAll();
     }
 
+    private Page nextWritePage(DatasetMemoryManager datasetMemoryManager) throws HyracksDataException {
+        Page page;
+        int maxPages = datasetMemoryManager == null ? 1 : datasetMemoryManager.getMaxPagesPerPartition();
+        if (localPageList.size() >= maxPages) {
+            // this result has used up its share of the memory, so it recycles its own oldest page
+            page = spillOldestPage();
+            page.clear();
+        } else if (datasetMemoryManager == null) {
+            page = new Page(ByteBuffer.allocate(PAGE_SIZE), false);
+        } else {
+            page = datasetMemoryManager.requestPage(resultSetPartitionId, this);
+        }
+        localPageList.add(page);
+        return page;
+    }
+
+    /**
+     * Writes the oldest in-memory page to the run file and removes it from the in-memory pages.
+     *
+     * @return the spilled page
+     */
+    private Page spillOldestPage() throws HyracksDataException {
+        Page page = localPageList.remove(0);
+        byte[] data = page.getBuffer().array();
+        int length = page.getBuffer().position();
+        if (length == 0) {
+            return page;
+        }
+        if (writeFileHandle == null) {
+            openWriteFileHandle();
+        }
+        if (compressedPage == null) {
+            compressedPage = new byte[PAGE_SIZE];
+        }
+        int compressedLength = ResultPageCompressor.compress(data, 0, length, compressedPage);
+        ByteBuffer fileData = compressedLength < 0 ? ByteBuffer.wrap(data, 0, length)
+                : ByteBuffer.wrap(compressedPage, 0, compressedLength);
+        int fileLength = fileData.remaining();
+        ioManager.syncWrite(writeFileHandle, fileSize, fileData);
+
+        if (spilledPageStarts == null) {
+            spilledPageStarts = new long[INITIAL_SPILLED_PAGES];
+            spilledPageFileOffsets = new long[INITIAL_SPILLED_PAGES];
+            spilledPageFileLengths = new int[INITIAL_SPILLED_PAGES];
+        } else if (nSpilledPages == spilledPageStarts.length) {
+            spilledPageStarts = Arrays.copyOf(spilledPageStarts, nSpilledPages * 2);
+            spilledPageFileOffsets = Arrays.copyOf(spilledPageFileOffsets, nSpilledPages * 2);
+            spilledPageFileLengths = Arrays.copyOf(spilledPageFileLengths, nSpilledPages * 2);
+        }
+        spilledPageStarts[nSpilledPages] = persistentSize;
+        spilledPageFileOffsets[nSpilledPages] = fileSize;
+        spilledPageFileLengths[nSpilledPages] = fileLength;
+        ++nSpilledPages;
+        persistentSize += length;
+        fileSize += fileLength;
+        return page;
+    }
+
+    private void openWriteFileHandle() throws HyracksDataException {
+        if (fileRef == null) {
+            String fName = FILE_PREFIX + String.valueOf(resultSetPartitionId.getPartition());
+            fileRef = fileFactory.createUnmanagedWorkspaceFile(fName);
+            notifyAll();
+        }
+        writeFileHandle = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
+                IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+    }
+
     public synchronized void readOpen() {
         // It is a noOp for now, leaving here to keep the API stable for future usage.
     }
@@ -163,6 +275,22 @@ public class ResultState implements IStateObject {
     }
 
     public synchronized long read(long offset, ByteBuffer buffer) throws HyracksDataException {
+        return readPages(offset, buffer);
+    }
+
+    public long read(DatasetMemoryManager datasetMemoryManager, long offset, ByteBuffer buffer)
+            throws HyracksDataException {
+        long readSize;
+        synchronized (this) {
+            readSize = readPages(offset, buffer);
+        }
+        if (readSize > 0) {
+            datasetMemoryManager.pageReferenced(resultSetPartitionId);
+        }
+        return readSize;
+    }
+
+    private long readPages(long offset, ByteBuffer buffer) throws HyracksDataException {
         long readSize = 0;
 
         while (offset >= size && !eos.get() && !failed.get()) {
@@ -176,54 +304,78 @@ public class ResultState implements IStateObject {
             return readSize;
         }
 
-        if (readFileHandle == null) {
+        if (offset < persistentSize && readFileHandle == null) {
             initReadFileHandle();
+            if (readFileHandle == null) {
+                return readSize;
+            }
+        }
+        while (buffer.hasRemaining() && offset < size) {
+            int n = offset < persistentSize ? readSpilledPage(offset, buffer) : readLocalPage(offset, buffer);
+            offset += n;
+            readSize += n;
         }
-        readSize = ioManager.syncRead(readFileHandle, offset, buffer);
-
         return readSize;
     }
 
-    public long read(DatasetMemoryManager datasetMemoryManager, long offset, ByteBuffer buffer)
-            throws HyracksDataException {
-        long readSize = 0;
-        synchronized (this) {
-            while (offset >= size && !eos.get() && !failed.get()) {
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    throw new HyracksDataException(e);
-                }
-            }
+    private int readLocalPage(long offset, ByteBuffer buffer) {
+        long localPageOffset = offset - persistentSize;
+        Page page = localPageList.get((int) (localPageOffset / PAGE_SIZE));
+        int pageOffset = (int) (localPageOffset % PAGE_SIZE);
+        int length = Math.min(buffer.remaining(), page.getBuffer().position() - pageOffset);
+        buffer.put(page.getBuffer().array(), pageOffset, length);
+        return length;
+    }
 
-            if ((offset >= size && eos.get()) || failed.get()) {
-                return readSize;
+    /**
+     * Reads from a spilled page. Uncompressed pages, and compressed pages that are read as a whole, are read or
+     * decompressed directly into the buffer. Otherwise the page is decompressed once and kept for the next read.
+     */
+    private int readSpilledPage(long offset, ByteBuffer buffer) throws HyracksDataException {
+        int pageIndex = Arrays.binarySearch(spilledPageStarts, 0, nSpilledPages, offset);
+        if (pageIndex < 0) {
+            pageIndex = -pageIndex - 2;
+        }
+        long pageStart = spilledPageStarts[pageIndex];
+        long pageEnd = pageIndex + 1 < nSpilledPages ? spilledPageStarts[pageIndex + 1] : persistentSize;
+        int pageLength = (int) (pageEnd - pageStart);
+        int pageOffset = (int) (offset - pageStart);
+        int length = Math.min(buffer.remaining(), pageLength - pageOffset);
+        int fileLength = spilledPageFileLengths[pageIndex];
+        if (fileLength == pageLength) {
+            ByteBuffer dest = buffer.duplicate();
+            dest.limit(dest.position() + length);
+            if (ioManager.syncRead(readFileHandle, spilledPageFileOffsets[pageIndex] + pageOffset, dest) != length) {
+                throw new HyracksDataException("Premature end of file");
             }
-
-            if (offset < persistentSize) {
-                if (readFileHandle == null) {
-                    initReadFileHandle();
-                }
-                readSize = ioManager.syncRead(readFileHandle, offset, buffer);
-                if (readSize < 0){
-                    throw new HyracksDataException("Premature end of file");
+            buffer.position(buffer.position() + length);
+        } else if (pageOffset == 0 && length == pageLength) {
+            readCompressedPage(pageIndex, fileLength);
+            ResultPageCompressor.decompress(compressedPage, fileLength, buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+        } else {
+            if (decompressedPageIndex != pageIndex) {
+                readCompressedPage(pageIndex, fileLength);
+                if (decompressedPage == null) {
+                    decompressedPage = new byte[PAGE_SIZE];
                 }
+                ResultPageCompressor.decompress(compressedPage, fileLength, decompressedPage, 0, pageLength);
+                decompressedPageIndex = pageIndex;
             }
+            buffer.put(decompressedPage, pageOffset, length);
+        }
+        return length;
+    }
 
-            if (readSize < buffer.capacity()) {
-                long localPageOffset = offset - persistentSize;
-                int localPageIndex = (int) (localPageOffset / DatasetMemoryManager.getPageSize());
-                int pageOffset = (int) (localPageOffset % DatasetMemoryManager.getPageSize());
-                Page page = getPage(localPageIndex);
-                if (page == null) {
-                    return readSize;
-                }
-                readSize += buffer.remaining();
-                buffer.put(page.getBuffer().array(), pageOffset, buffer.remaining());
-            }
+    private void readCompressedPage(int pageIndex, int fileLength) throws HyracksDataException {
+        if (compressedPage == null) {
+            compressedPage = new byte[PAGE_SIZE];
+        }
+        ByteBuffer src = ByteBuffer.wrap(compressedPage, 0, fileLength);
+        if (ioManager.syncRead(readFileHandle, spilledPageFileOffsets[pageIndex], src) != fileLength) {
+            throw new HyracksDataException("Premature end of file");
         }
-        datasetMemoryManager.pageReferenced(resultSetPartitionId);
-        return readSize;
     }
 
     public synchronized void abort() {
@@ -231,27 +383,17 @@ public class ResultState implements IStateObject {
         notifyAll();
     }
 
+    /**
+     * Gives the oldest in-memory page of this result back to the memory manager after spilling it.
+     *
+     * @return the page, or null if this result does not hold any page
+     */
     public synchronized Page returnPage() throws HyracksDataException {
-        Page page = removePage();
-
-        // If we do not have any pages to be given back close the write channel since we don't write any more, return null.
-        if (page == null) {
-            ioManager.close(writeFileHandle);
+        if (localPageList.isEmpty()) {
             return null;
         }
-
-        page.getBuffer().flip();
-
-        if (fileRef == null) {
-            String fName = FILE_PREFIX + String.valueOf(resultSetPartitionId.getPartition());
-            fileRef = fileFactory.createUnmanagedWorkspaceFile(fName);
-            writeFileHandle = ioManager.open(fileRef, IIOManager.FileReadWriteMode.READ_WRITE,
-                    IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
-            notifyAll();
-        }
-
-        long delta = ioManager.syncWrite(writeFileHandle, persistentSize, page.getBuffer());
-        persistentSize += delta;
+        Page page = spillOldestPage();
+        page.clear();
         return page;
     }
 
@@ -300,22 +442,6 @@ public class ResultState implements IStateObject {
         throw new UnsupportedOperationException();
     }
 
-    private Page getPage(int index) {
-        Page page = null;
-        if (!localPageList.isEmpty()) {
-            page = localPageList.get(index);
-        }
-        return page;
-    }
-
-    private Page removePage() {
-        Page page = null;
-        if (!localPageList.isEmpty()) {
-            page = localPageList.remove(localPageList.size() - 1);
-        }
-        return page;
-    }
-
     private void initReadFileHandle() throws HyracksDataException {
         while (fileRef == null && !failed.get()) {
             try {
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,11 +53,13 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.ActivityCluster;
 import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IJobletEventListenerFactory;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.partitions.PartitionId;
 import org.apache.hyracks.comm.channels.NetworkInputChannel;
 import org.apache.hyracks.control.common.deployment.DeploymentUtils;
+import org.apache.hyracks.control.common.job.JobPlanCache;
 import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 import org.apache.hyracks.control.common.utils.ExceptionUtils;
 import org.apache.hyracks.control.common.work.AbstractWork;
@@ -73,6 +76,12 @@ import org.apache.hyracks.control.nc.profiling.ProfilingPartitionWriterFactory;
 public class StartTasksWork extends AbstractWork {
     private static final Logger LOGGER = Logger.getLogger(StartTasksWork.class.getName());
 
+    public static final String PLAN_LOAD_TIME_COUNTER = "startup.planLoadMicros";
+
+    public static final String PLAN_CACHE_HITS_COUNTER = "startup.planCacheHits";
+
+    public static final String TASK_CREATION_TIME_COUNTER = "startup.taskCreationMicros";
+
     private final NodeControllerService ncs;
 
     private final DeploymentId deploymentId;
@@ -81,6 +90,10 @@ public class StartTasksWork extends AbstractWork {
 
     private final byte[] acgBytes;
 
+    private final String planHash;
+
+    private final byte[] listenerFactoryBytes;
+
     private final List<TaskAttemptDescriptor> taskDescriptors;
 
     private final Map<ConnectorDescriptorId, IConnectorPolicy> connectorPoliciesMap;
@@ -88,12 +101,14 @@ public class StartTasksWork extends AbstractWork {
     private final Set<JobFlag> flags;
 
     public StartTasksWork(NodeControllerService ncs, DeploymentId deploymentId, JobId jobId, byte[] acgBytes,
-            List<TaskAttemptDescriptor> taskDescriptors,
+            String planHash, byte[] listenerFactoryBytes, List<TaskAttemptDescriptor> taskDescriptors,
             Map<ConnectorDescriptorId, IConnectorPolicy> connectorPoliciesMap, Set<JobFlag> flags) {
         this.ncs = ncs;
         this.deploymentId = deploymentId;
         this.jobId = jobId;
         this.acgBytes = acgBytes;
+        this.planHash = planHash;
+        this.listenerFactoryBytes = listenerFactoryBytes;
         this.taskDescriptors = taskDescriptors;
         this.connectorPoliciesMap = connectorPoliciesMap;
         this.flags = flags;
@@ -105,7 +120,17 @@ public class StartTasksWork extends AbstractWork {
         try {
             ncs.updateMaxJobId(jobId);
             NCServiceContext serviceCtx = ncs.getContext();
-            Joblet joblet = getOrCreateLocalJoblet(deploymentId, jobId, serviceCtx, acgBytes);
+            byte[] planBytes = getPlanBytes();
+            if (planHash != null && planBytes == null) {
+                // the cluster controller resends the tasks with the full plan
+                if (LOGGER.isLoggable(Level.INFO)) {
+                    LOGGER.info("The plan of job " + jobId + " is not in the plan cache, requesting it");
+                }
+                ncs.getClusterController().reportPlanCacheMiss(jobId, ncs.getId(), planHash, taskDescriptors);
+                return;
+            }
+            Joblet joblet = getOrCreateLocalJoblet(deploymentId, jobId, serviceCtx, planBytes);
+            long taskCreationStart = System.nanoTime();
             final ActivityClusterGraph acg = joblet.getActivityClusterGraph();
             IRecordDescriptorProvider rdp = new IRecordDescriptorProvider() {
                 @Override
@@ -175,6 +200,7 @@ public class StartTasksWork extends AbstractWork {
                 joblet.addTask(task);
                 task.start();
             }
+            joblet.getCounter(TASK_CREATION_TIME_COUNTER, true).update(micros(System.nanoTime() - taskCreationStart));
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "Failure starting a task", e);
             // notify cc of start task failure
@@ -184,24 +210,58 @@ public class StartTasksWork extends AbstractWork {
         }
     }
 
+    /**
+     * Applies the plan cache operation requested by the cluster controller: a plan sent with its hash is cached and a
+     * plan sent as a hash only is taken from the cache.
+     *
+     * @return the serialized plan, or null if it was sent as a hash only and is not in the cache
+     */
+    private byte[] getPlanBytes() {
+        if (planHash == null) {
+            return acgBytes;
+        }
+        JobPlanCache<byte[]> planCache = ncs.getPlanCache();
+        if (acgBytes != null) {
+            if (planCache != null) {
+                planCache.put(planHash, acgBytes, acgBytes.length);
+            }
+            return acgBytes;
+        }
+        return planCache == null ? null : planCache.get(planHash);
+    }
+
     private Joblet getOrCreateLocalJoblet(DeploymentId deploymentId, JobId jobId, INCServiceContext appCtx,
             byte[] acgBytes) throws HyracksException {
         Map<JobId, Joblet> jobletMap = ncs.getJobletMap();
         Joblet ji = jobletMap.get(jobId);
         if (ji == null) {
+            long planLoadStart = System.nanoTime();
             ActivityClusterGraph acg = ncs.getActivityClusterGraph(jobId);
             if (acg == null) {
                 if (acgBytes == null) {
                     throw HyracksException.create(ErrorCode.ERROR_FINDING_DISTRIBUTED_JOB, jobId);
                 }
                 acg = (ActivityClusterGraph) DeploymentUtils.deserialize(acgBytes, deploymentId, appCtx);
+                if (planHash != null && listenerFactoryBytes != null) {
+                    // a cached plan is serialized without the listener factory of its job
+                    acg.setJobletEventListenerFactory((IJobletEventListenerFactory) DeploymentUtils
+                            .deserialize(listenerFactoryBytes, deploymentId, appCtx));
+                }
             }
             ji = new Joblet(ncs, deploymentId, jobId, appCtx, acg);
+            ji.getCounter(PLAN_LOAD_TIME_COUNTER, true).update(micros(System.nanoTime() - planLoadStart));
+            if (planHash != null && this.acgBytes == null) {
+                ji.getCounter(PLAN_CACHE_HITS_COUNTER, true).update(1);
+            }
             jobletMap.put(jobId, ji);
         }
         return ji;
     }
 
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
     private IPartitionCollector createPartitionCollector(TaskAttemptDescriptor td, final int partition, Task task,
             int i, IConnectorDescriptor conn, RecordDescriptor recordDesc, IConnectorPolicy cPolicy)
             throws HyracksDataException {
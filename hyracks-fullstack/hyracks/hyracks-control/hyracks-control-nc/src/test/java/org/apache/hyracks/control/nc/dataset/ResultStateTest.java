@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.dataset;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.api.io.IWorkspaceFileFactory;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.partitions.ResultSetPartitionId;
+import org.apache.hyracks.control.nc.io.DefaultDeviceResolver;
+import org.apache.hyracks.control.nc.io.IOManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultStateTest {
+
+    private static final int PAGE_SIZE = DatasetMemoryManager.getPageSize();
+    private static final int FRAME_SIZE = 4096;
+
+    private File workspace;
+    private IOManager ioManager;
+    private IWorkspaceFileFactory fileFactory;
+    private final List<FileReference> files = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        workspace = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        List<IODeviceHandle> devices = new ArrayList<>();
+        devices.add(new IODeviceHandle(workspace, "."));
+        ioManager = new IOManager(devices, new DefaultDeviceResolver());
+        fileFactory = new IWorkspaceFileFactory() {
+            @Override
+            public FileReference createManagedWorkspaceFile(String prefix) throws HyracksDataException {
+                return createUnmanagedWorkspaceFile(prefix);
+            }
+
+            @Override
+            public FileReference createUnmanagedWorkspaceFile(String prefix) throws HyracksDataException {
+                FileReference file = ioManager.createWorkspaceFile(prefix);
+                files.add(file);
+                return file;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(workspace);
+    }
+
+    @Test
+    public void inMemoryRead() throws Exception {
+        DatasetMemoryManager memoryManager = new DatasetMemoryManager(8 * PAGE_SIZE);
+        ResultState state = createState(false);
+        byte[] data = data(2 * PAGE_SIZE + 1000, true);
+        write(state, memoryManager, data);
+        state.close();
+        Assert.assertArrayEquals(data, read(state, memoryManager, FRAME_SIZE));
+        Assert.assertTrue(files.isEmpty());
+    }
+
+    @Test
+    public void spillThenRead() throws Exception {
+        // only one page per partition, so that all but the last page are spilled
+        DatasetMemoryManager memoryManager = new DatasetMemoryManager(8 * PAGE_SIZE, PAGE_SIZE);
+        ResultState state = createState(false);
+        // pages that do not compress are stored as they are
+        byte[] data = data(4 * PAGE_SIZE + 1000, false);
+        write(state, memoryManager, data);
+        state.close();
+        Assert.assertEquals(1, files.size());
+        Assert.assertEquals(4 * PAGE_SIZE, files.get(0).getFile().length());
+        Assert.assertArrayEquals(data, read(state, memoryManager, FRAME_SIZE));
+    }
+
+    @Test
+    public void readWhileSpilling() throws Exception {
+        DatasetMemoryManager memoryManager = new DatasetMemoryManager(8 * PAGE_SIZE, PAGE_SIZE);
+        ResultState state = createState(false);
+        byte[] data = data(3 * PAGE_SIZE, true);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+        long offset = 0;
+        int written = 0;
+        while (written < data.length) {
+            state.write(memoryManager, frame(data, written));
+            written += FRAME_SIZE;
+            // the reader follows the writer, some of its reads are served from pages spilled in between
+            if (written % (3 * FRAME_SIZE) == 0) {
+                frame.clear();
+                long n = state.read(memoryManager, offset, frame);
+                Assert.assertEquals(FRAME_SIZE, n);
+                assertRange(data, offset, frame);
+                offset += n;
+            }
+        }
+        state.close();
+        while (true) {
+            frame.clear();
+            long n = state.read(memoryManager, offset, frame);
+            if (n <= 0) {
+                break;
+            }
+            assertRange(data, offset, frame);
+            offset += n;
+        }
+        Assert.assertEquals(data.length, offset);
+    }
+
+    @Test
+    public void compressedReadAcrossPageBoundaries() throws Exception {
+        DatasetMemoryManager memoryManager = new DatasetMemoryManager(8 * PAGE_SIZE, PAGE_SIZE);
+        ResultState state = createState(false);
+        byte[] data = data(5 * PAGE_SIZE + 123, true);
+        write(state, memoryManager, data);
+        state.close();
+        Assert.assertEquals(1, files.size());
+        Assert.assertTrue(files.get(0).getFile().length() < 5 * PAGE_SIZE);
+        // reads that start and end within pages and span page boundaries
+        Assert.assertArrayEquals(data, read(state, memoryManager, 10000));
+        // reads of whole pages, which are decompressed directly into the buffer
+        Assert.assertArrayEquals(data, read(state, memoryManager, PAGE_SIZE));
+        // reads that cover several pages at once
+        Assert.assertArrayEquals(data, read(state, memoryManager, 3 * PAGE_SIZE));
+        state.readClose();
+    }
+
+    @Test
+    public void unmanagedResultSpillsItsPage() throws Exception {
+        ResultState state = createState(true);
+        byte[] data = data(2 * PAGE_SIZE + 1000, true);
+        write(state, null, data);
+        Assert.assertEquals(1, files.size());
+        long spilled = files.get(0).getFile().length();
+        // an asynchronous result spills its last page on close, so that it does not keep it on the heap
+        state.close();
+        Assert.assertTrue(files.get(0).getFile().length() > spilled);
+        Assert.assertArrayEquals(data, read(state, null, FRAME_SIZE));
+    }
+
+    @Test
+    public void closeAndDeleteWhileReaderIsOpen() throws Exception {
+        DatasetMemoryManager memoryManager = new DatasetMemoryManager(8 * PAGE_SIZE, PAGE_SIZE);
+        ResultState state = createState(false);
+        byte[] data = data(2 * PAGE_SIZE, true);
+        write(state, memoryManager, data);
+        state.readOpen();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE);
+        Assert.assertEquals(FRAME_SIZE, state.read(memoryManager, 0, frame));
+        assertRange(data, 0, frame);
+
+        // a reader that waits for more data is released by the deletion
+        long[] waitingRead = new long[] { -1 };
+        Thread waitingReader = new Thread(() -> {
+            try {
+                waitingRead[0] = state.read(memoryManager, data.length, ByteBuffer.allocate(FRAME_SIZE));
+            } catch (HyracksDataException e) {
+                waitingRead[0] = -2;
+            }
+        });
+        waitingReader.start();
+        while (waitingReader.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        state.closeAndDelete();
+        waitingReader.join(10000);
+        Assert.assertFalse(waitingReader.isAlive());
+        Assert.assertEquals(0, waitingRead[0]);
+
+        // the open reader does not read anything after the deletion, and can still be closed
+        frame.clear();
+        Assert.assertEquals(0, state.read(memoryManager, FRAME_SIZE, frame));
+        state.readClose();
+        Assert.assertFalse(files.get(0).getFile().exists());
+    }
+
+    private ResultState createState(boolean asyncMode) {
+        ResultState state = new ResultState(new ResultSetPartitionId(new JobId(0), new ResultSetId(0), 0), asyncMode,
+                ioManager, fileFactory, FRAME_SIZE);
+        state.open();
+        return state;
+    }
+
+    /**
+     * @return data that either compresses well or not at all
+     */
+    private static byte[] data(int length, boolean compressible) {
+        byte[] data = new byte[length];
+        Random random = new Random(length);
+        if (compressible) {
+            for (int i = 0; i < length; ++i) {
+                data[i] = (byte) ('a' + random.nextInt(4));
+            }
+        } else {
+            random.nextBytes(data);
+        }
+        return data;
+    }
+
+    private static void write(ResultState state, DatasetMemoryManager memoryManager, byte[] data) throws Exception {
+        for (int offset = 0; offset < data.length; offset += FRAME_SIZE) {
+            ByteBuffer frame = frame(data, offset);
+            if (memoryManager == null) {
+                state.write(frame);
+            } else {
+                state.write(memoryManager, frame);
+            }
+        }
+    }
+
+    private static ByteBuffer frame(byte[] data, int offset) {
+        return ByteBuffer.wrap(Arrays.copyOfRange(data, offset, Math.min(offset + FRAME_SIZE, data.length)));
+    }
+
+    private static byte[] read(ResultState state, DatasetMemoryManager memoryManager, int bufferSize)
+            throws Exception {
+        ByteBuffer result = ByteBuffer.allocate(10 * PAGE_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        long offset = 0;
+        while (true) {
+            buffer.clear();
+            long n = memoryManager == null ? state.read(offset, buffer) : state.read(memoryManager, offset, buffer);
+            if (n <= 0) {
+                break;
+            }
+            Assert.assertEquals(n, buffer.position());
+            buffer.flip();
+            result.put(buffer);
+            offset += n;
+        }
+        byte[] data = new byte[result.position()];
+        result.flip();
+        result.get(data);
+        return data;
+    }
+
+    private static void assertRange(byte[] data, long offset, ByteBuffer frame) {
+        for (int i = 0; i < frame.position(); ++i) {
+            Assert.assertEquals(data[(int) offset + i], frame.get(i));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.comm.compression;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FrameConstants;
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.util.IntSerDeUtils;
+
+/**
+ * Encodes frames into compressed frames. Since channels transfer frames in units of the minimum frame size,
+ * compressed frames are packed into container frames which are themselves frames whose size is a multiple of the
+ * minimum frame size. The layout of a container frame is
+ *
+ * <pre>
+ * | frame count | number of compressed frames | compressed frame | compressed frame | ...
+ * </pre>
+ *
+ * Only the used parts of a tuple frame are compressed: the frame header with the tuple data, and the tuple end
+ * offsets with the tuple count at the end of the frame. The layout of a compressed frame is
+ *
+ * <pre>
+ * | raw frame size | data length | compressed data length | trailer length | compressed trailer length |
+ * | data | trailer |
+ * </pre>
+ *
+ * where a compressed length of {@link #STORED} means that the region is stored uncompressed.
+ * Instances are not thread-safe.
+ */
+public class FrameCompressor {
+    public static final int CONTAINER_HEADER_SIZE = 8;
+
+    static final int ENTRY_COUNT_OFFSET = 4;
+
+    static final int RAW_FRAME_SIZE_OFFSET = 0;
+
+    static final int DATA_LENGTH_OFFSET = 4;
+
+    static final int DATA_COMPRESSED_LENGTH_OFFSET = 8;
+
+    static final int TRAILER_LENGTH_OFFSET = 12;
+
+    static final int TRAILER_COMPRESSED_LENGTH_OFFSET = 16;
+
+    static final int ENTRY_HEADER_SIZE = 20;
+
+    static final int STORED = -1;
+
+    private final IFrameCodec codec;
+
+    private final ICounter compressedBytesCounter;
+
+    private final ICounter rawBytesCounter;
+
+    public FrameCompressor(IFrameCodecFactory codecFactory, ICounter compressedBytesCounter,
+            ICounter rawBytesCounter) {
+        this.codec = codecFactory.createFrameCodec();
+        this.compressedBytesCounter = compressedBytesCounter;
+        this.rawBytesCounter = rawBytesCounter;
+    }
+
+    /**
+     * @return the largest number of bytes {@link #compress} can produce for a frame of {@code frameSize} bytes
+     */
+    public int getMaxCompressedLength(int frameSize) {
+        return ENTRY_HEADER_SIZE + codec.getMaxCompressedLength(frameSize) + codec.getMaxCompressedLength(0);
+    }
+
+    /**
+     * Compresses the frame between the position and the limit of {@code frame} into {@code dest}.
+     *
+     * @return the number of bytes written to {@code dest}
+     */
+    public int compress(ByteBuffer frame, byte[] dest, int destOffset) {
+        byte[] src = frame.array();
+        int start = frame.position();
+        int frameSize = frame.remaining();
+        int tupleCountOffset = FrameHelper.getTupleCountOffset(frameSize);
+        int tupleCount = IntSerDeUtils.getInt(src, start + tupleCountOffset);
+        // frames that do not look like tuple frames are compressed as a whole
+        int dataLength = frameSize;
+        int trailerLength = 0;
+        int maxTupleCount = (frameSize - FrameConstants.TUPLE_START_OFFSET) / FrameConstants.SIZE_LEN - 1;
+        if (tupleCount >= 0 && tupleCount <= maxTupleCount) {
+            int tupleDataEnd = tupleCount == 0 ? FrameConstants.TUPLE_START_OFFSET
+                    : IntSerDeUtils.getInt(src, start + tupleCountOffset - FrameConstants.SIZE_LEN * tupleCount);
+            int tupleTrailerLength = FrameConstants.SIZE_LEN * (tupleCount + 1);
+            if (tupleDataEnd >= FrameConstants.TUPLE_START_OFFSET && tupleDataEnd <= frameSize - tupleTrailerLength) {
+                dataLength = tupleDataEnd;
+                trailerLength = tupleTrailerLength;
+            }
+        }
+        int pos = destOffset + ENTRY_HEADER_SIZE;
+        int dataCompressedLength = compressRegion(src, start, dataLength, dest, pos);
+        pos += dataCompressedLength == STORED ? dataLength : dataCompressedLength;
+        int trailerCompressedLength =
+                compressRegion(src, start + frameSize - trailerLength, trailerLength, dest, pos);
+        pos += trailerCompressedLength == STORED ? trailerLength : trailerCompressedLength;
+        IntSerDeUtils.putInt(dest, destOffset + RAW_FRAME_SIZE_OFFSET, frameSize);
+        IntSerDeUtils.putInt(dest, destOffset + DATA_LENGTH_OFFSET, dataLength);
+        IntSerDeUtils.putInt(dest, destOffset + DATA_COMPRESSED_LENGTH_OFFSET, dataCompressedLength);
+        IntSerDeUtils.putInt(dest, destOffset + TRAILER_LENGTH_OFFSET, trailerLength);
+        IntSerDeUtils.putInt(dest, destOffset + TRAILER_COMPRESSED_LENGTH_OFFSET, trailerCompressedLength);
+        rawBytesCounter.update(frameSize);
+        return pos - destOffset;
+    }
+
+    /**
+     * Completes the header of {@code container}, which holds {@code entryCount} compressed frames, and writes the
+     * whole container to {@code writer}.
+     */
+    public void writeContainer(IFrame container, int entryCount, IFrameWriter writer) throws HyracksDataException {
+        ByteBuffer buffer = container.getBuffer();
+        FrameHelper.serializeFrameSize(buffer, container.getFrameSize() / container.getMinSize());
+        IntSerDeUtils.putInt(buffer.array(), ENTRY_COUNT_OFFSET, entryCount);
+        buffer.clear();
+        compressedBytesCounter.update(buffer.remaining());
+        writer.nextFrame(buffer);
+    }
+
+    private int compressRegion(byte[] src, int offset, int length, byte[] dest, int destOffset) {
+        int compressedLength = codec.compress(src, offset, length, dest, destOffset);
+        if (compressedLength < length) {
+            return compressedLength;
+        }
+        System.arraycopy(src, offset, dest, destOffset, length);
+        return STORED;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.comm.compression;
+
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.CONTAINER_HEADER_SIZE;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.DATA_COMPRESSED_LENGTH_OFFSET;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.DATA_LENGTH_OFFSET;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.ENTRY_COUNT_OFFSET;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.ENTRY_HEADER_SIZE;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.RAW_FRAME_SIZE_OFFSET;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.STORED;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.TRAILER_COMPRESSED_LENGTH_OFFSET;
+import static org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor.TRAILER_LENGTH_OFFSET;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
+import org.apache.hyracks.util.IntSerDeUtils;
+
+/**
+ * Restores the frames encoded by {@link FrameCompressor}. A frame reader reads a container frame into
+ * {@link #getContainer()}, calls {@link #reset()}, and then takes frames with {@link #nextFrame(IFrame)} as long as
+ * {@link #hasNextFrame()} returns true.
+ * Instances are not thread-safe.
+ */
+public class FrameDecompressor {
+    private final IHyracksFrameMgrContext ctx;
+
+    private final IFrameCodecFactory codecFactory;
+
+    private final IFrameCodec codec;
+
+    private final ICounter compressedBytesCounter;
+
+    private final ICounter rawBytesCounter;
+
+    private IFrame container;
+
+    private int entryCount;
+
+    private int position;
+
+    public FrameDecompressor(IHyracksFrameMgrContext ctx, IFrameCodecFactory codecFactory,
+            ICounter compressedBytesCounter, ICounter rawBytesCounter) {
+        this.ctx = ctx;
+        this.codecFactory = codecFactory;
+        this.codec = codecFactory.createFrameCodec();
+        this.compressedBytesCounter = compressedBytesCounter;
+        this.rawBytesCounter = rawBytesCounter;
+    }
+
+    /**
+     * @return a new decompressor with the same codec and counters, for use by another frame reader
+     */
+    public FrameDecompressor duplicate() {
+        return new FrameDecompressor(ctx, codecFactory, compressedBytesCounter, rawBytesCounter);
+    }
+
+    /**
+     * @return the frame into which container frames are read
+     */
+    public IFrame getContainer() throws HyracksDataException {
+        if (container == null) {
+            container = new VSizeFrame(ctx);
+        }
+        return container;
+    }
+
+    /**
+     * Prepares to read the frames of the container frame that was just read into {@link #getContainer()}.
+     */
+    public void reset() throws HyracksDataException {
+        ByteBuffer buffer = container.getBuffer();
+        entryCount = IntSerDeUtils.getInt(buffer.array(), ENTRY_COUNT_OFFSET);
+        if (entryCount < 0) {
+            throw new HyracksDataException("Corrupted compressed frame");
+        }
+        position = CONTAINER_HEADER_SIZE;
+        compressedBytesCounter.update(buffer.remaining());
+    }
+
+    public boolean hasNextFrame() {
+        return entryCount > 0;
+    }
+
+    /**
+     * Decompresses the next frame of the current container frame into {@code frame}.
+     */
+    public void nextFrame(IFrame frame) throws HyracksDataException {
+        byte[] src = container.getBuffer().array();
+        int rawFrameSize = IntSerDeUtils.getInt(src, position + RAW_FRAME_SIZE_OFFSET);
+        int dataLength = IntSerDeUtils.getInt(src, position + DATA_LENGTH_OFFSET);
+        int dataCompressedLength = IntSerDeUtils.getInt(src, position + DATA_COMPRESSED_LENGTH_OFFSET);
+        int trailerLength = IntSerDeUtils.getInt(src, position + TRAILER_LENGTH_OFFSET);
+        int trailerCompressedLength = IntSerDeUtils.getInt(src, position + TRAILER_COMPRESSED_LENGTH_OFFSET);
+        if (dataLength < 0 || trailerLength < 0 || dataLength + trailerLength > rawFrameSize) {
+            throw new HyracksDataException("Corrupted compressed frame");
+        }
+        frame.reset();
+        frame.ensureFrameSize(rawFrameSize);
+        ByteBuffer buffer = frame.getBuffer();
+        byte[] dest = buffer.array();
+        int pos = position + ENTRY_HEADER_SIZE;
+        pos = decompressRegion(src, pos, dataCompressedLength, dest, 0, dataLength);
+        position = decompressRegion(src, pos, trailerCompressedLength, dest, rawFrameSize - trailerLength,
+                trailerLength);
+        --entryCount;
+        buffer.clear();
+        buffer.position(rawFrameSize);
+        if (buffer.hasRemaining()) { // bigger frame
+            FrameHelper.clearRemainingFrame(buffer, rawFrameSize);
+        }
+        buffer.flip();
+        rawBytesCounter.update(rawFrameSize);
+    }
+
+    private int decompressRegion(byte[] src, int offset, int compressedLength, byte[] dest, int destOffset,
+            int length) throws HyracksDataException {
+        if (compressedLength == STORED) {
+            System.arraycopy(src, offset, dest, destOffset, length);
+            return offset + length;
+        }
+        codec.decompress(src, offset, compressedLength, dest, destOffset, length);
+        return offset + compressedLength;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.comm.compression;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A block codec used to compress frames sent over connectors.
+ * Instances are not thread-safe.
+ */
+public interface IFrameCodec {
+    /**
+     * @param length
+     *            the number of bytes to compress
+     * @return the largest number of bytes {@link #compress} can produce for {@code length} input bytes
+     */
+    int getMaxCompressedLength(int length);
+
+    /**
+     * Compresses {@code length} bytes of {@code src} starting at {@code offset} into {@code dest}.
+     *
+     * @return the number of bytes written to {@code dest}
+     */
+    int compress(byte[] src, int offset, int length, byte[] dest, int destOffset);
+
+    /**
+     * Decompresses {@code length} bytes of {@code src} starting at {@code offset} into {@code dest}.
+     *
+     * @param rawLength
+     *            the exact number of bytes the decompressed data occupies
+     * @throws HyracksDataException
+     *             if the input is not a valid compressed block of {@code rawLength} bytes
+     */
+    void decompress(byte[] src, int offset, int length, byte[] dest, int destOffset, int rawLength)
+            throws HyracksDataException;
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.comm.compression;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A pure Java LZ77 codec producing the LZ4 block format: a sequence of (token, literals, match offset, match length)
+ * entries with a greedy single-probe hash table on 4-byte sequences. It trades compression ratio for speed, which
+ * suits frames of records with repeated field names and values.
+ */
+public class LZFrameCodec implements IFrameCodec {
+    private static final int MIN_MATCH = 4;
+
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MF_LIMIT = 12;
+
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+
+    private static final int HASH_LOG = 12;
+
+    private static final int SKIP_TRIGGER = 6;
+
+    private static final int RUN_MASK = 0x0F;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    @Override
+    public int getMaxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int offset, int length, byte[] dest, int destOffset) {
+        final int end = offset + length;
+        final int matchLimit = end - LAST_LITERALS;
+        final int mfLimit = end - MF_LIMIT;
+        int ip = offset;
+        int anchor = offset;
+        int op = destOffset;
+        if (length >= MF_LIMIT + 1) {
+            Arrays.fill(hashTable, -1);
+            hashTable[hash(readInt(src, ip))] = ip;
+            ++ip;
+            while (ip < mfLimit) {
+                int sequence = readInt(src, ip);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+                while (ip > anchor && ref > offset && src[ip - 1] == src[ref - 1]) {
+                    --ip;
+                    --ref;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    ++matchLength;
+                }
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dest, op);
+                ip += matchLength;
+                anchor = ip;
+                if (ip < mfLimit) {
+                    hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+        op = writeLastLiterals(src, anchor, end - anchor, dest, op);
+        return op - destOffset;
+    }
+
+    @Override
+    public void decompress(byte[] src, int offset, int length, byte[] dest, int destOffset, int rawLength)
+            throws HyracksDataException {
+        final int end = offset + length;
+        final int destEnd = destOffset + rawLength;
+        int ip = offset;
+        int op = destOffset;
+        try {
+            while (ip < end) {
+                int token = src[ip++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 0xFF);
+                }
+                if (op + literalLength > destEnd || ip + literalLength > end) {
+                    throw corrupted();
+                }
+                System.arraycopy(src, ip, dest, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip >= end) {
+                    break;
+                }
+                int distance = (src[ip++] & 0xFF) | ((src[ip++] & 0xFF) << 8);
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 0xFF);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - distance;
+                if (distance == 0 || ref < destOffset || op + matchLength > destEnd) {
+                    throw corrupted();
+                }
+                if (distance >= matchLength) {
+                    System.arraycopy(dest, ref, dest, op, matchLength);
+                    op += matchLength;
+                } else {
+                    // overlapping copy, e.g. runs of the same byte
+                    for (int i = 0; i < matchLength; ++i) {
+                        dest[op++] = dest[ref++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw corrupted();
+        }
+        if (op != destEnd) {
+            throw corrupted();
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalOffset, int literalLength, int distance, int matchLength,
+            byte[] dest, int op) {
+        int tokenPos = op++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            op = writeLength(literalLength - RUN_MASK, dest, op);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalOffset, dest, op, literalLength);
+        op += literalLength;
+        dest[op++] = (byte) distance;
+        dest[op++] = (byte) (distance >>> 8);
+        int encodedMatchLength = matchLength - MIN_MATCH;
+        if (encodedMatchLength >= RUN_MASK) {
+            token |= RUN_MASK;
+            op = writeLength(encodedMatchLength - RUN_MASK, dest, op);
+        } else {
+            token |= encodedMatchLength;
+        }
+        dest[tokenPos] = (byte) token;
+        return op;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalOffset, int literalLength, byte[] dest, int op) {
+        if (literalLength >= RUN_MASK) {
+            dest[op++] = (byte) (RUN_MASK << 4);
+            op = writeLength(literalLength - RUN_MASK, dest, op);
+        } else {
+            dest[op++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalOffset, dest, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int op) {
+        while (length >= 0xFF) {
+            dest[op++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8) | ((bytes[offset + 2] & 0xFF) << 16)
+                | ((bytes[offset + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static HyracksDataException corrupted() {
+        return new HyracksDataException("Corrupted compressed frame");
+    }
+}
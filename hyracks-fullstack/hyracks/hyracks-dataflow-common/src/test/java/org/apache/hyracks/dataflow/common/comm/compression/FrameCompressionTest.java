@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.comm.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.common.job.profiling.counters.Counter;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.junit.Test;
+
+public class FrameCompressionTest {
+
+    private static final int FRAME_SIZE = 4096;
+
+    private static final RecordDescriptor RECORD_DESCRIPTOR = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() });
+
+    private final FrameManager frameManager = new FrameManager(FRAME_SIZE);
+
+    @Test
+    public void testCodecRoundTrip() throws HyracksDataException {
+        Random random = new Random(17);
+        byte[] randomBytes = new byte[10000];
+        random.nextBytes(randomBytes);
+        byte[] run = new byte[70000];
+        Arrays.fill(run, (byte) 'a');
+        byte[] text = new byte[20000];
+        for (int i = 0; i < text.length; ++i) {
+            text[i] = (byte) ("{\"name\": \"user\", \"id\": " + (i % 97) + "}").charAt(i % 24);
+        }
+        for (byte[] input : new byte[][] { new byte[0], new byte[] { 1, 2, 3 }, "abcdabcdabcdabcd".getBytes(),
+                randomBytes, run, text }) {
+            assertRoundTrip(input);
+        }
+    }
+
+    @Test
+    public void testCodecCompressesRepetitiveData() {
+        byte[] run = new byte[70000];
+        Arrays.fill(run, (byte) 'a');
+        IFrameCodec codec = LZFrameCodecFactory.INSTANCE.createFrameCodec();
+        byte[] compressed = new byte[codec.getMaxCompressedLength(run.length)];
+        assertTrue(codec.compress(run, 0, run.length, compressed, 0) < run.length / 100);
+    }
+
+    @Test
+    public void testCodecRejectsCorruptedInput() {
+        byte[] input = "abcdabcdabcdabcdabcdabcdabcdabcdabcdabcd".getBytes();
+        IFrameCodec codec = LZFrameCodecFactory.INSTANCE.createFrameCodec();
+        byte[] compressed = new byte[codec.getMaxCompressedLength(input.length)];
+        int length = codec.compress(input, 0, input.length, compressed, 0);
+        try {
+            codec.decompress(compressed, 0, length - 1, new byte[input.length], 0, input.length);
+            fail("Expected the truncated input to be rejected");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFrameRoundTrip() throws HyracksDataException {
+        IFrame frame = new VSizeFrame(frameManager);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(RECORD_DESCRIPTOR.getFieldCount());
+        int tupleCount = 0;
+        do {
+            tupleBuilder.reset();
+            tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, tupleCount);
+            tupleBuilder.addField(new UTF8StringSerializerDeserializer(), "{ \"name\": \"customer-" + tupleCount % 10
+                    + "\", \"address\": \"Main Street\" }");
+            ++tupleCount;
+        } while (appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                tupleBuilder.getSize()));
+        --tupleCount;
+
+        Counter compressedBytes = new Counter("compressedBytes");
+        Counter rawBytes = new Counter("rawBytes");
+        IFrameCodecFactory codecFactory = LZFrameCodecFactory.INSTANCE;
+        FrameCompressor compressor = new FrameCompressor(codecFactory, compressedBytes, rawBytes);
+        FrameDecompressor decompressor = new FrameDecompressor(frameManager, codecFactory, compressedBytes, rawBytes);
+
+        // packs several compressed frames into one container frame
+        int frameCount = 3;
+        IFrame container = new VSizeFrame(frameManager);
+        byte[] entry = new byte[compressor.getMaxCompressedLength(frame.getFrameSize())];
+        int position = FrameCompressor.CONTAINER_HEADER_SIZE;
+        for (int i = 0; i < frameCount; ++i) {
+            int length = compressor.compress(frame.getBuffer(), entry, 0);
+            assertEquals(0, frame.getBuffer().position());
+            System.arraycopy(entry, 0, container.getBuffer().array(), position, length);
+            position += length;
+        }
+        assertTrue(position <= FRAME_SIZE);
+        List<ByteBuffer> written = new ArrayList<>();
+        compressor.writeContainer(container, frameCount, new IFrameWriter() {
+            @Override
+            public void open() {
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) {
+                ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+                copy.put(buffer);
+                copy.flip();
+                written.add(copy);
+            }
+
+            @Override
+            public void fail() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        assertEquals(1, written.size());
+        assertEquals(FRAME_SIZE, written.get(0).remaining());
+        assertEquals(FRAME_SIZE, compressedBytes.get());
+        assertEquals(frameCount * frame.getFrameSize(), rawBytes.get());
+
+        IFrame compressedFrame = decompressor.getContainer();
+        compressedFrame.getBuffer().clear();
+        compressedFrame.getBuffer().put(written.get(0));
+        compressedFrame.getBuffer().flip();
+        decompressor.reset();
+        IFrame restored = new VSizeFrame(frameManager);
+        for (int i = 0; i < frameCount; ++i) {
+            assertTrue(decompressor.hasNextFrame());
+            decompressor.nextFrame(restored);
+            assertFrameEquals(frame, restored, tupleCount);
+        }
+        assertFalse(decompressor.hasNextFrame());
+        assertEquals(2 * FRAME_SIZE, compressedBytes.get());
+        assertEquals(2 * frameCount * frame.getFrameSize(), rawBytes.get());
+    }
+
+    private static void assertFrameEquals(IFrame frame, IFrame restored, int tupleCount) {
+        FrameTupleAccessor expected = new FrameTupleAccessor(RECORD_DESCRIPTOR);
+        expected.reset(frame.getBuffer());
+        FrameTupleAccessor actual = new FrameTupleAccessor(RECORD_DESCRIPTOR);
+        actual.reset(restored.getBuffer());
+        assertEquals(tupleCount, actual.getTupleCount());
+        for (int i = 0; i < tupleCount; ++i) {
+            int start = expected.getTupleStartOffset(i);
+            int end = expected.getTupleEndOffset(i);
+            assertEquals(start, actual.getTupleStartOffset(i));
+            assertEquals(end, actual.getTupleEndOffset(i));
+            assertArrayEquals(Arrays.copyOfRange(frame.getBuffer().array(), start, end),
+                    Arrays.copyOfRange(restored.getBuffer().array(), start, end));
+        }
+    }
+
+    private static void assertRoundTrip(byte[] input) throws HyracksDataException {
+        IFrameCodec codec = LZFrameCodecFactory.INSTANCE.createFrameCodec();
+        byte[] compressed = new byte[3 + codec.getMaxCompressedLength(input.length)];
+        int length = codec.compress(input, 0, input.length, compressed, 3);
+        assertTrue(length <= codec.getMaxCompressedLength(input.length));
+        byte[] restored = new byte[input.length + 5];
+        codec.decompress(compressed, 3, length, restored, 5, input.length);
+        assertArrayEquals(input, Arrays.copyOfRange(restored, 5, restored.length));
+    }
+}
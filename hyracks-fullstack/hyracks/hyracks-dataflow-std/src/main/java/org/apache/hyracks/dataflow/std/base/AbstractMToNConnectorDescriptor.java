@@ -20,15 +20,76 @@ package org.apache.hyracks.dataflow.std.base;
 
 import java.util.BitSet;
 
+import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.job.IConnectorDescriptorRegistry;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameDecompressor;
+import org.apache.hyracks.dataflow.common.comm.compression.IFrameCodecFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public abstract class AbstractMToNConnectorDescriptor extends AbstractConnectorDescriptor {
     private static final long serialVersionUID = 1L;
 
+    private IFrameCodecFactory frameCodecFactory;
+
     public AbstractMToNConnectorDescriptor(IConnectorDescriptorRegistry spec) {
         super(spec);
     }
 
+    /**
+     * Sets the codec used to compress the frames sent through this connector, or null to send raw frames.
+     * It is honored by the partitioning, merging and broadcast connectors.
+     */
+    public void setFrameCodecFactory(IFrameCodecFactory frameCodecFactory) {
+        this.frameCodecFactory = frameCodecFactory;
+    }
+
+    public IFrameCodecFactory getFrameCodecFactory() {
+        return frameCodecFactory;
+    }
+
+    /**
+     * @return the compressor for the frames sent by the sender at {@code index}, or null if frames are not
+     *         compressed
+     */
+    protected FrameCompressor createFrameCompressor(IHyracksTaskContext ctx, int index) {
+        if (frameCodecFactory == null) {
+            return null;
+        }
+        ICounterContext counterContext = ctx.getCounterContext();
+        String prefix = getConnectorId() + ".sender." + index;
+        return new FrameCompressor(frameCodecFactory,
+                counterContext.getCounter(prefix + ".compressedBytes", true),
+                counterContext.getCounter(prefix + ".rawBytes", true));
+    }
+
+    /**
+     * @return the decompressor for the frames received by the receiver at {@code index}, or null if frames are not
+     *         compressed
+     */
+    protected FrameDecompressor createFrameDecompressor(IHyracksTaskContext ctx, int index) {
+        if (frameCodecFactory == null) {
+            return null;
+        }
+        ICounterContext counterContext = ctx.getCounterContext();
+        String prefix = getConnectorId() + ".receiver." + index;
+        return new FrameDecompressor(ctx, frameCodecFactory,
+                counterContext.getCounter(prefix + ".compressedBytes", true),
+                counterContext.getCounter(prefix + ".rawBytes", true));
+    }
+
+    @Override
+    public JsonNode toJSON() {
+        JsonNode jconn = super.toJSON();
+        if (frameCodecFactory != null) {
+            ((ObjectNode) jconn).put("frame-codec", frameCodecFactory.getClass().getName());
+        }
+        return jconn;
+    }
+
     @Override
     public void indicateTargetPartitions(int nProducerPartitions, int nConsumerPartitions, int producerIndex,
             BitSet targetBitmap) {
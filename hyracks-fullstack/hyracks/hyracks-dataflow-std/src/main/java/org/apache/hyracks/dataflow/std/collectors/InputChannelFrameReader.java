@@ -26,11 +26,14 @@ import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameReader;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameDecompressor;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 
 public class InputChannelFrameReader implements IFrameReader, IInputChannelMonitor {
     private final IInputChannel channel;
 
+    private final FrameDecompressor frameDecompressor;
+
     private int availableFrames;
 
     private boolean eos;
@@ -38,7 +41,16 @@ public class InputChannelFrameReader implements IFrameReader, IInputChannelMonit
     private boolean failed;
 
     public InputChannelFrameReader(IInputChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * @param frameDecompressor
+     *            decompresses the received frames, or null if frames are not compressed
+     */
+    public InputChannelFrameReader(IInputChannel channel, FrameDecompressor frameDecompressor) {
         this.channel = channel;
+        this.frameDecompressor = frameDecompressor;
         availableFrames = 0;
         eos = false;
         failed = false;
@@ -80,9 +92,25 @@ public class InputChannelFrameReader implements IFrameReader, IInputChannelMonit
      */
     @Override
     public boolean nextFrame(IFrame frame) throws HyracksDataException {
-        if (!canGetNextBuffer()) {
-            return false;
+        if (frameDecompressor == null) {
+            if (!canGetNextBuffer()) {
+                return false;
+            }
+            readFrame(frame);
+            return true;
         }
+        while (!frameDecompressor.hasNextFrame()) {
+            if (!canGetNextBuffer()) {
+                return false;
+            }
+            readFrame(frameDecompressor.getContainer());
+            frameDecompressor.reset();
+        }
+        frameDecompressor.nextFrame(frame);
+        return true;
+    }
+
+    private void readFrame(IFrame frame) throws HyracksDataException {
         frame.reset();
         ByteBuffer srcFrame = channel.getNextBuffer();
         int nBlocks = FrameHelper.deserializeNumOfMinFrame(srcFrame);
@@ -103,7 +131,6 @@ public class InputChannelFrameReader implements IFrameReader, IInputChannelMonit
             FrameHelper.clearRemainingFrame(frame.getBuffer(), frame.getBuffer().position());
         }
         frame.getBuffer().flip();
-        return true;
     }
 
     @Override
@@ -24,13 +24,26 @@ import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameReader;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameDecompressor;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 
 public class NonDeterministicFrameReader implements IFrameReader {
     private final NonDeterministicChannelReader channelReader;
 
+    private final FrameDecompressor frameDecompressor;
+
     public NonDeterministicFrameReader(NonDeterministicChannelReader channelReader) {
+        this(channelReader, null);
+    }
+
+    /**
+     * @param frameDecompressor
+     *            decompresses the received frames, or null if frames are not compressed
+     */
+    public NonDeterministicFrameReader(NonDeterministicChannelReader channelReader,
+            FrameDecompressor frameDecompressor) {
         this.channelReader = channelReader;
+        this.frameDecompressor = frameDecompressor;
     }
 
     @Override
@@ -40,10 +53,28 @@ public class NonDeterministicFrameReader implements IFrameReader {
 
     @Override
     public boolean nextFrame(IFrame frame) throws HyracksDataException {
-        int index = channelReader.findNextSender();
-        if (index < 0) {
-            return false;
+        if (frameDecompressor == null) {
+            int index = channelReader.findNextSender();
+            if (index < 0) {
+                return false;
+            }
+            readFrame(index, frame);
+            return true;
+        }
+        // a container frame is drained before the next sender is picked
+        while (!frameDecompressor.hasNextFrame()) {
+            int index = channelReader.findNextSender();
+            if (index < 0) {
+                return false;
+            }
+            readFrame(index, frameDecompressor.getContainer());
+            frameDecompressor.reset();
         }
+        frameDecompressor.nextFrame(frame);
+        return true;
+    }
+
+    private void readFrame(int index, IFrame frame) throws HyracksDataException {
         frame.reset();
         ByteBuffer srcFrame = channelReader.getNextBuffer(index);
         int nBlocks = FrameHelper.deserializeNumOfMinFrame(srcFrame);
@@ -59,7 +90,6 @@ public class NonDeterministicFrameReader implements IFrameReader {
             FrameHelper.clearRemainingFrame(frame.getBuffer(), frame.getBuffer().position());
         }
         frame.getBuffer().flip();
-        return true;
     }
 
     @Override
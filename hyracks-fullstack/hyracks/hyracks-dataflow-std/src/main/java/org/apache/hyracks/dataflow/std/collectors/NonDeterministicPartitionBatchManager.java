@@ -25,6 +25,7 @@ import org.apache.hyracks.api.channels.IInputChannel;
 import org.apache.hyracks.api.comm.IFrameReader;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameDecompressor;
 
 public class NonDeterministicPartitionBatchManager implements IPartitionBatchManager {
     private final IInputChannel[] channels;
@@ -35,15 +36,28 @@ public class NonDeterministicPartitionBatchManager implements IPartitionBatchMan
 
     private int requiredSize;
 
+    private final FrameDecompressor frameDecompressor;
+
     public NonDeterministicPartitionBatchManager(int nSenders) {
+        this(nSenders, null);
+    }
+
+    /**
+     * @param frameDecompressor
+     *            decompresses the received frames, or null if frames are not compressed. The reader of each
+     *            partition uses its own duplicate of it.
+     */
+    public NonDeterministicPartitionBatchManager(int nSenders, FrameDecompressor frameDecompressor) {
         channels = new IInputChannel[nSenders];
         partitions = new ArrayList<IFrameReader>();
+        this.frameDecompressor = frameDecompressor;
     }
 
     @Override
     public synchronized void addPartition(PartitionId pid, IInputChannel channel) {
         channels[pid.getSenderIndex()] = channel;
-        InputChannelFrameReader channelReader = new InputChannelFrameReader(channel);
+        InputChannelFrameReader channelReader = new InputChannelFrameReader(channel,
+                frameDecompressor == null ? null : frameDecompressor.duplicate());
         channel.registerMonitor(channelReader);
         if (batch != null && batch.size() < requiredSize) {
             batch.add(channelReader);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.connectors;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor;
+
+/**
+ * Compresses the frames passed to a connector sender and packs them into container frames which are handed to the
+ * underlying writer when they are full, flushed or closed.
+ */
+public class CompressingFrameWriter implements IFrameWriter {
+    private final IFrameWriter writer;
+
+    private final FrameCompressor compressor;
+
+    private final IFrame container;
+
+    private byte[] scratch = new byte[0];
+
+    private int position;
+
+    private int entryCount;
+
+    private boolean failed;
+
+    public CompressingFrameWriter(IHyracksFrameMgrContext ctx, IFrameWriter writer, FrameCompressor compressor)
+            throws HyracksDataException {
+        this.writer = writer;
+        this.compressor = compressor;
+        this.container = new VSizeFrame(ctx);
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        writer.open();
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        int maxLength = compressor.getMaxCompressedLength(buffer.remaining());
+        if (scratch.length < maxLength) {
+            scratch = new byte[maxLength];
+        }
+        int length = compressor.compress(buffer, scratch, 0);
+        buffer.position(buffer.limit());
+        if (entryCount > 0 && position + length > container.getFrameSize()) {
+            writeContainer();
+        }
+        if (entryCount == 0) {
+            // a container holds at least one compressed frame and shrinks back after a large one
+            int minSize = container.getMinSize();
+            container.resize((FrameCompressor.CONTAINER_HEADER_SIZE + length + minSize - 1) / minSize * minSize);
+            position = FrameCompressor.CONTAINER_HEADER_SIZE;
+        }
+        System.arraycopy(scratch, 0, container.getBuffer().array(), position, length);
+        position += length;
+        ++entryCount;
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        failed = true;
+        writer.fail();
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (!failed && entryCount > 0) {
+                writeContainer();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Override
+    public void flush() throws HyracksDataException {
+        if (entryCount > 0) {
+            writeContainer();
+        }
+        writer.flush();
+    }
+
+    private void writeContainer() throws HyracksDataException {
+        compressor.writeContainer(container, entryCount, writer);
+        entryCount = 0;
+    }
+}
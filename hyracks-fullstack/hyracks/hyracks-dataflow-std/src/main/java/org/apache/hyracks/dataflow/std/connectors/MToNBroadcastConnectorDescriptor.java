@@ -28,6 +28,7 @@ import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.job.IConnectorDescriptorRegistry;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor;
 import org.apache.hyracks.dataflow.std.base.AbstractMToNConnectorDescriptor;
 import org.apache.hyracks.dataflow.std.collectors.NonDeterministicChannelReader;
 import org.apache.hyracks.dataflow.std.collectors.NonDeterministicFrameReader;
@@ -50,7 +51,7 @@ public class MToNBroadcastConnectorDescriptor extends AbstractMToNConnectorDescr
         for (int i = 0; i < nConsumerPartitions; ++i) {
             epWriters[i] = edwFactory.createFrameWriter(i);
         }
-        return new IFrameWriter() {
+        IFrameWriter broadcastWriter = new IFrameWriter() {
             @Override
             public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
                 // Record the current position, instead of using buffer.mark().
@@ -122,6 +123,10 @@ public class MToNBroadcastConnectorDescriptor extends AbstractMToNConnectorDescr
                 }
             }
         };
+        // compresses each frame once for all the consumers
+        FrameCompressor frameCompressor = createFrameCompressor(ctx, index);
+        return frameCompressor == null ? broadcastWriter
+                : new CompressingFrameWriter(ctx, broadcastWriter, frameCompressor);
     }
 
     @Override
@@ -131,7 +136,8 @@ public class MToNBroadcastConnectorDescriptor extends AbstractMToNConnectorDescr
         expectedPartitions.set(0, nProducerPartitions);
         NonDeterministicChannelReader channelReader = new NonDeterministicChannelReader(nProducerPartitions,
                 expectedPartitions);
-        NonDeterministicFrameReader frameReader = new NonDeterministicFrameReader(channelReader);
+        NonDeterministicFrameReader frameReader =
+                new NonDeterministicFrameReader(channelReader, createFrameDecompressor(ctx, index));
         return new PartitionCollector(ctx, getConnectorId(), index, expectedPartitions, frameReader, channelReader);
     }
 }
@@ -46,7 +46,8 @@ public class MToNPartitioningConnectorDescriptor extends AbstractMToNConnectorDe
     public IFrameWriter createPartitioner(IHyracksTaskContext ctx, RecordDescriptor recordDesc,
             IPartitionWriterFactory edwFactory, int index, int nProducerPartitions, int nConsumerPartitions)
             throws HyracksDataException {
-        return new PartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc, tpcf.createPartitioner());
+        return new PartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc, tpcf.createPartitioner(),
+                createFrameCompressor(ctx, index));
     }
 
     @Override
@@ -56,7 +57,8 @@ public class MToNPartitioningConnectorDescriptor extends AbstractMToNConnectorDe
         expectedPartitions.set(0, nProducerPartitions);
         NonDeterministicChannelReader channelReader = new NonDeterministicChannelReader(nProducerPartitions,
                 expectedPartitions);
-        NonDeterministicFrameReader frameReader = new NonDeterministicFrameReader(channelReader);
+        NonDeterministicFrameReader frameReader =
+                new NonDeterministicFrameReader(channelReader, createFrameDecompressor(ctx, index));
         return new PartitionCollector(ctx, getConnectorId(), index, expectedPartitions, frameReader, channelReader);
     }
 
@@ -70,7 +70,7 @@ public class MToNPartitioningMergingConnectorDescriptor extends AbstractMToNConn
             IPartitionWriterFactory edwFactory, int index, int nProducerPartitions, int nConsumerPartitions)
             throws HyracksDataException {
         final PartitionDataWriter hashWriter = new PartitionDataWriter(ctx, nConsumerPartitions, edwFactory, recordDesc,
-                tpcf.createPartitioner());
+                tpcf.createPartitioner(), createFrameCompressor(ctx, index));
         return hashWriter;
     }
 
@@ -82,7 +82,8 @@ public class MToNPartitioningMergingConnectorDescriptor extends AbstractMToNConn
             comparators[i] = comparatorFactories[i].createBinaryComparator();
         }
         INormalizedKeyComputer nmkComputer = nkcFactory == null ? null : nkcFactory.createNormalizedKeyComputer();
-        IPartitionBatchManager pbm = new NonDeterministicPartitionBatchManager(nProducerPartitions);
+        IPartitionBatchManager pbm =
+                new NonDeterministicPartitionBatchManager(nProducerPartitions, createFrameDecompressor(ctx, index));
         IFrameReader sortMergeFrameReader = new SortMergeFrameReader(ctx, nProducerPartitions, nProducerPartitions,
                 sortFields, comparators, nmkComputer, recordDesc, pbm);
         BitSet expectedPartitions = new BitSet();
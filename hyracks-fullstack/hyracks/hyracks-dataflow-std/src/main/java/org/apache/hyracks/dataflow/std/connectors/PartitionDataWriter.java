@@ -28,6 +28,7 @@ import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.compression.FrameCompressor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
@@ -40,12 +41,24 @@ public class PartitionDataWriter implements IFrameWriter {
     private final FrameTupleAccessor tupleAccessor;
     private final ITuplePartitionComputer tpc;
     private final IHyracksTaskContext ctx;
+    private final FrameCompressor frameCompressor;
     private boolean[] allocatedFrames;
     private boolean failed = false;
 
     public PartitionDataWriter(IHyracksTaskContext ctx, int consumerPartitionCount, IPartitionWriterFactory pwFactory,
             RecordDescriptor recordDescriptor, ITuplePartitionComputer tpc) throws HyracksDataException {
+        this(ctx, consumerPartitionCount, pwFactory, recordDescriptor, tpc, null);
+    }
+
+    /**
+     * @param frameCompressor
+     *            compresses the frames sent to the consumers, or null to send raw frames
+     */
+    public PartitionDataWriter(IHyracksTaskContext ctx, int consumerPartitionCount, IPartitionWriterFactory pwFactory,
+            RecordDescriptor recordDescriptor, ITuplePartitionComputer tpc, FrameCompressor frameCompressor)
+            throws HyracksDataException {
         this.ctx = ctx;
+        this.frameCompressor = frameCompressor;
         this.tpc = tpc;
         this.consumerPartitionCount = consumerPartitionCount;
         pWriters = new IFrameWriter[consumerPartitionCount];
@@ -60,6 +73,9 @@ public class PartitionDataWriter implements IFrameWriter {
         for (int i = 0; i < consumerPartitionCount; ++i) {
             try {
                 pWriters[i] = pwFactory.createFrameWriter(i);
+                if (frameCompressor != null) {
+                    pWriters[i] = new CompressingFrameWriter(ctx, pWriters[i], frameCompressor);
+                }
                 appenders[i] = createTupleAppender(ctx);
             } catch (IOException e) {
                 throw HyracksDataException.create(e);
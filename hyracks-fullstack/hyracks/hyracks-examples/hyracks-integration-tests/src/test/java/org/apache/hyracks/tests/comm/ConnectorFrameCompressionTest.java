@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.comm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.IPartitionCollector;
+import org.apache.hyracks.api.comm.PartitionChannel;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IOpenableDataReader;
+import org.apache.hyracks.api.dataflow.IOpenableDataWriter;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.PointableBinaryHashFunctionFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.compression.IFrameCodec;
+import org.apache.hyracks.dataflow.common.comm.compression.IFrameCodecFactory;
+import org.apache.hyracks.dataflow.common.comm.compression.LZFrameCodecFactory;
+import org.apache.hyracks.dataflow.common.comm.io.FrameDeserializingDataReader;
+import org.apache.hyracks.dataflow.common.comm.io.SerializingDataWriter;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFactory;
+import org.apache.hyracks.dataflow.std.base.AbstractMToNConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.connectors.MToNBroadcastConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.connectors.MToNPartitioningConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.connectors.MToNPartitioningMergingConnectorDescriptor;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+/**
+ * Sends the same tuples through M:N connectors with and without frame compression and checks that every consumer
+ * receives the same tuples. The tuples mix repetitive text, which compresses, random text, which is sent raw, and
+ * tuples larger than a frame.
+ */
+public class ConnectorFrameCompressionTest {
+    private static final int FRAME_SIZE = 4096;
+
+    private static final int PRODUCERS = 3;
+
+    private static final int CONSUMERS = 4;
+
+    private static final int TUPLES_PER_PRODUCER = 2000;
+
+    private static final RecordDescriptor RECORD_DESCRIPTOR = new RecordDescriptor(new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, new UTF8StringSerializerDeserializer() });
+
+    private static final ITuplePartitionComputerFactory PARTITIONER = new FieldHashPartitionComputerFactory(
+            new int[] { 0 },
+            new IBinaryHashFunctionFactory[] { PointableBinaryHashFunctionFactory.of(IntegerPointable.FACTORY) });
+
+    private final List<List<Object[]>> inputs = createInputs();
+
+    @Test
+    public void partitioningConnector() throws Exception {
+        assertSameOutput(false, spec -> new MToNPartitioningConnectorDescriptor(spec, PARTITIONER));
+    }
+
+    @Test
+    public void partitioningMergingConnector() throws Exception {
+        IBinaryComparatorFactory[] comparatorFactories =
+                new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        assertSameOutput(true, spec -> new MToNPartitioningMergingConnectorDescriptor(spec, PARTITIONER,
+                new int[] { 0 }, comparatorFactories, null));
+    }
+
+    @Test
+    public void broadcastConnector() throws Exception {
+        assertSameOutput(false, MToNBroadcastConnectorDescriptor::new);
+    }
+
+    private interface ConnectorFactory {
+        AbstractMToNConnectorDescriptor create(JobSpecification spec);
+    }
+
+    private void assertSameOutput(boolean ordered, ConnectorFactory connectorFactory) throws Exception {
+        List<List<String>> expected = run(connectorFactory.create(new JobSpecification()));
+        AbstractMToNConnectorDescriptor connector = connectorFactory.create(new JobSpecification());
+        CountingCodecFactory codecFactory = new CountingCodecFactory();
+        connector.setFrameCodecFactory(codecFactory);
+        List<List<String>> actual = run(connector);
+        assertTrue(codecFactory.compressedRegions.get() > 0);
+        assertTrue(codecFactory.storedRegions.get() > 0);
+
+        int tupleCount = 0;
+        for (int i = 0; i < CONSUMERS; ++i) {
+            if (ordered) {
+                List<String> sorted = new ArrayList<>(expected.get(i));
+                Collections.sort(sorted, (a, b) -> Integer.compare(key(a), key(b)));
+                assertEquals(sorted, expected.get(i));
+            } else {
+                Collections.sort(expected.get(i));
+                Collections.sort(actual.get(i));
+            }
+            assertEquals(expected.get(i), actual.get(i));
+            tupleCount += actual.get(i).size();
+        }
+        int inputCount = PRODUCERS * TUPLES_PER_PRODUCER;
+        assertEquals(connector instanceof MToNBroadcastConnectorDescriptor ? CONSUMERS * inputCount : inputCount,
+                tupleCount);
+    }
+
+    /**
+     * Runs all the producers of {@code connector} to completion and then reads everything each consumer receives.
+     */
+    private List<List<String>> run(AbstractMToNConnectorDescriptor connector) throws HyracksException {
+        TestChannel[][] channels = new TestChannel[PRODUCERS][CONSUMERS];
+        for (int i = 0; i < PRODUCERS; ++i) {
+            TestChannel[] producerChannels = channels[i];
+            for (int j = 0; j < CONSUMERS; ++j) {
+                producerChannels[j] = new TestChannel();
+            }
+            IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+            IFrameWriter partitioner = connector.createPartitioner(ctx, RECORD_DESCRIPTOR,
+                    receiverIndex -> producerChannels[receiverIndex], i, PRODUCERS, CONSUMERS);
+            IOpenableDataWriter<Object[]> writer = new SerializingDataWriter(ctx, RECORD_DESCRIPTOR, partitioner);
+            writer.open();
+            for (Object[] tuple : inputs.get(i)) {
+                writer.writeData(tuple);
+            }
+            writer.close();
+        }
+
+        List<List<String>> outputs = new ArrayList<>();
+        for (int j = 0; j < CONSUMERS; ++j) {
+            IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+            IPartitionCollector collector =
+                    connector.createPartitionCollector(ctx, RECORD_DESCRIPTOR, j, PRODUCERS, CONSUMERS);
+            collector.open();
+            List<PartitionChannel> partitions = new ArrayList<>();
+            for (int i = 0; i < PRODUCERS; ++i) {
+                partitions.add(new PartitionChannel(
+                        new PartitionId(ctx.getJobletContext().getJobId(), connector.getConnectorId(), i, j),
+                        channels[i][j]));
+            }
+            collector.addPartitions(partitions);
+            IOpenableDataReader<Object[]> reader =
+                    new FrameDeserializingDataReader(ctx, collector.getReader(), RECORD_DESCRIPTOR);
+            reader.open();
+            List<String> output = new ArrayList<>();
+            Object[] tuple;
+            while ((tuple = reader.readData()) != null) {
+                output.add(tuple[0] + ":" + tuple[1]);
+            }
+            reader.close();
+            collector.close();
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    private static int key(String tuple) {
+        return Integer.parseInt(tuple.substring(0, tuple.indexOf(':')));
+    }
+
+    /**
+     * Creates the tuples of each producer sorted on their unique keys. Every few hundred tuples, the payloads switch
+     * between repetitive and random text, and some random payloads span several frames.
+     */
+    private static List<List<Object[]>> createInputs() {
+        Random random = new Random(37);
+        List<List<Object[]>> inputs = new ArrayList<>();
+        for (int i = 0; i < PRODUCERS; ++i) {
+            List<Object[]> tuples = new ArrayList<>();
+            for (int k = 0; k < TUPLES_PER_PRODUCER; ++k) {
+                int key = k * PRODUCERS + i;
+                String payload;
+                if ((k / 300) % 2 == 0) {
+                    payload = "{ \"name\": \"customer-" + key % 10 + "\", \"address\": \"Main Street\" }";
+                } else {
+                    payload = randomText(random, k % 250 == 0 ? 3 * FRAME_SIZE : 20 + random.nextInt(200));
+                }
+                tuples.add(new Object[] { key, payload });
+            }
+            inputs.add(tuples);
+        }
+        return inputs;
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = (char) (' ' + random.nextInt('~' - ' ' + 1));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Counts the regions the LZ codec shrinks and the regions it does not, which the compressor stores raw.
+     */
+    private static class CountingCodecFactory implements IFrameCodecFactory {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger compressedRegions = new AtomicInteger();
+
+        private final AtomicInteger storedRegions = new AtomicInteger();
+
+        @Override
+        public IFrameCodec createFrameCodec() {
+            IFrameCodec codec = LZFrameCodecFactory.INSTANCE.createFrameCodec();
+            return new IFrameCodec() {
+                @Override
+                public int getMaxCompressedLength(int length) {
+                    return codec.getMaxCompressedLength(length);
+                }
+
+                @Override
+                public int compress(byte[] src, int offset, int length, byte[] dest, int destOffset) {
+                    int compressedLength = codec.compress(src, offset, length, dest, destOffset);
+                    (compressedLength < length ? compressedRegions : storedRegions).incrementAndGet();
+                    return compressedLength;
+                }
+
+                @Override
+                public void decompress(byte[] src, int offset, int length, byte[] dest, int destOffset,
+                        int rawLength) throws HyracksDataException {
+                    codec.decompress(src, offset, length, dest, destOffset, rawLength);
+                }
+            };
+        }
+    }
+
+    /**
+     * Buffers what a producer sends to a consumer in buffers of the minimum frame size, like a network channel, and
+     * hands them to the consumer once it is opened.
+     */
+    private static class TestChannel implements IInputChannel, IFrameWriter {
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private IInputChannelMonitor monitor;
+        private Object attachment;
+        private boolean closed;
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) {
+            while (buffer.hasRemaining()) {
+                ByteBuffer copy = ByteBuffer.allocate(FRAME_SIZE);
+                int length = Math.min(FRAME_SIZE, buffer.remaining());
+                copy.put(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                copy.flip();
+                buffers.add(copy);
+            }
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public void registerMonitor(IInputChannelMonitor monitor) {
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+
+        @Override
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        @Override
+        public ByteBuffer getNextBuffer() {
+            return buffers.remove(0);
+        }
+
+        @Override
+        public void recycleBuffer(ByteBuffer buffer) {
+            // buffers are not reused
+        }
+
+        @Override
+        public void open(IHyracksCommonContext ctx) {
+            assertTrue(closed);
+            if (!buffers.isEmpty()) {
+                monitor.notifyDataAvailability(this, buffers.size());
+            }
+            monitor.notifyEndOfStream(this);
+        }
+    }
+}
@@ -45,6 +45,10 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
 
     private static final int MAX_CHUNKS_READ_PER_CYCLE = 4;
 
+    private static final int MAX_BATCH_COMMANDS = 64;
+
+    private static final int MAX_BATCH_BYTES = 512 * 1024;
+
     private final MuxDemux muxDemux;
 
     private final IEventCounter pendingWriteEventsCounter;
@@ -161,71 +165,166 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
         return channel;
     }
 
+    /**
+     * Collects the commands (and their payloads) of a write cycle so that they can be sent with a single gathering
+     * write on the socket channel. Control commands (channel open, credits and close acknowledgements) are
+     * piggy-backed on the data frames of the same cycle instead of being written one by one.
+     */
     class WriterState implements IConnectionWriterState {
-        private final ByteBuffer cmdWriteBuffer;
+        private final ByteBuffer[] cmdWriteBuffers;
+
+        private final ByteBuffer[] pendingBuffers;
+
+        private final int[] pendingBufferLimits;
+
+        private final IChannelControlBlock[] ccbs;
+
+        private final boolean[] releasesWriteEvent;
+
+        private final ByteBuffer[] gatherBuffers;
+
+        private final BitSet batchedChannels;
 
         final MuxDemuxCommand command;
 
-        private ByteBuffer pendingBuffer;
+        private int nEntries;
+
+        private int nGatherBuffers;
 
-        private int pendingWriteSize;
+        private int gatherOffset;
 
-        private IChannelControlBlock ccb;
+        private long batchBytes;
 
         public WriterState() {
-            cmdWriteBuffer = ByteBuffer.allocateDirect(MuxDemuxCommand.COMMAND_SIZE);
-            cmdWriteBuffer.flip();
+            cmdWriteBuffers = new ByteBuffer[MAX_BATCH_COMMANDS];
+            for (int i = 0; i < MAX_BATCH_COMMANDS; ++i) {
+                cmdWriteBuffers[i] = ByteBuffer.allocateDirect(MuxDemuxCommand.COMMAND_SIZE);
+            }
+            pendingBuffers = new ByteBuffer[MAX_BATCH_COMMANDS];
+            pendingBufferLimits = new int[MAX_BATCH_COMMANDS];
+            ccbs = new IChannelControlBlock[MAX_BATCH_COMMANDS];
+            releasesWriteEvent = new boolean[MAX_BATCH_COMMANDS];
+            gatherBuffers = new ByteBuffer[2 * MAX_BATCH_COMMANDS];
+            batchedChannels = new BitSet();
             command = new MuxDemuxCommand();
-            ccb = null;
         }
 
         boolean writePending() {
-            return cmdWriteBuffer.remaining() > 0 || (pendingBuffer != null && pendingWriteSize > 0);
+            return nEntries > 0;
+        }
+
+        boolean isFull() {
+            return nEntries >= MAX_BATCH_COMMANDS || batchBytes >= MAX_BATCH_BYTES;
+        }
+
+        boolean isBatched(int channelId) {
+            return batchedChannels.get(channelId);
+        }
+
+        void markBatched(int channelId) {
+            batchedChannels.set(channelId);
+        }
+
+        /**
+         * Queues the current command without payload.
+         *
+         * @param releaseWriteEvent
+         *            whether the pending write event registered for this command should be released once the
+         *            command has been written
+         */
+        void queueCommand(boolean releaseWriteEvent) {
+            reset(null, 0, null);
+            releasesWriteEvent[nEntries - 1] = releaseWriteEvent;
         }
 
         @Override
         public void reset(ByteBuffer pendingBuffer, int pendingWriteSize, IChannelControlBlock ccb) {
+            if (nEntries == 0) {
+                // keeps the connection interested in OP_WRITE until the whole batch has been written
+                pendingWriteEventsCounter.increment();
+            }
+            ByteBuffer cmdWriteBuffer = cmdWriteBuffers[nEntries];
             cmdWriteBuffer.clear();
             command.write(cmdWriteBuffer);
             cmdWriteBuffer.flip();
-            this.pendingBuffer = pendingBuffer;
-            this.pendingWriteSize = pendingWriteSize;
-            this.ccb = ccb;
+            gatherBuffers[nGatherBuffers++] = cmdWriteBuffer;
+            batchBytes += MuxDemuxCommand.COMMAND_SIZE;
+            if (pendingBuffer != null && pendingWriteSize > 0) {
+                assert pendingWriteSize <= pendingBuffer.remaining();
+                pendingBufferLimits[nEntries] = pendingBuffer.limit();
+                pendingBuffer.limit(pendingBuffer.position() + pendingWriteSize);
+                pendingBuffers[nEntries] = pendingBuffer;
+                gatherBuffers[nGatherBuffers++] = pendingBuffer;
+                batchBytes += pendingWriteSize;
+            }
+            ccbs[nEntries] = ccb;
+            releasesWriteEvent[nEntries] = false;
+            ++nEntries;
         }
 
+        /**
+         * Writes as much of the current batch as the socket channel accepts. Must not be called while holding the
+         * lock on the {@link MultiplexedConnection} since completing a write calls back into the channels.
+         *
+         * @return true if the whole batch was written
+         */
         boolean performPendingWrite(SocketChannel sc) throws IOException {
-            int len = cmdWriteBuffer.remaining();
-            if (len > 0) {
-                int written = sc.write(cmdWriteBuffer);
-                muxDemux.getPerformanceCounters().addSignalingBytesWritten(written);
-                if (written < len) {
+            if (nEntries == 0) {
+                return true;
+            }
+            while (gatherOffset < nGatherBuffers) {
+                long signalingRemaining = getSignalingBytesRemaining();
+                long written = sc.write(gatherBuffers, gatherOffset, nGatherBuffers - gatherOffset);
+                long signalingWritten = signalingRemaining - getSignalingBytesRemaining();
+                MuxDemuxPerformanceCounters counters = muxDemux.getPerformanceCounters();
+                counters.addSignalingBytesWritten(signalingWritten);
+                counters.addPayloadBytesWritten(written - signalingWritten);
+                while (gatherOffset < nGatherBuffers && !gatherBuffers[gatherOffset].hasRemaining()) {
+                    ++gatherOffset;
+                }
+                if (gatherOffset < nGatherBuffers) {
                     return false;
                 }
             }
-            if (pendingBuffer != null) {
-                if (pendingWriteSize > 0) {
-                    assert pendingWriteSize <= pendingBuffer.remaining();
-                    int oldLimit = pendingBuffer.limit();
-                    try {
-                        pendingBuffer.limit(pendingWriteSize + pendingBuffer.position());
-                        int written = sc.write(pendingBuffer);
-                        muxDemux.getPerformanceCounters().addPayloadBytesWritten(written);
-                        pendingWriteSize -= written;
-                    } finally {
-                        pendingBuffer.limit(oldLimit);
-                    }
+            completeBatch();
+            return true;
+        }
+
+        private long getSignalingBytesRemaining() {
+            long remaining = 0;
+            for (int i = 0; i < nEntries; ++i) {
+                remaining += cmdWriteBuffers[i].remaining();
+            }
+            return remaining;
+        }
+
+        private void completeBatch() {
+            int nCommands = nEntries;
+            muxDemux.getPerformanceCounters().addBatchWritten(nCommands, batchBytes);
+            for (int i = 0; i < nCommands; ++i) {
+                if (pendingBuffers[i] != null) {
+                    pendingBuffers[i].limit(pendingBufferLimits[i]);
+                    pendingBuffers[i] = null;
                 }
-                if (pendingWriteSize > 0) {
-                    return false;
+            }
+            for (int i = 0; i < nCommands; ++i) {
+                if (ccbs[i] != null) {
+                    ccbs[i].writeComplete();
+                    ccbs[i] = null;
+                }
+                if (releasesWriteEvent[i]) {
+                    pendingWriteEventsCounter.decrement();
                 }
-                pendingBuffer = null;
-                pendingWriteSize = 0;
             }
-            if (ccb != null) {
-                ccb.writeComplete();
-                ccb = null;
+            for (int i = 0; i < nGatherBuffers; ++i) {
+                gatherBuffers[i] = null;
             }
-            return true;
+            nEntries = 0;
+            nGatherBuffers = 0;
+            gatherOffset = 0;
+            batchBytes = 0;
+            batchedChannels.clear();
+            pendingWriteEventsCounter.decrement();
         }
 
         @Override
@@ -236,11 +335,8 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
 
     void driveWriterStateMachine() throws IOException, NetException {
         SocketChannel sc = tcpConnection.getSocketChannel();
-        if (writerState.writePending()) {
-            if (!writerState.performPendingWrite(sc)) {
-                return;
-            }
-            pendingWriteEventsCounter.decrement();
+        if (writerState.writePending() && !writerState.performPendingWrite(sc)) {
+            return;
         }
         int numCycles;
 
@@ -250,77 +346,111 @@ public class MultiplexedConnection implements ITCPConnectionEventListener {
 
         for (int i = 0; i < numCycles; ++i) {
             ChannelControlBlock writeCCB = null;
-            synchronized (MultiplexedConnection.this) {
-                BitSet pendingChannelSynBitmap = cSet.getPendingChannelSynBitmap();
-                for (int j = pendingChannelSynBitmap.nextSetBit(0); j >= 0; j = pendingChannelSynBitmap.nextSetBit(j)) {
-                    pendingChannelSynBitmap.clear(j);
-                    writerState.command.setChannelId(j);
-                    writerState.command.setCommandType(MuxDemuxCommand.CommandType.OPEN_CHANNEL);
-                    writerState.command.setData(0);
-                    writerState.reset(null, 0, null);
-                    if (!writerState.performPendingWrite(sc)) {
-                        return;
+            while (true) {
+                boolean controlCommandsQueued;
+                synchronized (MultiplexedConnection.this) {
+                    controlCommandsQueued = queuePendingControlCommands();
+                    if (controlCommandsQueued) {
+                        writeCCB = getNextWriteCCB();
                     }
-                    pendingWriteEventsCounter.decrement();
                 }
-                BitSet pendingChannelCreditsBitmap = cSet.getPendingChannelCreditsBitmap();
-                for (int j = pendingChannelCreditsBitmap.nextSetBit(0); j >= 0; j = pendingChannelCreditsBitmap
-                        .nextSetBit(j)) {
-                    writerState.command.setChannelId(j);
-                    writerState.command.setCommandType(MuxDemuxCommand.CommandType.ADD_CREDITS);
-                    ChannelControlBlock ccb = cSet.getCCB(j);
-                    int credits = ccb.getReadCredits();
-                    int effectiveCredits;
-                    if (credits <= MuxDemuxCommand.MAX_DATA_VALUE) {
-                        effectiveCredits = credits;
-                        ccb.setReadCredits(0);
-                        pendingChannelCreditsBitmap.clear(j);
-                    } else {
-                        effectiveCredits = MuxDemuxCommand.MAX_DATA_VALUE;
-                        ccb.setReadCredits(credits - effectiveCredits);
-                    }
-                    writerState.command.setData(effectiveCredits);
-                    writerState.reset(null, 0, null);
-                    if (!writerState.performPendingWrite(sc)) {
-                        return;
-                    }
-                    if (credits == effectiveCredits) {
-                        pendingWriteEventsCounter.decrement();
-                    }
+                if (controlCommandsQueued) {
+                    break;
                 }
-                BitSet pendingEOSAckBitmap = cSet.getPendingEOSAckBitmap();
-                for (int j = pendingEOSAckBitmap.nextSetBit(0); j >= 0; j = pendingEOSAckBitmap.nextSetBit(j)) {
-                    pendingEOSAckBitmap.clear(j);
-                    ChannelControlBlock ccb = cSet.getCCB(j);
-                    ccb.reportRemoteEOSAck();
-                    writerState.command.setChannelId(j);
-                    writerState.command.setCommandType(MuxDemuxCommand.CommandType.CLOSE_CHANNEL_ACK);
-                    writerState.command.setData(0);
-                    writerState.reset(null, 0, null);
-                    if (!writerState.performPendingWrite(sc)) {
-                        return;
-                    }
-                    pendingWriteEventsCounter.decrement();
-                }
-                BitSet pendingChannelWriteBitmap = cSet.getPendingChannelWriteBitmap();
-                lastChannelWritten = pendingChannelWriteBitmap.nextSetBit(lastChannelWritten + 1);
-                if (lastChannelWritten == -1) {
-                    lastChannelWritten = pendingChannelWriteBitmap.nextSetBit(0);
-                    if (lastChannelWritten == -1) {
-                        return;
-                    }
+                if (!writerState.performPendingWrite(sc)) {
+                    return;
                 }
-                writeCCB = cSet.getCCB(lastChannelWritten);
+            }
+            if (writeCCB == null) {
+                break;
+            }
+            int channelId = writeCCB.getChannelId();
+            if (writerState.isBatched(channelId) && !writerState.performPendingWrite(sc)) {
+                return;
             }
             writeCCB.write(writerState);
             if (writerState.writePending()) {
-                pendingWriteEventsCounter.increment();
-                if (!writerState.performPendingWrite(sc)) {
-                    return;
-                }
-                pendingWriteEventsCounter.decrement();
+                writerState.markBatched(channelId);
+            }
+            if (writerState.isFull() && !writerState.performPendingWrite(sc)) {
+                return;
+            }
+        }
+        if (writerState.writePending()) {
+            writerState.performPendingWrite(sc);
+        }
+    }
+
+    /**
+     * Queues the pending channel open, credit and close acknowledgement commands into the current batch.
+     * Must be called while holding the lock on this {@link MultiplexedConnection}.
+     *
+     * @return false if the batch filled up before all pending control commands could be queued
+     */
+    private boolean queuePendingControlCommands() throws NetException {
+        BitSet pendingChannelSynBitmap = cSet.getPendingChannelSynBitmap();
+        for (int j = pendingChannelSynBitmap.nextSetBit(0); j >= 0; j = pendingChannelSynBitmap.nextSetBit(j)) {
+            if (writerState.isFull()) {
+                return false;
+            }
+            pendingChannelSynBitmap.clear(j);
+            writerState.command.setChannelId(j);
+            writerState.command.setCommandType(MuxDemuxCommand.CommandType.OPEN_CHANNEL);
+            writerState.command.setData(0);
+            writerState.queueCommand(true);
+        }
+        BitSet pendingChannelCreditsBitmap = cSet.getPendingChannelCreditsBitmap();
+        for (int j = pendingChannelCreditsBitmap.nextSetBit(0); j >= 0; j = pendingChannelCreditsBitmap
+                .nextSetBit(j)) {
+            if (writerState.isFull()) {
+                return false;
+            }
+            writerState.command.setChannelId(j);
+            writerState.command.setCommandType(MuxDemuxCommand.CommandType.ADD_CREDITS);
+            ChannelControlBlock ccb = cSet.getCCB(j);
+            int credits = ccb.getReadCredits();
+            int effectiveCredits;
+            if (credits <= MuxDemuxCommand.MAX_DATA_VALUE) {
+                effectiveCredits = credits;
+                ccb.setReadCredits(0);
+                pendingChannelCreditsBitmap.clear(j);
+            } else {
+                effectiveCredits = MuxDemuxCommand.MAX_DATA_VALUE;
+                ccb.setReadCredits(credits - effectiveCredits);
+            }
+            writerState.command.setData(effectiveCredits);
+            writerState.queueCommand(credits == effectiveCredits);
+        }
+        BitSet pendingEOSAckBitmap = cSet.getPendingEOSAckBitmap();
+        for (int j = pendingEOSAckBitmap.nextSetBit(0); j >= 0; j = pendingEOSAckBitmap.nextSetBit(j)) {
+            if (writerState.isFull()) {
+                return false;
+            }
+            pendingEOSAckBitmap.clear(j);
+            ChannelControlBlock ccb = cSet.getCCB(j);
+            ccb.reportRemoteEOSAck();
+            writerState.command.setChannelId(j);
+            writerState.command.setCommandType(MuxDemuxCommand.CommandType.CLOSE_CHANNEL_ACK);
+            writerState.command.setData(0);
+            writerState.queueCommand(true);
+        }
+        return true;
+    }
+
+    /**
+     * Picks the next channel with pending writes in round-robin order.
+     * Must be called while holding the lock on this {@link MultiplexedConnection}.
+     */
+    private ChannelControlBlock getNextWriteCCB() {
+        BitSet pendingChannelWriteBitmap = cSet.getPendingChannelWriteBitmap();
+        lastChannelWritten = pendingChannelWriteBitmap.nextSetBit(lastChannelWritten + 1);
+        if (lastChannelWritten == -1) {
+            lastChannelWritten = pendingChannelWriteBitmap.nextSetBit(0);
+            if (lastChannelWritten == -1) {
+                return null;
             }
         }
+        return cSet.getCCB(lastChannelWritten);
     }
 
     class ReaderState {
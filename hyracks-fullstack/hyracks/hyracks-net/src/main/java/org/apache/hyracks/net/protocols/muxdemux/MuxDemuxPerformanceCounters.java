@@ -29,11 +29,23 @@ public class MuxDemuxPerformanceCounters {
 
     private final AtomicLong signalingBytesWritten;
 
+    private final AtomicLong batchesWritten;
+
+    private final AtomicLong batchedCommandsWritten;
+
+    private final AtomicLong batchedBytesWritten;
+
+    private final AtomicLong maxBatchCommands;
+
     public MuxDemuxPerformanceCounters() {
         payloadBytesRead = new AtomicLong();
         payloadBytesWritten = new AtomicLong();
         signalingBytesRead = new AtomicLong();
         signalingBytesWritten = new AtomicLong();
+        batchesWritten = new AtomicLong();
+        batchedCommandsWritten = new AtomicLong();
+        batchedBytesWritten = new AtomicLong();
+        maxBatchCommands = new AtomicLong();
     }
 
     public void addPayloadBytesRead(long delta) {
@@ -67,4 +79,32 @@ public class MuxDemuxPerformanceCounters {
     public long getSignalingBytesWritten() {
         return signalingBytesWritten.get();
     }
+
+    public void addBatchWritten(int nCommands, long nBytes) {
+        batchesWritten.incrementAndGet();
+        batchedCommandsWritten.addAndGet(nCommands);
+        batchedBytesWritten.addAndGet(nBytes);
+        maxBatchCommands.accumulateAndGet(nCommands, Math::max);
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public long getBatchedCommandsWritten() {
+        return batchedCommandsWritten.get();
+    }
+
+    public long getBatchedBytesWritten() {
+        return batchedBytesWritten.get();
+    }
+
+    public long getMaxBatchCommands() {
+        return maxBatchCommands.get();
+    }
+
+    public double getAverageBatchCommands() {
+        long batches = batchesWritten.get();
+        return batches == 0 ? 0 : (double) batchedCommandsWritten.get() / batches;
+    }
 }
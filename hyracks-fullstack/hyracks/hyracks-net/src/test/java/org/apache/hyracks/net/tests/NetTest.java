@@ -32,6 +32,7 @@ import org.apache.hyracks.net.protocols.muxdemux.FullFrameChannelInterfaceFactor
 import org.apache.hyracks.net.protocols.muxdemux.IChannelOpenListener;
 import org.apache.hyracks.net.protocols.muxdemux.MultiplexedConnection;
 import org.apache.hyracks.net.protocols.muxdemux.MuxDemux;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemuxPerformanceCounters;
 import org.junit.Test;
 
 import junit.framework.Assert;
@@ -60,6 +61,35 @@ public class NetTest {
         Assert.assertFalse("Failure flag was set to true", failFlag.get());
     }
 
+    @Test
+    public void testBatchedWrites() throws Exception {
+        AtomicBoolean failFlag = new AtomicBoolean();
+
+        MuxDemux md1 = createMuxDemux("md1", failFlag);
+        md1.start();
+        MuxDemux md2 = createMuxDemux("md2", failFlag);
+        md2.start();
+        InetSocketAddress md2Address = md2.getLocalAddress();
+
+        MultiplexedConnection md1md2 = md1.connect(md2Address);
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = createThread(md1md2, i % 2 == 0 ? 1 : -1);
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        Assert.assertFalse("Failure flag was set to true", failFlag.get());
+        MuxDemuxPerformanceCounters counters = md1.getPerformanceCounters();
+        Assert.assertTrue(counters.getBatchesWritten() > 0);
+        Assert.assertTrue(counters.getBatchedCommandsWritten() >= counters.getBatchesWritten());
+        Assert.assertTrue(counters.getBatchedBytesWritten() <= counters.getPayloadBytesWritten()
+                + counters.getSignalingBytesWritten());
+    }
+
     private Thread createThread(final MultiplexedConnection md1md2, final int factor) {
         return new Thread() {
             @Override
@@ -151,6 +151,50 @@ public class BloomCalculations {
         return new BloomFilterSpecification(K, bucketsPerElement);
     }
 
+    /**
+     * Given the specification of a filter, compute the number of buckets per element with which a blocked filter,
+     * which sets all the bits of an element within one block, is at least as accurate. The elements are not spread
+     * evenly over the blocks, and the blocks that get more elements than average have a higher false positive rate,
+     * so a blocked filter needs more buckets per element than a standard one.
+     *
+     * @param bucketsPerElement
+     *            The number of buckets per element of the standard filter.
+     * @param numHashes
+     *            The number of hash functions.
+     * @param bucketsPerBlock
+     *            The number of buckets of a block.
+     * @return The number of buckets per element of the blocked filter, at most twice the given one.
+     */
+    public static int computeBlockedBucketsPerElement(int bucketsPerElement, int numHashes, int bucketsPerBlock) {
+        double maxFalsePosProb = Math.pow(1 - Math.exp(-numHashes / (double) bucketsPerElement), numHashes);
+        int blockedBucketsPerElement = bucketsPerElement;
+        while (blockedBucketsPerElement < 2 * bucketsPerElement
+                && computeBlockedFalsePosProb(blockedBucketsPerElement, numHashes, bucketsPerBlock) > maxFalsePosProb) {
+            blockedBucketsPerElement++;
+        }
+        return blockedBucketsPerElement;
+    }
+
+    /**
+     * The number of elements of a block follows a Poisson distribution, and a block with i elements has the false
+     * positive rate of a standard filter of the size of the block with i elements.
+     */
+    static double computeBlockedFalsePosProb(int bucketsPerElement, int numHashes, int bucketsPerBlock) {
+        double mean = bucketsPerBlock / (double) bucketsPerElement;
+        double probOfElements = Math.exp(-mean);
+        double cumulativeProb = 0;
+        double falsePosProb = 0;
+        for (int i = 0; cumulativeProb < 1 - 1e-9 && i <= 8 * bucketsPerBlock; i++) {
+            if (i > 0) {
+                probOfElements *= mean / i;
+            }
+            cumulativeProb += probOfElements;
+            double bucketIsZero = Math.pow(1 - 1.0 / bucketsPerBlock, (double) numHashes * i);
+            falsePosProb += probOfElements * Math.pow(1 - bucketIsZero, numHashes);
+        }
+        return falsePosProb;
+    }
+
     /**
      * Calculates the maximum number of buckets per element that this implementation
      * can support. Crucially, it will lower the bucket count if necessary to meet
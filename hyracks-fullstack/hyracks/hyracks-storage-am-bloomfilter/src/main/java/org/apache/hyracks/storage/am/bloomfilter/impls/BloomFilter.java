@@ -38,10 +38,35 @@ public class BloomFilter {
     private static final int NUM_HASHES_USED_OFFSET = NUM_PAGES_OFFSET + 4; // 4
     private static final int NUM_ELEMENTS_OFFSET = NUM_HASHES_USED_OFFSET + 4; // 8
     private static final int NUM_BITS_OFFSET = NUM_ELEMENTS_OFFSET + 8; // 12
+    private static final int LAYOUT_OFFSET = NUM_BITS_OFFSET + 8; // 20
+
+    /*
+     * Filters written with the blocked layout carry this marker at LAYOUT_OFFSET of the metadata page. Filters
+     * written before the blocked layout existed do not initialize that slot, hence the use of a magic value
+     * rather than a plain flag.
+     */
+    private static final int BLOCKED_LAYOUT_MAGIC = 0x424c4b42;
+    private static final int LEGACY_LAYOUT = 0;
+
+    /*
+     * In the blocked layout, all the bits of a key are set within a single cache-line-sized block of a single page,
+     * so a probe pins at most one page and touches at most one cache line.
+     */
+    private static final int BLOCK_SIZE_IN_BYTES = 64;
+    private static final int BLOCK_SIZE_IN_BITS = BLOCK_SIZE_IN_BYTES * Byte.SIZE;
+    private static final int BLOCK_BIT_MASK = BLOCK_SIZE_IN_BITS - 1;
+    /*
+     * Each bit of a key within its block is taken from its own slice of the bits hash. Deriving them from two hashes
+     * instead (h1 + i * h2) only yields a few distinct combinations within a block, which raises the false positive
+     * rate.
+     */
+    static final int BITS_PER_PROBE = Integer.numberOfTrailingZeros(BLOCK_SIZE_IN_BITS);
+    static final int PROBES_PER_HASH = Long.SIZE / BITS_PER_PROBE;
 
     private final IBufferCache bufferCache;
     private final FileReference file;
     private final int[] keyFields;
+    private final boolean buildBlocked;
     private int fileId = -1;
     private boolean isActivated = false;
 
@@ -49,15 +74,30 @@ public class BloomFilter {
     private int numHashes;
     private long numElements;
     private long numBits;
+    private boolean blocked;
+    private long numBlocks;
     private final int numBitsPerPage;
+    private final int numBlocksPerPage;
     private static final byte[] ZERO_BUFFER = new byte[131072]; // 128kb
     private static final long SEED = 0L;
 
     public BloomFilter(IBufferCache bufferCache, FileReference file, int[] keyFields) throws HyracksDataException {
+        this(bufferCache, file, keyFields, true);
+    }
+
+    /**
+     * @param buildBlocked
+     *            whether filters built through {@link #createBuilder(long, int, int)} use the blocked layout.
+     *            Existing filters are always probed using the layout they were written with.
+     */
+    public BloomFilter(IBufferCache bufferCache, FileReference file, int[] keyFields, boolean buildBlocked)
+            throws HyracksDataException {
         this.bufferCache = bufferCache;
         this.file = file;
         this.keyFields = keyFields;
+        this.buildBlocked = buildBlocked;
         this.numBitsPerPage = bufferCache.getPageSize() * Byte.SIZE;
+        this.numBlocksPerPage = bufferCache.getPageSize() / BLOCK_SIZE_IN_BYTES;
     }
 
     public int getFileId() {
@@ -82,10 +122,17 @@ public class BloomFilter {
         return numElements;
     }
 
+    public boolean isBlocked() {
+        return blocked;
+    }
+
     public boolean contains(ITupleReference tuple, long[] hashes) throws HyracksDataException {
         if (numPages == 0) {
             return false;
         }
+        if (blocked) {
+            return containsBlocked(tuple);
+        }
         MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
         for (int i = 0; i < numHashes; ++i) {
             long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
@@ -112,6 +159,83 @@ public class BloomFilter {
         return true;
     }
 
+    /**
+     * Probes a filter of the blocked layout with a key hashed by {@link #hash(ITupleReference, int[])}. Filters on the
+     * same key fields share the hash, so a key probed against several filters only needs to be hashed once.
+     */
+    public boolean contains(long hash) throws HyracksDataException {
+        if (numPages == 0) {
+            return false;
+        }
+        if (!blocked) {
+            throw new IllegalStateException("Only filters of the blocked layout can be probed with a precomputed hash");
+        }
+        return containsBlocked(hash);
+    }
+
+    public int[] getKeyFields() {
+        return keyFields;
+    }
+
+    /**
+     * @return the hash with which the key fields of the tuple are added to and probed against blocked filters
+     */
+    public static long hash(ITupleReference tuple, int[] keyFields) {
+        return MurmurHash64Bit.hash2_x64_64(tuple, keyFields, SEED);
+    }
+
+    private boolean containsBlocked(ITupleReference tuple) throws HyracksDataException {
+        return containsBlocked(MurmurHash64Bit.hash2_x64_64(tuple, keyFields, SEED));
+    }
+
+    private boolean containsBlocked(long hash) throws HyracksDataException {
+        long blockIndex = getBlockIndex(hash, numBlocks);
+        // we increment the page id by one, since the metadata page id of the filter is 0.
+        ICachedPage page = bufferCache
+                .pin(BufferedFileHandle.getDiskPageId(fileId, (int) (blockIndex / numBlocksPerPage) + 1), false);
+        page.acquireReadLatch();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            int blockStart = (int) (blockIndex % numBlocksPerPage) * BLOCK_SIZE_IN_BYTES;
+            long bitsHash = getBitsHash(hash);
+            long probes = bitsHash;
+            for (int i = 0; i < numHashes; ++i) {
+                if (i > 0 && i % PROBES_PER_HASH == 0) {
+                    bitsHash = getBitsHash(bitsHash);
+                    probes = bitsHash;
+                }
+                int bit = (int) probes & BLOCK_BIT_MASK;
+                probes >>>= BITS_PER_PROBE;
+                byte b = buffer.get(blockStart + (bit >> 3));
+                if ((b & (1 << (bit & 0x07))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            page.releaseReadLatch();
+            bufferCache.unpin(page);
+        }
+    }
+
+    /**
+     * Maps the upper 32 bits of the hash to a block using a multiply-shift instead of a modulo. The bits within the
+     * block are selected by {@link #getBitsHash(long)}.
+     */
+    static long getBlockIndex(long hash, long numBlocks) {
+        return ((hash >>> 32) * numBlocks) >>> 32;
+    }
+
+    /**
+     * @return the hash from which the bits of a key within its block are derived, or the next such hash once all the
+     *         slices of the previous one are used. It is a rehash, so that the bits do not depend on the same part of
+     *         the hash as the block index. Keys of the same block would otherwise set correlated bits, which raises
+     *         the false positive rate.
+     */
+    static long getBitsHash(long hash) {
+        return MurmurHash64Bit.rehash(hash);
+    }
+
     public synchronized void create() throws HyracksDataException {
         if (isActivated) {
             throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_ACTIVE_BLOOM_FILTER);
@@ -138,6 +262,8 @@ public class BloomFilter {
             numHashes = 0;
             numElements = 0;
             numBits = 0;
+            blocked = false;
+            numBlocks = 0;
             return;
         }
         ICachedPage metaPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, METADATA_PAGE_ID), false);
@@ -147,6 +273,8 @@ public class BloomFilter {
             numHashes = metaPage.getBuffer().getInt(NUM_HASHES_USED_OFFSET);
             numElements = metaPage.getBuffer().getLong(NUM_ELEMENTS_OFFSET);
             numBits = metaPage.getBuffer().getLong(NUM_BITS_OFFSET);
+            blocked = metaPage.getBuffer().getInt(LAYOUT_OFFSET) == BLOCKED_LAYOUT_MAGIC;
+            numBlocks = (long) numPages * numBlocksPerPage;
         } finally {
             metaPage.releaseReadLatch();
             bufferCache.unpin(metaPage);
@@ -179,7 +307,7 @@ public class BloomFilter {
 
     public IIndexBulkLoader createBuilder(long numElements, int numHashes, int numBitsPerElement)
             throws HyracksDataException {
-        return new BloomFilterBuilder(numElements, numHashes, numBitsPerElement);
+        return new BloomFilterBuilder(numElements, numHashes, numBitsPerElement, buildBlocked);
     }
 
     public class BloomFilterBuilder implements IIndexBulkLoader {
@@ -188,23 +316,38 @@ public class BloomFilter {
         private final int numHashes;
         private final long numBits;
         private final int numPages;
+        private final boolean blocked;
+        private final long numBlocks;
         private IFIFOPageQueue queue;
         private ICachedPage[] pages;
         private ICachedPage metaDataPage = null;
 
-        public BloomFilterBuilder(long numElements, int numHashes, int numBitsPerElement) throws HyracksDataException {
+        public BloomFilterBuilder(long numElements, int numHashes, int numBitsPerElement, boolean blocked)
+                throws HyracksDataException {
             if (!isActivated) {
                 throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_BLOOM_FILTER_BUILDER_FOR_INACTIVE_FILTER);
             }
             queue = bufferCache.createFIFOQueue();
             this.numElements = numElements;
             this.numHashes = numHashes;
+            // pages smaller than a block cannot hold the blocked layout
+            this.blocked = blocked && numBlocksPerPage > 0;
+            if (this.blocked) {
+                // the blocks do not fill up evenly, make up for it to keep the false positive rate of the layout
+                numBitsPerElement = BloomCalculations.computeBlockedBucketsPerElement(numBitsPerElement, numHashes,
+                        BLOCK_SIZE_IN_BITS);
+            }
             numBits = this.numElements * numBitsPerElement;
             long tmp = (long) Math.ceil(numBits / (double) numBitsPerPage);
             if (tmp > Integer.MAX_VALUE) {
                 throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_BLOOM_FILTER_WITH_NUMBER_OF_PAGES, tmp);
             }
             numPages = (int) tmp;
+            numBlocks = (long) numPages * numBlocksPerPage;
+            if (this.blocked && numBlocks > 0xffffffffL) {
+                // the multiply-shift block selection only addresses 2^32 blocks
+                throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_BLOOM_FILTER_WITH_NUMBER_OF_PAGES, tmp);
+            }
             pages = new ICachedPage[numPages];
             int currentPageId = 1;
             while (currentPageId <= numPages) {
@@ -236,6 +379,7 @@ public class BloomFilter {
             metaDataPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, numHashes);
             metaDataPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, numElements);
             metaDataPage.getBuffer().putLong(NUM_BITS_OFFSET, numBits);
+            metaDataPage.getBuffer().putInt(LAYOUT_OFFSET, blocked ? BLOCKED_LAYOUT_MAGIC : LEGACY_LAYOUT);
         }
 
         @Override
@@ -243,9 +387,50 @@ public class BloomFilter {
             if (numPages == 0) {
                 throw HyracksDataException.create(ErrorCode.CANNOT_ADD_TUPLES_TO_DUMMY_BLOOM_FILTER);
             }
+            if (blocked) {
+                addBlocked(MurmurHash64Bit.hash2_x64_64(tuple, keyFields, SEED));
+                return;
+            }
             MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+            addLegacy(hashes[0], hashes[1]);
+        }
+
+        /**
+         * @return the number of longs {@link #hash(ITupleReference, long[], int)} produces per tuple
+         */
+        public int getHashWidth() {
+            return blocked ? 1 : 2;
+        }
+
+        /**
+         * Computes the hashes of a tuple's key without touching the filter, so that hashing and setting
+         * bits can run on different threads. Adding the hashes with {@link #addHashes(long[], int)} has
+         * the same effect as {@link #add(ITupleReference)}.
+         */
+        public void hash(ITupleReference tuple, long[] out, int offset) {
+            if (blocked) {
+                out[offset] = MurmurHash64Bit.hash2_x64_64(tuple, keyFields, SEED);
+            } else {
+                MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+                out[offset] = hashes[0];
+                out[offset + 1] = hashes[1];
+            }
+        }
+
+        public void addHashes(long[] in, int offset) throws HyracksDataException {
+            if (numPages == 0) {
+                throw HyracksDataException.create(ErrorCode.CANNOT_ADD_TUPLES_TO_DUMMY_BLOOM_FILTER);
+            }
+            if (blocked) {
+                addBlocked(in[offset]);
+            } else {
+                addLegacy(in[offset], in[offset + 1]);
+            }
+        }
+
+        private void addLegacy(long hash0, long hash1) {
             for (int i = 0; i < numHashes; ++i) {
-                long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
+                long hash = Math.abs((hash0 + i * hash1) % numBits);
                 ICachedPage page = pages[(int) (hash / numBitsPerPage)];
                 ByteBuffer buffer = page.getBuffer();
                 int byteIndex = (int) (hash % numBitsPerPage) >> 3; // divide by 8
@@ -257,6 +442,24 @@ public class BloomFilter {
             }
         }
 
+        private void addBlocked(long hash) {
+            long blockIndex = getBlockIndex(hash, numBlocks);
+            ByteBuffer buffer = pages[(int) (blockIndex / numBlocksPerPage)].getBuffer();
+            int blockStart = (int) (blockIndex % numBlocksPerPage) * BLOCK_SIZE_IN_BYTES;
+            long bitsHash = getBitsHash(hash);
+            long probes = bitsHash;
+            for (int i = 0; i < numHashes; ++i) {
+                if (i > 0 && i % PROBES_PER_HASH == 0) {
+                    bitsHash = getBitsHash(bitsHash);
+                    probes = bitsHash;
+                }
+                int bit = (int) probes & BLOCK_BIT_MASK;
+                probes >>>= BITS_PER_PROBE;
+                int byteIndex = blockStart + (bit >> 3);
+                buffer.put(byteIndex, (byte) (buffer.get(byteIndex) | (1 << (bit & 0x07))));
+            }
+        }
+
         @Override
         public void end() throws HyracksDataException {
             allocateAndInitMetaDataPage();
@@ -269,6 +472,8 @@ public class BloomFilter {
             BloomFilter.this.numHashes = numHashes;
             BloomFilter.this.numElements = numElements;
             BloomFilter.this.numPages = numPages;
+            BloomFilter.this.blocked = blocked;
+            BloomFilter.this.numBlocks = numBlocks;
         }
 
         @Override
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.bloomfilter.impls;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+
+/**
+ * A bloom filter kept on the heap, to which keys can be added concurrently while it is being probed. It uses the
+ * blocked layout and the hash of {@link BloomFilter}, so a key hashed once can be probed against both kinds of filters.
+ * It is meant for the keys of an in-memory component and is cleared when the component is reset.
+ */
+public class InMemoryBloomFilter {
+
+    private static final int BLOCK_SIZE_IN_LONGS = 8;
+    private static final int BLOCK_BIT_MASK = BLOCK_SIZE_IN_LONGS * Long.SIZE - 1;
+    private static final int NUM_HASHES = 4;
+
+    private final int[] keyFields;
+    private final AtomicLongArray bits;
+    private final long numBlocks;
+
+    /**
+     * @param keyFields
+     *            the fields of the added tuples that make up the key
+     * @param numBits
+     *            the size of the filter, rounded up to a whole number of blocks
+     */
+    public InMemoryBloomFilter(int[] keyFields, long numBits) {
+        this.keyFields = keyFields;
+        long blockSizeInBits = (long) BLOCK_SIZE_IN_LONGS * Long.SIZE;
+        numBlocks = Math.max(1L, Math.min((numBits + blockSizeInBits - 1) / blockSizeInBits,
+                Integer.MAX_VALUE / BLOCK_SIZE_IN_LONGS));
+        bits = new AtomicLongArray((int) numBlocks * BLOCK_SIZE_IN_LONGS);
+    }
+
+    public int[] getKeyFields() {
+        return keyFields;
+    }
+
+    public long getSizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    public void add(ITupleReference tuple) {
+        add(BloomFilter.hash(tuple, keyFields));
+    }
+
+    public void add(long hash) {
+        int blockStart = (int) BloomFilter.getBlockIndex(hash, numBlocks) * BLOCK_SIZE_IN_LONGS;
+        long bitsHash = BloomFilter.getBitsHash(hash);
+        long probes = bitsHash;
+        for (int i = 0; i < NUM_HASHES; ++i) {
+            if (i > 0 && i % BloomFilter.PROBES_PER_HASH == 0) {
+                bitsHash = BloomFilter.getBitsHash(bitsHash);
+                probes = bitsHash;
+            }
+            int bit = (int) probes & BLOCK_BIT_MASK;
+            probes >>>= BloomFilter.BITS_PER_PROBE;
+            int index = blockStart + (bit >> 6);
+            long mask = 1L << (bit & 0x3f);
+            long word = bits.get(index);
+            while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask)) {
+                word = bits.get(index);
+            }
+        }
+    }
+
+    public boolean contains(ITupleReference tuple) {
+        return contains(BloomFilter.hash(tuple, keyFields));
+    }
+
+    /**
+     * @param hash
+     *            the key hashed by {@link BloomFilter#hash(ITupleReference, int[])}
+     * @return false if the key was definitely not added since the filter was last cleared
+     */
+    public boolean contains(long hash) {
+        int blockStart = (int) BloomFilter.getBlockIndex(hash, numBlocks) * BLOCK_SIZE_IN_LONGS;
+        long bitsHash = BloomFilter.getBitsHash(hash);
+        long probes = bitsHash;
+        for (int i = 0; i < NUM_HASHES; ++i) {
+            if (i > 0 && i % BloomFilter.PROBES_PER_HASH == 0) {
+                bitsHash = BloomFilter.getBitsHash(bitsHash);
+                probes = bitsHash;
+            }
+            int bit = (int) probes & BLOCK_BIT_MASK;
+            probes >>>= BloomFilter.BITS_PER_PROBE;
+            if ((bits.get(blockStart + (bit >> 6)) & (1L << (bit & 0x3f))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.bloomfilter.impls;
+
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+
+/**
+ * MurmurHash64A (http://murmurhash.googlepages.com/) adapted to operate on the key fields of an
+ * ITupleReference. The key fields are hashed as if they were one contiguous byte array, eight bytes at a time
+ * whenever possible. This is considerably cheaper than {@link MurmurHash128Bit} and is used by the blocked
+ * layout of the {@link BloomFilter}, which only needs 64 bits of hash per key.
+ */
+public class MurmurHash64Bit {
+
+    private static final long M = 0xc6a4a7935bd1e995L;
+    private static final int R = 47;
+
+    private MurmurHash64Bit() {
+    }
+
+    public static long hash2_x64_64(ITupleReference tuple, int[] keyFields, long seed) {
+        int length = 0;
+        for (int i = 0; i < keyFields.length; ++i) {
+            length += tuple.getFieldLength(keyFields[i]);
+        }
+        long h = seed ^ (length * M);
+
+        // k accumulates the bytes of a block that spans field boundaries
+        long k = 0L;
+        int shift = 0;
+        for (int i = 0; i < keyFields.length; ++i) {
+            byte[] data = tuple.getFieldData(keyFields[i]);
+            int pos = tuple.getFieldStart(keyFields[i]);
+            int end = pos + tuple.getFieldLength(keyFields[i]);
+            while (pos < end) {
+                if (shift == 0 && end - pos >= Long.BYTES) {
+                    h = mix(h, getLongLittleEndian(data, pos));
+                    pos += Long.BYTES;
+                } else {
+                    k |= (data[pos++] & 0xffL) << shift;
+                    shift += Byte.SIZE;
+                    if (shift == Long.SIZE) {
+                        h = mix(h, k);
+                        k = 0L;
+                        shift = 0;
+                    }
+                }
+            }
+        }
+
+        // tail
+        if (shift > 0) {
+            h ^= k;
+            h *= M;
+        }
+
+        // finalization
+        h ^= h >>> R;
+        h *= M;
+        h ^= h >>> R;
+        return h;
+    }
+
+    /**
+     * The finalizer of MurmurHash3. It spreads every bit of the input over the whole output, so parts of its output
+     * can be used independently of the same parts of the input.
+     */
+    public static long rehash(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, long k) {
+        k *= M;
+        k ^= k >>> R;
+        k *= M;
+        h ^= k;
+        return h * M;
+    }
+
+    private static long getLongLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xffL) | (data[offset + 1] & 0xffL) << 8 | (data[offset + 2] & 0xffL) << 16
+                | (data[offset + 3] & 0xffL) << 24 | (data[offset + 4] & 0xffL) << 32
+                | (data[offset + 5] & 0xffL) << 40 | (data[offset + 6] & 0xffL) << 48
+                | (data[offset + 7] & 0xffL) << 56;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.api;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+
+/**
+ * A search cursor that can serve a batch of point lookups from a single search call. The first key of the batch is
+ * searched as usual; every following key is served by updating the (mutable) key of the original search predicate
+ * and calling {@link #resetKey()}, which keeps the index state that was entered for the first key instead of
+ * leaving and re-entering it for every key.
+ */
+public interface IBatchPointSearchCursor extends ITreeIndexCursor {
+
+    /**
+     * @return true if the cursor was opened on a point search and can serve further keys through
+     *         {@link #resetKey()}
+     */
+    boolean isBatchable();
+
+    /**
+     * Prepares the cursor to return the results of the current key of the search predicate.
+     *
+     * @throws HyracksDataException
+     */
+    void resetKey() throws HyracksDataException;
+}
@@ -18,10 +18,14 @@
  */
 package org.apache.hyracks.storage.am.btree.dataflow;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallbackFactory;
@@ -40,6 +44,7 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
     protected PermutingFrameTupleReference highKey;
     protected MultiComparator lowKeySearchCmp;
     protected MultiComparator highKeySearchCmp;
+    protected boolean batchPointLookups;
 
     public BTreeSearchOperatorNodePushable(IHyracksTaskContext ctx, int partition, RecordDescriptor inputRecDesc,
             int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive,
@@ -47,6 +52,17 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
             boolean retainInput, boolean retainMissing, IMissingWriterFactory missingWriterFactory,
             ISearchOperationCallbackFactory searchCallbackFactory, boolean appendIndexFilter)
             throws HyracksDataException {
+        this(ctx, partition, inputRecDesc, lowKeyFields, highKeyFields, lowKeyInclusive, highKeyInclusive,
+                minFilterFieldIndexes, maxFilterFieldIndexes, indexHelperFactory, retainInput, retainMissing,
+                missingWriterFactory, searchCallbackFactory, appendIndexFilter, false);
+    }
+
+    public BTreeSearchOperatorNodePushable(IHyracksTaskContext ctx, int partition, RecordDescriptor inputRecDesc,
+            int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive,
+            int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes, IIndexDataflowHelperFactory indexHelperFactory,
+            boolean retainInput, boolean retainMissing, IMissingWriterFactory missingWriterFactory,
+            ISearchOperationCallbackFactory searchCallbackFactory, boolean appendIndexFilter,
+            boolean batchPointLookups) throws HyracksDataException {
         super(ctx, inputRecDesc, partition, minFilterFieldIndexes, maxFilterFieldIndexes, indexHelperFactory,
                 retainInput, retainMissing, missingWriterFactory, searchCallbackFactory, appendIndexFilter);
         this.lowKeyInclusive = lowKeyInclusive;
@@ -59,6 +75,43 @@ public class BTreeSearchOperatorNodePushable extends IndexSearchOperatorNodePush
             highKey = new PermutingFrameTupleReference();
             highKey.setFieldPermutation(highKeyFields);
         }
+        // every key of a batch must be a point key and must go to the same components, i.e., no component filters
+        this.batchPointLookups = batchPointLookups && lowKeyInclusive && highKeyInclusive && lowKey != null
+                && Arrays.equals(lowKeyFields, highKeyFields) && minFilterKey == null && maxFilterKey == null;
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        batchPointLookups = batchPointLookups && cursor instanceof IBatchPointSearchCursor;
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (!batchPointLookups) {
+            super.nextFrame(buffer);
+            return;
+        }
+        accessor.reset(buffer);
+        int tupleCount = accessor.getTupleCount();
+        IBatchPointSearchCursor batchCursor = (IBatchPointSearchCursor) cursor;
+        try {
+            // the index is entered once per frame; the following keys reuse the components and positioned leaves
+            boolean inBatch = false;
+            for (int i = 0; i < tupleCount; i++) {
+                resetSearchPredicate(i);
+                if (inBatch) {
+                    batchCursor.resetKey();
+                } else {
+                    cursor.reset();
+                    indexAccessor.search(cursor, searchPred);
+                    inBatch = batchCursor.isBatchable();
+                }
+                writeSearchResults(i);
+            }
+        } catch (Exception e) {
+            throw HyracksDataException.create(e);
+        }
     }
 
     @Override
@@ -210,6 +210,36 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         tupleIndex++;
     }
 
+    /**
+     * Repositions an open cursor for the current keys of its search predicate, provided that the whole key range
+     * falls within the leaf the cursor has pinned. This lets a caller that searches sorted keys in an immutable tree
+     * avoid a root-to-leaf traversal for keys that land on the same leaf as the previous one.
+     *
+     * @return true if the cursor was repositioned, false if the index must be searched from the root
+     * @throws HyracksDataException
+     */
+    public boolean repositionInCurrentLeaf() throws HyracksDataException {
+        if (page == null || pred == null || frame.getTupleCount() == 0) {
+            return false;
+        }
+        lowKey = pred.getLowKey();
+        highKey = pred.getHighKey();
+        if (lowKey == null || highKey == null) {
+            return false;
+        }
+        frameTuple.resetByTupleIndex(frame, 0);
+        if (lowKeyCmp.compare(lowKey, frameTuple) < 0) {
+            return false;
+        }
+        frameTuple.resetByTupleIndex(frame, frame.getTupleCount() - 1);
+        if (highKeyCmp.compare(highKey, frameTuple) > 0) {
+            return false;
+        }
+        tupleIndex = getLowKeyIndex();
+        stopTupleIndex = getHighKeyIndex();
+        return true;
+    }
+
     private int getLowKeyIndex() throws HyracksDataException {
         if (lowKey == null) {
             return 0;
@@ -19,6 +19,8 @@
 package org.apache.hyracks.storage.am.common.dataflow;
 
 import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
@@ -32,6 +34,7 @@ import org.apache.hyracks.storage.common.IIndex;
 import org.apache.hyracks.storage.common.IIndexBulkLoader;
 
 public class IndexBulkLoadOperatorNodePushable extends AbstractUnaryInputUnaryOutputOperatorNodePushable {
+    private static final Logger LOGGER = Logger.getLogger(IndexBulkLoadOperatorNodePushable.class.getName());
     protected final IHyracksTaskContext ctx;
     protected final float fillFactor;
     protected final boolean verifyInput;
@@ -43,6 +46,7 @@ public class IndexBulkLoadOperatorNodePushable extends AbstractUnaryInputUnaryOu
     protected FrameTupleAccessor accessor;
     protected IIndex index;
     protected IIndexBulkLoader bulkLoader;
+    protected long numLoadedTuples;
 
     public IndexBulkLoadOperatorNodePushable(IIndexDataflowHelperFactory indexDataflowHelperFactory,
             IHyracksTaskContext ctx, int partition, int[] fieldPermutation, float fillFactor, boolean verifyInput,
@@ -80,6 +84,7 @@ public class IndexBulkLoadOperatorNodePushable extends AbstractUnaryInputUnaryOu
             tuple.reset(accessor, i);
             bulkLoader.add(tuple);
         }
+        numLoadedTuples += tupleCount;
 
         FrameUtils.flushFrame(buffer, writer);
     }
@@ -90,6 +95,10 @@ public class IndexBulkLoadOperatorNodePushable extends AbstractUnaryInputUnaryOu
             // bulkloader can be null if an exception is thrown before it is initialized.
             if (bulkLoader != null) {
                 bulkLoader.end();
+                if (LOGGER.isLoggable(Level.INFO)) {
+                    LOGGER.info("Bulk loaded " + numLoadedTuples + " tuples into "
+                            + indexHelper.getResource().getPath());
+                }
             }
         } catch (Throwable th) {
             throw HyracksDataException.create(th);
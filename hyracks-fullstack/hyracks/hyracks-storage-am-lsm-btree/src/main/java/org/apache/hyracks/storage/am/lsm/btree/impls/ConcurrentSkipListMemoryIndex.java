@@ -0,0 +1,535 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriterFactory;
+import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleWriter;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.common.IIndex;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.IModificationOperationCallback;
+import org.apache.hyracks.storage.common.ISearchOperationCallback;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.IExtraPageBlockHelper;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * A sorted index for the memory components of an LSM B-tree that takes no latches.
+ * Entries are linked into a skip list with compare-and-set and are never unlinked: an upsert replaces the tuple of
+ * an existing entry, a delete of the LSM index writes an antimatter tuple, and a physical delete marks the entry as
+ * deleted while it keeps its key. Writers therefore never wait for each other, and cursors never wait for writers.
+ * Tuples are written by the index's tuple writer into pages pinned from the virtual buffer cache, together with an
+ * estimate of the heap taken by the links of their entry, so that {@link IVirtualBufferCache#isFull()} bounds the
+ * component the same way it bounds an in-memory B-tree.
+ */
+public class ConcurrentSkipListMemoryIndex implements IIndex, IExtraPageBlockHelper {
+    private static final int MAX_LEVEL = 24;
+    // set on the address of an entry whose key was physically deleted
+    private static final long DELETED = 1L << 63;
+    private static final long NO_ADDRESS = -1L;
+    // approximate heap size of an entry and of each of its links
+    private static final int NODE_OVERHEAD = 64;
+    private static final int LINK_OVERHEAD = 8;
+    private static final int INITIAL_SLAB_DIRECTORY_SIZE = 64;
+
+    private final IVirtualBufferCache virtualBufferCache;
+    private final FileReference file;
+    private final ITreeIndexTupleWriterFactory tupleWriterFactory;
+    private final IBinaryComparatorFactory[] cmpFactories;
+    private final int fieldCount;
+    private final int slabSize;
+    private final AtomicLong numElements = new AtomicLong();
+    private final AtomicInteger nextPageId = new AtomicInteger();
+
+    private volatile Node head;
+    // a slab is added to the directory before any address pointing into it is published
+    private volatile byte[][] slabs;
+    private volatile Slab currentSlab;
+    private int numSlabs;
+    private int fileId = -1;
+    private boolean isActive = false;
+
+    public ConcurrentSkipListMemoryIndex(IVirtualBufferCache virtualBufferCache, FileReference file,
+            ITreeIndexTupleWriterFactory tupleWriterFactory, IBinaryComparatorFactory[] cmpFactories,
+            int fieldCount) {
+        this.virtualBufferCache = virtualBufferCache;
+        this.file = file;
+        this.tupleWriterFactory = tupleWriterFactory;
+        this.cmpFactories = cmpFactories;
+        this.fieldCount = fieldCount;
+        this.slabSize = virtualBufferCache.getPageSize();
+    }
+
+    @Override
+    public synchronized void create() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_CREATE_ACTIVE_INDEX);
+        }
+        fileId = virtualBufferCache.createFile(file);
+        init();
+    }
+
+    @Override
+    public synchronized void activate() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_ACTIVATE_ACTIVE_INDEX);
+        }
+        if (fileId < 0) {
+            fileId = virtualBufferCache.openFile(file);
+            init();
+        }
+        isActive = true;
+    }
+
+    @Override
+    public synchronized void deactivate() throws HyracksDataException {
+        if (!isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_DEACTIVATE_INACTIVE_INDEX);
+        }
+        isActive = false;
+    }
+
+    @Override
+    public synchronized void destroy() throws HyracksDataException {
+        if (isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_DESTROY_ACTIVE_INDEX);
+        }
+        if (fileId >= 0) {
+            virtualBufferCache.deleteFile(fileId);
+            fileId = -1;
+        }
+        head = null;
+        slabs = null;
+        currentSlab = null;
+    }
+
+    /**
+     * Drops all the entries and returns their pages to the virtual buffer cache. Must not run concurrently with
+     * accessors or cursors of this index.
+     */
+    @Override
+    public synchronized void clear() throws HyracksDataException {
+        if (!isActive) {
+            throw HyracksDataException.create(ErrorCode.CANNOT_CLEAR_INACTIVE_INDEX);
+        }
+        virtualBufferCache.deleteFile(fileId);
+        fileId = virtualBufferCache.createFile(file);
+        init();
+    }
+
+    private void init() {
+        numSlabs = 0;
+        nextPageId.set(0);
+        slabs = new byte[INITIAL_SLAB_DIRECTORY_SIZE][];
+        currentSlab = null;
+        numElements.set(0);
+        head = new Node(DELETED, MAX_LEVEL);
+    }
+
+    @Override
+    public Accessor createAccessor(IModificationOperationCallback modificationCallback,
+            ISearchOperationCallback searchCallback) {
+        return new Accessor(this, modificationCallback);
+    }
+
+    /**
+     * Checks that the entries are in key order.
+     */
+    @Override
+    public void validate() throws HyracksDataException {
+        ITreeIndexTupleReference prev = tupleWriterFactory.createTupleWriter().createTupleReference();
+        ITreeIndexTupleReference curr = tupleWriterFactory.createTupleWriter().createTupleReference();
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        Node node = head.next.get(0);
+        boolean first = true;
+        while (node != null) {
+            resetTuple(curr, node.address);
+            if (!first && cmp.compare(prev, curr) >= 0) {
+                throw new AssertionError("Entries of " + file + " are out of order");
+            }
+            resetTuple(prev, node.address);
+            first = false;
+            node = node.next.get(0);
+        }
+    }
+
+    @Override
+    public IBufferCache getBufferCache() {
+        return virtualBufferCache;
+    }
+
+    @Override
+    public long getMemoryAllocationSize() {
+        return 0;
+    }
+
+    @Override
+    public IIndexBulkLoader createBulkLoader(float fillFactor, boolean verifyInput, long numElementsHint,
+            boolean checkIfEmptyIndex) throws HyracksDataException {
+        throw new UnsupportedOperationException("Memory components are not bulk loaded");
+    }
+
+    @Override
+    public boolean hasMemoryComponents() {
+        return false;
+    }
+
+    @Override
+    public int getNumOfFilterFields() {
+        return 0;
+    }
+
+    /**
+     * @return the number of entries, including the ones whose latest tuple is antimatter or that were physically
+     *         deleted; a flush sizes the bloom filter of the new disk component with it
+     */
+    public long getNumElements() {
+        return numElements.get();
+    }
+
+    public ITreeIndexTupleWriterFactory getTupleWriterFactory() {
+        return tupleWriterFactory;
+    }
+
+    public IBinaryComparatorFactory[] getComparatorFactories() {
+        return cmpFactories;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public synchronized int getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public int getFreeBlock(int size) throws HyracksDataException {
+        return nextPageId.getAndAdd(size);
+    }
+
+    @Override
+    public void returnFreePageBlock(int blockPageId, int size) throws HyracksDataException {
+        // the pages of the index are only returned when its file is deleted
+    }
+
+    void resetTuple(ITreeIndexTupleReference tuple, long address) {
+        tuple.resetByTupleOffset(slabs[slabId(address)], slabOffset(address));
+    }
+
+    static boolean isDeleted(long address) {
+        return (address & DELETED) != 0;
+    }
+
+    Node first() {
+        return head.next.get(0);
+    }
+
+    /**
+     * @return the first entry whose key is greater than (or equal to, if inclusive) the given key, or null
+     */
+    Node seek(ITupleReference key, MultiComparator cmp, boolean inclusive, ITreeIndexTupleReference probe)
+            throws HyracksDataException {
+        Node pred = head;
+        Node succ = null;
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            succ = pred.next.get(i);
+            while (succ != null) {
+                // physically deleted entries keep their key, so they can be passed through like the others
+                resetTuple(probe, succ.address);
+                int c = cmp.compare(key, probe);
+                if (c < 0 || (c == 0 && inclusive)) {
+                    break;
+                }
+                pred = succ;
+                succ = pred.next.get(i);
+            }
+        }
+        return succ;
+    }
+
+    private long allocate(int size) throws HyracksDataException {
+        if (size > slabSize) {
+            return allocateLargeSlab(size);
+        }
+        while (true) {
+            Slab slab = currentSlab;
+            if (slab != null) {
+                int offset = slab.free.getAndAdd(size);
+                if (offset + size <= slabSize) {
+                    return ((long) slab.id << 32) | offset;
+                }
+            }
+            nextSlab(slab);
+        }
+    }
+
+    private synchronized void nextSlab(Slab full) throws HyracksDataException {
+        if (currentSlab != full) {
+            // another writer got here first
+            return;
+        }
+        ICachedPage page = pinNewPage();
+        currentSlab = new Slab(addSlab(page.getBuffer().array()));
+    }
+
+    private synchronized long allocateLargeSlab(int size) throws HyracksDataException {
+        ICachedPage page = pinNewPage();
+        virtualBufferCache.resizePage(page, (size + slabSize - 1) / slabSize, this);
+        return (long) addSlab(page.getBuffer().array()) << 32;
+    }
+
+    private ICachedPage pinNewPage() throws HyracksDataException {
+        long dpid = BufferedFileHandle.getDiskPageId(fileId, nextPageId.getAndIncrement());
+        ICachedPage page = virtualBufferCache.pin(dpid, true);
+        // virtual pages stay in memory until their file is deleted
+        virtualBufferCache.unpin(page);
+        return page;
+    }
+
+    private int addSlab(byte[] buf) {
+        byte[][] directory = slabs;
+        if (numSlabs == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+        }
+        directory[numSlabs] = buf;
+        slabs = directory;
+        return numSlabs++;
+    }
+
+    private static int slabId(long address) {
+        return (int) ((address & ~DELETED) >>> 32);
+    }
+
+    private static int slabOffset(long address) {
+        return (int) address;
+    }
+
+    private static int randomLevel() {
+        // each level links a quarter of the entries of the level below
+        int level = 1 + (Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt()) >>> 1);
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    static final class Node {
+        private static final AtomicLongFieldUpdater<Node> ADDRESS =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "address");
+
+        volatile long address;
+        final AtomicReferenceArray<Node> next;
+
+        Node(long address, int level) {
+            this.address = address;
+            this.next = new AtomicReferenceArray<>(level);
+        }
+
+        boolean casAddress(long expected, long update) {
+            return ADDRESS.compareAndSet(this, expected, update);
+        }
+    }
+
+    private static final class Slab {
+        private final int id;
+        private final AtomicInteger free = new AtomicInteger();
+
+        Slab(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Modifies and searches the index on behalf of one thread. Insert fails on a key whose latest tuple is not
+     * antimatter, upsert writes the tuple whether or not the key exists, update and delete fail on a key that
+     * doesn't exist, and delete removes the key from the index. Upserts write antimatter tuples while
+     * {@link #setAntimatter(boolean)} is on, which is how the LSM index deletes a key.
+     */
+    public static class Accessor implements IIndexAccessor {
+        private final Node[] preds = new Node[MAX_LEVEL];
+        private final Node[] succs = new Node[MAX_LEVEL];
+        private final ILSMTreeTupleWriter tupleWriter;
+        private final ITreeIndexTupleReference probe;
+        private final MultiComparator cmp;
+        private ConcurrentSkipListMemoryIndex index;
+        private IModificationOperationCallback modificationCallback;
+
+        public Accessor(ConcurrentSkipListMemoryIndex index, IModificationOperationCallback modificationCallback) {
+            this.tupleWriter = (ILSMTreeTupleWriter) index.tupleWriterFactory.createTupleWriter();
+            this.probe = tupleWriter.createTupleReference();
+            this.cmp = MultiComparator.create(index.cmpFactories);
+            reset(index, modificationCallback);
+        }
+
+        public void reset(ConcurrentSkipListMemoryIndex index, IModificationOperationCallback modificationCallback) {
+            this.index = index;
+            this.modificationCallback = modificationCallback;
+        }
+
+        public void setAntimatter(boolean isAntimatter) {
+            tupleWriter.setAntimatter(isAntimatter);
+        }
+
+        @Override
+        public void insert(ITupleReference tuple) throws HyracksDataException {
+            modify(tuple, IndexOperation.INSERT);
+        }
+
+        @Override
+        public void update(ITupleReference tuple) throws HyracksDataException {
+            modify(tuple, IndexOperation.UPDATE);
+        }
+
+        @Override
+        public void delete(ITupleReference tuple) throws HyracksDataException {
+            modify(tuple, IndexOperation.DELETE);
+        }
+
+        @Override
+        public void upsert(ITupleReference tuple) throws HyracksDataException {
+            modify(tuple, IndexOperation.UPSERT);
+        }
+
+        @Override
+        public ConcurrentSkipListMemoryIndexCursor createSearchCursor(boolean exclusive) {
+            return new ConcurrentSkipListMemoryIndexCursor();
+        }
+
+        @Override
+        public void search(IIndexCursor cursor, ISearchPredicate searchPred) throws HyracksDataException {
+            ((ConcurrentSkipListMemoryIndexCursor) cursor).setIndex(index);
+            cursor.open(null, searchPred);
+        }
+
+        private void modify(ITupleReference tuple, IndexOperation op) throws HyracksDataException {
+            modificationCallback.before(tuple);
+            int level = randomLevel();
+            long address = NO_ADDRESS;
+            boolean foundCalled = false;
+            while (true) {
+                Node node = find(tuple);
+                long current = node == null ? DELETED : node.address;
+                boolean exists = !isDeleted(current);
+                if (exists) {
+                    index.resetTuple(probe, current);
+                }
+                switch (op) {
+                    case INSERT:
+                        if (exists && !((ILSMTreeTupleReference) probe).isAntimatter()) {
+                            throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
+                        }
+                        break;
+                    case UPDATE:
+                    case DELETE:
+                        if (!exists) {
+                            throw HyracksDataException.create(ErrorCode.UPDATE_OR_DELETE_NON_EXISTENT_KEY);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                if (!foundCalled) {
+                    // the callback logs the change, so it must see it exactly once even if publishing it is retried
+                    modificationCallback.found(exists ? probe : null, tuple);
+                    foundCalled = true;
+                }
+                if (op == IndexOperation.DELETE) {
+                    if (node.casAddress(current, current | DELETED)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (address == NO_ADDRESS) {
+                    address = writeTuple(tuple, node == null ? NODE_OVERHEAD + level * LINK_OVERHEAD : 0);
+                }
+                if (node != null ? node.casAddress(current, address) : link(tuple, address, level)) {
+                    return;
+                }
+            }
+        }
+
+        private long writeTuple(ITupleReference tuple, int overhead) throws HyracksDataException {
+            long address = index.allocate(tupleWriter.bytesRequired(tuple) + overhead);
+            tupleWriter.writeTuple(tuple, index.slabs[slabId(address)], slabOffset(address));
+            return address;
+        }
+
+        /**
+         * Fills preds and succs with the last entry before and the first entry at or after the key on every level,
+         * and returns the entry with an equal key if there is one.
+         */
+        private Node find(ITupleReference key) throws HyracksDataException {
+            Node pred = index.head;
+            int c = -1;
+            for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+                Node succ = pred.next.get(i);
+                c = -1;
+                while (succ != null) {
+                    index.resetTuple(probe, succ.address);
+                    c = cmp.compare(key, probe);
+                    if (c <= 0) {
+                        break;
+                    }
+                    pred = succ;
+                    succ = pred.next.get(i);
+                }
+                preds[i] = pred;
+                succs[i] = succ;
+            }
+            return c == 0 ? succs[0] : null;
+        }
+
+        private boolean link(ITupleReference key, long address, int level) throws HyracksDataException {
+            Node node = new Node(address, level);
+            for (int i = 0; i < level; i++) {
+                node.next.set(i, succs[i]);
+            }
+            if (!preds[0].next.compareAndSet(0, succs[0], node)) {
+                return false;
+            }
+            index.numElements.incrementAndGet();
+            // the entry is visible once it is linked on level 0; the upper levels only speed up searches
+            for (int i = 1; i < level; i++) {
+                while (!preds[i].next.compareAndSet(i, succs[i], node)) {
+                    find(key);
+                    node.next.set(i, succs[i]);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriterFactory;
+import org.apache.hyracks.storage.am.lsm.btree.impls.ConcurrentSkipListMemoryIndex.Node;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.ISearchPredicate;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Returns the entries of a {@link ConcurrentSkipListMemoryIndex} that satisfy a {@link RangePredicate}, in key
+ * order. Entries that were physically deleted are skipped; antimatter tuples are returned like in an in-memory
+ * B-tree. Tuples that are returned stay valid while the index is active, since an entry that is written to again
+ * gets a new tuple.
+ */
+public class ConcurrentSkipListMemoryIndexCursor implements IIndexCursor {
+
+    private ConcurrentSkipListMemoryIndex index;
+    private ITreeIndexTupleWriterFactory tupleWriterFactory;
+    private ITreeIndexTupleReference probe;
+    private ITreeIndexTupleReference tuple;
+    private ITupleReference highKey;
+    private MultiComparator highKeyCmp;
+    private boolean highKeyInclusive;
+    private Node nextNode;
+    private long nextAddress;
+
+    void setIndex(ConcurrentSkipListMemoryIndex index) {
+        this.index = index;
+        if (tupleWriterFactory != index.getTupleWriterFactory()) {
+            tupleWriterFactory = index.getTupleWriterFactory();
+            probe = tupleWriterFactory.createTupleWriter().createTupleReference();
+            tuple = tupleWriterFactory.createTupleWriter().createTupleReference();
+        }
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        RangePredicate pred = (RangePredicate) searchPred;
+        highKey = pred.getHighKey();
+        highKeyCmp = pred.getHighKeyComparator();
+        highKeyInclusive = pred.isHighKeyInclusive();
+        Node node;
+        if (pred.getLowKey() == null) {
+            node = index.first();
+        } else {
+            node = index.seek(pred.getLowKey(), pred.getLowKeyComparator(), pred.isLowKeyInclusive(), probe);
+        }
+        advanceTo(node);
+    }
+
+    private void advanceTo(Node node) throws HyracksDataException {
+        while (node != null) {
+            long address = node.address;
+            if (!ConcurrentSkipListMemoryIndex.isDeleted(address)) {
+                if (highKey != null) {
+                    index.resetTuple(probe, address);
+                    int c = highKeyCmp.compare(highKey, probe);
+                    if (c < 0 || (c == 0 && !highKeyInclusive)) {
+                        node = null;
+                        break;
+                    }
+                }
+                nextAddress = address;
+                break;
+            }
+            node = node.next.get(0);
+        }
+        nextNode = node;
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException {
+        return nextNode != null;
+    }
+
+    @Override
+    public void next() throws HyracksDataException {
+        index.resetTuple(tuple, nextAddress);
+        advanceTo(nextNode.next.get(0));
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        nextNode = null;
+    }
+
+    @Override
+    public void reset() throws HyracksDataException {
+        nextNode = null;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return tuple;
+    }
+
+    @Override
+    public ITupleReference getFilterMinTuple() {
+        return null;
+    }
+
+    @Override
+    public ITupleReference getFilterMaxTuple() {
+        return null;
+    }
+}
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.ErrorCode;
@@ -34,6 +36,7 @@ import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterFactory;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
+import org.apache.hyracks.storage.am.bloomfilter.impls.InMemoryBloomFilter;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
@@ -46,6 +49,7 @@ import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.lsm.btree.tuples.LSMBTreeTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.IComponentFilterHelper;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilterFrameFactory;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMDiskComponentBulkLoader;
@@ -60,6 +64,7 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMOperationTracker;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.freepage.VirtualFreePageManager;
+import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMDiskComponentBulkLoader;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFileReferences;
@@ -68,6 +73,7 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMIndexSearchCursor;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor.ICursorFactory;
 import org.apache.hyracks.storage.am.lsm.common.impls.TreeIndexFactory;
+import org.apache.hyracks.storage.common.IIndex;
 import org.apache.hyracks.storage.common.IIndexAccessor;
 import org.apache.hyracks.storage.common.IIndexBulkLoader;
 import org.apache.hyracks.storage.common.IIndexCursor;
@@ -78,6 +84,7 @@ import org.apache.hyracks.storage.common.MultiComparator;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
+    private static final Logger LOGGER = Logger.getLogger(LSMBTree.class.getName());
 
     private static final ICursorFactory cursorFactory = opCtx -> new LSMBTreeSearchCursor(opCtx);
     // For creating BTree's used in flush and merge.
@@ -91,11 +98,20 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     protected final ITreeIndexFrameFactory deleteLeafFrameFactory;
     protected final IBinaryComparatorFactory[] cmpFactories;
 
+    // the key filter of a memory component takes one bit for every 8 bytes of the component's budget
+    private static final int MEMORY_BYTES_PER_KEY_FILTER_BIT = 8;
+    private static final long MAX_KEY_FILTER_BITS = 1L << 31;
+
     private final boolean needKeyDupCheck;
 
     // Primary LSMBTree has a Bloomfilter, but Secondary one doesn't have.
     private final boolean hasBloomFilter;
 
+    // the memory components keep their entries in latch-free skip lists instead of B-trees
+    private final boolean skipListMemoryComponents;
+    private final ITreeIndexFrameFactory interiorFrameFactory;
+    private final int fieldCount;
+
     public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
             ITreeIndexFrameFactory deleteLeafFrameFactory, ILSMIndexFileManager fileManager,
@@ -106,20 +122,47 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
             boolean durable) throws HyracksDataException {
+        this(ioManager, virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory,
+                fileManager, diskBTreeFactory, bulkLoadBTreeFactory, bloomFilterFactory, filterHelper,
+                filterFrameFactory, filterManager, bloomFilterFalsePositiveRate, fieldCount, cmpFactories, mergePolicy,
+                opTracker, ioScheduler, ioOpCallback, needKeyDupCheck, btreeFields, filterFields, durable, false);
+    }
+
+    public LSMBTree(IIOManager ioManager, List<IVirtualBufferCache> virtualBufferCaches,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory insertLeafFrameFactory,
+            ITreeIndexFrameFactory deleteLeafFrameFactory, ILSMIndexFileManager fileManager,
+            TreeIndexFactory<BTree> diskBTreeFactory, TreeIndexFactory<BTree> bulkLoadBTreeFactory,
+            BloomFilterFactory bloomFilterFactory, IComponentFilterHelper filterHelper,
+            ILSMComponentFilterFrameFactory filterFrameFactory, LSMComponentFilterManager filterManager,
+            double bloomFilterFalsePositiveRate, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
+            boolean durable, boolean skipListMemoryComponents) throws HyracksDataException {
         super(ioManager, virtualBufferCaches, diskBTreeFactory.getBufferCache(), fileManager,
                 bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallback, filterFrameFactory,
                 filterManager, filterFields, durable, filterHelper, btreeFields);
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
         this.cmpFactories = cmpFactories;
+        this.skipListMemoryComponents = skipListMemoryComponents;
+        this.interiorFrameFactory = interiorFrameFactory;
+        this.fieldCount = fieldCount;
         int i = 0;
         for (IVirtualBufferCache virtualBufferCache : virtualBufferCaches) {
-            LSMBTreeMemoryComponent mutableComponent = new LSMBTreeMemoryComponent(
-                    new BTree(virtualBufferCache, new VirtualFreePageManager(virtualBufferCache), interiorFrameFactory,
-                            insertLeafFrameFactory, cmpFactories, fieldCount,
-                            ioManager.resolveAbsolutePath(fileManager.getBaseDir() + "_virtual_" + i)),
-                    virtualBufferCache, i == 0 ? true : false,
-                    filterHelper == null ? null : filterHelper.createFilter());
+            FileReference file = ioManager.resolveAbsolutePath(fileManager.getBaseDir() + "_virtual_" + i);
+            ILSMComponentFilter filter = filterHelper == null ? null : filterHelper.createFilter();
+            LSMBTreeMemoryComponent mutableComponent;
+            if (skipListMemoryComponents) {
+                mutableComponent = new LSMBTreeMemoryComponent(
+                        new ConcurrentSkipListMemoryIndex(virtualBufferCache, file,
+                                insertLeafFrameFactory.getTupleWriterFactory(), cmpFactories, fieldCount),
+                        virtualBufferCache, i == 0, filter);
+            } else {
+                mutableComponent = new LSMBTreeMemoryComponent(
+                        new BTree(virtualBufferCache, new VirtualFreePageManager(virtualBufferCache),
+                                interiorFrameFactory, insertLeafFrameFactory, cmpFactories, fieldCount, file),
+                        virtualBufferCache, i == 0, filter);
+            }
             memoryComponents.add(mutableComponent);
             ++i;
         }
@@ -128,6 +171,16 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 new LSMBTreeDiskComponentFactory(bulkLoadBTreeFactory, bloomFilterFactory, filterHelper);
         this.needKeyDupCheck = needKeyDupCheck;
         this.hasBloomFilter = needKeyDupCheck;
+        int[] keyFields = componentFactory.getBloomFilterKeyFields();
+        if (hasBloomFilter && keyFields != null) {
+            // lets point searches skip the in-memory trees that don't hold the key, as the disk components do
+            for (int j = 0; j < memoryComponents.size(); j++) {
+                IVirtualBufferCache vbc = virtualBufferCaches.get(j);
+                long numBits = Math.min((long) vbc.getNumPages() * vbc.getPageSize() / MEMORY_BYTES_PER_KEY_FILTER_BIT,
+                        MAX_KEY_FILTER_BITS);
+                ((LSMBTreeMemoryComponent) memoryComponents.get(j)).enableKeyFilter(keyFields, numBits);
+            }
+        }
     }
 
     // Without memory components
@@ -145,6 +198,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         this.cmpFactories = cmpFactories;
         this.needKeyDupCheck = needKeyDupCheck;
         this.hasBloomFilter = true;
+        this.skipListMemoryComponents = false;
+        this.interiorFrameFactory = null;
+        this.fieldCount = 0;
         componentFactory = new LSMBTreeDiskComponentFactory(diskBTreeFactory, bloomFilterFactory, null);
         bulkLoadComponentFactory = new LSMBTreeDiskComponentFactory(bulkLoadBTreeFactory, bloomFilterFactory, null);
     }
@@ -153,6 +209,10 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         return hasBloomFilter;
     }
 
+    public boolean hasSkipListMemoryComponents() {
+        return skipListMemoryComponents;
+    }
+
     @Override
     public boolean isPrimaryIndex() {
         return needKeyDupCheck;
@@ -202,16 +262,21 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         } else {
             indexTuple = tuple;
         }
+        InMemoryBloomFilter keyFilter = ctx.getCurrentMutableComponent().getKeyFilterForWrite();
+        if (keyFilter != null) {
+            // before the tree is modified, so that the filter never misses a key the tree holds
+            keyFilter.add(indexTuple);
+        }
 
         switch (ctx.getOperation()) {
             case PHYSICALDELETE:
-                ctx.getCurrentMutableBTreeAccessor().delete(indexTuple);
+                ctx.getCurrentMutableAccessor().delete(indexTuple);
                 break;
             case INSERT:
                 insert(indexTuple, ctx);
                 break;
             default:
-                ctx.getCurrentMutableBTreeAccessor().upsert(indexTuple);
+                ctx.getCurrentMutableAccessor().upsert(indexTuple);
                 break;
         }
         updateFilter(ctx, tuple);
@@ -225,7 +290,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         predicate.setLowKey(tuple);
         if (needKeyDupCheck) {
             // first check the inmemory component
-            ctx.getCurrentMutableBTreeAccessor().search(memCursor, predicate);
+            ctx.getCurrentMutableAccessor().search(memCursor, predicate);
             try {
                 if (memCursor.hasNext()) {
                     memCursor.next();
@@ -234,8 +299,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                         throw HyracksDataException.create(ErrorCode.DUPLICATE_KEY);
                     } else {
                         memCursor.close();
-                        ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
-                                AntimatterAwareTupleAcceptor.INSTANCE);
+                        insertIntoMutableComponent(tuple, ctx);
                         return true;
                     }
                 }
@@ -263,10 +327,21 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 ctx.getComponentHolder().add(0, firstComponent);
             }
         }
-        ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple, AntimatterAwareTupleAcceptor.INSTANCE);
+        insertIntoMutableComponent(tuple, ctx);
         return true;
     }
 
+    private void insertIntoMutableComponent(ITupleReference tuple, LSMBTreeOpContext ctx)
+            throws HyracksDataException {
+        if (skipListMemoryComponents) {
+            // the skip list replaces a key whose latest tuple is antimatter and fails on any other existing key
+            ctx.getCurrentMutableSkipListAccessor().insert(tuple);
+        } else {
+            ctx.getCurrentMutableBTreeAccessor().upsertIfConditionElseInsert(tuple,
+                    AntimatterAwareTupleAcceptor.INSTANCE);
+        }
+    }
+
     @Override
     public void search(ILSMIndexOperationContext ictx, IIndexCursor cursor, ISearchPredicate pred)
             throws HyracksDataException {
@@ -293,12 +368,15 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ILSMDiskComponent flush(ILSMIOOperation operation) throws HyracksDataException {
         LSMBTreeFlushOperation flushOp = (LSMBTreeFlushOperation) operation;
         LSMBTreeMemoryComponent flushingComponent = (LSMBTreeMemoryComponent) flushOp.getFlushingComponent();
-        IIndexAccessor accessor = flushingComponent.getBTree().createAccessor(NoOpOperationCallback.INSTANCE,
+        IIndexAccessor accessor = flushingComponent.getIndex().createAccessor(NoOpOperationCallback.INSTANCE,
                 NoOpOperationCallback.INSTANCE);
 
         RangePredicate nullPred = new RangePredicate(null, null, true, true, null, null);
         long numElements = 0L;
-        if (hasBloomFilter) {
+        if (hasBloomFilter && skipListMemoryComponents) {
+            // the skip list counts its entries as they are linked
+            numElements = flushingComponent.getSkipList().getNumElements();
+        } else if (hasBloomFilter) {
             //count elements in btree for creating Bloomfilter
             IIndexCursor countingCursor = ((BTreeAccessor) accessor).createCountingSearchCursor();
             accessor.search(countingCursor, nullPred);
@@ -316,36 +394,58 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         LSMBTreeDiskComponent component =
                 createDiskComponent(componentFactory, flushOp.getTarget(), flushOp.getBloomFilterTarget(), true);
 
-        ILSMDiskComponentBulkLoader componentBulkLoader =
-                createComponentBulkLoader(component, 1.0f, false, numElements, false, false, false);
+        // the bloom filter is built on its own thread while this thread scans and builds btree pages; the
+        // btree bulk loader already hands finished pages to the buffer cache's FIFO writer
+        AbstractLSMDiskComponentBulkLoader componentBulkLoader =
+                (AbstractLSMDiskComponentBulkLoader) createComponentBulkLoader(component, 1.0f, false, numElements,
+                        false, false, false, true);
 
-        IIndexCursor scanCursor = accessor.createSearchCursor(false);
-        accessor.search(scanCursor, nullPred);
+        long scanStart = System.nanoTime();
+        long scanEnd;
+        long endStart;
+        boolean loaded = false;
         try {
-            while (scanCursor.hasNext()) {
-                scanCursor.next();
-                componentBulkLoader.add(scanCursor.getTuple());
+            IIndexCursor scanCursor = accessor.createSearchCursor(false);
+            accessor.search(scanCursor, nullPred);
+            try {
+                while (scanCursor.hasNext()) {
+                    scanCursor.next();
+                    componentBulkLoader.add(scanCursor.getTuple());
+                }
+            } finally {
+                scanCursor.close();
             }
+            scanEnd = System.nanoTime();
+
+            if (component.getLSMComponentFilter() != null) {
+                List<ITupleReference> filterTuples = new ArrayList<>();
+                filterTuples.add(flushingComponent.getLSMComponentFilter().getMinTuple());
+                filterTuples.add(flushingComponent.getLSMComponentFilter().getMaxTuple());
+                getFilterManager().updateFilter(component.getLSMComponentFilter(), filterTuples);
+                getFilterManager().writeFilter(component.getLSMComponentFilter(), component.getBTree());
+            }
+            // Write metadata from memory component to disk
+            // Q. what about the merge operation? how do we resolve conflicts
+            // A. Through providing an appropriate ILSMIOOperationCallback
+            // Must not reset the metadata before the flush is completed
+            // Use the copy of the metadata in the opContext
+            // TODO This code should be in the callback and not in the index
+            flushingComponent.getMetadata().copy(component.getMetadata());
+
+            endStart = System.nanoTime();
+            componentBulkLoader.end();
+            loaded = true;
         } finally {
-            scanCursor.close();
+            if (!loaded) {
+                // stops the bloom filter builder thread; a no-op if a failed add already cleaned up the loader
+                componentBulkLoader.abort();
+            }
+        }
+        flushOp.setStageTimes(scanEnd - scanStart, componentBulkLoader.getBloomFilterBuildNanos(),
+                componentBulkLoader.getBloomFilterStallNanos(), System.nanoTime() - endStart);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Flushed " + numElements + " elements of " + this + ": " + flushOp.getStageTimes());
         }
-
-        if (component.getLSMComponentFilter() != null) {
-            List<ITupleReference> filterTuples = new ArrayList<>();
-            filterTuples.add(flushingComponent.getLSMComponentFilter().getMinTuple());
-            filterTuples.add(flushingComponent.getLSMComponentFilter().getMaxTuple());
-            getFilterManager().updateFilter(component.getLSMComponentFilter(), filterTuples);
-            getFilterManager().writeFilter(component.getLSMComponentFilter(), component.getBTree());
-        }
-        // Write metadata from memory component to disk
-        // Q. what about the merge operation? how do we resolve conflicts
-        // A. Through providing an appropriate ILSMIOOperationCallback
-        // Must not reset the metadata before the flush is completed
-        // Use the copy of the metadata in the opContext
-        // TODO This code should be in the callback and not in the index
-        flushingComponent.getMetadata().copy(component.getMetadata());
-
-        componentBulkLoader.end();
 
         return component;
     }
@@ -423,6 +523,13 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public ILSMDiskComponentBulkLoader createComponentBulkLoader(ILSMDiskComponent component, float fillFactor,
             boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex, boolean withFilter,
             boolean cleanupEmptyComponent) throws HyracksDataException {
+        return createComponentBulkLoader(component, fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex,
+                withFilter, cleanupEmptyComponent, false);
+    }
+
+    protected ILSMDiskComponentBulkLoader createComponentBulkLoader(ILSMDiskComponent component, float fillFactor,
+            boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex, boolean withFilter,
+            boolean cleanupEmptyComponent, boolean pipelineBloomFilter) throws HyracksDataException {
         BloomFilterSpecification bloomFilterSpec = null;
         if (hasBloomFilter) {
             int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElementsHint);
@@ -435,7 +542,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                     filterFields, MultiComparator.create(component.getLSMComponentFilter().getFilterCmpFactories()));
         } else {
             return new LSMBTreeDiskComponentBulkLoader((LSMBTreeDiskComponent) component, bloomFilterSpec, fillFactor,
-                    verifyInput, numElementsHint, checkIfEmptyIndex, cleanupEmptyComponent);
+                    verifyInput, numElementsHint, checkIfEmptyIndex, cleanupEmptyComponent, pipelineBloomFilter);
         }
 
     }
@@ -494,6 +601,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     public ITreeIndexFrameFactory getInteriorFrameFactory() {
+        if (skipListMemoryComponents) {
+            return interiorFrameFactory;
+        }
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
         return mutableComponent.getBTree().getInteriorFrameFactory();
@@ -501,6 +611,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     public int getFieldCount() {
+        if (skipListMemoryComponents) {
+            return fieldCount;
+        }
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
         return mutableComponent.getBTree().getFieldCount();
@@ -510,11 +623,18 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     public int getFileId() {
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
+        if (skipListMemoryComponents) {
+            return mutableComponent.getSkipList().getFileId();
+        }
         return mutableComponent.getBTree().getFileId();
     }
 
     @Override
     public IPageManager getPageManager() {
+        if (skipListMemoryComponents) {
+            // skip lists are not paged
+            return null;
+        }
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
         return mutableComponent.getBTree().getPageManager();
@@ -522,6 +642,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     public ITreeIndexFrameFactory getLeafFrameFactory() {
+        if (skipListMemoryComponents) {
+            return insertLeafFrameFactory;
+        }
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
         return mutableComponent.getBTree().getLeafFrameFactory();
@@ -529,6 +652,10 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     @Override
     public int getRootPageId() {
+        if (skipListMemoryComponents) {
+            // skip lists are not paged
+            return -1;
+        }
         LSMBTreeMemoryComponent mutableComponent =
                 (LSMBTreeMemoryComponent) memoryComponents.get(currentMutableComponentId.get());
         return mutableComponent.getBTree().getRootPageId();
@@ -537,7 +664,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     protected long getMemoryComponentSize(ILSMMemoryComponent c) {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        IBufferCache virtualBufferCache = mutableComponent.getBTree().getBufferCache();
+        IBufferCache virtualBufferCache = mutableComponent.getIndex().getBufferCache();
         return virtualBufferCache.getNumPages() * (long) virtualBufferCache.getPageSize();
     }
 
@@ -560,14 +687,14 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     protected void clearMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        mutableComponent.getBTree().clear();
+        mutableComponent.getIndex().clear();
         mutableComponent.reset();
     }
 
     @Override
     protected void validateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        mutableComponent.getBTree().validate();
+        mutableComponent.getIndex().validate();
     }
 
     @Override
@@ -590,17 +717,20 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     protected void deactivateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        mutableComponent.getBTree().deactivate();
-        mutableComponent.getBTree().destroy();
-        ((IVirtualBufferCache) mutableComponent.getBTree().getBufferCache()).close();
+        IIndex index = mutableComponent.getIndex();
+        index.deactivate();
+        index.destroy();
+        mutableComponent.releaseKeyFilter();
+        ((IVirtualBufferCache) index.getBufferCache()).close();
     }
 
     @Override
     protected void allocateMemoryComponent(ILSMMemoryComponent c) throws HyracksDataException {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
-        ((IVirtualBufferCache) mutableComponent.getBTree().getBufferCache()).open();
-        mutableComponent.getBTree().create();
-        mutableComponent.getBTree().activate();
+        IIndex index = mutableComponent.getIndex();
+        ((IVirtualBufferCache) index.getBufferCache()).open();
+        index.create();
+        index.activate();
     }
 
     @Override
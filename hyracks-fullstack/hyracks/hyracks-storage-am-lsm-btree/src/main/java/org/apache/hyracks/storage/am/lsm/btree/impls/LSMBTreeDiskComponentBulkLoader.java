@@ -42,8 +42,16 @@ public class LSMBTreeDiskComponentBulkLoader extends AbstractLSMDiskComponentBul
     public LSMBTreeDiskComponentBulkLoader(LSMBTreeDiskComponent component, BloomFilterSpecification bloomFilterSpec,
             float fillFactor, boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex,
             boolean cleanupEmptyComponent) throws HyracksDataException {
+        this(component, bloomFilterSpec, fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex,
+                cleanupEmptyComponent, false);
+    }
+
+    //without filter, optionally building the bloom filter on a separate thread
+    public LSMBTreeDiskComponentBulkLoader(LSMBTreeDiskComponent component, BloomFilterSpecification bloomFilterSpec,
+            float fillFactor, boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex,
+            boolean cleanupEmptyComponent, boolean pipelineBloomFilter) throws HyracksDataException {
         super(component, bloomFilterSpec, fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex,
-                cleanupEmptyComponent, null, null, null, null);
+                cleanupEmptyComponent, null, null, null, null, pipelineBloomFilter);
     }
 
     @Override
@@ -26,6 +26,10 @@ import org.apache.hyracks.storage.am.lsm.common.impls.FlushOperation;
 
 public class LSMBTreeFlushOperation extends FlushOperation {
     private final FileReference bloomFilterFlushTarget;
+    private long scanAndBuildNanos;
+    private long bloomFilterBuildNanos;
+    private long bloomFilterStallNanos;
+    private long writeBackNanos;
 
     public LSMBTreeFlushOperation(ILSMIndexAccessor accessor, ILSMMemoryComponent flushingComponent,
             FileReference flushTarget, FileReference bloomFilterFlushTarget, ILSMIOOperationCallback callback,
@@ -37,4 +41,46 @@ public class LSMBTreeFlushOperation extends FlushOperation {
     public FileReference getBloomFilterTarget() {
         return bloomFilterFlushTarget;
     }
+
+    /**
+     * Records how long each flush stage took.
+     *
+     * @param scanAndBuildNanos
+     *            scanning the memory component and building btree pages, including bloom filter stalls
+     * @param bloomFilterBuildNanos
+     *            setting bloom filter bits on the bloom filter thread, overlapped with the scan
+     * @param bloomFilterStallNanos
+     *            time the scan waited for the bloom filter thread
+     * @param writeBackNanos
+     *            finishing the bulk load, which waits for the queued page writes
+     */
+    public void setStageTimes(long scanAndBuildNanos, long bloomFilterBuildNanos, long bloomFilterStallNanos,
+            long writeBackNanos) {
+        this.scanAndBuildNanos = scanAndBuildNanos;
+        this.bloomFilterBuildNanos = bloomFilterBuildNanos;
+        this.bloomFilterStallNanos = bloomFilterStallNanos;
+        this.writeBackNanos = writeBackNanos;
+    }
+
+    public long getScanAndBuildNanos() {
+        return scanAndBuildNanos;
+    }
+
+    public long getBloomFilterBuildNanos() {
+        return bloomFilterBuildNanos;
+    }
+
+    public long getBloomFilterStallNanos() {
+        return bloomFilterStallNanos;
+    }
+
+    public long getWriteBackNanos() {
+        return writeBackNanos;
+    }
+
+    public String getStageTimes() {
+        return "scan and build: " + scanAndBuildNanos / 1000000 + "ms, bloom filter: " + bloomFilterBuildNanos / 1000000
+                + "ms (stalled " + bloomFilterStallNanos / 1000000 + "ms), write back: " + writeBackNanos / 1000000
+                + "ms";
+    }
 }
@@ -20,32 +20,116 @@
 package org.apache.hyracks.storage.am.lsm.btree.impls;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.bloomfilter.impls.InMemoryBloomFilter;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMMemoryComponent;
+import org.apache.hyracks.storage.common.IIndex;
 
 public class LSMBTreeMemoryComponent extends AbstractLSMMemoryComponent {
 
+    // exactly one of the two is set
     private final BTree btree;
+    private final ConcurrentSkipListMemoryIndex skipList;
+    // the key fields and the size of the key filter, if the index keeps one
+    private int[] keyFilterFields;
+    private long keyFilterNumBits;
+    private volatile InMemoryBloomFilter keyFilter;
+    // the pages of the virtual buffer cache reserved for the key filter
+    private int keyFilterPages;
 
     public LSMBTreeMemoryComponent(BTree btree, IVirtualBufferCache vbc, boolean isActive,
             ILSMComponentFilter filter) {
         super(vbc, isActive, filter);
         this.btree = btree;
+        this.skipList = null;
     }
 
+    public LSMBTreeMemoryComponent(ConcurrentSkipListMemoryIndex skipList, IVirtualBufferCache vbc,
+            boolean isActive, ILSMComponentFilter filter) {
+        super(vbc, isActive, filter);
+        this.btree = null;
+        this.skipList = skipList;
+    }
+
+    /**
+     * @return the B-tree of the component, or null if the component keeps its entries in a skip list
+     */
     public BTree getBTree() {
         return btree;
     }
 
+    /**
+     * @return the skip list of the component, or null if the component keeps its entries in a B-tree
+     */
+    public ConcurrentSkipListMemoryIndex getSkipList() {
+        return skipList;
+    }
+
+    public IIndex getIndex() {
+        return btree != null ? btree : skipList;
+    }
+
+    /**
+     * Makes the component keep a filter of the keys written to it. The filter is only allocated by the first write
+     * after the component is created or reset, so that components that are not written to take no memory for it.
+     * While it is allocated, the memory it takes is reserved in the component's virtual buffer cache, so that it
+     * counts against the memory budget of the component.
+     */
+    public void enableKeyFilter(int[] keyFields, long numBits) {
+        this.keyFilterFields = keyFields;
+        this.keyFilterNumBits = numBits;
+    }
+
+    /**
+     * @return a filter holding every key written to this component since it was last reset, or null if nothing was
+     *         written since or the index doesn't keep one
+     */
+    public InMemoryBloomFilter getKeyFilter() {
+        return keyFilter;
+    }
+
+    /**
+     * @return the filter that a key about to be written must be added to, or null if the index doesn't keep one
+     */
+    public InMemoryBloomFilter getKeyFilterForWrite() {
+        InMemoryBloomFilter filter = keyFilter;
+        if (filter == null && keyFilterFields != null) {
+            synchronized (this) {
+                filter = keyFilter;
+                if (filter == null) {
+                    filter = new InMemoryBloomFilter(keyFilterFields, keyFilterNumBits);
+                    IVirtualBufferCache vbc = getVirtualBufferCache();
+                    keyFilterPages = (int) ((filter.getSizeInBytes() + vbc.getPageSize() - 1) / vbc.getPageSize());
+                    vbc.reservePages(keyFilterPages);
+                    keyFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         super.reset();
-        btree.deactivate();
-        btree.destroy();
-        btree.create();
-        btree.activate();
+        IIndex index = getIndex();
+        index.deactivate();
+        index.destroy();
+        index.create();
+        index.activate();
+        // release the filter until the component is written to again
+        releaseKeyFilter();
+    }
+
+    /**
+     * Drops the key filter, if the component has one, and releases the pages reserved for it.
+     */
+    public synchronized void releaseKeyFilter() {
+        if (keyFilter != null) {
+            getVirtualBufferCache().releasePages(keyFilterPages);
+            keyFilter = null;
+        }
     }
 
 }
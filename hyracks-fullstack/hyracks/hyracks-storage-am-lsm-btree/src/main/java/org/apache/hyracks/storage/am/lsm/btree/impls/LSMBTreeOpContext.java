@@ -33,6 +33,8 @@ import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMemoryComponent;
 import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndexOperationContext;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.IModificationOperationCallback;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.MultiComparator;
@@ -49,9 +51,12 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     private final BTree[] mutableBTrees;
     private final BTree.BTreeAccessor[] mutableBTreeAccessors;
     private final BTreeOpContext[] mutableBTreeOpCtxs;
+    // set instead of the B-tree accessors when the memory components are skip lists
+    private final ConcurrentSkipListMemoryIndex.Accessor[] mutableSkipListAccessors;
+    private final LSMBTreeMemoryComponent[] mutableComponents;
     private final MultiComparator cmp;
     private final MultiComparator bloomFilterCmp;
-    private final BTreeRangeSearchCursor memCursor;
+    private final IIndexCursor memCursor;
     private final LSMBTreeCursorInitialState searchInitialState;
     private final LSMBTreePointSearchCursor insertSearchCursor;
     /*
@@ -59,6 +64,8 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
      */
     private BTree.BTreeAccessor currentMutableBTreeAccessor;
     private BTreeOpContext currentMutableBTreeOpCtx;
+    private ConcurrentSkipListMemoryIndex.Accessor currentMutableSkipListAccessor;
+    private LSMBTreeMemoryComponent currentMutableComponent;
 
     public LSMBTreeOpContext(List<ILSMMemoryComponent> mutableComponents, ITreeIndexFrameFactory insertLeafFrameFactory,
             ITreeIndexFrameFactory deleteLeafFrameFactory, IModificationOperationCallback modificationCallback,
@@ -66,25 +73,36 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
             ILSMHarness lsmHarness, IBinaryComparatorFactory[] filterCmpFactories) {
         super(btreeFields, filterFields, filterCmpFactories, searchCallback, modificationCallback);
         LSMBTreeMemoryComponent c = (LSMBTreeMemoryComponent) mutableComponents.get(0);
-        IBinaryComparatorFactory cmpFactories[] = c.getBTree().getComparatorFactories();
+        boolean skipLists = c.getSkipList() != null;
+        IBinaryComparatorFactory cmpFactories[] =
+                skipLists ? c.getSkipList().getComparatorFactories() : c.getBTree().getComparatorFactories();
         if (cmpFactories[0] != null) {
-            this.cmp = MultiComparator.create(c.getBTree().getComparatorFactories());
+            this.cmp = MultiComparator.create(cmpFactories);
         } else {
             this.cmp = null;
         }
 
-        bloomFilterCmp = numBloomFilterKeyFields == 0 ? null
-                : MultiComparator.create(c.getBTree().getComparatorFactories(), 0, numBloomFilterKeyFields);
+        bloomFilterCmp =
+                numBloomFilterKeyFields == 0 ? null : MultiComparator.create(cmpFactories, 0, numBloomFilterKeyFields);
 
-        mutableBTrees = new BTree[mutableComponents.size()];
-        mutableBTreeAccessors = new BTree.BTreeAccessor[mutableComponents.size()];
-        mutableBTreeOpCtxs = new BTreeOpContext[mutableComponents.size()];
+        mutableBTrees = skipLists ? null : new BTree[mutableComponents.size()];
+        mutableBTreeAccessors = skipLists ? null : new BTree.BTreeAccessor[mutableComponents.size()];
+        mutableBTreeOpCtxs = skipLists ? null : new BTreeOpContext[mutableComponents.size()];
+        mutableSkipListAccessors =
+                skipLists ? new ConcurrentSkipListMemoryIndex.Accessor[mutableComponents.size()] : null;
+        this.mutableComponents = new LSMBTreeMemoryComponent[mutableComponents.size()];
         for (int i = 0; i < mutableComponents.size(); i++) {
             LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) mutableComponents.get(i);
-            mutableBTrees[i] = mutableComponent.getBTree();
-            mutableBTreeAccessors[i] = (BTree.BTreeAccessor) mutableBTrees[i].createAccessor(modificationCallback,
-                    NoOpOperationCallback.INSTANCE);
-            mutableBTreeOpCtxs[i] = mutableBTreeAccessors[i].getOpContext();
+            if (skipLists) {
+                mutableSkipListAccessors[i] = mutableComponent.getSkipList().createAccessor(modificationCallback,
+                        NoOpOperationCallback.INSTANCE);
+            } else {
+                mutableBTrees[i] = mutableComponent.getBTree();
+                mutableBTreeAccessors[i] = (BTree.BTreeAccessor) mutableBTrees[i]
+                        .createAccessor(modificationCallback, NoOpOperationCallback.INSTANCE);
+                mutableBTreeOpCtxs[i] = mutableBTreeAccessors[i].getOpContext();
+            }
+            this.mutableComponents[i] = mutableComponent;
         }
         this.insertLeafFrameFactory = insertLeafFrameFactory;
         this.deleteLeafFrameFactory = deleteLeafFrameFactory;
@@ -97,7 +115,11 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
             deleteLeafFrame.setMultiComparator(getCmp());
         }
         searchPredicate = new RangePredicate(null, null, true, true, getCmp(), getCmp());
-        memCursor = (insertLeafFrame != null) ? new BTreeRangeSearchCursor(insertLeafFrame, false) : null;
+        if (skipLists) {
+            memCursor = new ConcurrentSkipListMemoryIndexCursor();
+        } else {
+            memCursor = (insertLeafFrame != null) ? new BTreeRangeSearchCursor(insertLeafFrame, false) : null;
+        }
         searchInitialState = new LSMBTreeCursorInitialState(insertLeafFrameFactory, getCmp(), bloomFilterCmp,
                 lsmHarness, null, searchCallback, null);
         insertSearchCursor = new LSMBTreePointSearchCursor(this);
@@ -110,19 +132,32 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
     }
 
     public void setInsertMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setAntimatter(false);
+            return;
+        }
         currentMutableBTreeOpCtx.setLeafFrame(insertLeafFrame);
         currentMutableBTreeOpCtx.setLeafFrameFactory(insertLeafFrameFactory);
     }
 
     public void setDeleteMode() {
+        if (currentMutableSkipListAccessor != null) {
+            currentMutableSkipListAccessor.setAntimatter(true);
+            return;
+        }
         currentMutableBTreeOpCtx.setLeafFrame(deleteLeafFrame);
         currentMutableBTreeOpCtx.setLeafFrameFactory(deleteLeafFrameFactory);
     }
 
     @Override
     public void setCurrentMutableComponentId(int currentMutableComponentId) {
-        setCurrentMutableBTreeAccessor(mutableBTreeAccessors[currentMutableComponentId]);
-        currentMutableBTreeOpCtx = mutableBTreeOpCtxs[currentMutableComponentId];
+        if (mutableSkipListAccessors != null) {
+            currentMutableSkipListAccessor = mutableSkipListAccessors[currentMutableComponentId];
+        } else {
+            setCurrentMutableBTreeAccessor(mutableBTreeAccessors[currentMutableComponentId]);
+            currentMutableBTreeOpCtx = mutableBTreeOpCtxs[currentMutableComponentId];
+        }
+        currentMutableComponent = mutableComponents[currentMutableComponentId];
         switch (op) {
             case SEARCH:
             case DISKORDERSCAN:
@@ -146,15 +181,33 @@ public final class LSMBTreeOpContext extends AbstractLSMIndexOperationContext {
         return currentMutableBTreeAccessor;
     }
 
+    /**
+     * @return the accessor of the current mutable component, whether it is a B-tree or a skip list
+     */
+    public IIndexAccessor getCurrentMutableAccessor() {
+        return mutableSkipListAccessors != null ? currentMutableSkipListAccessor : currentMutableBTreeAccessor;
+    }
+
+    /**
+     * @return the accessor of the current mutable component, or null if the memory components are B-trees
+     */
+    public ConcurrentSkipListMemoryIndex.Accessor getCurrentMutableSkipListAccessor() {
+        return currentMutableSkipListAccessor;
+    }
+
     public void setCurrentMutableBTreeAccessor(BTree.BTreeAccessor currentMutableBTreeAccessor) {
         this.currentMutableBTreeAccessor = currentMutableBTreeAccessor;
     }
 
+    public LSMBTreeMemoryComponent getCurrentMutableComponent() {
+        return currentMutableComponent;
+    }
+
     public LSMBTreePointSearchCursor getInsertSearchCursor() {
         return insertSearchCursor;
     }
 
-    public BTreeRangeSearchCursor getMemCursor() {
+    public IIndexCursor getMemCursor() {
         return memCursor;
     }
 
@@ -23,6 +23,8 @@ import java.util.List;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.InMemoryBloomFilter;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
@@ -36,21 +38,30 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponentFilter;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
-import org.apache.hyracks.storage.am.lsm.common.impls.BloomFilterAwareBTreePointSearchCursor;
 import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndex;
+import org.apache.hyracks.storage.common.IIndexAccessor;
+import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
 
-    private BTreeRangeSearchCursor[] rangeCursors;
+    private IIndexCursor[] rangeCursors;
+    private BloomFilter[] bloomFilters;
+    private InMemoryBloomFilter[] keyFilters;
+    private final long[] hashes = new long[2];
+    // the key is hashed once and probed against the filters of all the components
+    private long keyHash;
+    private boolean keyHashed;
+    private boolean keyExcludedByFilters;
     private final ILSMIndexOperationContext opCtx;
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
     private boolean includeMutableComponent;
     private int numBTrees;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] accessors;
     private ILSMHarness lsmHarness;
     private boolean nextHasBeenCalled;
     private boolean foundTuple;
@@ -70,8 +81,17 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
             return true;
         }
         boolean reconciled = false;
+        keyExcludedByFilters = true;
         for (int i = 0; i < numBTrees; ++i) {
-            btreeAccessors[i].search(rangeCursors[i], predicate);
+            // probe the filter before descending the tree: a negative answer costs at most one page pin
+            if (!mayContainKey(i)) {
+                continue;
+            }
+            keyExcludedByFilters = false;
+            // disk components are immutable, so a cursor left on a leaf by the previous key of a batch can be reused
+            if (bloomFilters[i] == null || !((BTreeRangeSearchCursor) rangeCursors[i]).repositionInCurrentLeaf()) {
+                accessors[i].search(rangeCursors[i], predicate);
+            }
             if (rangeCursors[i].hasNext()) {
                 rangeCursors[i].next();
                 // We use the predicate's to lock the key instead of the tuple that we get from cursor
@@ -98,7 +118,7 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
                     reconciled = true;
 
                     // retraverse
-                    btreeAccessors[0].search(rangeCursors[i], predicate);
+                    accessors[0].search(rangeCursors[i], predicate);
                     if (rangeCursors[i].hasNext()) {
                         rangeCursors[i].next();
                         if (((ILSMTreeTupleReference) rangeCursors[i].getTuple()).isAntimatter()) {
@@ -124,13 +144,55 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
                     foundIn = i;
                     return true;
                 }
-            } else {
+            } else if (bloomFilters[i] == null) {
                 rangeCursors[i].close();
             }
         }
         return false;
     }
 
+    private boolean mayContainKey(int i) throws HyracksDataException {
+        if (keyFilters[i] != null) {
+            return keyFilters[i].contains(getKeyHash(keyFilters[i].getKeyFields()));
+        } else if (bloomFilters[i] == null) {
+            return true;
+        } else if (!bloomFilters[i].isBlocked()) {
+            return bloomFilters[i].contains(predicate.getLowKey(), hashes);
+        }
+        return bloomFilters[i].contains(getKeyHash(bloomFilters[i].getKeyFields()));
+    }
+
+    private long getKeyHash(int[] keyFields) {
+        if (!keyHashed) {
+            keyHash = BloomFilter.hash(predicate.getLowKey(), keyFields);
+            keyHashed = true;
+        }
+        return keyHash;
+    }
+
+    /**
+     * @return true if the filters of all the components ruled the current key out, so that no tree was searched
+     */
+    public boolean isKeyExcludedByFilters() {
+        return keyExcludedByFilters;
+    }
+
+    /**
+     * Prepares the cursor for the next key of a batch of point lookups. The operational components entered by
+     * the search of the first key are kept, and the cursors of disk components stay on their current leaf.
+     */
+    public void resetKey() throws HyracksDataException {
+        for (int i = 0; i < numBTrees; ++i) {
+            if (bloomFilters[i] == null) {
+                // don't keep the latch of an in-memory leaf between keys
+                rangeCursors[i].close();
+            }
+        }
+        nextHasBeenCalled = false;
+        foundTuple = false;
+        keyHashed = false;
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         try {
@@ -159,50 +221,74 @@ public class LSMBTreePointSearchCursor implements ITreeIndexCursor {
         numBTrees = operationalComponents.size();
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
-            rangeCursors = new BTreeRangeSearchCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            rangeCursors = new IIndexCursor[numBTrees];
+            bloomFilters = new BloomFilter[numBTrees];
+            keyFilters = new InMemoryBloomFilter[numBTrees];
+            accessors = new IIndexAccessor[numBTrees];
         }
         includeMutableComponent = false;
 
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
-            BTree btree;
+            IIndex index;
             if (component.getType() == LSMComponentType.MEMORY) {
                 includeMutableComponent = true;
-                // No need for a bloom filter for the in-memory BTree.
-                if (rangeCursors[i] == null || rangeCursors[i].isBloomFilterAware()) {
-                    // create a new one
-                    IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
-                    rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
-                } else {
-                    // reset
-                    rangeCursors[i].reset();
-                }
-                btree = ((LSMBTreeMemoryComponent) component).getBTree();
-            } else {
-                if (rangeCursors[i] != null && rangeCursors[i].isBloomFilterAware()) {
-                    // can re-use cursor
-                    ((BloomFilterAwareBTreePointSearchCursor) rangeCursors[i])
-                            .resetBloomFilter(((LSMBTreeDiskComponent) component).getBloomFilter());
-                    rangeCursors[i].reset();
-                } else {
-                    // create new cursor <should be relatively rare>
-                    IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
-                    rangeCursors[i] = new BloomFilterAwareBTreePointSearchCursor(leafFrame, false,
-                            ((LSMBTreeDiskComponent) component).getBloomFilter());
-                }
-                btree = ((LSMBTreeDiskComponent) component).getBTree();
-            }
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
-                        NoOpOperationCallback.INSTANCE);
+                // The in-memory BTree has no bloom filter, but may keep a filter of the keys written to it.
+                bloomFilters[i] = null;
+                keyFilters[i] = ((LSMBTreeMemoryComponent) component).getKeyFilter();
+                index = ((LSMBTreeMemoryComponent) component).getIndex();
             } else {
-                // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                // The bloom filter is probed by this cursor before the tree is searched, rather than by a
+                // BloomFilterAwareBTreePointSearchCursor after the root-to-leaf traversal.
+                bloomFilters[i] = ((LSMBTreeDiskComponent) component).getBloomFilter();
+                keyFilters[i] = null;
+                index = ((LSMBTreeDiskComponent) component).getBTree();
             }
+            rangeCursors[i] = resetCursor(rangeCursors[i], index, lsmInitialState);
+            accessors[i] = resetAccessor(accessors[i], index);
         }
         nextHasBeenCalled = false;
         foundTuple = false;
+        keyHashed = false;
+    }
+
+    /**
+     * @return the given cursor reset for a search of the given tree or skip list, or a new cursor if it can't be
+     *         reused for it
+     */
+    static IIndexCursor resetCursor(IIndexCursor cursor, IIndex index, LSMBTreeCursorInitialState initialState)
+            throws HyracksDataException {
+        boolean reusable = index instanceof ConcurrentSkipListMemoryIndex
+                ? cursor instanceof ConcurrentSkipListMemoryIndexCursor : cursor instanceof BTreeRangeSearchCursor;
+        if (reusable) {
+            cursor.reset();
+            return cursor;
+        }
+        if (index instanceof ConcurrentSkipListMemoryIndex) {
+            return new ConcurrentSkipListMemoryIndexCursor();
+        }
+        IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) initialState.getLeafFrameFactory().createFrame();
+        return new BTreeRangeSearchCursor(leafFrame, false);
+    }
+
+    /**
+     * @return the given accessor reset to the given tree or skip list, or a new accessor if it can't be reused for it
+     */
+    static IIndexAccessor resetAccessor(IIndexAccessor accessor, IIndex index) throws HyracksDataException {
+        if (index instanceof ConcurrentSkipListMemoryIndex) {
+            ConcurrentSkipListMemoryIndex skipList = (ConcurrentSkipListMemoryIndex) index;
+            if (accessor instanceof ConcurrentSkipListMemoryIndex.Accessor) {
+                ((ConcurrentSkipListMemoryIndex.Accessor) accessor).reset(skipList, NoOpOperationCallback.INSTANCE);
+                return accessor;
+            }
+            return skipList.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        }
+        BTree btree = (BTree) index;
+        if (accessor instanceof BTreeAccessor) {
+            ((BTreeAccessor) accessor).reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            return accessor;
+        }
+        return btree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
     }
 
     @Override
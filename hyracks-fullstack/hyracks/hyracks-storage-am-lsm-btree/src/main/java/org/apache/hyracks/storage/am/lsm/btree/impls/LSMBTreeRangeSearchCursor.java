@@ -25,17 +25,14 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
-import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
-import org.apache.hyracks.storage.am.btree.impls.BTree;
-import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
-import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
-import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMIndexSearchCursor;
 import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.IIndex;
+import org.apache.hyracks.storage.common.IIndexAccessor;
 import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchOperationCallback;
 import org.apache.hyracks.storage.common.ISearchPredicate;
@@ -46,7 +43,7 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
 
     private ISearchOperationCallback searchCallback;
     private RangePredicate predicate;
-    private BTreeAccessor[] btreeAccessors;
+    private IIndexAccessor[] accessors;
     private ArrayTupleBuilder tupleBuilder;
     private boolean canCallProceed = true;
     private boolean resultOfSearchCallBackProceed = false;
@@ -131,7 +128,7 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
                                 }
                                 // Re-traverses the index.
                                 reusablePred.setLowKey(copyTuple, true);
-                                btreeAccessors[0].search(rangeCursors[0], reusablePred);
+                                accessors[0].search(rangeCursors[0], reusablePred);
                                 boolean isNotExhaustedCursor =
                                         pushIntoQueueFromCursorAndReplaceThisElement(mutableElement);
 
@@ -225,34 +222,21 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         if (rangeCursors == null || rangeCursors.length != numBTrees) {
             // object creation: should be relatively low
             rangeCursors = new IIndexCursor[numBTrees];
-            btreeAccessors = new BTreeAccessor[numBTrees];
+            accessors = new IIndexAccessor[numBTrees];
         }
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
-            BTree btree;
-            if (rangeCursors[i] == null) {
-                // create, should be relatively rare
-                IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
-                rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
-            } else {
-                // re-use
-                rangeCursors[i].reset();
-            }
+            IIndex index;
             if (component.getType() == LSMComponentType.MEMORY) {
                 includeMutableComponent = true;
-                btree = ((LSMBTreeMemoryComponent) component).getBTree();
-            } else {
-                btree = ((LSMBTreeDiskComponent) component).getBTree();
-            }
-
-            if (btreeAccessors[i] == null) {
-                btreeAccessors[i] = (BTreeAccessor) btree.createAccessor(NoOpOperationCallback.INSTANCE,
-                        NoOpOperationCallback.INSTANCE);
+                index = ((LSMBTreeMemoryComponent) component).getIndex();
             } else {
-                // re-use
-                btreeAccessors[i].reset(btree, NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                index = ((LSMBTreeDiskComponent) component).getBTree();
             }
-            btreeAccessors[i].search(rangeCursors[i], searchPred);
+            // cursors and accessors are re-used where possible
+            rangeCursors[i] = LSMBTreePointSearchCursor.resetCursor(rangeCursors[i], index, lsmInitialState);
+            accessors[i] = LSMBTreePointSearchCursor.resetAccessor(accessors[i], index);
+            accessors[i].search(rangeCursors[i], searchPred);
         }
         setPriorityQueueComparator();
         initPriorityQueue();
@@ -23,12 +23,13 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.common.ICursorInitialState;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
-public class LSMBTreeSearchCursor implements ITreeIndexCursor {
+public class LSMBTreeSearchCursor implements ILSMBatchPointSearchCursor {
 
     public enum LSMBTreeSearchType {
         POINT,
@@ -61,6 +62,21 @@ public class LSMBTreeSearchCursor implements ITreeIndexCursor {
         currentCursor.open(initialState, searchPred);
     }
 
+    @Override
+    public boolean isBatchable() {
+        return currentCursor == pointCursor;
+    }
+
+    @Override
+    public void resetKey() throws HyracksDataException {
+        pointCursor.resetKey();
+    }
+
+    @Override
+    public boolean isKeyExcludedByFilters() {
+        return currentCursor == pointCursor && pointCursor.isKeyExcludedByFilters();
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         return currentCursor.hasNext();
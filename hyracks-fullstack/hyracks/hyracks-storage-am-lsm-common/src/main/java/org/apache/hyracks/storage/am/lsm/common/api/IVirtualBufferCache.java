@@ -27,6 +27,20 @@ public interface IVirtualBufferCache extends IBufferCache {
 
     boolean isFull();
 
+    /**
+     * Counts memory that the memory components using this cache keep outside of its pages, such as the filters of
+     * the keys written to them, against the capacity of the cache until it is released.
+     *
+     * @param numPages
+     *            the number of pages of this cache the memory takes up
+     */
+    void reservePages(int numPages);
+
+    /**
+     * Releases pages reserved by {@link #reservePages(int)}.
+     */
+    void releasePages(int numPages);
+
     void reset();
 
     IFileMapManager getFileMapProvider();
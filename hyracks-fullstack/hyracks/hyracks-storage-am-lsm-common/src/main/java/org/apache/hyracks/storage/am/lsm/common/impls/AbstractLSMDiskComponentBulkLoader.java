@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.am.lsm.common.impls;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter.BloomFilterBuilder;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
 import org.apache.hyracks.storage.am.common.api.ITreeIndex;
 import org.apache.hyracks.storage.am.common.impls.AbstractTreeIndex.AbstractTreeIndexBulkLoader;
@@ -54,12 +55,26 @@ public abstract class AbstractLSMDiskComponentBulkLoader implements ILSMDiskComp
             float fillFactor, boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex,
             boolean cleanupEmptyComponent, ILSMComponentFilterManager filterManager, int[] indexFields,
             int[] filterFields, MultiComparator filterCmp) throws HyracksDataException {
+        this(component, bloomFilterSpec, fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex,
+                cleanupEmptyComponent, filterManager, indexFields, filterFields, filterCmp, false);
+    }
+
+    /**
+     * @param pipelineBloomFilter
+     *            whether to set the bloom filter bits on a separate thread while this loader builds index pages
+     */
+    public AbstractLSMDiskComponentBulkLoader(ILSMDiskComponent component, BloomFilterSpecification bloomFilterSpec,
+            float fillFactor, boolean verifyInput, long numElementsHint, boolean checkIfEmptyIndex,
+            boolean cleanupEmptyComponent, ILSMComponentFilterManager filterManager, int[] indexFields,
+            int[] filterFields, MultiComparator filterCmp, boolean pipelineBloomFilter) throws HyracksDataException {
         this.component = component;
         this.indexBulkLoader =
                 getIndex(component).createBulkLoader(fillFactor, verifyInput, numElementsHint, checkIfEmptyIndex);
         if (bloomFilterSpec != null) {
-            this.bloomFilterBuilder = getBloomFilter(component).createBuilder(numElementsHint,
+            IIndexBulkLoader builder = getBloomFilter(component).createBuilder(numElementsHint,
                     bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements());
+            this.bloomFilterBuilder = pipelineBloomFilter && numElementsHint > 0
+                    ? new PipelinedBloomFilterBuilder((BloomFilterBuilder) builder) : builder;
         } else {
             this.bloomFilterBuilder = null;
         }
@@ -133,10 +148,15 @@ public abstract class AbstractLSMDiskComponentBulkLoader implements ILSMDiskComp
 
     @Override
     public void abort() throws HyracksDataException {
+        if (cleanedUpArtifacts) {
+            // a failed add or delete has already aborted the loaders and removed the component
+            return;
+        }
         if (indexBulkLoader != null) {
             indexBulkLoader.abort();
         }
-        if (bloomFilterBuilder != null) {
+        if (bloomFilterBuilder != null && !endedBloomFilterLoad) {
+            endedBloomFilterLoad = true;
             bloomFilterBuilder.abort();
         }
 
@@ -162,6 +182,24 @@ public abstract class AbstractLSMDiskComponentBulkLoader implements ILSMDiskComp
         }
     }
 
+    /**
+     * @return the time spent setting bloom filter bits on the pipelined builder thread, or 0 if the bloom filter
+     *         is built inline
+     */
+    public long getBloomFilterBuildNanos() {
+        return bloomFilterBuilder instanceof PipelinedBloomFilterBuilder
+                ? ((PipelinedBloomFilterBuilder) bloomFilterBuilder).getBuildNanos() : 0L;
+    }
+
+    /**
+     * @return the time this loader waited for the pipelined bloom filter builder, or 0 if the bloom filter is
+     *         built inline
+     */
+    public long getBloomFilterStallNanos() {
+        return bloomFilterBuilder instanceof PipelinedBloomFilterBuilder
+                ? ((PipelinedBloomFilterBuilder) bloomFilterBuilder).getStallNanos() : 0L;
+    }
+
     protected void cleanupArtifacts() throws HyracksDataException {
         if (!cleanedUpArtifacts) {
             cleanedUpArtifacts = true;
@@ -192,6 +192,10 @@ public abstract class AbstractLSMMemoryComponent extends AbstractLSMComponent im
         return vbc.isFull();
     }
 
+    public IVirtualBufferCache getVirtualBufferCache() {
+        return vbc;
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         isModified.set(false);
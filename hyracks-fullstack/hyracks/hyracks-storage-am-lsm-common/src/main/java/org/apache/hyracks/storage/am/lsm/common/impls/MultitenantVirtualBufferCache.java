@@ -125,6 +125,16 @@ public class MultitenantVirtualBufferCache implements IVirtualBufferCache {
         return vbc.isFull();
     }
 
+    @Override
+    public void reservePages(int numPages) {
+        vbc.reservePages(numPages);
+    }
+
+    @Override
+    public void releasePages(int numPages) {
+        vbc.releasePages(numPages);
+    }
+
     @Override
     public void reset() {
         vbc.reset();
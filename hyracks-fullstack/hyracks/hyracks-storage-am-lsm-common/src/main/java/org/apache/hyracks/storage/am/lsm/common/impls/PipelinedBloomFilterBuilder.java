@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter.BloomFilterBuilder;
+import org.apache.hyracks.storage.common.IIndexBulkLoader;
+
+/**
+ * Builds a bloom filter on a separate thread while the caller keeps building index pages.
+ * The calling thread only hashes the key, which is cheap while the tuple is still in cache, and hands
+ * batches of hashes to a worker that sets the bits. Setting bits touches random filter pages and would
+ * otherwise stall the calling thread on cache misses.
+ * Workers run on a shared pool, so consecutive flushes reuse the same threads. A builder that is neither
+ * ended nor aborted keeps its worker waiting for hashes; any failure inside the builder cancels the worker.
+ */
+public class PipelinedBloomFilterBuilder implements IIndexBulkLoader {
+    private static final int BATCH_SIZE = 4096;
+    private static final int NUM_BATCHES = 4;
+    private static final long[] END_OF_INPUT = new long[0];
+    private static final AtomicInteger WORKER_ID = new AtomicInteger();
+    // the same configuration as Executors.newCachedThreadPool, with daemon workers
+    private static final ExecutorService WORKERS = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L,
+            TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread thread = new Thread(r, "Bloom filter builder " + WORKER_ID.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final BloomFilterBuilder builder;
+    private final int hashWidth;
+    private final int batchCapacity;
+    private final BlockingQueue<long[]> full = new ArrayBlockingQueue<>(NUM_BATCHES + 1);
+    private final BlockingQueue<long[]> free = new ArrayBlockingQueue<>(NUM_BATCHES);
+    private final Future<?> worker;
+
+    private long[] batch;
+    private int batchLength;
+    private volatile Throwable failure;
+    private volatile long buildNanos;
+    private long stallNanos;
+    private boolean finished = false;
+
+    public PipelinedBloomFilterBuilder(BloomFilterBuilder builder) {
+        this.builder = builder;
+        this.hashWidth = builder.getHashWidth();
+        this.batchCapacity = BATCH_SIZE * hashWidth;
+        for (int i = 0; i < NUM_BATCHES; i++) {
+            free.add(newBatch());
+        }
+        worker = WORKERS.submit(this::build);
+    }
+
+    private void build() {
+        long busy = 0;
+        try {
+            while (true) {
+                long[] hashes = full.take();
+                if (hashes == END_OF_INPUT) {
+                    break;
+                }
+                long start = System.nanoTime();
+                int length = (int) hashes[batchCapacity];
+                for (int i = 0; i < length; i += hashWidth) {
+                    builder.addHashes(hashes, i);
+                }
+                busy += System.nanoTime() - start;
+                free.put(hashes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable th) {
+            failure = th;
+            // unblock the producer; it checks for the failure before waiting again
+            free.clear();
+            free.offer(newBatch());
+        } finally {
+            buildNanos = busy;
+        }
+    }
+
+    private long[] newBatch() {
+        // the last slot carries the number of hashes in the batch
+        return new long[batchCapacity + 1];
+    }
+
+    @Override
+    public void add(ITupleReference tuple) throws HyracksDataException {
+        try {
+            if (batch == null) {
+                batch = take(free);
+                batchLength = 0;
+            }
+            builder.hash(tuple, batch, batchLength);
+            batchLength += hashWidth;
+            if (batchLength == batchCapacity) {
+                send();
+            }
+        } catch (Throwable th) {
+            cancel();
+            throw th;
+        }
+    }
+
+    private void send() throws HyracksDataException {
+        long[] hashes = batch;
+        batch = null;
+        hashes[batchCapacity] = batchLength;
+        put(hashes);
+    }
+
+    @Override
+    public void end() throws HyracksDataException {
+        if (!finished) {
+            try {
+                if (batch != null && batchLength > 0) {
+                    send();
+                }
+                put(END_OF_INPUT);
+                join();
+            } catch (Throwable th) {
+                cancel();
+                throw th;
+            }
+            finished = true;
+            checkFailure();
+        }
+        builder.end();
+    }
+
+    @Override
+    public void abort() throws HyracksDataException {
+        cancel();
+        builder.abort();
+    }
+
+    /**
+     * Stops the worker without waiting for the hashes it has not processed yet. Safe to call more than once.
+     */
+    private void cancel() {
+        if (!finished) {
+            finished = true;
+            worker.cancel(true);
+        }
+    }
+
+    private void join() throws HyracksDataException {
+        long start = System.nanoTime();
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } catch (ExecutionException | CancellationException e) {
+            throw HyracksDataException.create(e);
+        } finally {
+            stallNanos += System.nanoTime() - start;
+        }
+    }
+
+    private long[] take(BlockingQueue<long[]> queue) throws HyracksDataException {
+        checkFailure();
+        long start = System.nanoTime();
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } finally {
+            stallNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void put(long[] hashes) throws HyracksDataException {
+        checkFailure();
+        try {
+            full.put(hashes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private void checkFailure() throws HyracksDataException {
+        if (failure != null) {
+            throw HyracksDataException.create(failure);
+        }
+    }
+
+    /**
+     * @return the time the worker spent setting bits; valid after {@link #end()}
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * @return the time the calling thread waited for the worker
+     */
+    public long getStallNanos() {
+        return stallNanos;
+    }
+}
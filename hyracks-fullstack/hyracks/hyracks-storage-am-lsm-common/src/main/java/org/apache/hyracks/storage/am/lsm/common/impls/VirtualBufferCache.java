@@ -57,6 +57,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     private volatile int nextFree;
     private final AtomicInteger largePages;
+    private final AtomicInteger reservedPages;
 
     private boolean open;
 
@@ -70,6 +71,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         pages = new ArrayList<>();
         nextFree = 0;
         largePages = new AtomicInteger(0);
+        reservedPages = new AtomicInteger(0);
         open = false;
     }
 
@@ -310,6 +312,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         }
         nextFree = 0;
         largePages.set(0);
+        reservedPages.set(0);
         open = true;
     }
 
@@ -347,6 +350,7 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         sb.append(String.format("Capacity = %d\n", numPages));
         sb.append(String.format("Allocated pages = %d\n", pages.size()));
         sb.append(String.format("Allocated large pages = %d\n", largePages.get()));
+        sb.append(String.format("Reserved pages = %d\n", reservedPages.get()));
         sb.append(String.format("Next free page = %d\n", nextFree));
         return sb.toString();
     }
@@ -358,7 +362,17 @@ public class VirtualBufferCache implements IVirtualBufferCache {
 
     @Override
     public boolean isFull() {
-        return (nextFree + largePages.get()) >= numPages;
+        return (nextFree + largePages.get() + reservedPages.get()) >= numPages;
+    }
+
+    @Override
+    public void reservePages(int numPages) {
+        reservedPages.addAndGet(numPages);
+    }
+
+    @Override
+    public void releasePages(int numPages) {
+        reservedPages.addAndGet(-numPages);
     }
 
     private static class CacheBucket {
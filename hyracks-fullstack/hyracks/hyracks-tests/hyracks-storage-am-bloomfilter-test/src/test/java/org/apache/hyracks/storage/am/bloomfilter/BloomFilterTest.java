@@ -33,6 +33,7 @@ import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerD
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter.BloomFilterBuilder;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
 import org.apache.hyracks.storage.am.bloomfilter.util.AbstractBloomFilterTest;
 import org.apache.hyracks.storage.common.IIndexBulkLoader;
@@ -166,4 +167,171 @@ public class BloomFilterTest extends AbstractBloomFilterTest {
         bf.deactivate();
         bf.destroy();
     }
+
+    @Test
+    public void blockedAndLegacyLayoutTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOCKED AND LEGACY BLOOM FILTER LAYOUTS");
+        }
+        checkLayout(true);
+        checkLayout(false);
+    }
+
+    private void checkLayout(boolean blocked) throws Exception {
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 1000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileReference(), keyFields, blocked);
+
+        double acceptanleFalsePositiveRate = 0.1;
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec =
+                BloomCalculations.computeBloomSpec(maxBucketsPerElement, acceptanleFalsePositiveRate);
+
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+
+        int fieldCount = 2;
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+
+        // even keys are inserted, odd keys are only probed
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i * 2, i);
+            builder.add(tuple);
+        }
+        builder.end();
+        Assert.assertEquals(blocked, bf.isBlocked());
+
+        // the layout must survive re-reading the metadata page
+        bf.deactivate();
+        bf.activate();
+        Assert.assertEquals(blocked, bf.isBlocked());
+
+        long[] hashes = new long[2];
+        int falsePositives = 0;
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i * 2, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i * 2 + 1, i);
+            if (bf.contains(tuple, hashes)) {
+                ++falsePositives;
+            }
+        }
+        // blocking costs a little accuracy, but must stay in the neighborhood of the requested rate
+        Assert.assertTrue(falsePositives < numElements * acceptanleFalsePositiveRate * 2);
+
+        bf.deactivate();
+        bf.destroy();
+    }
+
+    @Test
+    public void falsePositiveRateTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOOM FILTER FALSE POSITIVE RATES");
+        }
+        for (double falsePositiveRate : new double[] { 0.01, 0.001 }) {
+            checkFalsePositiveRate(true, falsePositiveRate);
+            checkFalsePositiveRate(false, falsePositiveRate);
+        }
+    }
+
+    private void checkFalsePositiveRate(boolean blocked, double falsePositiveRate) throws Exception {
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 20000;
+        int numProbes = 100000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileReference(), keyFields, blocked);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations
+                .computeBloomSpec(BloomCalculations.maxBucketsPerElement(numElements), falsePositiveRate);
+
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+
+        // probe keys that were not inserted
+        long[] hashes = new long[2];
+        int falsePositives = 0;
+        for (int i = 0; i < numProbes; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, -i - 1, i);
+            if (bf.contains(tuple, hashes)) {
+                ++falsePositives;
+            }
+        }
+        double measuredRate = falsePositives / (double) numProbes;
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info((blocked ? "blocked" : "legacy") + " layout, configured false positive rate "
+                    + falsePositiveRate + ", measured " + measuredRate);
+        }
+        // leaves room for the sampling error only, the layout must not cost accuracy
+        Assert.assertTrue(measuredRate + " exceeds " + falsePositiveRate, measuredRate < falsePositiveRate * 1.25);
+
+        bf.deactivate();
+        bf.destroy();
+    }
+
+    @Test
+    public void splitHashAndAddTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOOM FILTER HASHING SEPARATELY FROM ADDING");
+        }
+        checkSplitHashAndAdd(true);
+        checkSplitHashAndAdd(false);
+    }
+
+    private void checkSplitHashAndAdd(boolean blocked) throws Exception {
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 1000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileReference(), keyFields, blocked);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations
+                .computeBloomSpec(BloomCalculations.maxBucketsPerElement(numElements), 0.01);
+
+        bf.create();
+        bf.activate();
+        BloomFilterBuilder builder = (BloomFilterBuilder) bf.createBuilder(numElements,
+                bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements());
+        Assert.assertEquals(blocked ? 1 : 2, builder.getHashWidth());
+
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        long[] batch = new long[4];
+        // odd keys go through hash() and addHashes() at an offset, even keys through add()
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            if (i % 2 == 0) {
+                builder.add(tuple);
+            } else {
+                builder.hash(tuple, batch, 1);
+                builder.addHashes(batch, 1);
+            }
+        }
+        builder.end();
+
+        long[] hashes = new long[2];
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+        }
+
+        bf.deactivate();
+        bf.destroy();
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.bloomfilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.InMemoryBloomFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InMemoryBloomFilterTest {
+
+    private static final int[] KEY_FIELDS = { 0 };
+
+    @Test
+    public void addedKeysAreFoundTest() throws Exception {
+        int numElements = 10000;
+        InMemoryBloomFilter filter = new InMemoryBloomFilter(KEY_FIELDS, numElements * 10L);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, -i);
+            filter.add(tuple);
+        }
+        // only the key fields make up the hash, so keys are probed without the other fields
+        tupleBuilder = new ArrayTupleBuilder(1);
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i);
+            Assert.assertTrue(filter.contains(tuple));
+            Assert.assertTrue(filter.contains(BloomFilter.hash(tuple, KEY_FIELDS)));
+        }
+        int numFalsePositives = 0;
+        for (int i = numElements; i < 2 * numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i);
+            if (filter.contains(tuple)) {
+                numFalsePositives++;
+            }
+        }
+        Assert.assertTrue("false positives: " + numFalsePositives, numFalsePositives < numElements / 20);
+
+        filter.clear();
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i);
+            Assert.assertFalse(filter.contains(tuple));
+        }
+    }
+
+    @Test
+    public void concurrentAddTest() throws Exception {
+        int numThreads = 4;
+        int numElementsPerThread = 5000;
+        InMemoryBloomFilter filter = new InMemoryBloomFilter(KEY_FIELDS, numThreads * numElementsPerThread * 10L);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; ++t) {
+            int first = t * numElementsPerThread;
+            threads.add(new Thread(() -> {
+                ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(1);
+                ArrayTupleReference tuple = new ArrayTupleReference();
+                for (int i = first; i < first + numElementsPerThread; ++i) {
+                    try {
+                        TupleUtils.createIntegerTuple(tupleBuilder, tuple, i);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    filter.add(tuple);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(1);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < numThreads * numElementsPerThread; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i);
+            Assert.assertTrue(filter.contains(tuple));
+        }
+    }
+}
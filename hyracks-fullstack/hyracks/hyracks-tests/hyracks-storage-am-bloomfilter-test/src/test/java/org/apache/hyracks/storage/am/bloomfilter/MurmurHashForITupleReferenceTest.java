@@ -35,6 +35,7 @@ import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.utils.TupleUtils;
 import org.apache.hyracks.storage.am.bloomfilter.impls.MurmurHash128Bit;
+import org.apache.hyracks.storage.am.bloomfilter.impls.MurmurHash64Bit;
 import org.apache.hyracks.storage.am.bloomfilter.util.AbstractBloomFilterTest;
 
 @SuppressWarnings("rawtypes")
@@ -161,6 +162,34 @@ public class MurmurHashForITupleReferenceTest extends AbstractBloomFilterTest {
         Assert.assertArrayEquals(expecteds, actuals);
     }
 
+    @Test
+    public void murmurhash64ThreeStringFieldsTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING MURMUR HASH 64 THREE STRING FIELDS");
+        }
+
+        int fieldCount = 3;
+        ISerializerDeserializer[] fieldSerdes = { new UTF8StringSerializerDeserializer(),
+                new UTF8StringSerializerDeserializer(), new UTF8StringSerializerDeserializer() };
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        String s1 = randomString(13, rnd);
+        String s2 = randomString(60, rnd);
+        String s3 = randomString(21, rnd);
+        TupleUtils.createTuple(tupleBuilder, tuple, fieldSerdes, s1, s2, s3);
+
+        int keyFields[] = { 2, 0, 1 };
+        int length = getTupleSize(tuple, keyFields);
+
+        long actual = MurmurHash64Bit.hash2_x64_64(tuple, keyFields, 0L);
+
+        byte[] array = new byte[length];
+        fillArrayWithData(array, keyFields, tuple, length);
+
+        long expected = hash2_x64_64(ByteBuffer.wrap(array), 0, length, 0L);
+        Assert.assertEquals(expected, actual);
+    }
+
     private void fillArrayWithData(byte[] array, int[] keyFields, ITupleReference tuple, int length) {
         int currentFieldIndex = 0;
         int bytePos = 0;
@@ -194,6 +223,49 @@ public class MurmurHashForITupleReferenceTest extends AbstractBloomFilterTest {
                 + (((long) key.get(blockOffset + 6) & 0xff) << 48) + (((long) key.get(blockOffset + 7) & 0xff) << 56);
     }
 
+    /**
+     * Reference MurmurHash64A over a contiguous byte array
+     **/
+    public static long hash2_x64_64(ByteBuffer key, int offset, int length, long seed) {
+        final long m = 0xc6a4a7935bd1e995L;
+        final int r = 47;
+        final int nblocks = length >> 3;
+
+        long h = seed ^ (length * m);
+        for (int i = 0; i < nblocks; i++) {
+            long k = getblock(key, offset, i);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+
+        offset += nblocks * 8;
+        switch (length & 7) {
+            case 7:
+                h ^= ((long) key.get(offset + 6) & 0xff) << 48;
+            case 6:
+                h ^= ((long) key.get(offset + 5) & 0xff) << 40;
+            case 5:
+                h ^= ((long) key.get(offset + 4) & 0xff) << 32;
+            case 4:
+                h ^= ((long) key.get(offset + 3) & 0xff) << 24;
+            case 3:
+                h ^= ((long) key.get(offset + 2) & 0xff) << 16;
+            case 2:
+                h ^= ((long) key.get(offset + 1) & 0xff) << 8;
+            case 1:
+                h ^= ((long) key.get(offset) & 0xff);
+                h *= m;
+        };
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+
     public static long[] hash3_x64_128(ByteBuffer key, int offset, int length, long seed) {
         final int nblocks = length >> 4; // Process as 128-bit blocks.
 
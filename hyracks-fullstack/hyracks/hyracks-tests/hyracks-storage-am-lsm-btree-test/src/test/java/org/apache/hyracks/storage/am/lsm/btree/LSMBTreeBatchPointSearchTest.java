@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeMemoryComponent;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMemoryComponent;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallbackFactory;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeBatchPointSearchTest {
+
+    private static final int NUM_KEYS = 1000;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void batchPointSearchTest() throws Exception {
+        ISerializerDeserializer[] fieldSerdes =
+                { IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        LSMBTreeTestContext ctx = LSMBTreeTestContext.create(harness.getIOManager(),
+                harness.getVirtualBufferCaches(), harness.getFileReference(), harness.getDiskBufferCache(),
+                fieldSerdes, 1, harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(),
+                harness.getOperationTracker(), harness.getIOScheduler(), harness.getIOOperationCallback(),
+                harness.getMetadataPageManagerFactory(), false);
+        ctx.getIndex().create();
+        ctx.getIndex().activate();
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) ctx.getIndexAccessor();
+        // the key filters of the memory components are only allocated once they are written to
+        Assert.assertEquals("Check allocated key filters", 0, countKeyFilters((LSMBTree) ctx.getIndex()));
+
+        // oldest component: all even keys with value 0
+        for (int k = 0; k < NUM_KEYS; k += 2) {
+            accessor.insert(TupleUtils.createIntegerTuple(k, 0));
+        }
+        Assert.assertEquals("Check allocated key filters", 1, countKeyFilters((LSMBTree) ctx.getIndex()));
+        accessor.scheduleFlush(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback());
+        // newer component: every fourth key with value 1
+        for (int k = 0; k < NUM_KEYS; k += 4) {
+            accessor.upsert(TupleUtils.createIntegerTuple(k, 1));
+        }
+        accessor.scheduleFlush(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback());
+        Assert.assertEquals("Check disk components", 2, ((LSMBTree) ctx.getIndex()).getImmutableComponents().size());
+        // memory component: every tenth key deleted
+        for (int k = 0; k < NUM_KEYS; k += 10) {
+            accessor.delete(TupleUtils.createIntegerTuple(k));
+        }
+
+        // all keys of the batch are served through one search call
+        ArrayTupleBuilder keyBuilder = new ArrayTupleBuilder(1);
+        ArrayTupleReference key = new ArrayTupleReference();
+        TupleUtils.createIntegerTuple(keyBuilder, key, 0);
+        MultiComparator cmp = BTreeUtils.getSearchMultiComparator(ctx.getComparatorFactories(), key);
+        RangePredicate pred = new RangePredicate(key, key, true, true, cmp, cmp);
+        ILSMBatchPointSearchCursor cursor = (ILSMBatchPointSearchCursor) accessor.createSearchCursor(false);
+        int numExcludedByFilters = 0;
+        try {
+            for (int k = 0; k < NUM_KEYS; k++) {
+                TupleUtils.createIntegerTuple(keyBuilder, key, k);
+                if (k == 0) {
+                    accessor.search(cursor, pred);
+                    Assert.assertTrue(cursor.isBatchable());
+                } else {
+                    cursor.resetKey();
+                }
+                boolean expectedFound = k % 2 == 0 && k % 10 != 0;
+                Assert.assertEquals("Check key " + k, expectedFound, cursor.hasNext());
+                if (cursor.isKeyExcludedByFilters()) {
+                    // odd keys were never written, so only they can be ruled out without searching a tree
+                    Assert.assertEquals("Check excluded key " + k, 1, k % 2);
+                    numExcludedByFilters++;
+                }
+                if (expectedFound) {
+                    cursor.next();
+                    ITupleReference tuple = cursor.getTuple();
+                    int value = IntegerPointable.getInteger(tuple.getFieldData(1), tuple.getFieldStart(1));
+                    Assert.assertEquals("Check value of key " + k, k % 4 == 0 ? 1 : 0, value);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertTrue("Check keys excluded by filters: " + numExcludedByFilters,
+                numExcludedByFilters > NUM_KEYS / 2 * 0.9);
+
+        ctx.getIndex().deactivate();
+        ctx.getIndex().destroy();
+    }
+
+    private static int countKeyFilters(LSMBTree index) {
+        int numKeyFilters = 0;
+        for (ILSMMemoryComponent component : index.getMemoryComponents()) {
+            if (((LSMBTreeMemoryComponent) component).getKeyFilter() != null) {
+                numKeyFilters++;
+            }
+        }
+        return numKeyFilters;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeMemoryComponent;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestContext;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMemoryComponent;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallbackFactory;
+import org.apache.hyracks.storage.common.IIndexCursor;
+import org.apache.hyracks.storage.common.MultiComparator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+@SuppressWarnings("rawtypes")
+public class LSMBTreeSkipListMemoryComponentTest {
+
+    private static final int NUM_KEYS = 1000;
+    private static final int NUM_WRITERS = 4;
+
+    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Test
+    public void modificationsTest() throws Exception {
+        LSMBTreeTestContext ctx = createTestContext(IntegerSerializerDeserializer.INSTANCE);
+        LSMBTree lsmBTree = (LSMBTree) ctx.getIndex();
+        lsmBTree.create();
+        lsmBTree.activate();
+        for (ILSMMemoryComponent component : lsmBTree.getMemoryComponents()) {
+            Assert.assertNotNull(((LSMBTreeMemoryComponent) component).getSkipList());
+            Assert.assertNull(((LSMBTreeMemoryComponent) component).getBTree());
+        }
+        ILSMIndexAccessor accessor = createAccessor(lsmBTree);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        for (int k = 0; k < NUM_KEYS; k += 2) {
+            accessor.insert(TupleUtils.createIntegerTuple(k, k));
+            expected.put(k, k);
+        }
+        // the key is either in the skip list or in a component flushed from it
+        assertErrorCode(ErrorCode.DUPLICATE_KEY, () -> accessor.insert(TupleUtils.createIntegerTuple(0, 0)));
+        checkScan(accessor, expected);
+
+        for (int k = 0; k < NUM_KEYS; k += 10) {
+            accessor.delete(TupleUtils.createIntegerTuple(k));
+            expected.remove(k);
+        }
+        // a key whose latest tuple is antimatter can be inserted again
+        accessor.insert(TupleUtils.createIntegerTuple(10, -1));
+        expected.put(10, -1);
+        accessor.upsert(TupleUtils.createIntegerTuple(2, 100));
+        expected.put(2, 100);
+        checkScan(accessor, expected);
+        checkPointSearches(accessor, ctx, expected);
+
+        // a physical delete takes the key out of the memory component without leaving antimatter behind
+        accessor.scheduleFlush(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback());
+        accessor.insert(TupleUtils.createIntegerTuple(1, 1));
+        accessor.physicalDelete(TupleUtils.createIntegerTuple(1, 1));
+        assertErrorCode(ErrorCode.UPDATE_OR_DELETE_NON_EXISTENT_KEY,
+                () -> accessor.physicalDelete(TupleUtils.createIntegerTuple(1, 1)));
+        accessor.insert(TupleUtils.createIntegerTuple(3, 3));
+        expected.put(3, 3);
+        checkScan(accessor, expected);
+        checkPointSearches(accessor, ctx, expected);
+
+        accessor.scheduleFlush(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback());
+        checkScan(accessor, expected);
+        accessor.scheduleMerge(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback(),
+                lsmBTree.getImmutableComponents());
+        Assert.assertEquals("Check disk components", 1, lsmBTree.getImmutableComponents().size());
+        checkScan(accessor, expected);
+        checkPointSearches(accessor, ctx, expected);
+
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    @Test
+    public void concurrentWritersTest() throws Exception {
+        LSMBTreeTestContext ctx = createTestContext(IntegerSerializerDeserializer.INSTANCE);
+        LSMBTree lsmBTree = (LSMBTree) ctx.getIndex();
+        lsmBTree.create();
+        lsmBTree.activate();
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_WRITERS);
+        try {
+            List<Future<Void>> writers = new ArrayList<>();
+            for (int i = 0; i < NUM_WRITERS; i++) {
+                final int writer = i;
+                writers.add(executor.submit(() -> {
+                    ILSMIndexAccessor accessor = createAccessor(lsmBTree);
+                    // the writers overlap on every key, and each also deletes a key of its own every so often
+                    for (int k = 0; k < NUM_KEYS; k++) {
+                        accessor.upsert(TupleUtils.createIntegerTuple(k, writer));
+                        if (k % NUM_WRITERS == writer) {
+                            accessor.upsert(TupleUtils.createIntegerTuple(NUM_KEYS + k, writer));
+                            accessor.delete(TupleUtils.createIntegerTuple(NUM_KEYS + k));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ILSMIndexAccessor accessor = createAccessor(lsmBTree);
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+        int count = 0;
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference tuple = cursor.getTuple();
+                Assert.assertEquals("Check key order", count, getInt(tuple, 0));
+                int writer = getInt(tuple, 1);
+                Assert.assertTrue("Check value " + writer, writer >= 0 && writer < NUM_WRITERS);
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertEquals("Check number of keys", NUM_KEYS, count);
+
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    @Test
+    public void largeTupleTest() throws Exception {
+        LSMBTreeTestContext ctx = createTestContext(new UTF8StringSerializerDeserializer());
+        LSMBTree lsmBTree = (LSMBTree) ctx.getIndex();
+        lsmBTree.create();
+        lsmBTree.activate();
+        ILSMIndexAccessor accessor = createAccessor(lsmBTree);
+        ISerializerDeserializer[] fieldSerdes = ctx.getFieldSerdes();
+        // values span several pages of the memory component
+        int valueLength = harness.getMemPageSize() * 3;
+        for (int k = 0; k < 10; k++) {
+            accessor.upsert(TupleUtils.createTuple(fieldSerdes, k, largeValue(k, valueLength)));
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            IIndexCursor cursor = accessor.createSearchCursor(false);
+            accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+            int k = 0;
+            try {
+                while (cursor.hasNext()) {
+                    cursor.next();
+                    Object[] fields = TupleUtils.deserializeTuple(cursor.getTuple(), fieldSerdes);
+                    Assert.assertEquals("Check key", k, fields[0]);
+                    Assert.assertEquals("Check value of key " + k, largeValue(k, valueLength), fields[1]);
+                    k++;
+                }
+            } finally {
+                cursor.close();
+            }
+            Assert.assertEquals("Check number of keys", 10, k);
+            // check again once the tuples are on disk
+            accessor.scheduleFlush(NoOpIOOperationCallbackFactory.INSTANCE.createIoOpCallback());
+        }
+
+        lsmBTree.deactivate();
+        lsmBTree.destroy();
+    }
+
+    private LSMBTreeTestContext createTestContext(ISerializerDeserializer valueSerde) throws Exception {
+        ISerializerDeserializer[] fieldSerdes = { IntegerSerializerDeserializer.INSTANCE, valueSerde };
+        return LSMBTreeTestContext.create(harness.getIOManager(), harness.getVirtualBufferCaches(),
+                harness.getFileReference(), harness.getDiskBufferCache(), fieldSerdes, 1,
+                harness.getBoomFilterFalsePositiveRate(), harness.getMergePolicy(), harness.getOperationTracker(),
+                harness.getIOScheduler(), harness.getIOOperationCallback(), harness.getMetadataPageManagerFactory(),
+                false, true);
+    }
+
+    private static ILSMIndexAccessor createAccessor(LSMBTree lsmBTree) {
+        // the callbacks of the test context never let a search proceed, so a point search would return antimatter
+        return lsmBTree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+    }
+
+    private static void checkScan(ILSMIndexAccessor accessor, TreeMap<Integer, Integer> expected)
+            throws HyracksDataException {
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, null, null));
+        Iterator<Map.Entry<Integer, Integer>> it = expected.entrySet().iterator();
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                Assert.assertTrue("Check number of keys", it.hasNext());
+                Map.Entry<Integer, Integer> entry = it.next();
+                Assert.assertEquals("Check key", entry.getKey().intValue(), getInt(cursor.getTuple(), 0));
+                Assert.assertEquals("Check value of key " + entry.getKey(), entry.getValue().intValue(),
+                        getInt(cursor.getTuple(), 1));
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertFalse("Check number of keys", it.hasNext());
+    }
+
+    private static void checkPointSearches(ILSMIndexAccessor accessor, LSMBTreeTestContext ctx,
+            TreeMap<Integer, Integer> expected) throws HyracksDataException {
+        ArrayTupleBuilder keyBuilder = new ArrayTupleBuilder(1);
+        ArrayTupleReference key = new ArrayTupleReference();
+        TupleUtils.createIntegerTuple(keyBuilder, key, 0);
+        MultiComparator cmp = BTreeUtils.getSearchMultiComparator(ctx.getComparatorFactories(), key);
+        RangePredicate pred = new RangePredicate(key, key, true, true, cmp, cmp);
+        IIndexCursor cursor = accessor.createSearchCursor(false);
+        for (int k = 0; k < NUM_KEYS; k++) {
+            TupleUtils.createIntegerTuple(keyBuilder, key, k);
+            accessor.search(cursor, pred);
+            try {
+                Integer value = expected.get(k);
+                Assert.assertEquals("Check key " + k, value != null, cursor.hasNext());
+                if (value != null) {
+                    cursor.next();
+                    Assert.assertEquals("Check value of key " + k, value.intValue(), getInt(cursor.getTuple(), 1));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
+    private static void assertErrorCode(int errorCode, IndexOperation op) throws Exception {
+        try {
+            op.run();
+            Assert.fail("Expected error " + errorCode);
+        } catch (HyracksDataException e) {
+            Assert.assertEquals(errorCode, e.getErrorCode());
+        }
+    }
+
+    private static int getInt(ITupleReference tuple, int field) {
+        return IntegerPointable.getInteger(tuple.getFieldData(field), tuple.getFieldStart(field));
+    }
+
+    private static String largeValue(int key, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(key);
+        }
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface IndexOperation {
+        void run() throws Exception;
+    }
+}
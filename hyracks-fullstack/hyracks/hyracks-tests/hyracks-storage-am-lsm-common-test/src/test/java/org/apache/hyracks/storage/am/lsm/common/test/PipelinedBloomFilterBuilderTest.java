@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.test;
+
+import java.util.Map;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.utils.TupleUtils;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter.BloomFilterBuilder;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
+import org.apache.hyracks.storage.am.lsm.common.impls.PipelinedBloomFilterBuilder;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelinedBloomFilterBuilderTest {
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 1000;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int NUM_ELEMENTS = 20000;
+    private static final long WORKER_EXIT_TIMEOUT_MS = 10000;
+
+    private IBufferCache bufferCache;
+    private FileReference file;
+    private BloomFilter bloomFilter;
+    private BloomFilterSpecification bloomFilterSpec;
+
+    @Before
+    public void setUp() throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(PAGE_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx.getJobletContext().getServiceContext());
+        file = ctx.getIoManager().getFileReference(0, "pipelined-bloom-filter");
+        bloomFilter = new BloomFilter(bufferCache, file, new int[] { 0 });
+        bloomFilterSpec = BloomCalculations.computeBloomSpec(BloomCalculations.maxBucketsPerElement(NUM_ELEMENTS),
+                0.01);
+        bloomFilter.create();
+        bloomFilter.activate();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bloomFilter.deactivate();
+        bloomFilter.destroy();
+        bufferCache.close();
+        file.delete();
+    }
+
+    @Test
+    public void endContainsAllKeys() throws Exception {
+        PipelinedBloomFilterBuilder builder = createBuilder();
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+        long[] hashes = new long[2];
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            Assert.assertTrue(bloomFilter.contains(tuple, hashes));
+        }
+        assertWorkersExit();
+    }
+
+    @Test
+    public void abortStopsTheWorker() throws Exception {
+        PipelinedBloomFilterBuilder builder = createBuilder();
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        // a flush that fails part way through leaves the worker waiting for the next batch
+        for (int i = 0; i < NUM_ELEMENTS / 2; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            builder.add(tuple);
+        }
+        builder.abort();
+        builder.abort();
+        assertWorkersExit();
+    }
+
+    private PipelinedBloomFilterBuilder createBuilder() throws Exception {
+        return new PipelinedBloomFilterBuilder((BloomFilterBuilder) bloomFilter.createBuilder(NUM_ELEMENTS,
+                bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements()));
+    }
+
+    private static void assertWorkersExit() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WORKER_EXIT_TIMEOUT_MS;
+        while (isWorkerRunning()) {
+            Assert.assertTrue("a bloom filter builder worker is still running",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean isWorkerRunning() {
+        for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+            for (StackTraceElement frame : thread.getValue()) {
+                if (frame.getClassName().equals(PipelinedBloomFilterBuilder.class.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.storage.am.lsm.common.test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
@@ -97,6 +98,30 @@ public class VirtualBufferCacheTest {
         vbc.close();
     }
 
+    /**
+     * Checks that pages reserved for memory kept outside of the cache count against its capacity until they are
+     * released, and that they are dropped when the cache is opened again.
+     */
+    @Test
+    public void test02() throws Exception {
+        vbc = new VirtualBufferCache(new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES);
+        vbc.open();
+        assertFalse(vbc.isFull());
+
+        vbc.reservePages(vbc.getNumPages() - 1);
+        assertFalse(vbc.isFull());
+        vbc.reservePages(1);
+        assertTrue(vbc.isFull());
+        vbc.releasePages(1);
+        assertFalse(vbc.isFull());
+
+        vbc.reservePages(1);
+        vbc.close();
+        vbc.open();
+        assertFalse(vbc.isFull());
+        vbc.close();
+    }
+
     private boolean pagesDisjointed() {
         boolean disjoint = true;
         for (int i = 0; i < NUM_FILES; i++) {